@@ -0,0 +1,256 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Original authors and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Original authors and others - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.nebula.widgets.nattable;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.eclipse.nebula.widgets.nattable.conflation.IEventConflater;
+import org.eclipse.nebula.widgets.nattable.grid.layer.DefaultGridLayer;
+import org.eclipse.nebula.widgets.nattable.layer.ILayer;
+import org.eclipse.nebula.widgets.nattable.layer.event.ILayerEvent;
+import org.eclipse.nebula.widgets.nattable.painter.IOverlayPainter;
+import org.eclipse.nebula.widgets.nattable.test.fixture.NatTableFixture;
+import org.eclipse.nebula.widgets.nattable.viewport.ViewportLayer;
+import org.eclipse.nebula.widgets.nattable.viewport.event.ScrollEvent;
+import org.eclipse.swt.graphics.GC;
+import org.eclipse.swt.graphics.Rectangle;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class NatTableBlitScrollTest {
+
+	private RecordingNatTable natTable;
+	private ViewportLayer viewportLayer;
+	private Rectangle clientArea;
+	private Rectangle bodyArea;
+
+	@Before
+	public void setup() {
+		natTable = new RecordingNatTable();
+		viewportLayer = ((DefaultGridLayer) natTable.getLayer()).getBodyLayer().getViewportLayer();
+
+		clientArea = natTable.getClientArea();
+		int rowHeaderWidth = natTable.getStartXOfColumnPosition(1);
+		int columnHeaderHeight = natTable.getStartYOfRowPosition(1);
+		// leave a strip on the right that doesn't scroll along, like a frozen area
+		bodyArea = new Rectangle(rowHeaderWidth, columnHeaderHeight,
+				clientArea.width - rowHeaderWidth - 50, clientArea.height - columnHeaderHeight);
+
+		natTable.clearRecords();
+	}
+
+	@After
+	public void tearDown() {
+		natTable.dispose();
+	}
+
+	@Test
+	public void verticalScrollMovesPixelsAndRedrawsRowHeader() {
+		natTable.handleLayerEvent(new ScrollEvent(viewportLayer, 0, 20, bodyArea));
+
+		// the content moves up, so the pixels below the first 20 rows are moved to the top
+		assertEquals(1, natTable.scrolled.size());
+		assertEquals(new Scroll(bodyArea.x, bodyArea.y, bodyArea.x, bodyArea.y + 20, bodyArea.width, bodyArea.height - 20),
+				natTable.scrolled.get(0));
+
+		// the row header on the left and the strip on the right scroll along
+		int areaRight = bodyArea.x + bodyArea.width;
+		assertEquals(2, natTable.redrawn.size());
+		assertEquals(new Rectangle(clientArea.x, bodyArea.y, bodyArea.x - clientArea.x, bodyArea.height),
+				natTable.redrawn.get(0));
+		assertEquals(new Rectangle(areaRight, bodyArea.y, clientArea.x + clientArea.width - areaRight, bodyArea.height),
+				natTable.redrawn.get(1));
+
+		assertTrue(natTable.conflatedEvents.isEmpty());
+	}
+
+	@Test
+	public void horizontalScrollMovesPixelsAndRedrawsColumnHeader() {
+		natTable.handleLayerEvent(new ScrollEvent(viewportLayer, -30, 0, bodyArea));
+
+		// the content moves right, so the pixels are moved 30 pixels to the right
+		assertEquals(1, natTable.scrolled.size());
+		assertEquals(new Scroll(bodyArea.x + 30, bodyArea.y, bodyArea.x, bodyArea.y, bodyArea.width - 30, bodyArea.height),
+				natTable.scrolled.get(0));
+
+		// only the column header scrolls along, there is nothing below the body
+		assertEquals(1, natTable.redrawn.size());
+		assertEquals(new Rectangle(bodyArea.x, clientArea.y, bodyArea.width, bodyArea.y - clientArea.y),
+				natTable.redrawn.get(0));
+
+		assertTrue(natTable.conflatedEvents.isEmpty());
+	}
+
+	@Test
+	public void scrollByMoreThanTheAreaRedrawsExposedArea() {
+		natTable.handleLayerEvent(new ScrollEvent(viewportLayer, 0, bodyArea.height, bodyArea));
+
+		// no pixels remain visible, so the whole scrolled area is exposed
+		assertTrue(natTable.scrolled.isEmpty());
+		assertEquals(bodyArea, natTable.redrawn.get(0));
+		assertTrue(natTable.conflatedEvents.isEmpty());
+	}
+
+	@Test
+	public void scrollWithoutScrolledAreaRedrawsFullTable() {
+		natTable.handleLayerEvent(new ScrollEvent(viewportLayer));
+
+		assertFullRedraw();
+	}
+
+	@Test
+	public void scrollOutsideClientAreaRedrawsFullTable() {
+		natTable.handleLayerEvent(new ScrollEvent(viewportLayer, 0, 20,
+				new Rectangle(clientArea.x + clientArea.width, clientArea.y, 100, 100)));
+
+		assertFullRedraw();
+	}
+
+	@Test
+	public void scrollWithOverlayPainterRedrawsFullTable() {
+		natTable.addOverlayPainter(new IOverlayPainter() {
+			@Override
+			public void paintOverlay(GC gc, ILayer layer) {}
+		});
+
+		natTable.handleLayerEvent(new ScrollEvent(viewportLayer, 0, 20, bodyArea));
+
+		assertFullRedraw();
+	}
+
+	@Test
+	public void scrollOffDisplayThreadRedrawsFullTable() throws Exception {
+		Thread thread = new Thread() {
+			@Override
+			public void run() {
+				natTable.handleLayerEvent(new ScrollEvent(viewportLayer, 0, 20, bodyArea));
+			}
+		};
+		thread.start();
+		thread.join();
+
+		assertFullRedraw();
+	}
+
+	private void assertFullRedraw() {
+		assertTrue(natTable.scrolled.isEmpty());
+		assertTrue(natTable.redrawn.isEmpty());
+		assertEquals(1, natTable.conflatedEvents.size());
+		assertTrue(natTable.conflatedEvents.get(0) instanceof ScrollEvent);
+	}
+
+
+	/**
+	 * NatTable that records the partial scroll and redraw requests and the events that
+	 * are passed to the conflater for a full redraw.
+	 */
+	private static class RecordingNatTable extends NatTableFixture {
+
+		// assigned while the super constructor runs, so they must not have initializers
+		List<Scroll> scrolled;
+		List<Rectangle> redrawn;
+		List<ILayerEvent> conflatedEvents;
+
+		@Override
+		protected IEventConflater getVisualChangeEventConflater() {
+			this.scrolled = Collections.synchronizedList(new ArrayList<Scroll>());
+			this.redrawn = Collections.synchronizedList(new ArrayList<Rectangle>());
+			this.conflatedEvents = Collections.synchronizedList(new ArrayList<ILayerEvent>());
+			return new IEventConflater() {
+				@Override
+				public void addEvent(ILayerEvent event) {
+					conflatedEvents.add(event);
+				}
+
+				@Override
+				public void clearQueue() {}
+
+				@Override
+				public int getCount() {
+					return conflatedEvents.size();
+				}
+
+				@Override
+				public Runnable getConflaterTask() {
+					return new Runnable() {
+						@Override
+						public void run() {}
+					};
+				}
+			};
+		}
+
+		@Override
+		public void scroll(int destX, int destY, int x, int y, int width, int height, boolean all) {
+			if (this.scrolled != null) {
+				this.scrolled.add(new Scroll(destX, destY, x, y, width, height));
+			}
+			super.scroll(destX, destY, x, y, width, height, all);
+		}
+
+		@Override
+		public void redraw(int x, int y, int width, int height, boolean all) {
+			if (this.redrawn != null) {
+				this.redrawn.add(new Rectangle(x, y, width, height));
+			}
+			super.redraw(x, y, width, height, all);
+		}
+
+		void clearRecords() {
+			this.scrolled.clear();
+			this.redrawn.clear();
+			this.conflatedEvents.clear();
+		}
+	}
+
+	private static class Scroll {
+
+		final int destX, destY, x, y, width, height;
+
+		Scroll(int destX, int destY, int x, int y, int width, int height) {
+			this.destX = destX;
+			this.destY = destY;
+			this.x = x;
+			this.y = y;
+			this.width = width;
+			this.height = height;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof Scroll)) {
+				return false;
+			}
+			Scroll other = (Scroll) obj;
+			return this.destX == other.destX && this.destY == other.destY
+					&& this.x == other.x && this.y == other.y
+					&& this.width == other.width && this.height == other.height;
+		}
+
+		@Override
+		public int hashCode() {
+			return this.destX ^ this.destY ^ this.x ^ this.y ^ this.width ^ this.height;
+		}
+
+		@Override
+		public String toString() {
+			return "scroll(" + this.destX + ", " + this.destY + ", " + this.x + ", " + this.y
+					+ ", " + this.width + ", " + this.height + ")";
+		}
+	}
+
+}
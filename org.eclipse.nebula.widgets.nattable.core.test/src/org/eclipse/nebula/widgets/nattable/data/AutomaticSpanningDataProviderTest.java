@@ -0,0 +1,215 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Original authors and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Original authors and others - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.data;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.eclipse.nebula.widgets.nattable.coordinate.Range;
+import org.eclipse.nebula.widgets.nattable.layer.DataLayer;
+import org.eclipse.nebula.widgets.nattable.layer.cell.DataCell;
+import org.eclipse.nebula.widgets.nattable.layer.event.RowDeleteEvent;
+import org.eclipse.nebula.widgets.nattable.layer.event.RowInsertEvent;
+import org.eclipse.nebula.widgets.nattable.layer.event.StructuralRefreshEvent;
+import org.eclipse.nebula.widgets.nattable.viewport.ViewportLayer;
+import org.eclipse.nebula.widgets.nattable.viewport.event.ScrollEvent;
+import org.junit.Before;
+import org.junit.Test;
+
+public class AutomaticSpanningDataProviderTest {
+
+	private static final int COLUMN_COUNT = 3;
+	private static final int ROW_COUNT = 200;
+
+	private Object[][] data;
+	private int rowCount;
+	private int reads;
+	private AutomaticSpanningDataProvider indexedProvider;
+	private AutomaticSpanningDataProvider plainProvider;
+
+	@Before
+	public void setup() {
+		rowCount = ROW_COUNT;
+		data = new Object[COLUMN_COUNT][ROW_COUNT];
+		Random random = new Random(42);
+		for (int column = 0; column < COLUMN_COUNT; column++) {
+			for (int row = 0; row < ROW_COUNT; row++) {
+				// few distinct values, so there are runs of different lengths
+				int value = random.nextInt(3);
+				data[column][row] = (value == 0) ? null : "Value" + value;
+			}
+		}
+
+		indexedProvider = new AutomaticSpanningDataProvider(new ArrayDataProvider(), false, true);
+		indexedProvider.setSpanIndexEnabled(true);
+		plainProvider = new AutomaticSpanningDataProvider(new ArrayDataProvider(), false, true);
+	}
+
+	@Test
+	public void spanIndexShouldReturnSameCellsAsWalking() {
+		assertSameCells();
+	}
+
+	@Test
+	public void spanIndexShouldRespectAutoSpanRows() {
+		indexedProvider.addAutoSpanningRowPositions(10, 11, 12, 13, 50, 51);
+		plainProvider.addAutoSpanningRowPositions(10, 11, 12, 13, 50, 51);
+
+		assertSameCells();
+	}
+
+	@Test
+	public void spanIndexShouldBeUpdatedOnDataChange() {
+		assertSameCells();
+
+		for (int row = 20; row < 40; row++) {
+			indexedProvider.setDataValue(1, row, "Run");
+		}
+		assertEquals(new DataCell(1, 20, 1, 20), indexedProvider.getCellByPosition(1, 30));
+
+		indexedProvider.setDataValue(1, 30, "Split");
+		assertEquals(new DataCell(1, 20, 1, 10), indexedProvider.getCellByPosition(1, 25));
+		assertEquals(new DataCell(1, 30, 1, 1), indexedProvider.getCellByPosition(1, 30));
+		assertEquals(new DataCell(1, 31, 1, 9), indexedProvider.getCellByPosition(1, 35));
+
+		assertSameCells();
+	}
+
+	@Test
+	public void clearedSpanIndexShouldReflectExternalChanges() {
+		assertSameCells();
+
+		for (int row = 0; row < ROW_COUNT; row++) {
+			data[0][row] = "Same";
+		}
+		indexedProvider.clearSpanIndex();
+
+		assertEquals(new DataCell(0, 0, 1, ROW_COUNT), indexedProvider.getCellByPosition(0, 100));
+		assertSameCells();
+	}
+
+	@Test
+	public void scrollingShouldKeepSpanIndex() {
+		DataLayer dataLayer = new DataLayer(indexedProvider);
+		assertSameCells();
+
+		reads = 0;
+		indexedProvider.handleLayerEvent(new ScrollEvent(new ViewportLayer(dataLayer)));
+		indexedProvider.getCellByPosition(0, 100);
+
+		assertTrue("span index was built again", reads < ROW_COUNT);
+	}
+
+	@Test
+	public void structuralRefreshShouldClearSpanIndex() {
+		DataLayer dataLayer = new DataLayer(indexedProvider);
+		assertSameCells();
+
+		for (int row = 0; row < ROW_COUNT; row++) {
+			data[0][row] = "Same";
+		}
+		indexedProvider.handleLayerEvent(new StructuralRefreshEvent(dataLayer));
+
+		assertEquals(new DataCell(0, 0, 1, ROW_COUNT), indexedProvider.getCellByPosition(0, 100));
+		assertSameCells();
+	}
+
+	@Test
+	public void spanIndexShouldBeUpdatedOnRowInsert() {
+		DataLayer dataLayer = new DataLayer(indexedProvider);
+		assertSameCells();
+
+		reads = 0;
+		insertRows(50, "Value1", "Value1", "Value2");
+		insertRows(0, "Value2");
+		insertRows(rowCount, "Value1", "Value1");
+		// the ranges are described by the positions after the insertion
+		indexedProvider.handleLayerEvent(new RowInsertEvent(dataLayer,
+				new Range(0, 1), new Range(51, 54), new Range(rowCount - 2, rowCount)));
+
+		assertTrue("span index was built again", reads < ROW_COUNT);
+		assertSameCells();
+	}
+
+	@Test
+	public void spanIndexShouldBeUpdatedOnRowDelete() {
+		DataLayer dataLayer = new DataLayer(indexedProvider);
+		assertSameCells();
+
+		reads = 0;
+		deleteRows(120, 130);
+		deleteRows(0, 2);
+		deleteRows(40, 41);
+		// the ranges are described by the positions before the deletion
+		indexedProvider.handleLayerEvent(new RowDeleteEvent(dataLayer,
+				new Range(0, 2), new Range(42, 43), new Range(120, 130)));
+
+		assertTrue("span index was built again", reads < ROW_COUNT);
+		assertSameCells();
+	}
+
+	private void insertRows(int position, Object... values) {
+		for (int column = 0; column < COLUMN_COUNT; column++) {
+			Object[] columnData = new Object[rowCount + values.length];
+			System.arraycopy(data[column], 0, columnData, 0, position);
+			System.arraycopy(values, 0, columnData, position, values.length);
+			System.arraycopy(data[column], position, columnData, position + values.length, rowCount - position);
+			data[column] = columnData;
+		}
+		rowCount += values.length;
+	}
+
+	private void deleteRows(int from, int to) {
+		for (int column = 0; column < COLUMN_COUNT; column++) {
+			Object[] columnData = new Object[rowCount - (to - from)];
+			System.arraycopy(data[column], 0, columnData, 0, from);
+			System.arraycopy(data[column], to, columnData, from, rowCount - to);
+			data[column] = columnData;
+		}
+		rowCount -= to - from;
+	}
+
+	private void assertSameCells() {
+		for (int column = 0; column < COLUMN_COUNT; column++) {
+			for (int row = 0; row < rowCount; row++) {
+				assertEquals("cell " + column + "/" + row,
+						plainProvider.getCellByPosition(column, row),
+						indexedProvider.getCellByPosition(column, row));
+			}
+		}
+	}
+
+	private class ArrayDataProvider implements IDataProvider {
+
+		@Override
+		public Object getDataValue(int columnIndex, int rowIndex) {
+			reads++;
+			return data[columnIndex][rowIndex];
+		}
+
+		@Override
+		public void setDataValue(int columnIndex, int rowIndex, Object newValue) {
+			data[columnIndex][rowIndex] = newValue;
+		}
+
+		@Override
+		public int getColumnCount() {
+			return COLUMN_COUNT;
+		}
+
+		@Override
+		public int getRowCount() {
+			return rowCount;
+		}
+	}
+}
@@ -0,0 +1,159 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Original authors and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Original authors and others - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.edit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.jface.window.Window;
+import org.eclipse.nebula.widgets.nattable.command.AbstractLayerCommandHandler;
+import org.eclipse.nebula.widgets.nattable.edit.command.UpdateDataCommand;
+import org.eclipse.nebula.widgets.nattable.edit.command.UpdateDataCommandHandler;
+import org.eclipse.nebula.widgets.nattable.edit.gui.ICellEditDialog;
+import org.eclipse.nebula.widgets.nattable.hideshow.ColumnHideShowLayer;
+import org.eclipse.nebula.widgets.nattable.layer.cell.ILayerCell;
+import org.eclipse.nebula.widgets.nattable.layer.event.CellVisualChangeEvent;
+import org.eclipse.nebula.widgets.nattable.layer.event.MultiCellVisualChangeEvent;
+import org.eclipse.nebula.widgets.nattable.test.fixture.layer.DataLayerFixture;
+import org.eclipse.nebula.widgets.nattable.test.fixture.layer.LayerListenerFixture;
+import org.junit.Before;
+import org.junit.Test;
+
+public class EditControllerTest {
+
+	private DataLayerFixture dataLayer;
+	private LayerListenerFixture listener;
+	private List<ILayerCell> cells;
+
+	@Before
+	public void setup() {
+		dataLayer = new DataLayerFixture();
+		listener = new LayerListenerFixture();
+		dataLayer.addLayerListener(listener);
+
+		cells = new ArrayList<ILayerCell>();
+		cells.add(dataLayer.getCellByPosition(1, 1));
+		cells.add(dataLayer.getCellByPosition(1, 2));
+		cells.add(dataLayer.getCellByPosition(1, 4));
+	}
+
+	@Test
+	public void shouldUpdateAllCellsWithOneEvent() {
+		EditController.updateCells(cells, new DialogFixture(EditTypeEnum.SET, "New"));
+
+		assertEquals("New", dataLayer.getDataValueByPosition(1, 1));
+		assertEquals("New", dataLayer.getDataValueByPosition(1, 2));
+		assertEquals("[1, 3]", dataLayer.getDataValueByPosition(1, 3));
+		assertEquals("New", dataLayer.getDataValueByPosition(1, 4));
+
+		assertEquals(1, listener.getEventsCount());
+		assertTrue(listener.getReceivedEvents().get(0) instanceof MultiCellVisualChangeEvent);
+		assertEquals(3, ((MultiCellVisualChangeEvent) listener.getReceivedEvents().get(0)).getCellCount());
+	}
+
+	@Test
+	public void shouldCalculateValuePerCell() {
+		EditController.updateCells(cells, new DialogFixture(EditTypeEnum.INCREASE, "+"));
+
+		assertEquals("[1, 1]+", dataLayer.getDataValueByPosition(1, 1));
+		assertEquals("[1, 2]+", dataLayer.getDataValueByPosition(1, 2));
+		assertEquals("[1, 4]+", dataLayer.getDataValueByPosition(1, 4));
+	}
+
+	@Test
+	public void shouldUpdateViaCustomUpdateDataCommandHandler() {
+		final List<UpdateDataCommand> handledCommands = new ArrayList<UpdateDataCommand>();
+		dataLayer.registerCommandHandler(new UpdateDataCommandHandler(dataLayer) {
+			@Override
+			protected boolean doCommand(UpdateDataCommand command) {
+				handledCommands.add(command);
+				return super.doCommand(command);
+			}
+		});
+
+		EditController.updateCells(cells, new DialogFixture(EditTypeEnum.SET, "New"));
+
+		assertEquals(3, handledCommands.size());
+		assertEquals(4, handledCommands.get(2).getRowPosition());
+		assertEquals("New", dataLayer.getDataValueByPosition(1, 4));
+	}
+
+	@Test
+	public void shouldUpdateViaUpdateDataCommandHandlerAboveDataLayer() {
+		ColumnHideShowLayer hideShowLayer = new ColumnHideShowLayer(dataLayer);
+		final List<UpdateDataCommand> handledCommands = new ArrayList<UpdateDataCommand>();
+		hideShowLayer.registerCommandHandler(new AbstractLayerCommandHandler<UpdateDataCommand>() {
+			@Override
+			protected boolean doCommand(UpdateDataCommand command) {
+				handledCommands.add(command);
+				// pass the command on to the DataLayer
+				return false;
+			}
+
+			@Override
+			public Class<UpdateDataCommand> getCommandClass() {
+				return UpdateDataCommand.class;
+			}
+		});
+
+		cells.clear();
+		cells.add(hideShowLayer.getCellByPosition(1, 1));
+		cells.add(hideShowLayer.getCellByPosition(1, 2));
+		EditController.updateCells(cells, new DialogFixture(EditTypeEnum.SET, "New"));
+
+		assertEquals(2, handledCommands.size());
+		assertEquals("New", dataLayer.getDataValueByPosition(1, 1));
+		assertEquals("New", dataLayer.getDataValueByPosition(1, 2));
+		assertTrue(listener.getReceivedEvents().get(0) instanceof CellVisualChangeEvent);
+	}
+
+	/**
+	 * Dialog that was closed with OK and appends the committed value to the current value
+	 * for edit types other than SET.
+	 */
+	private static class DialogFixture implements ICellEditDialog {
+
+		private final EditTypeEnum editType;
+		private final Object committedValue;
+
+		DialogFixture(EditTypeEnum editType, Object committedValue) {
+			this.editType = editType;
+			this.committedValue = committedValue;
+		}
+
+		@Override
+		public Object getCommittedValue() {
+			return this.committedValue;
+		}
+
+		@Override
+		public EditTypeEnum getEditType() {
+			return this.editType;
+		}
+
+		@Override
+		public Object calculateValue(Object currentValue, Object processValue) {
+			return String.valueOf(currentValue) + processValue;
+		}
+
+		@Override
+		public int open() {
+			return Window.OK;
+		}
+
+		@Override
+		public void setDialogSettings(Map<String, Object> editDialogSettings) {}
+	}
+}
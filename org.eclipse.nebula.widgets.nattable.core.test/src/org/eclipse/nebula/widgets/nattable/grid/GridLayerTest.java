@@ -12,6 +12,7 @@ package org.eclipse.nebula.widgets.nattable.grid;
 
 
 import org.eclipse.nebula.widgets.nattable.command.AbstractLayerCommandHandler;
+import org.eclipse.nebula.widgets.nattable.command.CommandDispatchStatistics;
 import org.eclipse.nebula.widgets.nattable.command.ILayerCommand;
 import org.eclipse.nebula.widgets.nattable.grid.layer.DefaultGridLayer;
 import org.eclipse.nebula.widgets.nattable.grid.layer.GridLayer;
@@ -100,6 +101,54 @@ public class GridLayerTest {
 		Assert.assertTrue(cornerCommandHandler.isCommandCaught());
 	}
 	
+	@Test
+	public void doCommandRoutesToHandlingLayer() throws Exception {
+		DummyCommandHandler bodyCommandHandler = new DummyCommandHandler(false);
+		DummyCommandHandler cornerCommandHandler = new DummyCommandHandler(true);
+		
+		bodyDataLayer.registerCommandHandler(bodyCommandHandler);
+		cornerDataLayer.registerCommandHandler(cornerCommandHandler);
+		gridLayerUnderTest.setCommandRoutingEnabled(true);
+		
+		gridLayerUnderTest.doCommand(new LayerCommandFixture());
+		
+		try {
+			CommandDispatchStatistics.setEnabled(true);
+			gridLayerUnderTest.doCommand(new LayerCommandFixture());
+			
+			//the second command is passed to the corner without asking the body
+			Assert.assertEquals(1, CommandDispatchStatistics.getRouteHitCount());
+			Assert.assertEquals(0, CommandDispatchStatistics.getRouteMissCount());
+		} finally {
+			CommandDispatchStatistics.setEnabled(false);
+			CommandDispatchStatistics.reset();
+		}
+	}
+	
+	@Test
+	public void doCommandKeepsBodyPrecedenceAfterHeaderHandledCommand() throws Exception {
+		final boolean[] bodyAccepts = new boolean[] { false };
+		DummyCommandHandler bodyCommandHandler = new DummyCommandHandler(true) {
+			@Override
+			public boolean doCommand(LayerCommandFixture command) {
+				return bodyAccepts[0] && super.doCommand(command);
+			}
+		};
+		DummyCommandHandler columnHeaderCommandHandler = new DummyCommandHandler(true);
+		
+		bodyDataLayer.registerCommandHandler(bodyCommandHandler);
+		columnHeaderDataLayer.registerCommandHandler(columnHeaderCommandHandler);
+		
+		gridLayerUnderTest.doCommand(new LayerCommandFixture());
+		Assert.assertTrue(columnHeaderCommandHandler.isCommandCaught());
+		Assert.assertFalse(bodyCommandHandler.isCommandCaught());
+		
+		// the body is asked first again once it accepts the command
+		bodyAccepts[0] = true;
+		gridLayerUnderTest.doCommand(new LayerCommandFixture());
+		Assert.assertTrue(bodyCommandHandler.isCommandCaught());
+	}
+	
 	// **** New tests using fixtures ****
 	
 	/**
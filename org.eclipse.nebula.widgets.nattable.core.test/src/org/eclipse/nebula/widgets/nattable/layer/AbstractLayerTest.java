@@ -16,11 +16,18 @@ import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertSame;
 
+import java.util.ArrayList;
 import java.util.List;
 
 
 import org.eclipse.nebula.widgets.nattable.layer.event.ILayerEvent;
+import org.eclipse.nebula.widgets.nattable.layer.event.ILayerEventHandler;
+import org.eclipse.nebula.widgets.nattable.layer.event.IStructuralChangeEvent;
+import org.eclipse.nebula.widgets.nattable.layer.event.RowStructuralRefreshEvent;
+import org.eclipse.nebula.widgets.nattable.layer.event.RowUpdateEvent;
+import org.eclipse.nebula.widgets.nattable.layer.event.StructuralRefreshEvent;
 import org.eclipse.nebula.widgets.nattable.resize.event.ColumnResizeEvent;
+import org.eclipse.nebula.widgets.nattable.search.event.SearchEvent;
 import org.eclipse.nebula.widgets.nattable.test.fixture.PersistableFixture;
 import org.eclipse.nebula.widgets.nattable.test.fixture.PropertiesFixture;
 import org.eclipse.nebula.widgets.nattable.test.fixture.command.CommandHandlerFixture;
@@ -74,6 +81,71 @@ public class AbstractLayerTest {
 		assertSame(event, receivedEvents.get(0));
 	}
 	
+	@Test
+	public void testFireOriginalContextFreeEventToAllListeners() {
+		LayerListenerFixture secondListener = new LayerListenerFixture();
+		dataLayer.addLayerListener(secondListener);
+		
+		ILayerEvent event = new SearchEvent(null);
+		dataLayer.fireLayerEvent(event);
+		
+		assertSame(event, firstListener.getReceivedEvents().get(0));
+		assertSame(event, secondListener.getReceivedEvents().get(0));
+	}
+	
+	@Test
+	public void testFireCopyOnConvertEventClonedToLayersOnly() {
+		LayerListenerFixture secondListener = new LayerListenerFixture();
+		dataLayer.addLayerListener(secondListener);
+		final List<ILayerEvent> layerEvents = new ArrayList<ILayerEvent>();
+		dataLayer.addLayerListener(new DataLayerFixture() {
+			@Override
+			public void handleLayerEvent(ILayerEvent event) {
+				layerEvents.add(event);
+				super.handleLayerEvent(event);
+			}
+		});
+		
+		RowUpdateEvent event = new RowUpdateEvent(dataLayer, 2);
+		dataLayer.fireLayerEvent(event);
+		
+		assertSame(event, firstListener.getReceivedEvents().get(0));
+		assertSame(event, secondListener.getReceivedEvents().get(0));
+		
+		// the listening layer converts its own copy, even though it is the last listener
+		assertEquals(1, layerEvents.size());
+		assertNotSame(event, layerEvents.get(0));
+		assertSame(dataLayer, event.getLayer());
+	}
+	
+	@Test
+	public void eventHandlersAreResolvedBySuperType() {
+		final List<ILayerEvent> handledEvents = new ArrayList<ILayerEvent>();
+		dataLayer.registerEventHandler(new ILayerEventHandler<IStructuralChangeEvent>() {
+			public void handleLayerEvent(IStructuralChangeEvent event) {
+				handledEvents.add(event);
+			}
+			public Class<IStructuralChangeEvent> getLayerEventClass() {
+				return IStructuralChangeEvent.class;
+			}
+		});
+		
+		dataLayer.handleLayerEvent(new StructuralRefreshEvent(dataLayer));
+		dataLayer.handleLayerEvent(new RowStructuralRefreshEvent(dataLayer));
+		dataLayer.handleLayerEvent(new SearchEvent(null));
+		assertEquals(2, handledEvents.size());
+		
+		dataLayer.unregisterEventHandler(new ILayerEventHandler<IStructuralChangeEvent>() {
+			public void handleLayerEvent(IStructuralChangeEvent event) {
+			}
+			public Class<IStructuralChangeEvent> getLayerEventClass() {
+				return IStructuralChangeEvent.class;
+			}
+		});
+		dataLayer.handleLayerEvent(new StructuralRefreshEvent(dataLayer));
+		assertEquals(2, handledEvents.size());
+	}
+	
 	@Test
 	public void persistablesAreSaved() throws Exception {
 		PersistableFixture persistable = new PersistableFixture();
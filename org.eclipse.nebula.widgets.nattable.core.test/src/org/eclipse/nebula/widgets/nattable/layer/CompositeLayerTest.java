@@ -12,6 +12,7 @@ package org.eclipse.nebula.widgets.nattable.layer;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
@@ -20,15 +21,22 @@ import java.util.Collection;
 import java.util.Iterator;
 import java.util.List;
 
+import org.eclipse.nebula.widgets.nattable.command.CommandDispatchStatistics;
 import org.eclipse.nebula.widgets.nattable.grid.GridRegion;
 import org.eclipse.nebula.widgets.nattable.layer.cell.ILayerCell;
+import org.eclipse.nebula.widgets.nattable.layer.event.StructuralRefreshEvent;
+import org.eclipse.nebula.widgets.nattable.resize.event.ColumnResizeEvent;
 import org.eclipse.nebula.widgets.nattable.style.DisplayMode;
+import org.eclipse.nebula.widgets.nattable.test.fixture.command.CommandHandlerFixture;
+import org.eclipse.nebula.widgets.nattable.test.fixture.command.LayerCommandFixture;
 import org.eclipse.nebula.widgets.nattable.test.fixture.layer.CompositeLayerFixture;
 import org.eclipse.nebula.widgets.nattable.test.fixture.layer.DataLayerFixture;
 import org.eclipse.nebula.widgets.nattable.test.fixture.layer.ViewportLayerFixture;
 import org.eclipse.nebula.widgets.nattable.util.IClientAreaProvider;
+import org.eclipse.nebula.widgets.nattable.viewport.event.ScrollEvent;
 import org.eclipse.swt.graphics.Point;
 import org.eclipse.swt.graphics.Rectangle;
+import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 
@@ -49,6 +57,75 @@ public class CompositeLayerTest {
 		});
 	}
 
+	@After
+	public void tearDown() {
+		CommandDispatchStatistics.setEnabled(false);
+		CommandDispatchStatistics.reset();
+	}
+
+	@Test
+	public void commandShouldBeRoutedToHandlingChildLayer() {
+		layerFixture.setCommandRoutingEnabled(true);
+		CommandHandlerFixture commandHandler = new CommandHandlerFixture();
+		layerFixture.rowHeaderLayer.registerCommandHandler(commandHandler);
+		CommandDispatchStatistics.setEnabled(true);
+
+		assertTrue(layerFixture.doCommand(new LayerCommandFixture()));
+		assertEquals(layerFixture.rowHeaderLayer, commandHandler.getLastCommandHandled().getTargetLayer());
+
+		CommandDispatchStatistics.reset();
+		assertTrue(layerFixture.doCommand(new LayerCommandFixture()));
+
+		//the composite layer and the row header layer only
+		assertEquals(2, CommandDispatchStatistics.getHopCount());
+		assertEquals(1, CommandDispatchStatistics.getRouteHitCount());
+		assertEquals(0, CommandDispatchStatistics.getRouteMissCount());
+	}
+
+	@Test
+	public void staleCommandRouteShouldFallBackToAllChildLayers() {
+		layerFixture.setCommandRoutingEnabled(true);
+		CommandHandlerFixture rowHeaderHandler = new CommandHandlerFixture();
+		layerFixture.rowHeaderLayer.registerCommandHandler(rowHeaderHandler);
+		assertTrue(layerFixture.doCommand(new LayerCommandFixture()));
+
+		CommandHandlerFixture colHeaderHandler = new CommandHandlerFixture();
+		layerFixture.rowHeaderLayer.unregisterCommandHandler(LayerCommandFixture.class);
+		layerFixture.colHeaderLayer.registerCommandHandler(colHeaderHandler);
+
+		assertTrue(layerFixture.doCommand(new LayerCommandFixture()));
+		assertNotNull(colHeaderHandler.getLastCommandHandled());
+	}
+
+	@Test
+	public void commandRoutesShouldSurviveScrollingAndResizing() {
+		layerFixture.setCommandRoutingEnabled(true);
+		layerFixture.rowHeaderLayer.registerCommandHandler(new CommandHandlerFixture());
+		assertTrue(layerFixture.doCommand(new LayerCommandFixture()));
+
+		layerFixture.handleLayerEvent(new ScrollEvent(layerFixture.bodyLayer));
+		layerFixture.handleLayerEvent(new ColumnResizeEvent(layerFixture.bodyLayer, 0));
+
+		CommandDispatchStatistics.setEnabled(true);
+		assertTrue(layerFixture.doCommand(new LayerCommandFixture()));
+		assertEquals(1, CommandDispatchStatistics.getRouteHitCount());
+		assertEquals(0, CommandDispatchStatistics.getRouteMissCount());
+	}
+
+	@Test
+	public void commandRoutesShouldBeClearedOnStructuralRefresh() {
+		layerFixture.setCommandRoutingEnabled(true);
+		layerFixture.rowHeaderLayer.registerCommandHandler(new CommandHandlerFixture());
+		assertTrue(layerFixture.doCommand(new LayerCommandFixture()));
+
+		layerFixture.handleLayerEvent(new StructuralRefreshEvent(layerFixture.bodyLayer));
+
+		CommandDispatchStatistics.setEnabled(true);
+		assertTrue(layerFixture.doCommand(new LayerCommandFixture()));
+		assertEquals(0, CommandDispatchStatistics.getRouteHitCount());
+		assertEquals(1, CommandDispatchStatistics.getRouteMissCount());
+	}
+
 	@Test
 	public void testingChildLayerInfoForCornerByLayout() {
 		ILayer childLayer = layerFixture.getChildLayerByLayoutCoordinate(0,0);
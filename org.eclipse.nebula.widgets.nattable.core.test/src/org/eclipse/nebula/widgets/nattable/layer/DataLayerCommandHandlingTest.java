@@ -11,8 +11,14 @@
 package org.eclipse.nebula.widgets.nattable.layer;
 
 
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.nebula.widgets.nattable.edit.command.MultiUpdateDataCommand;
 import org.eclipse.nebula.widgets.nattable.edit.command.UpdateDataCommand;
+import org.eclipse.nebula.widgets.nattable.edit.command.UpdateDataCommandHandler;
 import org.eclipse.nebula.widgets.nattable.layer.event.CellVisualChangeEvent;
+import org.eclipse.nebula.widgets.nattable.layer.event.MultiCellVisualChangeEvent;
 import org.eclipse.nebula.widgets.nattable.test.fixture.layer.DataLayerFixture;
 import org.eclipse.nebula.widgets.nattable.test.fixture.layer.LayerListenerFixture;
 import org.junit.Assert;
@@ -59,4 +65,53 @@ public class DataLayerCommandHandlingTest {
 		dataLayer.doCommand(command);
 		Assert.assertTrue(listener.getReceivedEvents().size() == 1);
 	}	
+
+	@Test
+	public void handleMultiUpdateDataCommand() throws Exception {
+		dataLayer.doCommand(new MultiUpdateDataCommand(dataLayer,
+				new int[] { 1, 2, 3 }, new int[] { 1, 2, 3 }, new Object[] { "A", "B", "C" }));
+		Assert.assertEquals("A", dataLayer.getDataProvider().getDataValue(1, 1));
+		Assert.assertEquals("B", dataLayer.getDataProvider().getDataValue(2, 2));
+		Assert.assertEquals("C", dataLayer.getDataProvider().getDataValue(3, 3));
+	}
+
+	@Test
+	public void handleMultiUpdateDataCommandRaisesOneEventForChangedCells() throws Exception {
+		dataLayer.doCommand(command);
+
+		LayerListenerFixture listener = new LayerListenerFixture();
+		dataLayer.addLayerListener(listener);
+		dataLayer.doCommand(new MultiUpdateDataCommand(dataLayer,
+				new int[] { 1, 2, 3 }, new int[] { 1, 2, 3 }, new Object[] { "A", TEST_VALUE, "C" }));
+
+		Assert.assertEquals(1, listener.getReceivedEvents().size());
+		Assert.assertTrue(listener.getReceivedEvents().get(0) instanceof MultiCellVisualChangeEvent);
+
+		//the cell that already contained the value is not part of the event
+		MultiCellVisualChangeEvent event = (MultiCellVisualChangeEvent) listener.getReceivedEvents().get(0);
+		Assert.assertEquals(2, event.getCellCount());
+		Assert.assertEquals(1, event.getColumnPosition(0));
+		Assert.assertEquals(3, event.getColumnPosition(1));
+	}
+
+	@Test
+	public void handleMultiUpdateDataCommandViaCustomUpdateDataCommandHandler() throws Exception {
+		final List<String> handledValues = new ArrayList<String>();
+		dataLayer.registerCommandHandler(new UpdateDataCommandHandler(dataLayer) {
+			@Override
+			protected boolean doCommand(UpdateDataCommand command) {
+				handledValues.add((String) command.getNewValue());
+				return super.doCommand(command);
+			}
+		});
+
+		dataLayer.doCommand(new MultiUpdateDataCommand(dataLayer,
+				new int[] { 1, 2, 3 }, new int[] { 1, 2, 3 }, new Object[] { "A", "B", "C" }));
+
+		//the custom handler is not bypassed by the batch update
+		Assert.assertEquals(3, handledValues.size());
+		Assert.assertEquals("A", handledValues.get(0));
+		Assert.assertEquals("C", handledValues.get(2));
+		Assert.assertEquals("B", dataLayer.getDataProvider().getDataValue(2, 2));
+	}
 }
@@ -0,0 +1,141 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Original authors and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Original authors and others - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.metrics;
+
+import java.lang.management.ManagementFactory;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.openmbean.TabularData;
+
+import org.eclipse.nebula.widgets.nattable.hideshow.ColumnHideShowLayer;
+import org.eclipse.nebula.widgets.nattable.layer.DataLayer;
+import org.eclipse.nebula.widgets.nattable.layer.event.VisualRefreshEvent;
+import org.eclipse.nebula.widgets.nattable.test.fixture.layer.DataLayerFixture;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class MetricsRegistryTest {
+
+	private MetricsRegistry metrics = MetricsRegistry.getInstance();
+
+	@Before
+	public void setUp() {
+		metrics.reset();
+		metrics.setSamplingInterval(1);
+	}
+
+	@After
+	public void tearDown() {
+		metrics.setEnabled(false);
+		metrics.setSamplingInterval(10);
+		metrics.reset();
+		metrics.unregisterMBean();
+	}
+
+	@Test
+	public void shouldNotCountWhileDisabled() {
+		metrics.increment("test"); //$NON-NLS-1$
+		MetricsTimer timer = metrics.getTimer("test"); //$NON-NLS-1$
+		timer.stop(timer.start());
+		metrics.frame(1000000L, 10);
+
+		Assert.assertEquals(0, metrics.getCounter("test")); //$NON-NLS-1$
+		Assert.assertEquals(0, timer.getInvocationCount());
+		Assert.assertEquals(0, metrics.getLastFrameCellCount());
+		Assert.assertEquals(0, metrics.getFramesPerSecond(), 0);
+	}
+
+	@Test
+	public void shouldCountWhileEnabled() {
+		metrics.setEnabled(true);
+		metrics.increment("test"); //$NON-NLS-1$
+		metrics.add("test", 5); //$NON-NLS-1$
+
+		Assert.assertEquals(6, metrics.getCounter("test")); //$NON-NLS-1$
+		Assert.assertEquals(Long.valueOf(6), metrics.getCounters().get("test")); //$NON-NLS-1$
+
+		metrics.reset();
+		Assert.assertEquals(0, metrics.getCounter("test")); //$NON-NLS-1$
+	}
+
+	@Test
+	public void shouldSampleTimers() {
+		metrics.setEnabled(true);
+		metrics.setSamplingInterval(4);
+		MetricsTimer timer = metrics.getTimer("test"); //$NON-NLS-1$
+		for (int i = 0; i < 10; i++) {
+			timer.stop(timer.start());
+		}
+
+		Assert.assertEquals(10, timer.getInvocationCount());
+		Assert.assertEquals(3, timer.getSampleCount());
+		Assert.assertSame(timer, metrics.getTimers().get("test")); //$NON-NLS-1$
+	}
+
+	@Test
+	public void shouldRecordFrames() {
+		metrics.setEnabled(true);
+		metrics.frame(2000000L, 10);
+		metrics.frame(4000000L, 20);
+
+		Assert.assertEquals(2, metrics.getFramesPerSecond(), 0);
+		Assert.assertEquals(4.0, metrics.getLastFrameMillis(), 0);
+		Assert.assertEquals(20, metrics.getLastFrameCellCount());
+		Assert.assertEquals(3.0, metrics.getTimer(MetricsRegistry.PAINT_FRAME).getMeanMillis(), 0.0001);
+	}
+
+	@Test
+	public void shouldCountFiredEvents() {
+		DataLayer dataLayer = new DataLayerFixture();
+		ColumnHideShowLayer hideShowLayer = new ColumnHideShowLayer(dataLayer);
+
+		hideShowLayer.fireLayerEvent(new VisualRefreshEvent(hideShowLayer));
+		Assert.assertEquals(0, metrics.getCounter(MetricsRegistry.EVENT_PREFIX + "VisualRefreshEvent")); //$NON-NLS-1$
+
+		metrics.setEnabled(true);
+		dataLayer.fireLayerEvent(new VisualRefreshEvent(dataLayer));
+		// fired by the data layer and propagated by the hide show layer
+		Assert.assertEquals(2, metrics.getCounter(MetricsRegistry.EVENT_PREFIX + "VisualRefreshEvent")); //$NON-NLS-1$
+	}
+
+	@Test
+	public void shouldCountCacheHitsAndMisses() {
+		metrics.setEnabled(true);
+		ColumnHideShowLayer hideShowLayer = new ColumnHideShowLayer(new DataLayerFixture());
+		hideShowLayer.getStartXOfColumnPosition(1);
+		hideShowLayer.getStartXOfColumnPosition(1);
+		hideShowLayer.getStartXOfColumnPosition(1);
+
+		Assert.assertEquals(1, metrics.getCounter(MetricsRegistry.CACHE_MISS_PREFIX + "columnHideShow.startX")); //$NON-NLS-1$
+		Assert.assertEquals(2, metrics.getCounter(MetricsRegistry.CACHE_HIT_PREFIX + "columnHideShow.startX")); //$NON-NLS-1$
+	}
+
+	@Test
+	public void shouldExposeMetricsViaJmx() throws Exception {
+		Assert.assertTrue(metrics.registerMBean());
+		metrics.setEnabled(true);
+		metrics.increment("test"); //$NON-NLS-1$
+		metrics.getTimer("test").stop(metrics.getTimer("test").start()); //$NON-NLS-1$ //$NON-NLS-2$
+
+		MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+		ObjectName name = new ObjectName(MetricsRegistry.OBJECT_NAME);
+		Assert.assertEquals(Boolean.TRUE, server.getAttribute(name, "Enabled")); //$NON-NLS-1$
+		Assert.assertTrue(((TabularData) server.getAttribute(name, "Counters")).containsKey(new Object[] { "test" })); //$NON-NLS-1$ //$NON-NLS-2$
+		Assert.assertTrue(((TabularData) server.getAttribute(name, "Timers")).containsKey(new Object[] { "test" })); //$NON-NLS-1$ //$NON-NLS-2$
+
+		server.invoke(name, "reset", null, null); //$NON-NLS-1$
+		Assert.assertEquals(0, metrics.getCounter("test")); //$NON-NLS-1$
+	}
+
+}
@@ -0,0 +1,167 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Original authors and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Original authors and others - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.painter.cell;
+
+import org.eclipse.nebula.widgets.nattable.config.CellConfigAttributes;
+import org.eclipse.nebula.widgets.nattable.data.convert.DisplayConverter;
+import org.eclipse.nebula.widgets.nattable.edit.command.UpdateDataCommand;
+import org.eclipse.nebula.widgets.nattable.layer.cell.ILayerCell;
+import org.eclipse.nebula.widgets.nattable.layer.event.StructuralRefreshEvent;
+import org.eclipse.nebula.widgets.nattable.layer.event.VisualRefreshEvent;
+import org.eclipse.nebula.widgets.nattable.test.fixture.CellPainterFixture;
+import org.eclipse.nebula.widgets.nattable.test.fixture.NatTableFixture;
+import org.eclipse.swt.graphics.GC;
+import org.eclipse.swt.graphics.Image;
+import org.eclipse.swt.graphics.Rectangle;
+import org.eclipse.swt.widgets.Display;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class CachingCellPainterTest {
+
+	private static final Rectangle BOUNDS = new Rectangle(10, 10, 100, 20);
+
+	private NatTableFixture natTable;
+	private CellPainterFixture wrappedPainter;
+	private CachingCellPainter cachingPainter;
+	private Image image;
+	private GC gc;
+
+	@Before
+	public void setup() {
+		natTable = new NatTableFixture();
+		wrappedPainter = new CellPainterFixture();
+		cachingPainter = new CachingCellPainter(wrappedPainter, natTable);
+		image = new Image(Display.getDefault(), 200, 100);
+		gc = new GC(image);
+	}
+
+	@After
+	public void tearDown() {
+		gc.dispose();
+		image.dispose();
+		if (!natTable.isDisposed()) {
+			natTable.dispose();
+		}
+	}
+
+	@Test
+	public void rendersStableCellOnlyOnce() {
+		ILayerCell cell = natTable.getCellByPosition(1, 1);
+		paint(cell, BOUNDS);
+		paint(cell, BOUNDS);
+
+		Assert.assertEquals(1, wrappedPainter.getPaintCount());
+		Assert.assertEquals(1, cachingPainter.getCacheSize());
+		// the wrapped painter paints into the image at the origin
+		Assert.assertEquals(new Rectangle(0, 0, 100, 20), wrappedPainter.getLastPaintedBounds());
+	}
+
+	@Test
+	public void rendersAgainIfSizeChanges() {
+		ILayerCell cell = natTable.getCellByPosition(1, 1);
+		paint(cell, BOUNDS);
+		paint(cell, new Rectangle(10, 10, 80, 20));
+
+		Assert.assertEquals(2, wrappedPainter.getPaintCount());
+	}
+
+	@Test
+	public void sharesImagesOfCellsWithSameContent() {
+		ILayerCell cell = natTable.getCellByPosition(1, 1);
+		paint(cell, BOUNDS);
+		paint(cell, new Rectangle(50, 60, 100, 20));
+
+		Assert.assertEquals(1, wrappedPainter.getPaintCount());
+	}
+
+	@Test
+	public void rendersAgainIfDataValueChangesWithSameDisplayValue() {
+		natTable.getConfigRegistry().registerConfigAttribute(CellConfigAttributes.DISPLAY_CONVERTER, new DisplayConverter() {
+			@Override
+			public Object canonicalToDisplayValue(Object canonicalValue) {
+				return "same";
+			}
+
+			@Override
+			public Object displayToCanonicalValue(Object displayValue) {
+				return displayValue;
+			}
+		});
+		paint(natTable.getCellByPosition(1, 1), BOUNDS);
+
+		natTable.doCommand(new UpdateDataCommand(natTable, 1, 1, "changed"));
+		paint(natTable.getCellByPosition(1, 1), BOUNDS);
+
+		Assert.assertEquals(2, wrappedPainter.getPaintCount());
+	}
+
+	@Test
+	public void clearsCacheOnStructuralRefresh() {
+		ILayerCell cell = natTable.getCellByPosition(1, 1);
+		paint(cell, BOUNDS);
+
+		natTable.getLayer().fireLayerEvent(new VisualRefreshEvent(natTable.getLayer()));
+		Assert.assertEquals(1, cachingPainter.getCacheSize());
+
+		natTable.getLayer().fireLayerEvent(new StructuralRefreshEvent(natTable.getLayer()));
+		Assert.assertEquals(0, cachingPainter.getCacheSize());
+
+		paint(cell, BOUNDS);
+		Assert.assertEquals(2, wrappedPainter.getPaintCount());
+	}
+
+	@Test
+	public void evictsLeastRecentlyUsedImages() {
+		cachingPainter = new CachingCellPainter(wrappedPainter, natTable, 4 * 100 * 20);
+		for (int column = 1; column <= 6; column++) {
+			paint(natTable.getCellByPosition(column, 1), BOUNDS);
+		}
+
+		Assert.assertEquals(4, cachingPainter.getCacheSize());
+		Assert.assertEquals(4 * 100 * 20, cachingPainter.getCachedPixels());
+
+		// the most recently used cell is still cached
+		paint(natTable.getCellByPosition(6, 1), BOUNDS);
+		Assert.assertEquals(6, wrappedPainter.getPaintCount());
+
+		// the least recently used cell was evicted
+		paint(natTable.getCellByPosition(1, 1), BOUNDS);
+		Assert.assertEquals(7, wrappedPainter.getPaintCount());
+	}
+
+	@Test
+	public void paintsLargeCellsWithoutCaching() {
+		cachingPainter = new CachingCellPainter(wrappedPainter, natTable, 100 * 20);
+		ILayerCell cell = natTable.getCellByPosition(1, 1);
+		paint(cell, BOUNDS);
+		paint(cell, BOUNDS);
+
+		Assert.assertEquals(2, wrappedPainter.getPaintCount());
+		Assert.assertEquals(0, cachingPainter.getCacheSize());
+	}
+
+	@Test
+	public void disposesImagesWithNatTable() {
+		paint(natTable.getCellByPosition(1, 1), BOUNDS);
+		natTable.dispose();
+
+		Assert.assertEquals(0, cachingPainter.getCacheSize());
+		Assert.assertEquals(0, cachingPainter.getCachedPixels());
+	}
+
+	private void paint(ILayerCell cell, Rectangle bounds) {
+		cachingPainter.paintCell(cell, gc, bounds, natTable.getConfigRegistry());
+	}
+
+}
@@ -0,0 +1,115 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Original authors and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Original authors and others - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.painter.layer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+
+import org.eclipse.nebula.widgets.nattable.layer.cell.ILayerCell;
+import org.eclipse.nebula.widgets.nattable.test.fixture.NatTableFixture;
+import org.eclipse.swt.graphics.GC;
+import org.eclipse.swt.graphics.Image;
+import org.eclipse.swt.graphics.Point;
+import org.eclipse.swt.graphics.Rectangle;
+import org.eclipse.swt.widgets.Display;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ProgressivePaintingTest {
+
+	private NatTableFixture natTable;
+	private Image image;
+	private GC gc;
+
+	@Before
+	public void setup() {
+		natTable = new NatTableFixture();
+		image = new Image(Display.getDefault(), natTable.getWidth(), natTable.getHeight());
+		gc = new GC(image);
+	}
+
+	@After
+	public void tearDown() {
+		gc.dispose();
+		image.dispose();
+	}
+
+	@Test
+	public void paintsCompleteFramesWithoutContext() {
+		assertNull(ProgressivePaintContext.getCurrent());
+
+		NatLayerPainter painter = new NatLayerPainter(natTable);
+		painter.setProgressivePaintBudget(60000);
+		painter.paintLayer(natTable, gc, 0, 0, getBounds(), natTable.getConfigRegistry());
+
+		assertFalse(painter.hasPendingCells());
+		assertNull(ProgressivePaintContext.getCurrent());
+	}
+
+	@Test
+	public void defersCellsWhenBudgetIsExceeded() {
+		List<Rectangle> deferred = paintWithExpiredBudget(null);
+
+		// every layer painter paints at least one cell
+		assertTrue(deferred.size() > 0);
+		assertTrue(deferred.size() < countVisibleCells());
+	}
+
+	@Test
+	public void paintsCellsAroundFocusPointFirst() {
+		ILayerCell focusCell = natTable.getCellByPosition(4, 5);
+		Rectangle focusBounds = focusCell.getBounds();
+		Point focusPoint = new Point(focusBounds.x + focusBounds.width / 2, focusBounds.y + focusBounds.height / 2);
+
+		List<Rectangle> deferred = paintWithExpiredBudget(focusPoint);
+
+		assertFalse(deferred.contains(focusBounds));
+		assertTrue(deferred.contains(natTable.getCellByPosition(1, 1).getBounds()));
+	}
+
+	@Test
+	public void paintsAllCellsWithinBudget() {
+		ProgressivePaintContext context = ProgressivePaintContext.begin(60000000000L, null, null);
+		try {
+			natTable.getLayer().getLayerPainter().paintLayer(natTable, gc, 0, 0, getBounds(), natTable.getConfigRegistry());
+		} finally {
+			ProgressivePaintContext.end();
+		}
+
+		assertEquals(0, context.getDeferredBounds().size());
+	}
+
+	private List<Rectangle> paintWithExpiredBudget(Point focusPoint) {
+		ProgressivePaintContext context = ProgressivePaintContext.begin(0, focusPoint, null);
+		try {
+			natTable.getLayer().getLayerPainter().paintLayer(natTable, gc, 0, 0, getBounds(), natTable.getConfigRegistry());
+		} finally {
+			ProgressivePaintContext.end();
+		}
+		return context.getDeferredBounds();
+	}
+
+	private int countVisibleCells() {
+		int columns = natTable.getColumnPositionByX(natTable.getWidth() - 1) + 1;
+		int rows = natTable.getRowPositionByY(natTable.getHeight() - 1) + 1;
+		return columns * rows;
+	}
+
+	private Rectangle getBounds() {
+		return new Rectangle(0, 0, natTable.getWidth(), natTable.getHeight());
+	}
+
+}
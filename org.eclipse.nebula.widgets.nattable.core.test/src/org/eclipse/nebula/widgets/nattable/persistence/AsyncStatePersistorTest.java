@@ -0,0 +1,164 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Original authors and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Original authors and others - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.persistence;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Properties;
+
+import org.eclipse.nebula.widgets.nattable.resize.command.ColumnResizeCommand;
+import org.eclipse.nebula.widgets.nattable.test.fixture.NatTableFixture;
+import org.eclipse.swt.widgets.Display;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class AsyncStatePersistorTest {
+
+	private static final String PREFIX = "testPrefix";
+
+	private NatTableFixture natTable;
+	private File file;
+	private AsyncStatePersistor persistor;
+
+	@Before
+	public void setup() throws Exception {
+		natTable = new NatTableFixture();
+		file = File.createTempFile("natTableState", ".bin");
+		file.delete();
+		persistor = new AsyncStatePersistor(natTable, file, PREFIX);
+		persistor.setSaveDelay(10000);
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		persistor.flush().get();
+		file.delete();
+		new File(file.getPath() + ".bak").delete();
+	}
+
+	@Test
+	public void saveIsDelayedUntilFlush() throws Exception {
+		natTable.doCommand(new ColumnResizeCommand(natTable, 2, 200));
+		persistor.scheduleSave();
+		assertFalse(file.exists());
+
+		persistor.flush().get();
+		assertTrue(file.exists());
+	}
+
+	@Test
+	public void pendingSaveIsWrittenOnDispose() throws Exception {
+		natTable.doCommand(new ColumnResizeCommand(natTable, 2, 200));
+		persistor.scheduleSave();
+
+		natTable.dispose();
+		assertTrue(file.exists());
+	}
+
+	@Test
+	public void stateIsWrittenByDaemonThread() throws Exception {
+		final boolean[] daemon = new boolean[1];
+		persistor = new AsyncStatePersistor(natTable, file, PREFIX) {
+			@Override
+			protected void write(BinaryStateProperties state) throws IOException {
+				daemon[0] = Thread.currentThread().isDaemon();
+				super.write(state);
+			}
+		};
+		persistor.scheduleSave();
+		persistor.flush().get();
+
+		assertTrue(daemon[0]);
+	}
+
+	@Test
+	public void savedStateIsLoaded() throws Exception {
+		natTable.doCommand(new ColumnResizeCommand(natTable, 2, 200));
+		persistor.scheduleSave();
+		persistor.flush().get();
+
+		natTable.doCommand(new ColumnResizeCommand(natTable, 2, 50));
+		assertEquals(50, natTable.getColumnWidthByPosition(2));
+
+		persistor.load().get();
+		processUIEvents();
+
+		assertEquals(200, natTable.getColumnWidthByPosition(2));
+	}
+
+	@Test
+	public void pendingStateIsLoaded() throws Exception {
+		natTable.doCommand(new ColumnResizeCommand(natTable, 2, 200));
+		persistor.scheduleSave();
+
+		natTable.doCommand(new ColumnResizeCommand(natTable, 2, 50));
+		persistor.load().get();
+		processUIEvents();
+
+		assertEquals(200, natTable.getColumnWidthByPosition(2));
+		assertFalse(file.exists());
+	}
+
+	@Test
+	public void legacyStateIsLoaded() throws Exception {
+		natTable.doCommand(new ColumnResizeCommand(natTable, 2, 200));
+		Properties properties = new Properties();
+		natTable.saveState(PREFIX, properties);
+		OutputStream out = new FileOutputStream(file);
+		try {
+			properties.store(out, null);
+		} finally {
+			out.close();
+		}
+
+		natTable.doCommand(new ColumnResizeCommand(natTable, 2, 50));
+		persistor.load().get();
+		processUIEvents();
+
+		assertEquals(200, natTable.getColumnWidthByPosition(2));
+	}
+
+	@Test
+	public void backupStateIsLoadedIfStateFileIsMissing() throws Exception {
+		natTable.doCommand(new ColumnResizeCommand(natTable, 2, 200));
+		persistor.scheduleSave();
+		persistor.flush().get();
+
+		natTable.doCommand(new ColumnResizeCommand(natTable, 2, 50));
+		persistor.scheduleSave();
+		persistor.flush().get();
+
+		// simulate a write that was interrupted after the state file was moved to the backup
+		File backupFile = new File(file.getPath() + ".bak");
+		assertFalse(backupFile.exists());
+		assertTrue(file.renameTo(backupFile));
+
+		natTable.doCommand(new ColumnResizeCommand(natTable, 2, 100));
+		persistor.load().get();
+		processUIEvents();
+
+		assertEquals(50, natTable.getColumnWidthByPosition(2));
+	}
+
+	private void processUIEvents() {
+		Display display = natTable.getDisplay();
+		while (display.readAndDispatch()) {
+			// process the asynchronously applied state
+		}
+	}
+}
@@ -0,0 +1,180 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Original authors and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Original authors and others - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.persistence;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+
+import org.eclipse.nebula.widgets.nattable.layer.SizeConfig;
+import org.junit.Before;
+import org.junit.Test;
+
+public class BinaryStatePropertiesTest {
+
+	private BinaryStateProperties properties;
+
+	@Before
+	public void setup() {
+		properties = new BinaryStateProperties();
+	}
+
+	@Test
+	public void intArrayRoundTrip() {
+		int[] values = new int[] { 5, 3, 0, -7, 1000000, Integer.MAX_VALUE, Integer.MIN_VALUE };
+		properties.setIntArray("prefix.order", values);
+
+		assertTrue(properties.containsSection("prefix.order"));
+		assertArrayEquals(values, properties.getIntArray("prefix.order"));
+		assertNull(properties.getIntArray("prefix.unknown"));
+	}
+
+	@Test
+	public void indexSetRoundTrip() {
+		properties.setIndexSet("prefix.hidden", Arrays.asList(10, 1, 2, 3, 5, 11, 3, 100));
+
+		assertArrayEquals(new int[] { 1, 2, 3, 5, 10, 11, 100 }, properties.getIndexSet("prefix.hidden"));
+	}
+
+	@Test
+	public void wrongSectionTypeIsNotReturned() {
+		properties.setIndexSet("prefix.hidden", Arrays.asList(1, 2));
+
+		assertNull(properties.getIntArray("prefix.hidden"));
+	}
+
+	@Test
+	public void mapRoundTrip() {
+		Map<Integer, Integer> sizes = new HashMap<Integer, Integer>();
+		sizes.put(4, 57);
+		sizes.put(2, 88);
+		sizes.put(500, 10);
+		Map<Integer, Boolean> resizables = new HashMap<Integer, Boolean>();
+		resizables.put(3, Boolean.TRUE);
+		resizables.put(9, Boolean.FALSE);
+
+		properties.setIntMap("prefix.sizes", sizes);
+		properties.setBooleanMap("prefix.resizableIndexes", resizables);
+
+		Map<Integer, Integer> loadedSizes = new HashMap<Integer, Integer>();
+		assertTrue(properties.getIntMap("prefix.sizes", loadedSizes));
+		assertEquals(sizes, loadedSizes);
+
+		Map<Integer, Boolean> loadedResizables = new HashMap<Integer, Boolean>();
+		assertTrue(properties.getBooleanMap("prefix.resizableIndexes", loadedResizables));
+		assertEquals(resizables, loadedResizables);
+
+		assertFalse(properties.getIntMap("prefix.unknown", loadedSizes));
+	}
+
+	@Test
+	public void streamRoundTrip() throws IOException {
+		properties.setProperty("prefix.defaultSize", "100");
+		properties.setIntArray("prefix.order", new int[] { 2, 1, 0 });
+		properties.setIndexSet("prefix.hidden", Arrays.asList(4, 5, 6));
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		properties.writeBinary(out);
+
+		BinaryStateProperties loaded = new BinaryStateProperties();
+		loaded.readBinary(new ByteArrayInputStream(out.toByteArray()));
+
+		assertEquals("100", loaded.getProperty("prefix.defaultSize"));
+		assertArrayEquals(new int[] { 2, 1, 0 }, loaded.getIntArray("prefix.order"));
+		assertArrayEquals(new int[] { 4, 5, 6 }, loaded.getIndexSet("prefix.hidden"));
+	}
+
+	@Test(expected = IOException.class)
+	public void readNonBinaryInput() throws IOException {
+		properties.readBinary(new ByteArrayInputStream("prefix.defaultSize=100".getBytes("UTF-8")));
+	}
+
+	@Test
+	public void toPropertiesUsesLegacyFormat() {
+		properties.setProperty("prefix.defaultSize", "100");
+		properties.setIntArray("prefix.order", new int[] { 2, 1, 0 });
+		properties.setIndexSet("prefix.hidden", Arrays.asList(6, 4));
+
+		Properties legacy = properties.toProperties();
+
+		assertEquals("100", legacy.getProperty("prefix.defaultSize"));
+		assertEquals("2,1,0,", legacy.getProperty("prefix.order"));
+		assertEquals("4,6,", legacy.getProperty("prefix.hidden"));
+	}
+
+	@Test
+	public void sizeConfigRoundTrip() throws IOException {
+		SizeConfig sizeConfig = createSizeConfig();
+		sizeConfig.saveState("prefix", properties);
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		properties.writeBinary(out);
+		BinaryStateProperties loaded = new BinaryStateProperties();
+		loaded.readBinary(new ByteArrayInputStream(out.toByteArray()));
+
+		SizeConfig loadedSizeConfig = new SizeConfig(50);
+		loadedSizeConfig.loadState("prefix", loaded);
+		assertSizeConfig(loadedSizeConfig);
+	}
+
+	@Test
+	public void sizeConfigLoadFromLegacyFormat() {
+		SizeConfig sizeConfig = createSizeConfig();
+		sizeConfig.saveState("prefix", properties);
+
+		SizeConfig loadedSizeConfig = new SizeConfig(50);
+		loadedSizeConfig.loadState("prefix", properties.toProperties());
+		assertSizeConfig(loadedSizeConfig);
+	}
+
+	@Test
+	public void deleteStateRemovesSections() {
+		createSizeConfig().saveState("prefix", properties);
+		createSizeConfig().saveState("other", properties);
+
+		assertEquals(2, PersistenceHelper.getAvailableStates(properties).size());
+
+		PersistenceHelper.deleteState("prefix", properties);
+
+		assertFalse(properties.containsSection("prefix.sizes"));
+		assertTrue(properties.containsSection("other.sizes"));
+		assertEquals(Arrays.asList("other"), Arrays.asList(PersistenceHelper.getAvailableStates(properties).toArray()));
+	}
+
+	private SizeConfig createSizeConfig() {
+		SizeConfig sizeConfig = new SizeConfig(100);
+		sizeConfig.setDefaultSize(6, 60);
+		sizeConfig.setSize(5, 25);
+		sizeConfig.setSize(2, 88);
+		sizeConfig.setResizableByDefault(false);
+		sizeConfig.setPositionResizable(3, true);
+		return sizeConfig;
+	}
+
+	private void assertSizeConfig(SizeConfig sizeConfig) {
+		assertEquals(100, sizeConfig.getSize(0));
+		assertEquals(88, sizeConfig.getSize(2));
+		assertEquals(25, sizeConfig.getSize(5));
+		assertEquals(60, sizeConfig.getSize(6));
+		assertFalse(sizeConfig.isPositionResizable(0));
+		assertTrue(sizeConfig.isPositionResizable(3));
+	}
+}
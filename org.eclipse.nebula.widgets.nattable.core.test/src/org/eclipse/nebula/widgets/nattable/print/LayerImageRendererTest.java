@@ -0,0 +1,94 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Original authors and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Original authors and others - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.print;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.List;
+
+import org.eclipse.nebula.widgets.nattable.layer.ILayer;
+import org.eclipse.nebula.widgets.nattable.test.fixture.NatTableFixture;
+import org.eclipse.nebula.widgets.nattable.util.IClientAreaProvider;
+import org.eclipse.swt.graphics.ImageData;
+import org.eclipse.swt.graphics.ImageLoader;
+import org.eclipse.swt.graphics.Point;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class LayerImageRendererTest {
+
+	private NatTableFixture natTable;
+	private ILayer layer;
+	private LayerImageRenderer renderer;
+	private File directory;
+
+	@Before
+	public void setup() {
+		natTable = new NatTableFixture();
+		layer = natTable.getLayer();
+		renderer = new LayerImageRenderer(layer, natTable.getConfigRegistry());
+		renderer.setTileSize(300, 200);
+		directory = new File(System.getProperty("java.io.tmpdir"), "natTableTiles" + System.nanoTime());
+	}
+
+	@After
+	public void tearDown() {
+		File[] files = directory.listFiles();
+		if (files != null) {
+			for (File file : files) {
+				file.delete();
+			}
+		}
+		directory.delete();
+	}
+
+	@Test
+	public void tileCountCoversEntireLayer() {
+		Point tileCount = renderer.getTileCount();
+
+		// the viewport is turned off to calculate the size of the entire layer,
+		// which is bigger than the visible area
+		assertTrue((tileCount.x - 1) * 300 >= natTable.getWidth());
+		assertTrue((tileCount.y - 1) * 200 >= natTable.getHeight());
+	}
+
+	@Test
+	public void renderTile() {
+		IClientAreaProvider clientAreaProvider = layer.getClientAreaProvider();
+
+		ImageData tile = renderer.renderTile(0, 0);
+
+		assertEquals(300, tile.width);
+		assertEquals(200, tile.height);
+		assertSame(clientAreaProvider, layer.getClientAreaProvider());
+	}
+
+	@Test
+	public void renderToFiles() throws Exception {
+		Point tileCount = renderer.getTileCount();
+
+		List<File> files = renderer.renderToFiles(directory, "grid");
+
+		assertEquals(tileCount.x * tileCount.y, files.size());
+		assertEquals(new File(directory, "grid_0_0.png"), files.get(0));
+		for (File file : files) {
+			assertTrue(file.exists());
+		}
+
+		ImageData[] firstTile = new ImageLoader().load(files.get(0).getPath());
+		assertEquals(300, firstTile[0].width);
+		assertEquals(200, firstTile[0].height);
+	}
+}
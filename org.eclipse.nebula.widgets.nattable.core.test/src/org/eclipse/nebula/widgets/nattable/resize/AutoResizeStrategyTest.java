@@ -0,0 +1,68 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Original authors and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Original authors and others - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.resize;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class AutoResizeStrategyTest {
+
+	@Test
+	public void shouldMeasureAllRowsIfNotSampled() {
+		assertNull(new AutoResizeStrategy(AutoResizeStrategy.Mode.ALL).getRowPositionsToMeasure(1000000));
+		assertNull(new AutoResizeStrategy(AutoResizeStrategy.Mode.DISTINCT).getRowPositionsToMeasure(1000000));
+	}
+
+	@Test
+	public void shouldMeasureAllRowsIfLessThanSampleSize() {
+		assertNull(new AutoResizeStrategy(AutoResizeStrategy.Mode.SAMPLED).getRowPositionsToMeasure(1000));
+	}
+
+	@Test
+	public void shouldSampleHeadTailAndRandomRows() {
+		AutoResizeStrategy strategy = new AutoResizeStrategy(AutoResizeStrategy.Mode.SAMPLED);
+		strategy.setHeadCount(10);
+		strategy.setTailCount(5);
+		strategy.setRandomCount(100);
+
+		int[] positions = strategy.getRowPositionsToMeasure(2000000);
+
+		assertEquals(115, positions.length);
+		for (int i = 0; i < 10; i++) {
+			assertEquals(i, positions[i]);
+		}
+		for (int i = 0; i < 5; i++) {
+			assertEquals(2000000 - 5 + i, positions[110 + i]);
+		}
+		for (int i = 1; i < positions.length; i++) {
+			assertTrue(positions[i - 1] < positions[i]);
+		}
+		// the random sample is spread over the rows and not taken from the beginning
+		assertTrue(positions[109] > 1000000);
+	}
+
+	@Test
+	public void shouldSampleSameRowsForSameSeed() {
+		AutoResizeStrategy strategy = new AutoResizeStrategy(AutoResizeStrategy.Mode.SAMPLED);
+		assertArrayEquals(strategy.getRowPositionsToMeasure(50000), strategy.getRowPositionsToMeasure(50000));
+	}
+
+	@Test
+	public void shouldKeepViewportForVisibleRows() {
+		assertFalse(new AutoResizeStrategy(AutoResizeStrategy.Mode.VISIBLE).isMeasuringInvisibleRows());
+		assertTrue(new AutoResizeStrategy(AutoResizeStrategy.Mode.SAMPLED).isMeasuringInvisibleRows());
+	}
+}
@@ -0,0 +1,147 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Original authors and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Original authors and others - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.resize;
+
+import static org.junit.Assert.assertEquals;
+
+import org.eclipse.nebula.widgets.nattable.edit.command.UpdateDataCommand;
+import org.eclipse.nebula.widgets.nattable.layer.cell.ILayerCell;
+import org.eclipse.nebula.widgets.nattable.selection.SelectionLayer;
+import org.eclipse.nebula.widgets.nattable.selection.event.CellSelectionEvent;
+import org.eclipse.nebula.widgets.nattable.test.fixture.layer.DataLayerFixture;
+import org.eclipse.nebula.widgets.nattable.test.fixture.layer.GridLayerFixture;
+import org.eclipse.nebula.widgets.nattable.viewport.ViewportLayer;
+import org.eclipse.nebula.widgets.nattable.viewport.event.ScrollEvent;
+import org.eclipse.swt.graphics.Rectangle;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class AutoSizeServiceTest {
+
+	private DataLayerFixture dataLayer;
+	private AutoSizeService service;
+
+	@Before
+	public void setup() {
+		dataLayer = new DataLayerFixture();
+		service = new AutoSizeService() {
+			@Override
+			protected void scheduleFlush() {
+				//flush explicitly in the tests
+			}
+		};
+	}
+
+	@After
+	public void tearDown() {
+		service.dispose();
+	}
+
+	@Test
+	public void shouldApplyMaximumRequestedRowHeight() {
+		service.requestRowHeight(dataLayer.getCellByPosition(0, 1), 60);
+		service.requestRowHeight(dataLayer.getCellByPosition(1, 1), 90);
+		service.requestRowHeight(dataLayer.getCellByPosition(2, 1), 80);
+
+		assertEquals(70, dataLayer.getRowHeightByPosition(1));
+
+		service.flush();
+
+		assertEquals(90, dataLayer.getRowHeightByPosition(1));
+		assertEquals(90, service.getRememberedRowHeight(1));
+	}
+
+	@Test
+	public void shouldApplyColumnWidthsInOneBatch() {
+		service.requestColumnWidth(dataLayer.getCellByPosition(0, 0), 200);
+		service.requestColumnWidth(dataLayer.getCellByPosition(2, 3), 60);
+
+		service.flush();
+
+		assertEquals(200, dataLayer.getColumnWidthByPosition(0));
+		assertEquals(100, dataLayer.getColumnWidthByPosition(1));
+		assertEquals(60, dataLayer.getColumnWidthByPosition(2));
+	}
+
+	@Test
+	public void shouldIgnoreSmallerRequestsForRememberedSizes() {
+		service.requestRowHeight(dataLayer.getCellByPosition(0, 1), 90);
+		service.flush();
+
+		dataLayer.setRowHeightByPosition(1, 70);
+		service.requestRowHeight(dataLayer.getCellByPosition(0, 1), 80);
+		service.flush();
+
+		assertEquals(70, dataLayer.getRowHeightByPosition(1));
+	}
+
+	@Test
+	public void shouldForgetRememberedSizesOnDataChange() {
+		service.requestRowHeight(dataLayer.getCellByPosition(0, 1), 90);
+		service.requestColumnWidth(dataLayer.getCellByPosition(0, 1), 200);
+		service.flush();
+
+		dataLayer.doCommand(new UpdateDataCommand(dataLayer, 0, 1, "changed"));
+
+		assertEquals(-1, service.getRememberedRowHeight(1));
+		assertEquals(-1, service.getRememberedColumnWidth(0));
+	}
+
+	@Test
+	public void shouldKeepRememberedSizesOnScrolling() {
+		GridLayerFixture gridLayer = new GridLayerFixture();
+		ViewportLayer viewportLayer = gridLayer.getBodyLayer().getViewportLayer();
+		ILayerCell cell = gridLayer.getCellByPosition(1, 1);
+		service.requestRowHeight(cell, 90);
+		service.flush();
+
+		gridLayer.handleLayerEvent(new ScrollEvent(viewportLayer, 0, 20, new Rectangle(0, 0, 100, 100)));
+
+		assertEquals(90, service.getRememberedRowHeight(cell));
+	}
+
+	@Test
+	public void shouldKeepRememberedSizesOnSelection() {
+		SelectionLayer selectionLayer = new SelectionLayer(dataLayer);
+		service.requestRowHeight(selectionLayer.getCellByPosition(0, 1), 90);
+		service.requestColumnWidth(selectionLayer.getCellByPosition(0, 1), 200);
+		service.flush();
+
+		selectionLayer.handleLayerEvent(new CellSelectionEvent(selectionLayer, 0, 1, false, false));
+
+		assertEquals(90, service.getRememberedRowHeight(1));
+		assertEquals(200, service.getRememberedColumnWidth(0));
+	}
+
+	@Test
+	public void shouldRememberSizesPerRegion() {
+		GridLayerFixture gridLayer = new GridLayerFixture();
+		//column header and body cell of the same column index
+		ILayerCell headerCell = gridLayer.getCellByPosition(1, 0);
+		ILayerCell bodyCell = gridLayer.getCellByPosition(1, 1);
+		assertEquals(headerCell.getColumnIndex(), bodyCell.getColumnIndex());
+
+		service.requestColumnWidth(headerCell, 200);
+		service.flush();
+
+		assertEquals(200, service.getRememberedColumnWidth(headerCell));
+		assertEquals(-1, service.getRememberedColumnWidth(bodyCell));
+
+		//the body request is not ignored because of the remembered header width
+		service.requestColumnWidth(bodyCell, 250);
+		service.flush();
+
+		assertEquals(250, gridLayer.getColumnWidthByPosition(1));
+		assertEquals(200, service.getRememberedColumnWidth(headerCell));
+		assertEquals(250, service.getRememberedColumnWidth(bodyCell));
+	}
+}
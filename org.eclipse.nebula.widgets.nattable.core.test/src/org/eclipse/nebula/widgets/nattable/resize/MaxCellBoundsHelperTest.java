@@ -93,4 +93,52 @@ public class MaxCellBoundsHelperTest {
 		Assert.assertEquals(row1MaxTextHeight, row1AdjustedMaxHeight);
 	}
 
+	@Test
+	public void getPreferedColumnWidthsByDistinctContent() throws Exception {
+		DataLayerFixture dataLayer = new DataLayerFixture(2, 6, 10, 10);
+		IDataProvider dataProvider = dataLayer.getDataProvider();
+		
+		for (int row = 0; row < 6; row++) {
+			dataProvider.setDataValue(0, row, (row % 2 == 0) ? "Long" : "Longest Text");
+			dataProvider.setDataValue(1, row, "Cat");
+		}
+		dataProvider.setDataValue(1, 4, "Elephant");
+
+		AutoResizeColumnCommandFixture command = new AutoResizeColumnCommandFixture();
+		GCFactory gcFactory = command.getGCFactory();
+		IConfigRegistry registry = command.getConfigRegistry();
+
+		int[] allWidths = MaxCellBoundsHelper.getPreferredColumnWidths(registry, gcFactory, dataLayer, new int[] { 0, 1 });
+		int[] distinctWidths = MaxCellBoundsHelper.getPreferredColumnWidths(registry, gcFactory, dataLayer, new int[] { 0, 1 },
+				new AutoResizeStrategy(AutoResizeStrategy.Mode.DISTINCT));
+
+		Assert.assertArrayEquals(allWidths, distinctWidths);
+	}
+
+	@Test
+	public void getPreferedColumnWidthsBySample() throws Exception {
+		DataLayerFixture dataLayer = new DataLayerFixture(1, 10, 10, 10);
+		IDataProvider dataProvider = dataLayer.getDataProvider();
+		
+		for (int row = 0; row < 10; row++) {
+			dataProvider.setDataValue(0, row, "Cat");
+		}
+		dataProvider.setDataValue(0, 5, "Longest Text");
+
+		AutoResizeColumnCommandFixture command = new AutoResizeColumnCommandFixture();
+		GCFactory gcFactory = command.getGCFactory();
+		IConfigRegistry registry = command.getConfigRegistry();
+
+		AutoResizeStrategy strategy = new AutoResizeStrategy(AutoResizeStrategy.Mode.SAMPLED);
+		strategy.setHeadCount(2);
+		strategy.setTailCount(2);
+		strategy.setRandomCount(0);
+
+		int[] sampledWidths = MaxCellBoundsHelper.getPreferredColumnWidths(registry, gcFactory, dataLayer, new int[] { 0 }, strategy);
+		int[] allWidths = MaxCellBoundsHelper.getPreferredColumnWidths(registry, gcFactory, dataLayer, new int[] { 0 });
+
+		// the long text in row 5 is not part of the sample
+		Assert.assertTrue(sampledWidths[0] < allWidths[0]);
+	}
+
 }
@@ -26,6 +26,7 @@ public class CellPainterFixture extends AbstractCellPainter {
 	private Rectangle bounds;
 	private IConfigRegistry configRegistry;
 	private boolean painted;
+	private int paintCount;
 
 	public int getPreferredHeight(ILayerCell cell, GC gc, IConfigRegistry configRegistry) {
 		return cell.getBounds().height;
@@ -37,6 +38,7 @@ public class CellPainterFixture extends AbstractCellPainter {
 
 	public void paintCell(ILayerCell cell, GC gc, Rectangle bounds, IConfigRegistry configRegistry) {
 		this.painted = true;
+		this.paintCount++;
 		this.cell = cell;
 		this.bounds = bounds;
 		this.configRegistry = configRegistry;
@@ -60,4 +62,8 @@ public class CellPainterFixture extends AbstractCellPainter {
 		return painted;
 	}
 
+	public int getPaintCount() {
+		return paintCount;
+	}
+
 }
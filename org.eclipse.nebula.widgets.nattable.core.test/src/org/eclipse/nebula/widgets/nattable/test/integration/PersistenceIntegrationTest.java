@@ -12,11 +12,15 @@ package org.eclipse.nebula.widgets.nattable.test.integration;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 
 import java.util.Properties;
 
 import org.eclipse.nebula.widgets.nattable.hideshow.command.ColumnHideCommand;
 import org.eclipse.nebula.widgets.nattable.layer.IUniqueIndexLayer;
+import org.eclipse.nebula.widgets.nattable.layer.event.ColumnStructuralRefreshEvent;
+import org.eclipse.nebula.widgets.nattable.layer.event.RowStructuralRefreshEvent;
+import org.eclipse.nebula.widgets.nattable.layer.event.StructuralRefreshEvent;
 import org.eclipse.nebula.widgets.nattable.layer.stack.DummyGridLayerStack;
 import org.eclipse.nebula.widgets.nattable.reorder.RowReorderLayer;
 import org.eclipse.nebula.widgets.nattable.reorder.command.ColumnReorderCommand;
@@ -24,6 +28,7 @@ import org.eclipse.nebula.widgets.nattable.reorder.command.RowReorderCommand;
 import org.eclipse.nebula.widgets.nattable.resize.command.ColumnResizeCommand;
 import org.eclipse.nebula.widgets.nattable.resize.command.RowResizeCommand;
 import org.eclipse.nebula.widgets.nattable.test.fixture.NatTableFixture;
+import org.eclipse.nebula.widgets.nattable.test.fixture.layer.LayerListenerFixture;
 import org.eclipse.swt.widgets.Shell;
 import org.junit.Before;
 import org.junit.Test;
@@ -62,6 +67,25 @@ public class PersistenceIntegrationTest {
 		assertEquals(0, natTableFixture.getColumnIndexByPosition(3));
 	}
 
+	@Test
+	public void stateIsAppliedWithSingleRefresh() throws Exception {
+		saveStateToPropeties();
+		LayerListenerFixture listener = new LayerListenerFixture();
+		natTableFixture.addLayerListener(listener);
+
+		natTableFixture.applyState(TEST_PERSISTENCE_PREFIX, properties);
+
+		assertEquals(200, natTableFixture.getColumnWidthByPosition(1));
+		assertEquals(100, natTableFixture.getRowHeightByPosition(1));
+		assertEquals(1, natTableFixture.getColumnIndexByPosition(1));
+		assertEquals(0, natTableFixture.getColumnIndexByPosition(3));
+
+		// the refresh events of the reorder layers are replaced by the final refresh
+		assertFalse(listener.containsInstanceOf(ColumnStructuralRefreshEvent.class));
+		assertFalse(listener.containsInstanceOf(RowStructuralRefreshEvent.class));
+		assertTrue(listener.containsInstanceOf(StructuralRefreshEvent.class));
+	}
+
 	public void saveStateToPropeties() throws Exception {
 		// Resize column 2 to 200px
 		assertEquals(100, natTableFixture.getColumnWidthByPosition(2));
@@ -12,22 +12,29 @@ package org.eclipse.nebula.widgets.nattable.tickupdate.command;
 
 import static org.eclipse.nebula.widgets.nattable.style.DisplayMode.EDIT;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 
 
 import org.eclipse.nebula.widgets.nattable.config.ConfigRegistry;
 import org.eclipse.nebula.widgets.nattable.config.IEditableRule;
 import org.eclipse.nebula.widgets.nattable.edit.EditConfigAttributes;
+import org.eclipse.nebula.widgets.nattable.edit.command.UpdateDataCommand;
+import org.eclipse.nebula.widgets.nattable.edit.command.UpdateDataCommandHandler;
 import org.eclipse.nebula.widgets.nattable.edit.editor.ComboBoxCellEditor;
 import org.eclipse.nebula.widgets.nattable.edit.editor.TextCellEditor;
 import org.eclipse.nebula.widgets.nattable.grid.cell.AlternatingRowConfigLabelAccumulator;
 import org.eclipse.nebula.widgets.nattable.layer.DataLayer;
 import org.eclipse.nebula.widgets.nattable.layer.cell.AggregrateConfigLabelAccumulator;
 import org.eclipse.nebula.widgets.nattable.layer.cell.ColumnOverrideLabelAccumulator;
+import org.eclipse.nebula.widgets.nattable.layer.event.MultiCellVisualChangeEvent;
 import org.eclipse.nebula.widgets.nattable.selection.SelectionLayer;
 import org.eclipse.nebula.widgets.nattable.test.fixture.TickUpdateHandlerFixture;
 import org.eclipse.nebula.widgets.nattable.test.fixture.layer.DataLayerFixture;
+import org.eclipse.nebula.widgets.nattable.test.fixture.layer.LayerListenerFixture;
 import org.eclipse.nebula.widgets.nattable.tickupdate.TickUpdateConfigAttributes;
 import org.eclipse.nebula.widgets.nattable.tickupdate.command.TickUpdateCommand;
 import org.eclipse.nebula.widgets.nattable.tickupdate.command.TickUpdateCommandHandler;
@@ -36,6 +43,7 @@ import org.junit.Test;
 
 public class TickUpdateCommandHandlerTest {
 
+	private DataLayerFixture bodyDataLayer;
 	private SelectionLayer selectionLayer;
 	private ConfigRegistry testConfigRegistry;
 	private TickUpdateCommandHandler commandHandler;
@@ -43,7 +51,7 @@ public class TickUpdateCommandHandlerTest {
 
 	@Before
 	public void setup(){
-		DataLayerFixture bodyDataLayer = new DataLayerFixture();
+		bodyDataLayer = new DataLayerFixture();
 		selectionLayer = new SelectionLayer(bodyDataLayer);
 		selectionLayer.setSelectedCell(1, 1);
 		
@@ -111,6 +119,42 @@ public class TickUpdateCommandHandlerTest {
 		assertEquals("[1, 5]up", selectionLayer.getDataValueByPosition(1, 5));
 	}
 	
+	@Test
+	public void shouldUpdateMultipleCellsWithOneEvent() throws Exception {
+		selectionLayer.selectCell(1, 2, false, true);
+		selectionLayer.selectCell(1, 5, false, true);
+
+		LayerListenerFixture listener = new LayerListenerFixture();
+		bodyDataLayer.addLayerListener(listener);
+
+		commandHandler.doCommand(new TickUpdateCommand(testConfigRegistry, true));
+
+		assertEquals(1, listener.getEventsCount());
+		assertTrue(listener.getReceivedEvents().get(0) instanceof MultiCellVisualChangeEvent);
+		assertEquals(3, ((MultiCellVisualChangeEvent) listener.getReceivedEvents().get(0)).getCellCount());
+	}
+
+	@Test
+	public void shouldUpdateMultipleCellsViaCustomUpdateDataCommandHandler() throws Exception {
+		final List<UpdateDataCommand> handledCommands = new ArrayList<UpdateDataCommand>();
+		bodyDataLayer.registerCommandHandler(new UpdateDataCommandHandler(bodyDataLayer) {
+			@Override
+			protected boolean doCommand(UpdateDataCommand command) {
+				handledCommands.add(command);
+				return super.doCommand(command);
+			}
+		});
+		selectionLayer.selectCell(1, 2, false, true);
+		selectionLayer.selectCell(1, 5, false, true);
+
+		commandHandler.doCommand(new TickUpdateCommand(testConfigRegistry, true));
+
+		assertEquals(3, handledCommands.size());
+		assertEquals("[1, 1]up", selectionLayer.getDataValueByPosition(1, 1));
+		assertEquals("[1, 2]up", selectionLayer.getDataValueByPosition(1, 2));
+		assertEquals("[1, 5]up", selectionLayer.getDataValueByPosition(1, 5));
+	}
+
 	@Test
 	public void shouldUpdateOnlyIfAllCellsHaveTheSameEditor() throws Exception {
 		columnLabelAccumulator.registerColumnOverrides(1, "COMBO_BOX_EDITOR_LABEL");
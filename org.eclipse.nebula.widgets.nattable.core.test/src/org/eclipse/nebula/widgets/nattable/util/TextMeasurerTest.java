@@ -0,0 +1,102 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Original authors and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Original authors and others - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.eclipse.swt.SWT;
+import org.eclipse.swt.graphics.FontData;
+import org.eclipse.swt.graphics.GC;
+import org.eclipse.swt.widgets.Display;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TextMeasurerTest {
+
+	private GC gc;
+
+	@Before
+	public void setUp() {
+		gc = new GC(Display.getDefault());
+		gc.setFont(GUIHelper.DEFAULT_FONT);
+	}
+
+	@After
+	public void tearDown() {
+		gc.dispose();
+		TextMeasurer.setArithmeticMeasuring(true);
+	}
+
+	@Test
+	public void shouldSumAdvanceWidthsOfSimpleText() {
+		int expected = gc.getAdvanceWidth('N') + gc.getAdvanceWidth('a') + gc.getAdvanceWidth('t');
+		assertEquals(expected, TextMeasurer.getTextWidth(gc, "Nat"));
+	}
+
+	@Test
+	public void shouldMatchTextExtentOfPlainText() {
+		FontData defaultData = GUIHelper.DEFAULT_FONT.getFontData()[0];
+		FontData[] fonts = new FontData[] {
+				defaultData,
+				new FontData(defaultData.getName(), defaultData.getHeight(), SWT.BOLD),
+				new FontData(defaultData.getName(), 16, SWT.ITALIC),
+				new FontData("Courier New", 10, SWT.NORMAL)
+		};
+		String[] texts = new String[] { "nattable", "0123456789", "lorem ipsum dolor sit", "x" };
+
+		for (FontData fontData : fonts) {
+			gc.setFont(GUIHelper.getFont(fontData));
+			for (String text : texts) {
+				assertTrue(TextMeasurer.isArithmeticMeasurable(text));
+				assertEquals(fontData + ": " + text,
+						gc.textExtent(text).x, TextMeasurer.getTextWidth(gc, text));
+			}
+		}
+	}
+
+	@Test
+	public void shouldReturnWidthOfLongestLine() {
+		assertEquals(TextMeasurer.getTextWidth(gc, "Longest"),
+				TextMeasurer.getTextWidth(gc, "Short\nLongest\r\nMiddle"));
+	}
+
+	@Test
+	public void shouldCalculatePrefixWidths() {
+		int[] prefixWidths = TextMeasurer.getPrefixWidths(gc, "NatTable");
+
+		assertEquals(9, prefixWidths.length);
+		assertEquals(0, prefixWidths[0]);
+		assertEquals(TextMeasurer.getTextWidth(gc, "Nat"), prefixWidths[3]);
+		assertEquals(TextMeasurer.getTextWidth(gc, "NatTable"), prefixWidths[8]);
+	}
+
+	@Test
+	public void shouldMeasureComplexTextViaGC() {
+		assertFalse(TextMeasurer.isArithmeticMeasurable("Nat\tTable"));
+		assertNull(TextMeasurer.getPrefixWidths(gc, "Nat\tTable"));
+		assertEquals(gc.textExtent("Nat\tTable").x, TextMeasurer.getTextWidth(gc, "Nat\tTable"));
+		assertEquals(gc.textExtent("\u65E5\u672C").x, TextMeasurer.getTextWidth(gc, "\u65E5\u672C"));
+	}
+
+	@Test
+	public void shouldMeasureViaGCIfArithmeticMeasuringIsDisabled() {
+		assertTrue(TextMeasurer.isArithmeticMeasurable("NatTable"));
+
+		TextMeasurer.setArithmeticMeasuring(false);
+
+		assertFalse(TextMeasurer.isArithmeticMeasurable("NatTable"));
+		assertEquals(gc.textExtent("NatTable").x, TextMeasurer.getTextWidth(gc, "NatTable"));
+	}
+}
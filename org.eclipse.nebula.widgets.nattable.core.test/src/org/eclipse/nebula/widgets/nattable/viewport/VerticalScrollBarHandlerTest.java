@@ -58,7 +58,7 @@ public class VerticalScrollBarHandlerTest {
 		scrollHandler.setViewportOrigin(viewport.getOrigin().getY() + offset);
 	}
 
-	private void scrollViewportToPixel(int y) {
+	private void scrollViewportToPixel(long y) {
 		scrollHandler.setViewportOrigin(y);
 	}
 
@@ -135,4 +135,22 @@ public class VerticalScrollBarHandlerTest {
 		assertFalse(scrollBar.isVisible());
 	}
 
+	@Test
+	public void verticalScrollbarScalingForVirtualCoordinates() throws Exception {
+		viewport = new ViewportLayerFixture(10, 100000000, 50, 22);
+		viewport.setVirtualCoordinatesEnabled(true);
+		scrollHandler = new VerticalScrollBarHandler(viewport, scrollBar);
+
+		scrollHandler.recalculateScrollBarSize();
+
+		// 2.2 billion pixels are represented by 3 pixels per scroll bar unit
+		assertEquals(3, scrollHandler.getScrollFactor());
+		assertEquals(33, scrollHandler.scroller.getThumb());
+
+		scrollViewportToPixel(22L * 99000000);
+		scrollHandler.adjustScrollBar();
+		assertEquals(99000000, viewport.getRowIndexByPosition(0));
+		assertEquals(22L * 99000000 / 3, scrollHandler.scroller.getSelection());
+	}
+
 }
@@ -11,8 +11,13 @@
 package org.eclipse.nebula.widgets.nattable.viewport;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
+import java.util.HashSet;
+import java.util.Set;
+
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
@@ -29,6 +34,7 @@ import org.eclipse.nebula.widgets.nattable.test.fixture.layer.DataLayerFixture;
 import org.eclipse.nebula.widgets.nattable.test.fixture.layer.LayerListenerFixture;
 import org.eclipse.nebula.widgets.nattable.test.fixture.layer.ViewportLayerFixture;
 import org.eclipse.nebula.widgets.nattable.util.IClientAreaProvider;
+import org.eclipse.nebula.widgets.nattable.viewport.event.ScrollEvent;
 
 
 public class ViewportLayerTest {
@@ -432,4 +438,124 @@ public class ViewportLayerTest {
 		ViewportLayer viewportLayer = new ViewportLayer(new DataLayerFixture());
 		assertEquals(IClientAreaProvider.DEFAULT, viewportLayer.getClientAreaProvider());
 	}
+
+	@Test
+	public void scrollEventShouldCarryDeltaForBlitScrolling() throws Exception {
+		viewportLayer = new ViewportLayerFixture(10, 20, 50, 20);
+		viewportLayer.setBlitScrollingEnabled(true);
+		viewportLayer.addLayerListener(layerListener);
+
+		viewportLayer.setOriginY(40);
+
+		ScrollEvent scrollEvent = (ScrollEvent) layerListener.getReceivedEvent(ScrollEvent.class);
+		assertEquals(0, scrollEvent.getDeltaX());
+		assertEquals(40, scrollEvent.getDeltaY());
+		assertEquals(new Rectangle(0, 0, 200, 100), scrollEvent.getScrolledArea());
+
+		layerListener.clearReceivedEvents();
+		viewportLayer.setOriginX(100);
+
+		scrollEvent = (ScrollEvent) layerListener.getReceivedEvent(ScrollEvent.class);
+		assertEquals(100, scrollEvent.getDeltaX());
+		assertEquals(0, scrollEvent.getDeltaY());
+	}
+
+	@Test
+	public void scrollEventShouldNotCarryScrolledAreaWithoutBlitScrolling() throws Exception {
+		viewportLayer = new ViewportLayerFixture(10, 20, 50, 20);
+		viewportLayer.addLayerListener(layerListener);
+
+		viewportLayer.setOriginY(40);
+
+		ScrollEvent scrollEvent = (ScrollEvent) layerListener.getReceivedEvent(ScrollEvent.class);
+		assertNull(scrollEvent.getScrolledArea());
+	}
+
+	@Test
+	public void virtualCoordinatesShouldScrollBeyondIntRange() throws Exception {
+		//100 million rows with 22 pixels exceed the int range
+		viewportLayer = new ViewportLayerFixture(10, 100000000, 50, 22);
+		viewportLayer.setVirtualCoordinatesEnabled(true);
+
+		assertEquals(2200000000L, viewportLayer.getVirtualHeight());
+
+		viewportLayer.setVirtualOriginY(22L * 99000000);
+
+		assertEquals(22L * 99000000, viewportLayer.getVirtualOriginY());
+		assertEquals(99000000, viewportLayer.getRowIndexByPosition(0));
+		assertEquals(0, viewportLayer.getStartYOfRowPosition(0));
+		assertEquals(22, viewportLayer.getStartYOfRowPosition(1));
+		assertEquals(1, viewportLayer.getRowPositionByY(30));
+		assertEquals(5, viewportLayer.getRowCount());
+
+		viewportLayer.setVirtualOriginY(Long.MAX_VALUE);
+
+		assertEquals(2200000000L - 100, viewportLayer.getVirtualOriginY());
+		assertEquals(99999995, viewportLayer.getRowIndexByPosition(0));
+		assertEquals(-10, viewportLayer.getStartYOfRowPosition(0));
+		assertEquals(99999999, viewportLayer.getRowIndexByPosition(viewportLayer.getRowCount() - 1));
+	}
+
+	@Test
+	public void virtualCoordinatesShouldMoveRowIntoViewport() throws Exception {
+		viewportLayer = new ViewportLayerFixture(10, 100000000, 50, 22);
+		viewportLayer.setVirtualCoordinatesEnabled(true);
+		viewportLayer.setVirtualOriginY(22L * 99000000);
+
+		viewportLayer.moveRowPositionIntoViewport(99000010);
+
+		assertEquals(99000010, viewportLayer.getRowIndexByPosition(viewportLayer.getRowCount() - 1));
+		assertEquals(22L * 99000011 - 100, viewportLayer.getVirtualOriginY());
+
+		viewportLayer.moveRowPositionIntoViewport(98999990);
+
+		assertEquals(98999990, viewportLayer.getRowIndexByPosition(0));
+		assertEquals(22L * 98999990, viewportLayer.getVirtualOriginY());
+	}
+
+	@Test
+	public void scrollingShouldOnlyRequestHeightsOfEnteringRows() throws Exception {
+		final Set<Integer> requestedRowPositions = new HashSet<Integer>();
+		DataLayerFixture dataLayer = new DataLayerFixture(10, 100, 50, 20) {
+			@Override
+			public int getRowHeightByPosition(int rowPosition) {
+				requestedRowPositions.add(rowPosition);
+				return super.getRowHeightByPosition(rowPosition);
+			}
+		};
+		viewportLayer = new ViewportLayer(dataLayer);
+		viewportLayer.setClientAreaProvider(ViewportLayerFixture.DEFAULT_CLIENT_AREA_PROVIDER);
+		assertEquals(5, viewportLayer.getRowCount());
+
+		requestedRowPositions.clear();
+		viewportLayer.setOriginY(50);
+
+		assertEquals(6, viewportLayer.getRowCount());
+		assertEquals(2, viewportLayer.getRowIndexByPosition(0));
+		assertTrue(requestedRowPositions.contains(5));
+		assertTrue(requestedRowPositions.contains(6));
+		assertFalse(requestedRowPositions.contains(3));
+		assertFalse(requestedRowPositions.contains(4));
+
+		assertEquals(-10, viewportLayer.getStartYOfRowPosition(0));
+		assertEquals(10, viewportLayer.getStartYOfRowPosition(1));
+		assertEquals(20, viewportLayer.getRowHeightByPosition(1));
+		assertEquals(1, viewportLayer.getRowPositionByY(15));
+	}
+
+	@Test
+	public void resizeShouldUpdateVisibleWindow() throws Exception {
+		DataLayerFixture dataLayer = new DataLayerFixture(10, 100, 50, 20);
+		viewportLayer = new ViewportLayer(dataLayer);
+		viewportLayer.setClientAreaProvider(ViewportLayerFixture.DEFAULT_CLIENT_AREA_PROVIDER);
+		viewportLayer.setOriginY(40);
+		assertEquals(5, viewportLayer.getRowCount());
+
+		dataLayer.setRowHeightByPosition(3, 50);
+
+		assertEquals(50, viewportLayer.getRowHeightByPosition(1));
+		assertEquals(70, viewportLayer.getStartYOfRowPosition(2));
+		assertEquals(1, viewportLayer.getRowPositionByY(60));
+		assertEquals(4, viewportLayer.getRowCount());
+	}
 }
@@ -41,6 +41,8 @@ import org.eclipse.nebula.widgets.nattable.layer.event.CellVisualUpdateEvent;
 import org.eclipse.nebula.widgets.nattable.layer.event.ILayerEvent;
 import org.eclipse.nebula.widgets.nattable.layer.event.IVisualChangeEvent;
 import org.eclipse.nebula.widgets.nattable.layer.stack.DummyGridLayerStack;
+import org.eclipse.nebula.widgets.nattable.metrics.MetricsRegistry;
+import org.eclipse.nebula.widgets.nattable.metrics.MetricsTimer;
 import org.eclipse.nebula.widgets.nattable.painter.IOverlayPainter;
 import org.eclipse.nebula.widgets.nattable.painter.cell.ICellPainter;
 import org.eclipse.nebula.widgets.nattable.painter.layer.ILayerPainter;
@@ -54,6 +56,7 @@ import org.eclipse.nebula.widgets.nattable.ui.mode.ModeSupport;
 import org.eclipse.nebula.widgets.nattable.util.GUIHelper;
 import org.eclipse.nebula.widgets.nattable.util.IClientAreaProvider;
 import org.eclipse.nebula.widgets.nattable.viewport.command.RecalculateScrollBarsCommand;
+import org.eclipse.nebula.widgets.nattable.viewport.event.ScrollEvent;
 import org.eclipse.swt.SWT;
 import org.eclipse.swt.custom.BusyIndicator;
 import org.eclipse.swt.dnd.DragSource;
@@ -100,6 +103,12 @@ public class NatTable extends Canvas implements ILayer, PaintListener, IClientAr
 
 	private final boolean autoconfigure;
 
+	/**
+	 * Flag to indicate that events fired by the underlying layers are not processed,
+	 * e.g. while a state is applied via {@link #applyState(String, Properties)}.
+	 */
+	private boolean eventHandlingSuspended = false;
+
 	public NatTable(Composite parent) {
 		this(parent, DEFAULT_STYLE_OPTIONS);
 	}
@@ -342,6 +351,16 @@ public class NatTable extends Canvas implements ILayer, PaintListener, IClientAr
 		overlayPainters.remove(overlayPainter);
 	}
 
+	/**
+	 * Returns the registry that collects paint, event and command metrics for diagnosis.
+	 * The registry is disabled by default and shared by all NatTable instances.
+	 * @return The metrics registry.
+	 * @see org.eclipse.nebula.widgets.nattable.metrics.MetricsOverlayPainter
+	 */
+	public MetricsRegistry getMetrics() {
+		return MetricsRegistry.getInstance();
+	}
+
 	@Override
 	public void paintControl(final PaintEvent event) {
 		paintNatTable(event);
@@ -406,6 +425,60 @@ public class NatTable extends Canvas implements ILayer, PaintListener, IClientAr
 		updateResize(true);
 	}
 
+	/**
+	 * Moves the already rendered pixels of the scrolled area of a ViewportLayer by the scroll
+	 * delta, so only the newly exposed strip needs to be painted. The areas that scroll along
+	 * with the viewport, like row and column headers and frozen areas, are repainted.
+	 *
+	 * @param event The ScrollEvent fired by the ViewportLayer.
+	 * @return <code>true</code> if the scrolling was handled, <code>false</code> if the whole
+	 * 			table needs to be repainted, e.g. because overlay painters are registered
+	 * 			or progressively painted cells are still pending.
+	 */
+	private boolean blitScroll(ScrollEvent event) {
+		Rectangle scrolledArea = event.getScrolledArea();
+		if (scrolledArea == null || !overlayPainters.isEmpty()
+				|| (layerPainter instanceof NatLayerPainter && ((NatLayerPainter) layerPainter).hasPendingCells())
+				|| isDisposed() || getDisplay().getThread() != Thread.currentThread()) {
+			return false;
+		}
+
+		Rectangle clientArea = getClientArea();
+		Rectangle area = scrolledArea.intersection(clientArea);
+		if (area.isEmpty()) {
+			return false;
+		}
+
+		//the content moves in the opposite direction of the origin
+		int dx = -event.getDeltaX();
+		int dy = -event.getDeltaY();
+		if (Math.abs(dx) >= area.width || Math.abs(dy) >= area.height) {
+			redraw(area.x, area.y, area.width, area.height, false);
+		} else {
+			int sourceX = area.x + Math.max(0, -dx);
+			int sourceY = area.y + Math.max(0, -dy);
+			scroll(sourceX + dx, sourceY + dy, sourceX, sourceY, area.width - Math.abs(dx), area.height - Math.abs(dy), false);
+		}
+
+		int areaRight = area.x + area.width;
+		int areaBottom = area.y + area.height;
+		if (dy != 0) {
+			redrawArea(clientArea.x, area.y, area.x - clientArea.x, area.height);
+			redrawArea(areaRight, area.y, clientArea.x + clientArea.width - areaRight, area.height);
+		}
+		if (dx != 0) {
+			redrawArea(area.x, clientArea.y, area.width, area.y - clientArea.y);
+			redrawArea(area.x, areaBottom, area.width, clientArea.y + clientArea.height - areaBottom);
+		}
+		return true;
+	}
+
+	private void redrawArea(int x, int y, int width, int height) {
+		if (width > 0 && height > 0) {
+			redraw(x, y, width, height, false);
+		}
+	}
+
 	/**
 	 * Update the table screen by re-calculating everything again. It should not
 	 * be called too frequently.
@@ -464,6 +537,15 @@ public class NatTable extends Canvas implements ILayer, PaintListener, IClientAr
 
 	@Override
 	public void handleLayerEvent(ILayerEvent event) {
+		if (eventHandlingSuspended) {
+			return;
+		}
+
+		MetricsRegistry metrics = MetricsRegistry.getInstance();
+		if (metrics.isEnabled()) {
+			metrics.increment(MetricsRegistry.EVENT_HANDLED);
+		}
+
 		for (ILayerListener layerListener : listeners) {
 			layerListener.handleLayerEvent(event);
 		}
@@ -473,6 +555,10 @@ public class NatTable extends Canvas implements ILayer, PaintListener, IClientAr
 			repaintCell(update.getColumnPosition(), update.getRowPosition());
 			return;
 		}
+
+		if (event instanceof ScrollEvent && blitScroll((ScrollEvent) event)) {
+			return;
+		}
 		
 	    if (event instanceof IVisualChangeEvent) {
 	    	conflaterChain.addEvent(event);
@@ -526,6 +612,31 @@ public class NatTable extends Canvas implements ILayer, PaintListener, IClientAr
 		});
 	}
 
+	/**
+	 * Restore the state of the underlying layers from the values in the properties object
+	 * and refresh the NatTable once afterwards. The events fired by the layers while
+	 * restoring their state are not processed by this NatTable, so listeners and the
+	 * rendering only have to handle one structural refresh instead of one per layer.
+	 * @param prefix The prefix of the state to restore.
+	 * @param properties The properties containing the state.
+	 * @see #loadState(String, Properties)
+	 */
+	public void applyState(final String prefix, final Properties properties) {
+		BusyIndicator.showWhile(null, new Runnable() {
+			
+			@Override
+			public void run() {
+				eventHandlingSuspended = true;
+				try {
+					underlyingLayer.loadState(prefix, properties);
+				} finally {
+					eventHandlingSuspended = false;
+				}
+				refresh();
+			}
+		});
+	}
+
 	/**
 	 * @see ILayer#registerPersistable(IPersistable)
 	 */
@@ -543,7 +654,19 @@ public class NatTable extends Canvas implements ILayer, PaintListener, IClientAr
 
 	@Override
 	public boolean doCommand(ILayerCommand command) {
-		return underlyingLayer.doCommand(command);
+		MetricsRegistry metrics = MetricsRegistry.getInstance();
+		if (!metrics.isEnabled()) {
+			return underlyingLayer.doCommand(command);
+		}
+
+		metrics.increment(MetricsRegistry.COMMAND_PREFIX + command.getClass().getSimpleName());
+		MetricsTimer timer = metrics.getTimer(MetricsRegistry.COMMAND_DISPATCH);
+		long start = timer.start();
+		try {
+			return underlyingLayer.doCommand(command);
+		} finally {
+			timer.stop(start);
+		}
 	}
 
 	@Override
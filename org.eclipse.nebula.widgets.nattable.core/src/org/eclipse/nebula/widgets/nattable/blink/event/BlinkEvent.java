@@ -15,11 +15,12 @@ import java.util.Collection;
 
 
 import org.eclipse.nebula.widgets.nattable.layer.ILayer;
+import org.eclipse.nebula.widgets.nattable.layer.event.IContextFreeEvent;
 import org.eclipse.nebula.widgets.nattable.layer.event.ILayerEvent;
 import org.eclipse.nebula.widgets.nattable.layer.event.IVisualChangeEvent;
 import org.eclipse.swt.graphics.Rectangle;
 
-public class BlinkEvent implements IVisualChangeEvent {
+public class BlinkEvent implements IVisualChangeEvent, IContextFreeEvent {
 
 	private ILayer layer;
 
@@ -0,0 +1,106 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Original authors and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Original authors and others - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.command;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counters for the dispatching of {@link ILayerCommand}s through the layer stack.
+ * <p>
+ * A hop is counted every time a layer checks its command handlers for a command. Route
+ * hits and misses are counted by composite layers that remember which child layer
+ * handled a command class last. Counting is disabled by default.
+ */
+public final class CommandDispatchStatistics {
+
+	private static volatile boolean enabled = false;
+
+	private static final AtomicLong hopCount = new AtomicLong();
+	private static final AtomicLong routeHitCount = new AtomicLong();
+	private static final AtomicLong routeMissCount = new AtomicLong();
+
+	private CommandDispatchStatistics() {
+		// private default constructor for helper class
+	}
+
+	/**
+	 * @param enabled <code>true</code> if the dispatch hops should be counted.
+	 */
+	public static void setEnabled(boolean enabled) {
+		CommandDispatchStatistics.enabled = enabled;
+	}
+
+	/**
+	 * @return <code>true</code> if the dispatch hops are counted.
+	 */
+	public static boolean isEnabled() {
+		return enabled;
+	}
+
+	/**
+	 * Count a layer that checked its command handlers for a command.
+	 */
+	public static void hop() {
+		if (enabled) {
+			hopCount.incrementAndGet();
+		}
+	}
+
+	/**
+	 * Count a command that was handled by the remembered route.
+	 */
+	public static void routeHit() {
+		if (enabled) {
+			routeHitCount.incrementAndGet();
+		}
+	}
+
+	/**
+	 * Count a command for which there was no remembered route, or that could not be
+	 * handled by the remembered route.
+	 */
+	public static void routeMiss() {
+		if (enabled) {
+			routeMissCount.incrementAndGet();
+		}
+	}
+
+	/**
+	 * @return The number of layers that checked their command handlers since the last reset.
+	 */
+	public static long getHopCount() {
+		return hopCount.get();
+	}
+
+	/**
+	 * @return The number of commands handled by a remembered route since the last reset.
+	 */
+	public static long getRouteHitCount() {
+		return routeHitCount.get();
+	}
+
+	/**
+	 * @return The number of commands that could not be handled by a remembered route since
+	 * 			the last reset.
+	 */
+	public static long getRouteMissCount() {
+		return routeMissCount.get();
+	}
+
+	/**
+	 * Resets all counters to 0.
+	 */
+	public static void reset() {
+		hopCount.set(0);
+		routeHitCount.set(0);
+		routeMissCount.set(0);
+	}
+}
@@ -12,12 +12,37 @@ package org.eclipse.nebula.widgets.nattable.data;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Properties;
 import java.util.StringTokenizer;
 
+import org.eclipse.nebula.widgets.nattable.coordinate.Range;
+import org.eclipse.nebula.widgets.nattable.freeze.event.FreezeEvent;
+import org.eclipse.nebula.widgets.nattable.freeze.event.UnfreezeEvent;
+import org.eclipse.nebula.widgets.nattable.layer.DataLayer;
+import org.eclipse.nebula.widgets.nattable.layer.ILayer;
+import org.eclipse.nebula.widgets.nattable.layer.ILayerListener;
 import org.eclipse.nebula.widgets.nattable.layer.cell.DataCell;
+import org.eclipse.nebula.widgets.nattable.layer.event.CellVisualChangeEvent;
+import org.eclipse.nebula.widgets.nattable.layer.event.CellVisualUpdateEvent;
+import org.eclipse.nebula.widgets.nattable.layer.event.ILayerEvent;
+import org.eclipse.nebula.widgets.nattable.layer.event.MultiCellVisualChangeEvent;
+import org.eclipse.nebula.widgets.nattable.layer.event.IStructuralChangeEvent;
+import org.eclipse.nebula.widgets.nattable.layer.event.PropertyUpdateEvent;
+import org.eclipse.nebula.widgets.nattable.layer.event.ResizeStructuralRefreshEvent;
+import org.eclipse.nebula.widgets.nattable.layer.event.StructuralDiff;
+import org.eclipse.nebula.widgets.nattable.layer.event.StructuralDiff.DiffTypeEnum;
 import org.eclipse.nebula.widgets.nattable.persistence.IPersistable;
+import org.eclipse.nebula.widgets.nattable.resize.event.ColumnResizeEvent;
+import org.eclipse.nebula.widgets.nattable.resize.event.RowResizeEvent;
+import org.eclipse.nebula.widgets.nattable.selection.event.ISelectionEvent;
+import org.eclipse.nebula.widgets.nattable.viewport.event.ScrollEvent;
 
 /**
  * This implementation of ISpanningDataProvider will automatically span cells if the containing
@@ -37,11 +62,22 @@ import org.eclipse.nebula.widgets.nattable.persistence.IPersistable;
  * complicated calculation algorithm need to be implemented that checks every columns and row 
  * by building the spanning cell for the matching rectangle. As this would be quite time consuming
  * calculations, this is not supported out of the box by NatTable.
+ * <p>
+ * For large data sets the row spanning can be served from a span index, that stores the
+ * runs of equal values per column and is built lazily on first access of a column. It needs
+ * to be enabled via {@link #setSpanIndexEnabled(boolean)}. Changes performed via
+ * {@link #setDataValue(int, int, Object)} are applied to the index incrementally. Changes
+ * of the underlying data that are performed otherwise are only tracked if this
+ * AutomaticSpanningDataProvider is registered as ILayerListener to the body layer stack,
+ * or if {@link #clearSpanIndex()} is called. Row inserts and deletes are applied to the
+ * index incrementally if it is registered to the DataLayer, as only there the row positions
+ * of the events are the row indexes of the data. The index is only dropped on structural
+ * refreshes that don't describe which rows have changed.
  * 
  * @author Dirk Fauth
  *
  */
-public class AutomaticSpanningDataProvider implements ISpanningDataProvider, IPersistable {
+public class AutomaticSpanningDataProvider implements ISpanningDataProvider, IPersistable, ILayerListener {
 
 	public static final String PERSISTENCE_KEY_AUTO_COLUMN_SPAN = ".autoColumnSpan"; //$NON-NLS-1$
 	public static final String PERSISTENCE_KEY_AUTO_ROW_SPAN = ".autoRowSpan"; //$NON-NLS-1$
@@ -61,17 +97,25 @@ public class AutomaticSpanningDataProvider implements ISpanningDataProvider, IPe
 	 */
 	private boolean autoRowSpan;
 	/**
-	 * List of column positions for which automatic spanning is enabled. 
+	 * Set of column positions for which automatic spanning is enabled. 
 	 * <p>
-	 * <b>Note: </b>If this list is empty, all columns will do auto row spanning.  
+	 * <b>Note: </b>If this set is empty, all columns will do auto row spanning.  
 	 */
-	private List<Integer> autoSpanColumns = new ArrayList<Integer>();
+	private final BitSet autoSpanColumns = new BitSet();
 	/**
-	 * List of row positions for which automatic spanning is enabled. 
+	 * Set of row positions for which automatic spanning is enabled. 
 	 * <p>
-	 * <b>Note: </b>If this list is empty, all rows will do auto column spanning.  
+	 * <b>Note: </b>If this set is empty, all rows will do auto column spanning.  
+	 */
+	private final BitSet autoSpanRows = new BitSet();
+	/**
+	 * Flag to configure whether the row spanning should be served from the span index.
+	 */
+	private boolean spanIndexEnabled = false;
+	/**
+	 * The runs of equal values per column position, built lazily if the span index is enabled.
 	 */
-	private List<Integer> autoSpanRows = new ArrayList<Integer>();
+	private final Map<Integer, ColumnRuns> spanIndex = new HashMap<Integer, ColumnRuns>();
 	
 	/**
 	 * 
@@ -97,6 +141,7 @@ public class AutomaticSpanningDataProvider implements ISpanningDataProvider, IPe
 	@Override
 	public void setDataValue(int columnIndex, int rowIndex, Object newValue) {
 		this.underlyingDataProvider.setDataValue(columnIndex, rowIndex, newValue);
+		updateSpanIndex(columnIndex, rowIndex);
 	}
 
 	@Override
@@ -150,7 +195,7 @@ public class AutomaticSpanningDataProvider implements ISpanningDataProvider, IPe
 	 * @return <code>true</code> if the given column position is configured as a auto span column.
 	 */
 	private boolean isAutoSpanColumn(int columnPosition) {
-		return (this.autoSpanColumns.isEmpty() || this.autoSpanColumns.contains(columnPosition));
+		return (this.autoSpanColumns.isEmpty() || (columnPosition >= 0 && this.autoSpanColumns.get(columnPosition)));
 	}
 	
 	/**
@@ -159,7 +204,7 @@ public class AutomaticSpanningDataProvider implements ISpanningDataProvider, IPe
 	 * @return <code>true</code> if the given row position is configured as a auto span row.
 	 */
 	private boolean isAutoSpanRow(int rowPosition) {
-		return (this.autoSpanRows.isEmpty() || this.autoSpanRows.contains(rowPosition));
+		return (this.autoSpanRows.isEmpty() || (rowPosition >= 0 && this.autoSpanRows.get(rowPosition)));
 	}
 	
 	/**
@@ -170,7 +215,7 @@ public class AutomaticSpanningDataProvider implements ISpanningDataProvider, IPe
 	 * @param columnPositions The column positions to add for auto spanning.
 	 */
 	public void addAutoSpanningColumnPositions(Integer... columnPositions) {
-		this.autoSpanColumns.addAll(Arrays.asList(columnPositions));
+		setPositions(this.autoSpanColumns, columnPositions, true);
 	}
 	
 	/**
@@ -181,7 +226,8 @@ public class AutomaticSpanningDataProvider implements ISpanningDataProvider, IPe
 	 * @param rowPositions The row positions to add for auto spanning.
 	 */
 	public void addAutoSpanningRowPositions(Integer... rowPositions) {
-		this.autoSpanRows.addAll(Arrays.asList(rowPositions));
+		setPositions(this.autoSpanRows, rowPositions, true);
+		clearSpanIndex();
 	}
 	
 	/**
@@ -189,7 +235,7 @@ public class AutomaticSpanningDataProvider implements ISpanningDataProvider, IPe
 	 * @param columnPositions The column positions to remove for auto spanning.
 	 */
 	public void removeAutoSpanningColumnPositions(Integer... columnPositions) {
-		this.autoSpanColumns.removeAll(Arrays.asList(columnPositions));
+		setPositions(this.autoSpanColumns, columnPositions, false);
 	}
 	
 	/**
@@ -197,7 +243,16 @@ public class AutomaticSpanningDataProvider implements ISpanningDataProvider, IPe
 	 * @param rowPositions The row positions to remove for auto spanning.
 	 */
 	public void removeAutoSpanningRowPositions(Integer... rowPositions) {
-		this.autoSpanRows.removeAll(Arrays.asList(rowPositions));
+		setPositions(this.autoSpanRows, rowPositions, false);
+		clearSpanIndex();
+	}
+
+	private void setPositions(BitSet positions, Integer[] values, boolean value) {
+		for (Integer position : values) {
+			if (position != null && position.intValue() >= 0) {
+				positions.set(position.intValue(), value);
+			}
+		}
 	}
 	
 	/**
@@ -216,6 +271,7 @@ public class AutomaticSpanningDataProvider implements ISpanningDataProvider, IPe
 	 */
 	public void clearAutoSpanningRowPositions() {
 		this.autoSpanRows.clear();
+		clearSpanIndex();
 	}
 	
 	/**
@@ -256,6 +312,11 @@ public class AutomaticSpanningDataProvider implements ISpanningDataProvider, IPe
 	 * 			if it is not spanned with rows above.
 	 */
 	protected int getStartRowPosition(int columnPosition, int rowPosition) {
+		ColumnRuns runs = getColumnRuns(columnPosition);
+		if (runs != null) {
+			return runs.getStart(rowPosition);
+		}
+		
 		if (rowPosition <= 0 || !isAutoSpanRow(rowPosition) || !isAutoSpanRow(rowPosition - 1)) {
 			return rowPosition;
 		}
@@ -302,6 +363,11 @@ public class AutomaticSpanningDataProvider implements ISpanningDataProvider, IPe
 	 * @return The number of rows to span
 	 */
 	protected int getRowSpan(int columnPosition, int rowPosition) {
+		ColumnRuns runs = getColumnRuns(columnPosition);
+		if (runs != null) {
+			return runs.getEnd(rowPosition) - rowPosition;
+		}
+		
 		int span = 1;
 		
 		while (rowPosition < getRowCount()-1
@@ -363,18 +429,18 @@ public class AutomaticSpanningDataProvider implements ISpanningDataProvider, IPe
 		properties.setProperty(prefix + PERSISTENCE_KEY_AUTO_COLUMN_SPAN, Boolean.valueOf(autoColumnSpan).toString());
 		properties.setProperty(prefix + PERSISTENCE_KEY_AUTO_ROW_SPAN, Boolean.valueOf(autoRowSpan).toString());
 
-		if (autoSpanColumns.size() > 0) {
+		if (!autoSpanColumns.isEmpty()) {
 			StringBuilder strBuilder = new StringBuilder();
-			for (Integer index : autoSpanColumns) {
+			for (int index = autoSpanColumns.nextSetBit(0); index >= 0; index = autoSpanColumns.nextSetBit(index + 1)) {
 				strBuilder.append(index);
 				strBuilder.append(IPersistable.VALUE_SEPARATOR);
 			}
 			properties.setProperty(prefix + PERSISTENCE_KEY_AUTO_SPAN_COLUMNS, strBuilder.toString());
 		}
 
-		if (autoSpanRows.size() > 0) {
+		if (!autoSpanRows.isEmpty()) {
 			StringBuilder strBuilder = new StringBuilder();
-			for (Integer index : autoSpanRows) {
+			for (int index = autoSpanRows.nextSetBit(0); index >= 0; index = autoSpanRows.nextSetBit(index + 1)) {
 				strBuilder.append(index);
 				strBuilder.append(IPersistable.VALUE_SEPARATOR);
 			}
@@ -397,27 +463,383 @@ public class AutomaticSpanningDataProvider implements ISpanningDataProvider, IPe
 		this.autoSpanColumns.clear();
 		property = properties.getProperty(prefix + PERSISTENCE_KEY_AUTO_SPAN_COLUMNS);
 		if (property != null) {
-			List<Integer> newAutoSpanColumns = new ArrayList<Integer>();
+			BitSet newAutoSpanColumns = new BitSet();
 			StringTokenizer tok = new StringTokenizer(property, IPersistable.VALUE_SEPARATOR);
 			while (tok.hasMoreTokens()) {
 				String index = tok.nextToken();
-				newAutoSpanColumns.add(Integer.valueOf(index));
+				newAutoSpanColumns.set(Integer.valueOf(index));
 			}
 			
-			this.autoSpanColumns.addAll(newAutoSpanColumns);
+			this.autoSpanColumns.or(newAutoSpanColumns);
 		}
 		
 		this.autoSpanRows.clear();
 		property = properties.getProperty(prefix + PERSISTENCE_KEY_AUTO_SPAN_ROWS);
 		if (property != null) {
-			List<Integer> newAutoSpanRows = new ArrayList<Integer>();
+			BitSet newAutoSpanRows = new BitSet();
 			StringTokenizer tok = new StringTokenizer(property, IPersistable.VALUE_SEPARATOR);
 			while (tok.hasMoreTokens()) {
 				String index = tok.nextToken();
-				newAutoSpanRows.add(Integer.valueOf(index));
+				newAutoSpanRows.set(Integer.valueOf(index));
 			}
 			
-			this.autoSpanRows.addAll(newAutoSpanRows);
+			this.autoSpanRows.or(newAutoSpanRows);
+		}
+		clearSpanIndex();
+	}
+
+	/**
+	 * @return <code>true</code> if the row spanning is served from the span index.
+	 */
+	public boolean isSpanIndexEnabled() {
+		return this.spanIndexEnabled;
+	}
+
+	/**
+	 * @param spanIndexEnabled <code>true</code> to serve the row spanning from the span index
+	 * 			that stores the runs of equal values per column, <code>false</code> to calculate
+	 * 			the row spanning by comparing the neighbour cells on every request.
+	 */
+	public void setSpanIndexEnabled(boolean spanIndexEnabled) {
+		this.spanIndexEnabled = spanIndexEnabled;
+		clearSpanIndex();
+	}
+
+	/**
+	 * Clears the span index, so it is built again on the next access. Needs to be called
+	 * if the underlying data was changed without informing this AutomaticSpanningDataProvider.
+	 */
+	public void clearSpanIndex() {
+		this.spanIndex.clear();
+	}
+
+	/**
+	 * Returns the runs of equal values for the given column, building them if necessary.
+	 * @param columnPosition The column position.
+	 * @return The runs of the given column or <code>null</code> if the span index is disabled.
+	 */
+	private ColumnRuns getColumnRuns(int columnPosition) {
+		if (!this.spanIndexEnabled) {
+			return null;
+		}
+		int rowCount = getRowCount();
+		ColumnRuns runs = this.spanIndex.get(columnPosition);
+		if (runs == null || runs.rowCount != rowCount) {
+			runs = new ColumnRuns(rowCount);
+			for (int rowPosition = 1; rowPosition < rowCount; rowPosition++) {
+				if (isRunStart(columnPosition, rowPosition)) {
+					runs.add(rowPosition);
+				}
+			}
+			this.spanIndex.put(columnPosition, runs);
+		}
+		return runs;
+	}
+
+	/**
+	 * Updates the runs of the given column after the value of the given cell has changed.
+	 * @param columnPosition The column position of the changed cell.
+	 * @param rowPosition The row position of the changed cell.
+	 */
+	private void updateSpanIndex(int columnPosition, int rowPosition) {
+		ColumnRuns runs = this.spanIndex.get(columnPosition);
+		if (runs != null) {
+			if (runs.rowCount != getRowCount()) {
+				this.spanIndex.remove(columnPosition);
+			} else {
+				for (int position = rowPosition; position <= rowPosition + 1; position++) {
+					if (position > 0 && position < runs.rowCount) {
+						runs.setStart(position, isRunStart(columnPosition, position));
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * @return <code>true</code> if the given row can not be spanned with the row above, 
+	 * 			which means that a new run of equal values starts at the given row.
+	 */
+	private boolean isRunStart(int columnPosition, int rowPosition) {
+		return !isAutoSpanRow(rowPosition) || !isAutoSpanRow(rowPosition - 1)
+				|| valuesNotEqual(getDataValue(columnPosition, rowPosition), getDataValue(columnPosition, rowPosition - 1));
+	}
+
+	@Override
+	public void handleLayerEvent(ILayerEvent event) {
+		if (this.spanIndex.isEmpty()
+				|| event instanceof ScrollEvent
+				|| event instanceof ISelectionEvent
+				|| event instanceof CellVisualUpdateEvent
+				|| event instanceof RowResizeEvent
+				|| event instanceof ColumnResizeEvent
+				|| event instanceof ResizeStructuralRefreshEvent
+				|| event instanceof FreezeEvent
+				|| event instanceof UnfreezeEvent) {
+			//only the visible part or the visual appearance changed, not the data
+			return;
+		}
+		if (event instanceof CellVisualChangeEvent) {
+			CellVisualChangeEvent changeEvent = (CellVisualChangeEvent) event;
+			ILayer layer = changeEvent.getLayer();
+			int columnIndex = layer.getColumnIndexByPosition(changeEvent.getColumnPosition());
+			int rowIndex = layer.getRowIndexByPosition(changeEvent.getRowPosition());
+			if (columnIndex >= 0 && rowIndex >= 0) {
+				updateSpanIndex(columnIndex, rowIndex);
+			}
+		}
+		else if (event instanceof MultiCellVisualChangeEvent) {
+			MultiCellVisualChangeEvent changeEvent = (MultiCellVisualChangeEvent) event;
+			ILayer layer = changeEvent.getLayer();
+			for (int i = 0; i < changeEvent.getCellCount(); i++) {
+				int columnIndex = layer.getColumnIndexByPosition(changeEvent.getColumnPosition(i));
+				int rowIndex = layer.getRowIndexByPosition(changeEvent.getRowPosition(i));
+				if (columnIndex >= 0 && rowIndex >= 0) {
+					updateSpanIndex(columnIndex, rowIndex);
+				}
+			}
+		}
+		else if (event instanceof PropertyUpdateEvent) {
+			int rowIndex = getRowIndexOfBean(((PropertyUpdateEvent<?>) event).getSourceBean());
+			if (rowIndex >= 0) {
+				for (Integer columnIndex : new ArrayList<Integer>(this.spanIndex.keySet())) {
+					updateSpanIndex(columnIndex, rowIndex);
+				}
+			} else {
+				clearSpanIndex();
+			}
+		}
+		else if (event instanceof IStructuralChangeEvent) {
+			handleStructuralChange((IStructuralChangeEvent) event);
+		}
+	}
+
+	/**
+	 * @return The row index of the given row object, or -1 if the wrapped data provider
+	 * 			does not support retrieving it.
+	 */
+	@SuppressWarnings("unchecked")
+	private int getRowIndexOfBean(Object bean) {
+		if (bean != null && this.underlyingDataProvider instanceof IRowDataProvider) {
+			return ((IRowDataProvider<Object>) this.underlyingDataProvider).indexOfRowObject(bean);
+		}
+		return -1;
+	}
+
+	/**
+	 * Applies the row diffs of the given event to the span index. If the event does not
+	 * describe the changed rows by their indexes, the span index is cleared.
+	 */
+	private void handleStructuralChange(IStructuralChangeEvent event) {
+		if (event.isHorizontalStructureChanged() && event.getColumnDiffs() == null) {
+			clearSpanIndex();
+			return;
+		}
+		if (!event.isVerticalStructureChanged()) {
+			return;
+		}
+
+		Collection<StructuralDiff> rowDiffs = event.getRowDiffs();
+		if (rowDiffs == null) {
+			clearSpanIndex();
+		}
+		else if (event.getLayer() instanceof DataLayer) {
+			if (!applyRowDiffs(rowDiffs)) {
+				clearSpanIndex();
+			}
+		}
+		else {
+			//the diffs describe positions of a transforming layer, e.g. hidden rows, which
+			//doesn't affect the data unless rows were inserted or deleted in the data
+			for (ColumnRuns runs : this.spanIndex.values()) {
+				if (runs.rowCount != getRowCount()) {
+					clearSpanIndex();
+					break;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Applies the given row diffs whose positions are row indexes to the runs of all
+	 * indexed columns.
+	 * @return <code>false</code> if the diffs could not be applied incrementally.
+	 */
+	private boolean applyRowDiffs(Collection<StructuralDiff> rowDiffs) {
+		List<StructuralDiff> deletes = new ArrayList<StructuralDiff>();
+		List<StructuralDiff> inserts = new ArrayList<StructuralDiff>();
+		for (StructuralDiff diff : rowDiffs) {
+			if (diff.getDiffType() == DiffTypeEnum.DELETE) {
+				deletes.add(diff);
+			} else if (diff.getDiffType() == DiffTypeEnum.ADD) {
+				inserts.add(diff);
+			} else {
+				return false;
+			}
+		}
+		if (!deletes.isEmpty() && !inserts.isEmpty()) {
+			return false;
+		}
+
+		// deletes are described by the positions before the change, so they are applied
+		// from the bottom, inserts by the positions after the change, so from the top
+		Collections.sort(deletes, new Comparator<StructuralDiff>() {
+			@Override
+			public int compare(StructuralDiff diff1, StructuralDiff diff2) {
+				return diff2.getBeforePositionRange().start - diff1.getBeforePositionRange().start;
+			}
+		});
+		Collections.sort(inserts, new Comparator<StructuralDiff>() {
+			@Override
+			public int compare(StructuralDiff diff1, StructuralDiff diff2) {
+				return diff1.getAfterPositionRange().start - diff2.getAfterPositionRange().start;
+			}
+		});
+
+		// the positions after the change at which deleted rows were removed
+		int[] deletePositions = new int[deletes.size()];
+		int deleted = 0;
+		for (int i = deletes.size() - 1; i >= 0; i--) {
+			Range range = deletes.get(i).getBeforePositionRange();
+			deletePositions[i] = range.start - deleted;
+			deleted += range.end - range.start;
+		}
+
+		int rowCount = getRowCount();
+		for (Map.Entry<Integer, ColumnRuns> entry : this.spanIndex.entrySet()) {
+			ColumnRuns runs = entry.getValue();
+			for (StructuralDiff diff : deletes) {
+				Range range = diff.getBeforePositionRange();
+				runs.deleteRows(range.start, range.end);
+			}
+			for (StructuralDiff diff : inserts) {
+				Range range = diff.getAfterPositionRange();
+				runs.insertRows(range.start, range.end);
+			}
+			if (runs.rowCount != rowCount) {
+				return false;
+			}
+
+			// the rows next to the changed rows need to be compared with their new neighbours
+			int columnIndex = entry.getKey();
+			for (int position : deletePositions) {
+				updateRunStart(columnIndex, runs, position);
+			}
+			for (StructuralDiff diff : inserts) {
+				Range range = diff.getAfterPositionRange();
+				for (int position = range.start; position <= range.end; position++) {
+					updateRunStart(columnIndex, runs, position);
+				}
+			}
+		}
+		return true;
+	}
+
+	private void updateRunStart(int columnIndex, ColumnRuns runs, int rowPosition) {
+		if (rowPosition > 0 && rowPosition < runs.rowCount) {
+			runs.setStart(rowPosition, isRunStart(columnIndex, rowPosition));
+		}
+	}
+
+	/**
+	 * The run length encoded runs of equal values in a column. Stores the ascending row
+	 * positions at which a run starts, so the run of a row is found via binary search.
+	 */
+	private static class ColumnRuns {
+		int rowCount;
+		private int[] starts = new int[16];
+		private int count = 0;
+
+		ColumnRuns(int rowCount) {
+			this.rowCount = rowCount;
+			if (rowCount > 0) {
+				add(0);
+			}
+		}
+
+		void add(int rowPosition) {
+			if (this.count == this.starts.length) {
+				this.starts = Arrays.copyOf(this.starts, this.count * 2);
+			}
+			this.starts[this.count++] = rowPosition;
+		}
+
+		private int indexOfRun(int rowPosition) {
+			int index = Arrays.binarySearch(this.starts, 0, this.count, rowPosition);
+			return (index >= 0) ? index : -index - 2;
+		}
+
+		int getStart(int rowPosition) {
+			int index = indexOfRun(rowPosition);
+			return (index >= 0) ? this.starts[index] : rowPosition;
+		}
+
+		int getEnd(int rowPosition) {
+			int index = indexOfRun(rowPosition);
+			return (index + 1 < this.count) ? this.starts[index + 1] : this.rowCount;
+		}
+
+		void setStart(int rowPosition, boolean start) {
+			int index = Arrays.binarySearch(this.starts, 0, this.count, rowPosition);
+			if (start && index < 0) {
+				int insert = -index - 1;
+				if (this.count == this.starts.length) {
+					this.starts = Arrays.copyOf(this.starts, this.count * 2);
+				}
+				System.arraycopy(this.starts, insert, this.starts, insert + 1, this.count - insert);
+				this.starts[insert] = rowPosition;
+				this.count++;
+			}
+			else if (!start && index >= 0) {
+				System.arraycopy(this.starts, index + 1, this.starts, index, this.count - index - 1);
+				this.count--;
+			}
+		}
+
+		/**
+		 * Removes the rows from the given start position (inclusive) to the given end
+		 * position (exclusive) and moves the runs below up.
+		 */
+		void deleteRows(int from, int to) {
+			int first = indexOfStartFrom(from);
+			int last = indexOfStartFrom(to);
+			int deleted = to - from;
+			System.arraycopy(this.starts, last, this.starts, first, this.count - last);
+			this.count -= last - first;
+			for (int i = first; i < this.count; i++) {
+				this.starts[i] -= deleted;
+			}
+			this.rowCount -= deleted;
+			ensureFirstRun();
+		}
+
+		/**
+		 * Inserts the rows from the given start position (inclusive) to the given end
+		 * position (exclusive) as one run and moves the runs below down.
+		 */
+		void insertRows(int from, int to) {
+			int inserted = to - from;
+			for (int i = indexOfStartFrom(from); i < this.count; i++) {
+				this.starts[i] += inserted;
+			}
+			this.rowCount += inserted;
+			ensureFirstRun();
+		}
+
+		/**
+		 * @return The index of the first run that starts at or after the given row position.
+		 */
+		private int indexOfStartFrom(int rowPosition) {
+			int index = Arrays.binarySearch(this.starts, 0, this.count, rowPosition);
+			return (index >= 0) ? index : -index - 1;
+		}
+
+		private void ensureFirstRun() {
+			if (this.rowCount > 0) {
+				setStart(0, true);
+			} else {
+				this.count = 0;
+			}
 		}
 	}
 }
\ No newline at end of file
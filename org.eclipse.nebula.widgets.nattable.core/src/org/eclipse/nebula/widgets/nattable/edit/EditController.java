@@ -12,16 +12,22 @@ package org.eclipse.nebula.widgets.nattable.edit;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.eclipse.jface.window.Window;
 import org.eclipse.nebula.widgets.nattable.config.IConfigRegistry;
+import org.eclipse.nebula.widgets.nattable.edit.command.MultiUpdateDataCommand;
+import org.eclipse.nebula.widgets.nattable.edit.command.MultiUpdateDataCommandHandler;
 import org.eclipse.nebula.widgets.nattable.edit.command.UpdateDataCommand;
 import org.eclipse.nebula.widgets.nattable.edit.editor.ICellEditor;
 import org.eclipse.nebula.widgets.nattable.edit.gui.CellEditDialogFactory;
 import org.eclipse.nebula.widgets.nattable.edit.gui.ICellEditDialog;
+import org.eclipse.nebula.widgets.nattable.layer.AbstractLayer;
+import org.eclipse.nebula.widgets.nattable.layer.DataLayer;
 import org.eclipse.nebula.widgets.nattable.layer.ILayer;
 import org.eclipse.nebula.widgets.nattable.layer.cell.ILayerCell;
 import org.eclipse.nebula.widgets.nattable.style.DisplayMode;
@@ -170,16 +176,7 @@ public class EditController {
 					int returnValue = dialog.open();
 					
 					if (returnValue == Window.OK) {
-						for (ILayerCell selectedCell : cells) {
-							Object editorValue = dialog.getCommittedValue();
-							if (!(dialog.getEditType() == EditTypeEnum.SET)) {
-								editorValue = dialog.calculateValue(selectedCell.getDataValue(), editorValue);
-							}
-							ILayer layer = selectedCell.getLayer();
-							
-							layer.doCommand(new UpdateDataCommand(
-									layer, selectedCell.getColumnPosition(), selectedCell.getRowPosition(), editorValue));
-						}
+						updateCells(cells, dialog);
 					}
 				}
 				else {
@@ -208,6 +205,88 @@ public class EditController {
 		}
 	}
 	
+	/**
+	 * Updates the given cells with the value committed in the given dialog. The new values
+	 * are collected per layer, so the data model is updated via one
+	 * {@link MultiUpdateDataCommand} and only one visual change event is fired per layer.
+	 * <p>
+	 * If a handler for {@link UpdateDataCommand}s is registered to a layer between the layer
+	 * of a cell and the {@link DataLayer}, e.g. for validation or conversion, the cells of
+	 * that layer are updated via one {@link UpdateDataCommand} per cell instead, so the
+	 * handler is not bypassed.
+	 * @param cells The cells that were edited.
+	 * @param dialog The dialog that was used for editing and closed with OK.
+	 */
+	static void updateCells(Collection<ILayerCell> cells, ICellEditDialog dialog) {
+		Map<ILayer, List<ILayerCell>> cellsByLayer = new LinkedHashMap<ILayer, List<ILayerCell>>();
+		for (ILayerCell selectedCell : cells) {
+			List<ILayerCell> layerCells = cellsByLayer.get(selectedCell.getLayer());
+			if (layerCells == null) {
+				layerCells = new ArrayList<ILayerCell>();
+				cellsByLayer.put(selectedCell.getLayer(), layerCells);
+			}
+			layerCells.add(selectedCell);
+		}
+
+		for (Map.Entry<ILayer, List<ILayerCell>> entry : cellsByLayer.entrySet()) {
+			List<ILayerCell> layerCells = entry.getValue();
+			int[] columnPositions = new int[layerCells.size()];
+			int[] rowPositions = new int[layerCells.size()];
+			Object[] editorValues = new Object[layerCells.size()];
+			for (int i = 0; i < layerCells.size(); i++) {
+				ILayerCell selectedCell = layerCells.get(i);
+				Object editorValue = dialog.getCommittedValue();
+				if (!(dialog.getEditType() == EditTypeEnum.SET)) {
+					editorValue = dialog.calculateValue(selectedCell.getDataValue(), editorValue);
+				}
+				columnPositions[i] = selectedCell.getColumnPosition();
+				rowPositions[i] = selectedCell.getRowPosition();
+				editorValues[i] = editorValue;
+			}
+			ILayer layer = entry.getKey();
+
+			if (hasUpdateDataCommandHandlerAboveDataLayer(layerCells)) {
+				for (int i = 0; i < layerCells.size(); i++) {
+					layer.doCommand(new UpdateDataCommand(
+							layer, columnPositions[i], rowPositions[i], editorValues[i]));
+				}
+			} else {
+				layer.doCommand(new MultiUpdateDataCommand(
+						layer, columnPositions, rowPositions, editorValues));
+			}
+		}
+	}
+
+	/**
+	 * Checks the layers from the layer of every given cell down to the {@link DataLayer}
+	 * for registered handlers of {@link UpdateDataCommand}s. The handler registered to the
+	 * {@link DataLayer} itself is respected by the {@link MultiUpdateDataCommandHandler}.
+	 * @param cells The cells to check.
+	 * @return <code>true</code> if a handler for {@link UpdateDataCommand}s is registered
+	 * 			to a layer above the {@link DataLayer} of at least one of the given cells.
+	 */
+	private static boolean hasUpdateDataCommandHandlerAboveDataLayer(List<ILayerCell> cells) {
+		for (ILayerCell cell : cells) {
+			ILayer layer = cell.getLayer();
+			int columnPosition = cell.getColumnPosition();
+			int rowPosition = cell.getRowPosition();
+			while (layer != null && !(layer instanceof DataLayer)) {
+				if (layer instanceof AbstractLayer
+						&& ((AbstractLayer) layer).getCommandHandler(UpdateDataCommand.class) != null) {
+					return true;
+				}
+				ILayer underlyingLayer = layer.getUnderlyingLayerByPosition(columnPosition, rowPosition);
+				columnPosition = layer.localToUnderlyingColumnPosition(columnPosition);
+				rowPosition = layer.localToUnderlyingRowPosition(rowPosition);
+				if (columnPosition < 0 || rowPosition < 0) {
+					break;
+				}
+				layer = underlyingLayer;
+			}
+		}
+		return false;
+	}
+
 	/**
 	 * Will check if multi editing is supported. Usually it should be enough checking the editor once.
 	 * But as this can be configured via configuration attribute, and this can differ from cell to cell,
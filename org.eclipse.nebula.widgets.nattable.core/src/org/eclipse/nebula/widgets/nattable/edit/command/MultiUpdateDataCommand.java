@@ -0,0 +1,128 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Original authors and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Original authors and others - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.edit.command;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.nebula.widgets.nattable.command.ILayerCommand;
+import org.eclipse.nebula.widgets.nattable.command.LayerCommandUtil;
+import org.eclipse.nebula.widgets.nattable.coordinate.PositionCoordinate;
+import org.eclipse.nebula.widgets.nattable.layer.ILayer;
+
+/**
+ * Command that will trigger a data model update for several cells at once.
+ * <p>
+ * In contrast to executing an {@link UpdateDataCommand} per cell, the values are applied
+ * in one pass by the {@link MultiUpdateDataCommandHandler}, which fires a single
+ * MultiCellVisualChangeEvent for all changed cells.
+ */
+public class MultiUpdateDataCommand implements ILayerCommand {
+
+	/**
+	 * The coordinates of the cells to update.
+	 */
+	private PositionCoordinate[] positionCoordinates;
+	/**
+	 * The values to update the data model to, in the order of the coordinates.
+	 */
+	private Object[] newValues;
+
+	/**
+	 * Create a new {@link MultiUpdateDataCommand} based on the specified information.
+	 * @param layer The {@link ILayer} to which the column and row positions are resolved to.
+	 * @param columnPositions The column positions of the values to update.
+	 * @param rowPositions The row positions of the values to update.
+	 * @param newValues The values to update the data model values to. The value at index i
+	 * 			is set to the cell at columnPositions[i] and rowPositions[i].
+	 */
+	public MultiUpdateDataCommand(ILayer layer, int[] columnPositions, int[] rowPositions, Object[] newValues) {
+		if (columnPositions.length != rowPositions.length || columnPositions.length != newValues.length) {
+			throw new IllegalArgumentException("The number of positions and values must be equal"); //$NON-NLS-1$
+		}
+		this.positionCoordinates = new PositionCoordinate[columnPositions.length];
+		for (int i = 0; i < columnPositions.length; i++) {
+			this.positionCoordinates[i] = new PositionCoordinate(layer, columnPositions[i], rowPositions[i]);
+		}
+		this.newValues = newValues.clone();
+	}
+
+	/**
+	 * Create a new {@link MultiUpdateDataCommand} based on the specified instance.
+	 * Mainly needed for cloning purposes.
+	 * @param command The command to create a new instance from.
+	 */
+	protected MultiUpdateDataCommand(MultiUpdateDataCommand command) {
+		this.positionCoordinates = command.positionCoordinates;
+		this.newValues = command.newValues;
+	}
+
+	@Override
+	public boolean convertToTargetLayer(ILayer targetLayer) {
+		List<PositionCoordinate> convertedCoordinates = new ArrayList<PositionCoordinate>(this.positionCoordinates.length);
+		List<Object> convertedValues = new ArrayList<Object>(this.positionCoordinates.length);
+		for (int i = 0; i < this.positionCoordinates.length; i++) {
+			PositionCoordinate converted = LayerCommandUtil.convertPositionToTargetContext(this.positionCoordinates[i], targetLayer);
+			if (converted != null) {
+				convertedCoordinates.add(converted);
+				convertedValues.add(this.newValues[i]);
+			}
+		}
+
+		if (convertedCoordinates.size() > 0) {
+			this.positionCoordinates = convertedCoordinates.toArray(new PositionCoordinate[convertedCoordinates.size()]);
+			this.newValues = convertedValues.toArray();
+			return true;
+		}
+		return false;
+	}
+
+	/**
+	 * @return The number of cells to update.
+	 */
+	public int getCellCount() {
+		return this.positionCoordinates.length;
+	}
+
+	/**
+	 * @param index The index of the cell in this command.
+	 * @return The column position of the cell at the given index.
+	 */
+	public int getColumnPosition(int index) {
+		return this.positionCoordinates[index].getColumnPosition();
+	}
+
+	/**
+	 * @param index The index of the cell in this command.
+	 * @return The row position of the cell at the given index.
+	 */
+	public int getRowPosition(int index) {
+		return this.positionCoordinates[index].getRowPosition();
+	}
+
+	/**
+	 * @param index The index of the cell in this command.
+	 * @return The value to update the cell at the given index to.
+	 */
+	public Object getNewValue(int index) {
+		return this.newValues[index];
+	}
+
+	@Override
+	public MultiUpdateDataCommand cloneCommand() {
+		return new MultiUpdateDataCommand(this);
+	}
+
+	@Override
+	public String toString() {
+		return this.getClass().getSimpleName() + " cellCount=" + this.positionCoordinates.length; //$NON-NLS-1$
+	}
+}
@@ -0,0 +1,107 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Original authors and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Original authors and others - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.edit.command;
+
+import java.util.Arrays;
+
+import org.apache.commons.lang.ObjectUtils;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.eclipse.nebula.widgets.nattable.command.AbstractLayerCommandHandler;
+import org.eclipse.nebula.widgets.nattable.command.ILayerCommandHandler;
+import org.eclipse.nebula.widgets.nattable.layer.DataLayer;
+import org.eclipse.nebula.widgets.nattable.layer.event.MultiCellVisualChangeEvent;
+
+/**
+ * {@link ILayerCommandHandler} that handles {@link MultiUpdateDataCommand}s by updating
+ * the data model for all cells of the command in one pass. Only one
+ * {@link MultiCellVisualChangeEvent} is fired for all cells whose value has changed.
+ * It is usually directly registered to the {@link DataLayer} this command handler is
+ * associated with.
+ * <p>
+ * If a custom handler for {@link UpdateDataCommand}s is registered to the {@link DataLayer},
+ * e.g. to update the data model in a special way, the cells are updated via one
+ * {@link UpdateDataCommand} per cell instead, so the custom handler is not bypassed.
+ */
+public class MultiUpdateDataCommandHandler extends AbstractLayerCommandHandler<MultiUpdateDataCommand> {
+
+	private static final Log log = LogFactory.getLog(MultiUpdateDataCommandHandler.class);
+
+	/**
+	 * The {@link DataLayer} on which the data model updates should be executed.
+	 */
+	private final DataLayer dataLayer;
+
+	/**
+	 * @param dataLayer The {@link DataLayer} on which the data model updates should be executed.
+	 */
+	public MultiUpdateDataCommandHandler(DataLayer dataLayer) {
+		this.dataLayer = dataLayer;
+	}
+
+	@Override
+	public Class<MultiUpdateDataCommand> getCommandClass() {
+		return MultiUpdateDataCommand.class;
+	}
+
+	@Override
+	protected boolean doCommand(MultiUpdateDataCommand command) {
+		ILayerCommandHandler<?> updateHandler = this.dataLayer.getCommandHandler(UpdateDataCommand.class);
+		if (updateHandler != null && updateHandler.getClass() != UpdateDataCommandHandler.class) {
+			return doCommandPerCell(command);
+		}
+
+		int cellCount = command.getCellCount();
+		int[] changedColumnPositions = new int[cellCount];
+		int[] changedRowPositions = new int[cellCount];
+		int changedCount = 0;
+		boolean success = true;
+
+		for (int i = 0; i < cellCount; i++) {
+			int columnPosition = command.getColumnPosition(i);
+			int rowPosition = command.getRowPosition(i);
+			Object newValue = command.getNewValue(i);
+			try {
+				if (!ObjectUtils.equals(
+						this.dataLayer.getDataValue(columnPosition, rowPosition), newValue)) {
+					this.dataLayer.setDataValue(columnPosition, rowPosition, newValue);
+					changedColumnPositions[changedCount] = columnPosition;
+					changedRowPositions[changedCount] = rowPosition;
+					changedCount++;
+				}
+			} catch (Exception e) {
+				log.error("Failed to update value to: " + newValue, e); //$NON-NLS-1$
+				success = false;
+			}
+		}
+
+		// fire the event even if some updates failed, so the successful ones get rendered
+		if (changedCount > 0) {
+			this.dataLayer.fireLayerEvent(new MultiCellVisualChangeEvent(this.dataLayer,
+					Arrays.copyOf(changedColumnPositions, changedCount),
+					Arrays.copyOf(changedRowPositions, changedCount)));
+		}
+		return success;
+	}
+
+	/**
+	 * Executes one {@link UpdateDataCommand} per cell of the given command on the
+	 * {@link DataLayer}, so the registered handler for single cell updates is used.
+	 */
+	private boolean doCommandPerCell(MultiUpdateDataCommand command) {
+		boolean success = true;
+		for (int i = 0; i < command.getCellCount(); i++) {
+			success &= this.dataLayer.doCommand(new UpdateDataCommand(this.dataLayer,
+					command.getColumnPosition(i), command.getRowPosition(i), command.getNewValue(i)));
+		}
+		return success;
+	}
+}
@@ -15,6 +15,7 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -25,6 +26,7 @@ import org.eclipse.nebula.widgets.nattable.layer.ILayer;
 import org.eclipse.nebula.widgets.nattable.layer.ILayerListener;
 import org.eclipse.nebula.widgets.nattable.layer.event.CellVisualChangeEvent;
 import org.eclipse.nebula.widgets.nattable.layer.event.ILayerEvent;
+import org.eclipse.nebula.widgets.nattable.layer.event.MultiCellVisualChangeEvent;
 import org.eclipse.nebula.widgets.nattable.layer.event.IStructuralChangeEvent;
 
 /**
@@ -138,14 +140,18 @@ public class FilterRowComboBoxDataProvider<T> implements IComboBoxDataProvider,
 		if (event instanceof CellVisualChangeEvent) {
 			//usually this is fired for data updates
 			//so we need to update the value cache for the updated column
-			int column = ((CellVisualChangeEvent)event).getColumnPosition();
-			
-			List<?> cacheBefore = this.valueCache.get(column);
-			
-			this.valueCache.put(column, collectValues(column));
-			
-			//get the diff and fire the event
-			fireCacheUpdateEvent(buildUpdateEvent(column, cacheBefore, this.valueCache.get(column)));
+			updateValueCache(((CellVisualChangeEvent)event).getColumnPosition());
+		}
+		else if (event instanceof MultiCellVisualChangeEvent) {
+			//fired for multi cell data updates, every updated column is only collected once
+			MultiCellVisualChangeEvent changeEvent = (MultiCellVisualChangeEvent) event;
+			Set<Integer> columns = new LinkedHashSet<Integer>();
+			for (int i = 0; i < changeEvent.getCellCount(); i++) {
+				columns.add(changeEvent.getColumnPosition(i));
+			}
+			for (Integer column : columns) {
+				updateValueCache(column);
+			}
 		}
 		else if (event instanceof IStructuralChangeEvent
 				&& ((IStructuralChangeEvent) event).isVerticalStructureChanged()) {
@@ -164,6 +170,20 @@ public class FilterRowComboBoxDataProvider<T> implements IComboBoxDataProvider,
 			}
 		}
 	}
+
+	/**
+	 * Collects the values for the given column again and fires a FilterRowComboUpdateEvent
+	 * for the differences to the previously cached values.
+	 * @param column The column for which the value cache should be updated.
+	 */
+	private void updateValueCache(int column) {
+		List<?> cacheBefore = this.valueCache.get(column);
+		
+		this.valueCache.put(column, collectValues(column));
+		
+		//get the diff and fire the event
+		fireCacheUpdateEvent(buildUpdateEvent(column, cacheBefore, this.valueCache.get(column)));
+	}
 	
 	/**
 	 * Creates a FilterRowComboUpdateEvent for the given column index. Calculates the diffs of the value cache
@@ -242,4 +262,18 @@ public class FilterRowComboBoxDataProvider<T> implements IComboBoxDataProvider,
 		return this.valueCache;
 	}
 
+	/**
+	 * @return The base collection used to collect the unique values from.
+	 */
+	protected Collection<T> getBaseCollection() {
+		return this.baseCollection;
+	}
+
+	/**
+	 * @return The IColumnAccessor to be able to read the values out of the base collection objects.
+	 */
+	protected IColumnAccessor<T> getColumnAccessor() {
+		return this.columnAccessor;
+	}
+
 }
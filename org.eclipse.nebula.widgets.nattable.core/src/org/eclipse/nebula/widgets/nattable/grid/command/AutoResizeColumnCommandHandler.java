@@ -15,11 +15,14 @@ import org.eclipse.nebula.widgets.nattable.grid.layer.GridLayer;
 import org.eclipse.nebula.widgets.nattable.layer.ILayer;
 import org.eclipse.nebula.widgets.nattable.print.command.TurnViewportOffCommand;
 import org.eclipse.nebula.widgets.nattable.print.command.TurnViewportOnCommand;
+import org.eclipse.nebula.widgets.nattable.resize.AutoResizeStrategy;
 import org.eclipse.nebula.widgets.nattable.resize.MaxCellBoundsHelper;
+import org.eclipse.nebula.widgets.nattable.resize.ResizeConfigAttributes;
 import org.eclipse.nebula.widgets.nattable.resize.command.AutoResizeColumnsCommand;
 import org.eclipse.nebula.widgets.nattable.resize.command.InitializeAutoResizeColumnsCommand;
 import org.eclipse.nebula.widgets.nattable.resize.command.MultiColumnResizeCommand;
 import org.eclipse.nebula.widgets.nattable.selection.SelectionLayer;
+import org.eclipse.nebula.widgets.nattable.style.DisplayMode;
 import org.eclipse.nebula.widgets.nattable.util.ObjectUtils;
 
 /**
@@ -72,26 +75,52 @@ public class AutoResizeColumnCommandHandler implements ILayerCommandHandler<Auto
 
 	@Override
 	public boolean doCommand(ILayer targetLayer, AutoResizeColumnsCommand command) {
+		AutoResizeStrategy strategy = command.getConfigRegistry().getConfigAttribute(
+				ResizeConfigAttributes.AUTO_RESIZE_STRATEGY, DisplayMode.NORMAL);
+		boolean measureInvisibleRows = strategy == null || strategy.isMeasuringInvisibleRows();
+
 		// Need to resize selected columns even if they are outside the viewport
 		// As this command is triggered by the InitialAutoResizeCommand we know that the targetLayer is the 
 		// NatTable itself
-		targetLayer.doCommand(new TurnViewportOffCommand());
+		if (measureInvisibleRows) {
+			targetLayer.doCommand(new TurnViewportOffCommand());
+		}
 
 		int[] columnPositions = ObjectUtils.asIntArray(command.getColumnPositions());
 		int[] gridColumnPositions = convertFromPositionToCommandLayer(columnPositions);
+		if (!measureInvisibleRows) {
+			// with the viewport turned on, columns outside the viewport are not resized
+			gridColumnPositions = removeInvalidPositions(gridColumnPositions);
+		}
 
 		int[] gridColumnWidths = MaxCellBoundsHelper.getPreferredColumnWidths(
                                                          command.getConfigRegistry(), 
                                                          command.getGCFactory(), 
                                                          commandLayer,
-                                                         gridColumnPositions);
+                                                         gridColumnPositions,
+                                                         strategy);
 
 		commandLayer.doCommand(new MultiColumnResizeCommand(commandLayer, gridColumnPositions, gridColumnWidths));
-		targetLayer.doCommand(new TurnViewportOnCommand());
+		if (measureInvisibleRows) {
+			targetLayer.doCommand(new TurnViewportOnCommand());
+		}
 
 		return true;
 	}
 
+	private int[] removeInvalidPositions(int[] positions) {
+		int count = 0;
+		int[] result = new int[positions.length];
+		for (int position : positions) {
+			if (position >= 0) {
+				result[count++] = position;
+			}
+		}
+		int[] trimmed = new int[count];
+		System.arraycopy(result, 0, trimmed, 0, count);
+		return trimmed;
+	}
+
 	/**
 	 * Translates the column positions the layer stack upwards as the resulting {@link MultiColumnResizeCommand}
 	 * will be fired on the command layer which is on top of the position layer.
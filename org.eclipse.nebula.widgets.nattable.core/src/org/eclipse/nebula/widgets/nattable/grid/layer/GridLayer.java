@@ -10,6 +10,9 @@
  ******************************************************************************/
 package org.eclipse.nebula.widgets.nattable.grid.layer;
 
+import java.util.Arrays;
+import java.util.Collection;
+
 import org.eclipse.nebula.widgets.nattable.command.ILayerCommand;
 import org.eclipse.nebula.widgets.nattable.export.command.ExportCommandHandler;
 import org.eclipse.nebula.widgets.nattable.grid.GridRegion;
@@ -90,23 +93,14 @@ public class GridLayer extends CompositeLayer {
 	 * never see the command because it will be consumed first by the body. In
 	 * practice, it's a good idea to implement all your command-handling logic
 	 * in the body.
+	 * 
+	 * If command routing is enabled via {@link #setCommandRoutingEnabled(boolean)},
+	 * a command class that was last handled by a header or the corner is passed
+	 * to that layer first, which bypasses the order above.
 	 **/
 	@Override
-	protected boolean doCommandOnChildLayers(ILayerCommand command) {
-		if (doCommandOnChildLayer(command, getBodyLayer())) {
-			return true;
-		} else if (doCommandOnChildLayer(command, getColumnHeaderLayer())) {
-			return true;
-		} else if (doCommandOnChildLayer(command, getRowHeaderLayer())) {
-			return true;
-		} else {
-			return doCommandOnChildLayer(command, getCornerLayer());
-		}
-	}
-	
-	private boolean doCommandOnChildLayer(ILayerCommand command, ILayer childLayer) {
-		ILayerCommand childCommand = command.cloneCommand();
-		return childLayer.doCommand(childCommand);
+	protected Collection<ILayer> getChildLayersInCommandOrder() {
+		return Arrays.asList(getBodyLayer(), getColumnHeaderLayer(), getRowHeaderLayer(), getCornerLayer());
 	}
 	
 	// Sub-layer accessors
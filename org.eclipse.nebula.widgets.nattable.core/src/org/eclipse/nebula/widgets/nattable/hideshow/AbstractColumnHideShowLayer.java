@@ -25,6 +25,7 @@ import org.eclipse.nebula.widgets.nattable.layer.IUniqueIndexLayer;
 import org.eclipse.nebula.widgets.nattable.layer.LayerUtil;
 import org.eclipse.nebula.widgets.nattable.layer.event.ILayerEvent;
 import org.eclipse.nebula.widgets.nattable.layer.event.IStructuralChangeEvent;
+import org.eclipse.nebula.widgets.nattable.metrics.MetricsRegistry;
 
 
 public abstract class AbstractColumnHideShowLayer extends AbstractLayerTransform implements IUniqueIndexLayer {
@@ -162,10 +163,17 @@ public abstract class AbstractColumnHideShowLayer extends AbstractLayerTransform
 
 	@Override
 	public int getStartXOfColumnPosition(int localColumnPosition) {
+		MetricsRegistry metrics = MetricsRegistry.getInstance();
 		Integer cachedStartX = startXCache.get(Integer.valueOf(localColumnPosition));
 		if (cachedStartX != null) {
+			if (metrics.isEnabled()) {
+				metrics.increment(MetricsRegistry.CACHE_HIT_PREFIX + "columnHideShow.startX"); //$NON-NLS-1$
+			}
 			return cachedStartX.intValue();
 		}
+		if (metrics.isEnabled()) {
+			metrics.increment(MetricsRegistry.CACHE_MISS_PREFIX + "columnHideShow.startX"); //$NON-NLS-1$
+		}
 
 		IUniqueIndexLayer underlyingLayer = (IUniqueIndexLayer) getUnderlyingLayer();
 		int underlyingPosition = localToUnderlyingColumnPosition(localColumnPosition);
@@ -23,6 +23,7 @@ import org.eclipse.nebula.widgets.nattable.layer.IUniqueIndexLayer;
 import org.eclipse.nebula.widgets.nattable.layer.LayerUtil;
 import org.eclipse.nebula.widgets.nattable.layer.event.ILayerEvent;
 import org.eclipse.nebula.widgets.nattable.layer.event.IStructuralChangeEvent;
+import org.eclipse.nebula.widgets.nattable.metrics.MetricsRegistry;
 
 
 public abstract class AbstractRowHideShowLayer extends AbstractLayerTransform implements IUniqueIndexLayer {
@@ -173,10 +174,17 @@ public abstract class AbstractRowHideShowLayer extends AbstractLayerTransform im
 	
 	@Override
 	public int getStartYOfRowPosition(int localRowPosition) {
+		MetricsRegistry metrics = MetricsRegistry.getInstance();
 		Integer cachedStartY = startYCache.get(Integer.valueOf(localRowPosition));
 		if (cachedStartY != null) {
+			if (metrics.isEnabled()) {
+				metrics.increment(MetricsRegistry.CACHE_HIT_PREFIX + "rowHideShow.startY"); //$NON-NLS-1$
+			}
 			return cachedStartY.intValue();
 		}
+		if (metrics.isEnabled()) {
+			metrics.increment(MetricsRegistry.CACHE_MISS_PREFIX + "rowHideShow.startY"); //$NON-NLS-1$
+		}
 		
 		IUniqueIndexLayer underlyingLayer = (IUniqueIndexLayer) getUnderlyingLayer();
 		int underlyingPosition = localToUnderlyingRowPosition(localRowPosition);
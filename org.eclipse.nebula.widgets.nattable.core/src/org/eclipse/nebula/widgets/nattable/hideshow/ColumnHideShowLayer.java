@@ -29,6 +29,7 @@ import org.eclipse.nebula.widgets.nattable.layer.event.ILayerEvent;
 import org.eclipse.nebula.widgets.nattable.layer.event.IStructuralChangeEvent;
 import org.eclipse.nebula.widgets.nattable.layer.event.StructuralChangeEventHelper;
 import org.eclipse.nebula.widgets.nattable.layer.event.StructuralDiff;
+import org.eclipse.nebula.widgets.nattable.persistence.BinaryStateProperties;
 import org.eclipse.nebula.widgets.nattable.persistence.IPersistable;
 
 
@@ -68,7 +69,10 @@ public class ColumnHideShowLayer extends AbstractColumnHideShowLayer {
 	
 	@Override
 	public void saveState(String prefix, Properties properties) {
-		if (hiddenColumnIndexes.size() > 0) {
+		if (hiddenColumnIndexes.size() > 0 && properties instanceof BinaryStateProperties) {
+			((BinaryStateProperties) properties).setIndexSet(prefix + PERSISTENCE_KEY_HIDDEN_COLUMN_INDEXES, hiddenColumnIndexes);
+		}
+		else if (hiddenColumnIndexes.size() > 0) {
 			StringBuilder strBuilder = new StringBuilder();
 			for (Integer index : hiddenColumnIndexes) {
 				strBuilder.append(index);
@@ -84,8 +88,15 @@ public class ColumnHideShowLayer extends AbstractColumnHideShowLayer {
 	public void loadState(String prefix, Properties properties) {
 		//Bug 396925: always clear the state of the hidden columns, whether there is a state saved or not
 		hiddenColumnIndexes.clear();
+		int[] persistedIndexes = (properties instanceof BinaryStateProperties)
+				? ((BinaryStateProperties) properties).getIndexSet(prefix + PERSISTENCE_KEY_HIDDEN_COLUMN_INDEXES) : null;
 		String property = properties.getProperty(prefix + PERSISTENCE_KEY_HIDDEN_COLUMN_INDEXES);
-		if (property != null) {
+		if (persistedIndexes != null) {
+			for (int index : persistedIndexes) {
+				hiddenColumnIndexes.add(index);
+			}
+		}
+		else if (property != null) {
 			StringTokenizer tok = new StringTokenizer(property, IPersistable.VALUE_SEPARATOR);
 			while (tok.hasMoreTokens()) {
 				String index = tok.nextToken();
@@ -29,6 +29,7 @@ import org.eclipse.nebula.widgets.nattable.layer.event.ILayerEvent;
 import org.eclipse.nebula.widgets.nattable.layer.event.IStructuralChangeEvent;
 import org.eclipse.nebula.widgets.nattable.layer.event.StructuralChangeEventHelper;
 import org.eclipse.nebula.widgets.nattable.layer.event.StructuralDiff;
+import org.eclipse.nebula.widgets.nattable.persistence.BinaryStateProperties;
 import org.eclipse.nebula.widgets.nattable.persistence.IPersistable;
 
 
@@ -68,7 +69,10 @@ public class RowHideShowLayer extends AbstractRowHideShowLayer implements IRowHi
 	
 	@Override
 	public void saveState(String prefix, Properties properties) {
-		if (hiddenRowIndexes.size() > 0) {
+		if (hiddenRowIndexes.size() > 0 && properties instanceof BinaryStateProperties) {
+			((BinaryStateProperties) properties).setIndexSet(prefix + PERSISTENCE_KEY_HIDDEN_ROW_INDEXES, hiddenRowIndexes);
+		}
+		else if (hiddenRowIndexes.size() > 0) {
 			StringBuilder strBuilder = new StringBuilder();
 			for (Integer index : hiddenRowIndexes) {
 				strBuilder.append(index);
@@ -83,8 +87,15 @@ public class RowHideShowLayer extends AbstractRowHideShowLayer implements IRowHi
 	@Override
 	public void loadState(String prefix, Properties properties) {
 		hiddenRowIndexes.clear();
+		int[] persistedIndexes = (properties instanceof BinaryStateProperties)
+				? ((BinaryStateProperties) properties).getIndexSet(prefix + PERSISTENCE_KEY_HIDDEN_ROW_INDEXES) : null;
 		String property = properties.getProperty(prefix + PERSISTENCE_KEY_HIDDEN_ROW_INDEXES);
-		if (property != null) {
+		if (persistedIndexes != null) {
+			for (int index : persistedIndexes) {
+				hiddenRowIndexes.add(index);
+			}
+		}
+		else if (property != null) {
 			StringTokenizer tok = new StringTokenizer(property, IPersistable.VALUE_SEPARATOR);
 			while (tok.hasMoreTokens()) {
 				String index = tok.nextToken();
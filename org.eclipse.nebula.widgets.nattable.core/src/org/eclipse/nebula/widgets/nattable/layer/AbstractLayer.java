@@ -10,6 +10,7 @@
  ******************************************************************************/
 package org.eclipse.nebula.widgets.nattable.layer;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.Iterator;
@@ -21,6 +22,7 @@ import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
 
+import org.eclipse.nebula.widgets.nattable.command.CommandDispatchStatistics;
 import org.eclipse.nebula.widgets.nattable.command.ILayerCommand;
 import org.eclipse.nebula.widgets.nattable.command.ILayerCommandHandler;
 import org.eclipse.nebula.widgets.nattable.config.CellConfigAttributes;
@@ -30,8 +32,11 @@ import org.eclipse.nebula.widgets.nattable.config.IConfiguration;
 import org.eclipse.nebula.widgets.nattable.layer.cell.IConfigLabelAccumulator;
 import org.eclipse.nebula.widgets.nattable.layer.cell.ILayerCell;
 import org.eclipse.nebula.widgets.nattable.layer.cell.LayerCell;
+import org.eclipse.nebula.widgets.nattable.layer.event.IContextFreeEvent;
+import org.eclipse.nebula.widgets.nattable.layer.event.ICopyOnConvertEvent;
 import org.eclipse.nebula.widgets.nattable.layer.event.ILayerEvent;
 import org.eclipse.nebula.widgets.nattable.layer.event.ILayerEventHandler;
+import org.eclipse.nebula.widgets.nattable.metrics.MetricsRegistry;
 import org.eclipse.nebula.widgets.nattable.painter.cell.ICellPainter;
 import org.eclipse.nebula.widgets.nattable.painter.layer.GridLineCellLayerPainter;
 import org.eclipse.nebula.widgets.nattable.painter.layer.ILayerPainter;
@@ -53,7 +58,17 @@ public abstract class AbstractLayer implements ILayer {
 	private IConfigLabelAccumulator configLabelAccumulator;
 
 	private final Map<Class<? extends ILayerCommand>, ILayerCommandHandler<? extends ILayerCommand>> commandHandlers = new LinkedHashMap<Class<? extends ILayerCommand>, ILayerCommandHandler<? extends ILayerCommand>>();
+	/**
+	 * The command handlers that are responsible for a concrete command class, in the order
+	 * of registration. Cleared on every registration change.
+	 */
+	private final Map<Class<?>, ILayerCommandHandler<?>[]> resolvedCommandHandlers = new HashMap<Class<?>, ILayerCommandHandler<?>[]>();
 	private final Map<Class<? extends ILayerEvent>, ILayerEventHandler<? extends ILayerEvent>> eventHandlers = new HashMap<Class<? extends ILayerEvent>, ILayerEventHandler<? extends ILayerEvent>>();
+	/**
+	 * The event handlers that are responsible for a concrete event class.
+	 * Cleared on every registration change.
+	 */
+	private final Map<Class<?>, ILayerEventHandler<?>[]> resolvedEventHandlers = new HashMap<Class<?>, ILayerEventHandler<?>[]>();
 	
 	private final List<IPersistable> persistables = new LinkedList<IPersistable>();
 	private final Set<ILayerListener> listeners = new LinkedHashSet<ILayerListener>();
@@ -156,18 +171,39 @@ public abstract class AbstractLayer implements ILayer {
 	@Override
 	@SuppressWarnings({ "unchecked", "rawtypes" })
 	public boolean doCommand(ILayerCommand command) {
-		for (Class<? extends ILayerCommand> commandClass : commandHandlers.keySet()) {
-			if (commandClass.isInstance(command)) {
-				ILayerCommandHandler commandHandler = commandHandlers.get(commandClass);
-				if (commandHandler.doCommand(this, command)) {
-					return true;
-				}
+		CommandDispatchStatistics.hop();
+		for (ILayerCommandHandler commandHandler : getCommandHandlers(command.getClass())) {
+			if (commandHandler.doCommand(this, command)) {
+				return true;
 			}
 		}
 		
 		return false;
 	}
 	
+	/**
+	 * Returns the registered command handlers whose command class is assignable from the
+	 * given concrete command class. The result is cached per command class, so the
+	 * registered handlers don't need to be checked for every executed command.
+	 * @param commandClass The concrete class of the command to handle.
+	 * @return The command handlers responsible for the given command class, in the order
+	 * 			of their registration.
+	 */
+	private ILayerCommandHandler<?>[] getCommandHandlers(Class<?> commandClass) {
+		ILayerCommandHandler<?>[] handlers = resolvedCommandHandlers.get(commandClass);
+		if (handlers == null) {
+			List<ILayerCommandHandler<?>> result = new ArrayList<ILayerCommandHandler<?>>();
+			for (Map.Entry<Class<? extends ILayerCommand>, ILayerCommandHandler<? extends ILayerCommand>> entry : commandHandlers.entrySet()) {
+				if (entry.getKey().isAssignableFrom(commandClass)) {
+					result.add(entry.getValue());
+				}
+			}
+			handlers = result.toArray(new ILayerCommandHandler<?>[result.size()]);
+			resolvedCommandHandlers.put(commandClass, handlers);
+		}
+		return handlers;
+	}
+	
 	// Command handlers
 	
 	/**
@@ -182,11 +218,22 @@ public abstract class AbstractLayer implements ILayer {
 	@Override
 	public void registerCommandHandler(ILayerCommandHandler<?> commandHandler) {
 		commandHandlers.put(commandHandler.getCommandClass(), commandHandler);
+		resolvedCommandHandlers.clear();
 	}
 
 	@Override
 	public void unregisterCommandHandler(Class<? extends ILayerCommand> commandClass) {
 		commandHandlers.remove(commandClass);
+		resolvedCommandHandlers.clear();
+	}
+
+	/**
+	 * @param commandClass The command class the requested handler is registered for.
+	 * @return The command handler that is registered to this layer for exactly the given
+	 * 			command class, or <code>null</code> if there is none.
+	 */
+	public ILayerCommandHandler<?> getCommandHandler(Class<? extends ILayerCommand> commandClass) {
+		return commandHandlers.get(commandClass);
 	}
 	
 	// Events
@@ -222,11 +269,8 @@ public abstract class AbstractLayer implements ILayer {
 	@Override
 	@SuppressWarnings({ "unchecked", "rawtypes" })
 	public void handleLayerEvent(ILayerEvent event) {
-		for (Class<? extends ILayerEvent> eventClass : eventHandlers.keySet()) {
-			if (eventClass.isInstance(event)) {
-				ILayerEventHandler eventHandler = eventHandlers.get(eventClass);
-				eventHandler.handleLayerEvent(event);
-			}
+		for (ILayerEventHandler eventHandler : getEventHandlers(event.getClass())) {
+			eventHandler.handleLayerEvent(event);
 		}
 		
 		// Pass on the event to our parent
@@ -235,29 +279,76 @@ public abstract class AbstractLayer implements ILayer {
 		}
 	}
 	
+	/**
+	 * Returns the registered event handlers whose event class is assignable from the
+	 * given concrete event class. The result is cached per event class, so the registered
+	 * handlers don't need to be checked for every event.
+	 * @param eventClass The concrete class of the event to handle.
+	 * @return The event handlers responsible for the given event class.
+	 */
+	private ILayerEventHandler<?>[] getEventHandlers(Class<?> eventClass) {
+		ILayerEventHandler<?>[] handlers = resolvedEventHandlers.get(eventClass);
+		if (handlers == null) {
+			List<ILayerEventHandler<?>> result = new ArrayList<ILayerEventHandler<?>>();
+			for (Map.Entry<Class<? extends ILayerEvent>, ILayerEventHandler<? extends ILayerEvent>> entry : eventHandlers.entrySet()) {
+				if (entry.getKey().isAssignableFrom(eventClass)) {
+					result.add(entry.getValue());
+				}
+			}
+			handlers = result.toArray(new ILayerEventHandler<?>[result.size()]);
+			resolvedEventHandlers.put(eventClass, handlers);
+		}
+		return handlers;
+	}
+	
 	public void registerEventHandler(ILayerEventHandler<?> eventHandler) {
 		eventHandlers.put(eventHandler.getLayerEventClass(), eventHandler);
+		resolvedEventHandlers.clear();
 	}
 	
 	public void unregisterEventHandler(ILayerEventHandler<?> eventHandler) {
 		eventHandlers.remove(eventHandler.getLayerEventClass());
+		resolvedEventHandlers.clear();
 	}
 	
 	/**
 	 * Pass the event to all the {@link ILayerListener} registered on this layer.
-	 * A cloned copy is passed to each listener.
+	 * A cloned copy is passed to each listener, except for {@link IContextFreeEvent}s
+	 * which are not modified by the listeners. {@link ICopyOnConvertEvent}s are only
+	 * cloned for listeners that are layers and therefore convert them.
+	 * <p>
+	 * If the {@link MetricsRegistry} is enabled, the event is counted per event class.
+	 * As every layer fires the event to its parent, the count reflects the propagation
+	 * through the layer stack.
 	 */
 	@Override
 	public void fireLayerEvent(ILayerEvent event) {
+		MetricsRegistry metrics = MetricsRegistry.getInstance();
+		if (metrics.isEnabled()) {
+			metrics.increment(MetricsRegistry.EVENT_PREFIX + event.getClass().getSimpleName());
+		}
+		
 		if (listeners.size() > 0) {
+			boolean contextFree = event instanceof IContextFreeEvent;
+			boolean copyOnConvert = event instanceof ICopyOnConvertEvent;
+			boolean shared = false;
 			Iterator<ILayerListener> it = listeners.iterator();
 			boolean isLastListener = false;
 			do {
 				ILayerListener l = it.next();
 				isLastListener = !it.hasNext();  // Lookahead
 				
-				// Fire cloned event to first n-1 listeners; fire original event to last listener
-				ILayerEvent eventToFire = isLastListener ? event : event.cloneEvent();
+				ILayerEvent eventToFire;
+				if (contextFree || (copyOnConvert && !(l instanceof ILayer))) {
+					eventToFire = event;
+					shared = true;
+				} else if (isLastListener && !shared) {
+					// Fire cloned event to first n-1 listeners; fire original event to last listener
+					// unless it is kept by a listener that doesn't convert it
+					eventToFire = event;
+				} else {
+					eventToFire = event.cloneEvent();
+				}
 				l.handleLayerEvent(eventToFire);
 			} while (!isLastListener);
 		}
@@ -17,7 +17,9 @@ import java.util.HashSet;
 import java.util.Map;
 import java.util.Properties;
 
+import org.eclipse.nebula.widgets.nattable.command.CommandDispatchStatistics;
 import org.eclipse.nebula.widgets.nattable.command.ILayerCommand;
+import org.eclipse.nebula.widgets.nattable.command.ILayerCommandHandler;
 import org.eclipse.nebula.widgets.nattable.config.ConfigRegistry;
 import org.eclipse.nebula.widgets.nattable.config.IConfigRegistry;
 import org.eclipse.nebula.widgets.nattable.coordinate.Range;
@@ -25,10 +27,16 @@ import org.eclipse.nebula.widgets.nattable.layer.cell.AggregrateConfigLabelAccum
 import org.eclipse.nebula.widgets.nattable.layer.cell.IConfigLabelAccumulator;
 import org.eclipse.nebula.widgets.nattable.layer.cell.ILayerCell;
 import org.eclipse.nebula.widgets.nattable.layer.cell.TranslatedLayerCell;
+import org.eclipse.nebula.widgets.nattable.layer.event.ILayerEvent;
+import org.eclipse.nebula.widgets.nattable.layer.event.IStructuralChangeEvent;
+import org.eclipse.nebula.widgets.nattable.layer.event.ResizeStructuralRefreshEvent;
 import org.eclipse.nebula.widgets.nattable.painter.cell.ICellPainter;
 import org.eclipse.nebula.widgets.nattable.painter.layer.ILayerPainter;
+import org.eclipse.nebula.widgets.nattable.resize.event.ColumnResizeEvent;
+import org.eclipse.nebula.widgets.nattable.resize.event.RowResizeEvent;
 import org.eclipse.nebula.widgets.nattable.ui.binding.UiBindingRegistry;
 import org.eclipse.nebula.widgets.nattable.util.IClientAreaProvider;
+import org.eclipse.nebula.widgets.nattable.viewport.event.ScrollEvent;
 import org.eclipse.swt.graphics.GC;
 import org.eclipse.swt.graphics.Point;
 import org.eclipse.swt.graphics.Rectangle;
@@ -57,6 +65,14 @@ public class CompositeLayer extends AbstractLayer {
 
 	private final CompositeLayerPainter compositeLayerPainter = new CompositeLayerPainter();
 
+	/**
+	 * The child layer that handled a command class last. Commands of that class are
+	 * passed to this child layer first if command routing is enabled.
+	 */
+	private final Map<Class<?>, ILayer> commandRoutes = new HashMap<Class<?>, ILayer>();
+
+	private boolean commandRoutingEnabled = false;
+
 	public CompositeLayer(int layoutXCount, int layoutYCount) {
 		this.layoutXCount = layoutXCount;
 		this.layoutYCount = layoutYCount;
@@ -134,16 +150,104 @@ public class CompositeLayer extends AbstractLayer {
 		return doCommandOnChildLayers(command);
 	}
 
+	/**
+	 * Passes the given command to the child layers in the order of
+	 * {@link #getChildLayersInCommandOrder()} until one of them handles it.
+	 * If command routing is enabled, the child layer that handled the last command of
+	 * the same class is asked first, so the command doesn't need to be cloned and passed
+	 * down the layer stacks of the other child layers.
+	 * @param command The command to execute.
+	 * @return <code>true</code> if one of the child layers handled the command.
+	 */
 	protected boolean doCommandOnChildLayers(ILayerCommand command) {
-		for (ILayer childLayer : childLayerToLayoutCoordinateMap.keySet()) {
+		ILayer routedLayer = null;
+		if (commandRoutingEnabled) {
+			routedLayer = commandRoutes.get(command.getClass());
+			if (routedLayer != null) {
+				if (routedLayer.doCommand(command.cloneCommand())) {
+					CommandDispatchStatistics.routeHit();
+					return true;
+				}
+			}
+			CommandDispatchStatistics.routeMiss();
+		}
+
+		for (ILayer childLayer : getChildLayersInCommandOrder()) {
+			if (childLayer == routedLayer) {
+				continue;
+			}
 			ILayerCommand childCommand = command.cloneCommand();
 			if (childLayer.doCommand(childCommand)) {
+				if (commandRoutingEnabled) {
+					commandRoutes.put(command.getClass(), childLayer);
+				}
 				return true;
 			}
 		}
 		return false;
 	}
 
+	/**
+	 * @return The child layers in the order they are asked to handle a command that is
+	 * 			not routed to a child layer.
+	 */
+	protected Collection<ILayer> getChildLayersInCommandOrder() {
+		return childLayerToLayoutCoordinateMap.keySet();
+	}
+
+	/**
+	 * Enables passing commands to the child layer that handled the last command of the
+	 * same class first. This bypasses the order of {@link #getChildLayersInCommandOrder()},
+	 * so it should only be enabled if every command class is handled by only one child
+	 * layer. Disabled by default.
+	 * @param enabled <code>true</code> if the child layer that handled a command class
+	 * 			should be remembered and asked first for further commands of that class.
+	 */
+	public void setCommandRoutingEnabled(boolean enabled) {
+		this.commandRoutingEnabled = enabled;
+		clearCommandRoutes();
+	}
+
+	/**
+	 * @return <code>true</code> if commands are passed to the child layer that handled
+	 * 			a command of the same class last.
+	 */
+	public boolean isCommandRoutingEnabled() {
+		return commandRoutingEnabled;
+	}
+
+	/**
+	 * Forgets the child layers that handled the command classes.
+	 */
+	public void clearCommandRoutes() {
+		commandRoutes.clear();
+	}
+
+	@Override
+	public void registerCommandHandler(ILayerCommandHandler<?> commandHandler) {
+		super.registerCommandHandler(commandHandler);
+		clearCommandRoutes();
+	}
+
+	@Override
+	public void unregisterCommandHandler(Class<? extends ILayerCommand> commandClass) {
+		super.unregisterCommandHandler(commandClass);
+		clearCommandRoutes();
+	}
+
+	@Override
+	public void handleLayerEvent(ILayerEvent event) {
+		//scrolling and resizing don't change the structure of the child layers
+		if (event instanceof IStructuralChangeEvent
+				&& !(event instanceof ScrollEvent)
+				&& !(event instanceof RowResizeEvent)
+				&& !(event instanceof ColumnResizeEvent)
+				&& !(event instanceof ResizeStructuralRefreshEvent)) {
+			clearCommandRoutes();
+		}
+		super.handleLayerEvent(event);
+	}
+
 	// Horizontal features
 
 	// Columns
@@ -597,6 +701,7 @@ public class CompositeLayer extends AbstractLayer {
 		}
 
 		childLayerToRegionNameMap.put(childLayer, regionName);
+		clearCommandRoutes();
 
 		childLayer.addLayerListener(this);
 		childLayerToLayoutCoordinateMap.put(childLayer, new LayoutCoordinate(layoutX, layoutY));
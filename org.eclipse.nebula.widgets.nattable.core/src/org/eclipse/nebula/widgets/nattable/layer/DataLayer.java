@@ -19,6 +19,7 @@ import org.eclipse.nebula.widgets.nattable.command.StructuralRefreshCommandHandl
 import org.eclipse.nebula.widgets.nattable.command.VisualRefreshCommandHandler;
 import org.eclipse.nebula.widgets.nattable.coordinate.Range;
 import org.eclipse.nebula.widgets.nattable.data.IDataProvider;
+import org.eclipse.nebula.widgets.nattable.edit.command.MultiUpdateDataCommandHandler;
 import org.eclipse.nebula.widgets.nattable.edit.command.UpdateDataCommandHandler;
 import org.eclipse.nebula.widgets.nattable.grid.command.ClientAreaResizeCommand;
 import org.eclipse.nebula.widgets.nattable.layer.event.ResizeStructuralRefreshEvent;
@@ -98,6 +99,7 @@ public class DataLayer extends AbstractLayer implements IUniqueIndexLayer {
 		registerCommandHandler(new RowResizeCommandHandler(this));
 		registerCommandHandler(new MultiRowResizeCommandHandler(this));
 		registerCommandHandler(new UpdateDataCommandHandler(this));
+		registerCommandHandler(new MultiUpdateDataCommandHandler(this));
 		registerCommandHandler(new StructuralRefreshCommandHandler());
 		registerCommandHandler(new VisualRefreshCommandHandler());
 	}
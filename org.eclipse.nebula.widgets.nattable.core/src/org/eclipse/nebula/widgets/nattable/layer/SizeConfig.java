@@ -18,6 +18,7 @@ import java.util.StringTokenizer;
 import java.util.TreeMap;
 
 import org.apache.commons.lang.StringUtils;
+import org.eclipse.nebula.widgets.nattable.persistence.BinaryStateProperties;
 import org.eclipse.nebula.widgets.nattable.persistence.IPersistable;
 
 
@@ -89,12 +90,29 @@ public class SizeConfig implements IPersistable {
 	@Override
 	public void saveState(String prefix, Properties properties) {
 		properties.put(prefix + PERSISTENCE_KEY_DEFAULT_SIZE, String.valueOf(defaultSize));
-		saveMap(defaultSizeMap, prefix + PERSISTENCE_KEY_DEFAULT_SIZES, properties);
-		saveMap(sizeMap, prefix + PERSISTENCE_KEY_SIZES, properties);
 		properties.put(prefix + PERSISTENCE_KEY_RESIZABLE_BY_DEFAULT, String.valueOf(resizableByDefault));
-		saveMap(resizablesMap, prefix + PERSISTENCE_KEY_RESIZABLE_INDEXES, properties);
 		properties.put(prefix + PERSISTENCE_KEY_PERCENTAGE_SIZING, String.valueOf(percentageSizing));
-		saveMap(percentageSizingMap, prefix + PERSISTENCE_KEY_PERCENTAGE_SIZING_INDEXES, properties);
+		if (properties instanceof BinaryStateProperties) {
+			BinaryStateProperties binaryProperties = (BinaryStateProperties) properties;
+			if (defaultSizeMap.size() > 0) {
+				binaryProperties.setIntMap(prefix + PERSISTENCE_KEY_DEFAULT_SIZES, defaultSizeMap);
+			}
+			if (sizeMap.size() > 0) {
+				binaryProperties.setIntMap(prefix + PERSISTENCE_KEY_SIZES, sizeMap);
+			}
+			if (resizablesMap.size() > 0) {
+				binaryProperties.setBooleanMap(prefix + PERSISTENCE_KEY_RESIZABLE_INDEXES, resizablesMap);
+			}
+			if (percentageSizingMap.size() > 0) {
+				binaryProperties.setBooleanMap(prefix + PERSISTENCE_KEY_PERCENTAGE_SIZING_INDEXES, percentageSizingMap);
+			}
+		}
+		else {
+			saveMap(defaultSizeMap, prefix + PERSISTENCE_KEY_DEFAULT_SIZES, properties);
+			saveMap(sizeMap, prefix + PERSISTENCE_KEY_SIZES, properties);
+			saveMap(resizablesMap, prefix + PERSISTENCE_KEY_RESIZABLE_INDEXES, properties);
+			saveMap(percentageSizingMap, prefix + PERSISTENCE_KEY_PERCENTAGE_SIZING_INDEXES, properties);
+		}
 	}
 
 	private void saveMap(Map<Integer, ?> map, String key, Properties properties) {
@@ -139,6 +157,13 @@ public class SizeConfig implements IPersistable {
 	}
 
 	private void loadIntegerMap(String key, Properties properties, Map<Integer, Integer> map) {
+		if (properties instanceof BinaryStateProperties
+				&& ((BinaryStateProperties) properties).containsSection(key)) {
+			map.clear();
+			((BinaryStateProperties) properties).getIntMap(key, map);
+			return;
+		}
+
 		String property = properties.getProperty(key);
 		if (property != null) {
 			map.clear();
@@ -153,6 +178,11 @@ public class SizeConfig implements IPersistable {
 	}
 
 	private void loadBooleanMap(String key, Properties properties, Map<Integer, Boolean> map) {
+		if (properties instanceof BinaryStateProperties
+				&& ((BinaryStateProperties) properties).getBooleanMap(key, map)) {
+			return;
+		}
+
 		String property = properties.getProperty(key);
 		if (property != null) {
 			StringTokenizer tok = new StringTokenizer(property, ","); //$NON-NLS-1$
@@ -12,7 +12,7 @@ package org.eclipse.nebula.widgets.nattable.layer.event;
 
 import org.eclipse.nebula.widgets.nattable.layer.ILayer;
 
-public abstract class AbstractContextFreeEvent implements ILayerEvent {
+public abstract class AbstractContextFreeEvent implements IContextFreeEvent {
 
 	public boolean convertToLocal(ILayer localLayer) {
 		return true;
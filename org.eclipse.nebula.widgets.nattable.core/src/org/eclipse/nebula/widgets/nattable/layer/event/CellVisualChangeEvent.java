@@ -17,7 +17,7 @@ import java.util.Collection;
 import org.eclipse.nebula.widgets.nattable.layer.ILayer;
 import org.eclipse.swt.graphics.Rectangle;
 
-public class CellVisualChangeEvent implements IVisualChangeEvent {
+public class CellVisualChangeEvent implements IVisualChangeEvent, ICopyOnConvertEvent {
 
 	protected ILayer layer;
 	
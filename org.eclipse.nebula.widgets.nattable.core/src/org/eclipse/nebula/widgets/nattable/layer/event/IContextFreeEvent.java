@@ -0,0 +1,21 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Original authors and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Original authors and others - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.layer.event;
+
+/**
+ * Marker interface for events that are not changed by {@link #convertToLocal(org.eclipse.nebula.widgets.nattable.layer.ILayer)},
+ * e.g. because they don't carry any position information. As converting such an event
+ * doesn't modify it, the same instance is passed to all listeners of a layer instead
+ * of a cloned copy.
+ */
+public interface IContextFreeEvent extends ILayerEvent {
+
+}
@@ -0,0 +1,21 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Original authors and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Original authors and others - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.layer.event;
+
+/**
+ * Marker interface for events that are only changed by {@link #convertToLocal(org.eclipse.nebula.widgets.nattable.layer.ILayer)}.
+ * Such an event is passed as the same instance to all listeners of a layer that are not
+ * layers themselves, as those don't convert it. Only the listening layers get a cloned
+ * copy to convert.
+ */
+public interface ICopyOnConvertEvent extends ILayerEvent {
+
+}
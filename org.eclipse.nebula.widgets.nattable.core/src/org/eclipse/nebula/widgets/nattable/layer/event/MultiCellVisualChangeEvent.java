@@ -0,0 +1,142 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Original authors and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Original authors and others - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.layer.event;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+
+import org.eclipse.nebula.widgets.nattable.layer.ILayer;
+import org.eclipse.swt.graphics.Rectangle;
+
+/**
+ * Visual change event for several cells, e.g. fired on processing a MultiUpdateDataCommand.
+ * Replaces one {@link CellVisualChangeEvent} per changed cell, so listeners and the
+ * layers in the stack handle the change only once.
+ * <p>
+ * Note that editing several cells at once via the multi edit dialog fires this event
+ * instead of one {@link CellVisualChangeEvent} per cell. Listeners and event handlers that
+ * react on changed cell values need to handle this event too, or the batching needs to be
+ * avoided by registering a handler for UpdateDataCommands above the DataLayer.
+ */
+public class MultiCellVisualChangeEvent implements IVisualChangeEvent, ICopyOnConvertEvent {
+
+	private ILayer layer;
+	private int[] columnPositions;
+	private int[] rowPositions;
+
+	/**
+	 * @param layer The layer to which the given column and row positions belong.
+	 * @param columnPositions The column positions of the changed cells.
+	 * @param rowPositions The row positions of the changed cells, in the order of the
+	 * 			column positions.
+	 */
+	public MultiCellVisualChangeEvent(ILayer layer, int[] columnPositions, int[] rowPositions) {
+		this.layer = layer;
+		this.columnPositions = columnPositions;
+		this.rowPositions = rowPositions;
+	}
+
+	/**
+	 * Create a new MultiCellVisualChangeEvent out of the given event.
+	 * Used internally for cloning purposes.
+	 * @param event The event to create the clone from.
+	 */
+	protected MultiCellVisualChangeEvent(MultiCellVisualChangeEvent event) {
+		this.layer = event.layer;
+		this.columnPositions = event.columnPositions;
+		this.rowPositions = event.rowPositions;
+	}
+
+	@Override
+	public ILayer getLayer() {
+		return this.layer;
+	}
+
+	/**
+	 * @return The number of changed cells.
+	 */
+	public int getCellCount() {
+		return this.columnPositions.length;
+	}
+
+	/**
+	 * @param index The index of the changed cell in this event.
+	 * @return The column position of the changed cell at the given index.
+	 */
+	public int getColumnPosition(int index) {
+		return this.columnPositions[index];
+	}
+
+	/**
+	 * @param index The index of the changed cell in this event.
+	 * @return The row position of the changed cell at the given index.
+	 */
+	public int getRowPosition(int index) {
+		return this.rowPositions[index];
+	}
+
+	@Override
+	public boolean convertToLocal(ILayer localLayer) {
+		int[] localColumnPositions = new int[this.columnPositions.length];
+		int[] localRowPositions = new int[this.rowPositions.length];
+		int columnCount = localLayer.getColumnCount();
+		int rowCount = localLayer.getRowCount();
+		int count = 0;
+		for (int i = 0; i < this.columnPositions.length; i++) {
+			int columnPosition = localLayer.underlyingToLocalColumnPosition(this.layer, this.columnPositions[i]);
+			int rowPosition = localLayer.underlyingToLocalRowPosition(this.layer, this.rowPositions[i]);
+			if (columnPosition >= 0 && rowPosition >= 0 && columnPosition < columnCount && rowPosition < rowCount) {
+				localColumnPositions[count] = columnPosition;
+				localRowPositions[count] = rowPosition;
+				count++;
+			}
+		}
+
+		this.columnPositions = Arrays.copyOf(localColumnPositions, count);
+		this.rowPositions = Arrays.copyOf(localRowPositions, count);
+		this.layer = localLayer;
+
+		return count > 0;
+	}
+
+	/**
+	 * @return The bounding rectangle of all changed cells.
+	 */
+	@Override
+	public Collection<Rectangle> getChangedPositionRectangles() {
+		if (this.columnPositions.length == 0) {
+			return Collections.emptyList();
+		}
+		int minColumn = Integer.MAX_VALUE;
+		int maxColumn = Integer.MIN_VALUE;
+		int minRow = Integer.MAX_VALUE;
+		int maxRow = Integer.MIN_VALUE;
+		for (int i = 0; i < this.columnPositions.length; i++) {
+			minColumn = Math.min(minColumn, this.columnPositions[i]);
+			maxColumn = Math.max(maxColumn, this.columnPositions[i]);
+			minRow = Math.min(minRow, this.rowPositions[i]);
+			maxRow = Math.max(maxRow, this.rowPositions[i]);
+		}
+		return Arrays.asList(new Rectangle[] {
+				new Rectangle(minColumn, minRow, maxColumn - minColumn + 1, maxRow - minRow + 1) });
+	}
+
+	@Override
+	public MultiCellVisualChangeEvent cloneEvent() {
+		return new MultiCellVisualChangeEvent(this);
+	}
+
+	@Override
+	public String toString() {
+		return getClass().getSimpleName() + " cellCount=" + this.columnPositions.length; //$NON-NLS-1$
+	}
+}
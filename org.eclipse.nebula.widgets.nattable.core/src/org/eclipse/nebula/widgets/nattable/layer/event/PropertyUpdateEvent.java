@@ -18,7 +18,7 @@ import java.util.Collection;
 import org.eclipse.nebula.widgets.nattable.layer.ILayer;
 import org.eclipse.swt.graphics.Rectangle;
 
-public class PropertyUpdateEvent<T> implements IVisualChangeEvent {
+public class PropertyUpdateEvent<T> implements IVisualChangeEvent, ICopyOnConvertEvent {
 
 	private final PropertyChangeEvent propertyChangeEvent = null;
 	private final T sourceBean;
@@ -13,7 +13,7 @@ package org.eclipse.nebula.widgets.nattable.layer.event;
 import org.eclipse.nebula.widgets.nattable.coordinate.Range;
 import org.eclipse.nebula.widgets.nattable.layer.ILayer;
 
-public class RowUpdateEvent extends RowVisualChangeEvent {
+public class RowUpdateEvent extends RowVisualChangeEvent implements ICopyOnConvertEvent {
 	
 	public RowUpdateEvent(ILayer layer, int rowPosition) {
 		this(layer, new Range(rowPosition, rowPosition + 1));
@@ -0,0 +1,76 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Original authors and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Original authors and others - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.metrics;
+
+import org.eclipse.nebula.widgets.nattable.layer.ILayer;
+import org.eclipse.nebula.widgets.nattable.painter.IOverlayPainter;
+import org.eclipse.nebula.widgets.nattable.util.GUIHelper;
+import org.eclipse.swt.graphics.GC;
+import org.eclipse.swt.graphics.Point;
+
+/**
+ * Overlay painter that shows the frames per second, the paint time and the number of
+ * painted cells of the last frame in the top right corner of the table. Nothing is
+ * painted while the {@link MetricsRegistry} is disabled.
+ * <p>
+ * Usage:
+ * <pre>
+ * natTable.getMetrics().setEnabled(true);
+ * natTable.addOverlayPainter(new MetricsOverlayPainter());
+ * </pre>
+ */
+public class MetricsOverlayPainter implements IOverlayPainter {
+
+	private static final int MARGIN = 4;
+
+	private final MetricsRegistry metrics;
+
+	public MetricsOverlayPainter() {
+		this(MetricsRegistry.getInstance());
+	}
+
+	/**
+	 * @param metrics The registry whose metrics should be shown.
+	 */
+	public MetricsOverlayPainter(MetricsRegistry metrics) {
+		this.metrics = metrics;
+	}
+
+	@Override
+	public void paintOverlay(GC gc, ILayer layer) {
+		if (!this.metrics.isEnabled()) {
+			return;
+		}
+
+		String text = getText();
+		Point extent = gc.textExtent(text);
+		int x = layer.getWidth() - extent.x - 3 * MARGIN;
+		int y = MARGIN;
+
+		gc.setAlpha(200);
+		gc.setBackground(GUIHelper.COLOR_BLACK);
+		gc.fillRectangle(x, y, extent.x + 2 * MARGIN, extent.y + 2 * MARGIN);
+		gc.setAlpha(255);
+		gc.setForeground(GUIHelper.COLOR_YELLOW);
+		gc.drawText(text, x + MARGIN, y + MARGIN, true);
+	}
+
+	/**
+	 * @return The text to show, which is based on the frames painted before the current one.
+	 */
+	protected String getText() {
+		return String.format("%.0f fps | %.1f ms | %d cells", //$NON-NLS-1$
+				Double.valueOf(this.metrics.getFramesPerSecond()),
+				Double.valueOf(this.metrics.getLastFrameMillis()),
+				Integer.valueOf(this.metrics.getLastFrameCellCount()));
+	}
+
+}
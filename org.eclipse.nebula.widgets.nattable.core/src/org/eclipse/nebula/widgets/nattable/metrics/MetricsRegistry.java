@@ -0,0 +1,325 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Original authors and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Original authors and others - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.eclipse.nebula.widgets.nattable.command.CommandDispatchStatistics;
+
+/**
+ * Registry for counters and timers that show where NatTable spends its time, e.g. the
+ * paint time per layer painter, the cells painted per frame, the fired events per type
+ * and the dispatched commands.
+ * <p>
+ * The registry is shared by all NatTable instances and is disabled by default. While it
+ * is disabled, the instrumented code only checks {@link #isEnabled()}. Counters are
+ * always exact, {@link MetricsTimer}s only measure every n-th invocation as configured
+ * via {@link #setSamplingInterval(int)}.
+ * <p>
+ * The registry can be inspected via {@link org.eclipse.nebula.widgets.nattable.NatTable#getMetrics()},
+ * via JMX after calling {@link #registerMBean()}, or live within the table via the
+ * {@link MetricsOverlayPainter}.
+ */
+public final class MetricsRegistry implements MetricsRegistryMXBean {
+
+	private static final Log log = LogFactory.getLog(MetricsRegistry.class);
+
+	/**
+	 * The name the registry is registered with via {@link #registerMBean()}.
+	 */
+	public static final String OBJECT_NAME = "org.eclipse.nebula.widgets.nattable:type=Metrics"; //$NON-NLS-1$
+
+	/** Counter for the painted cells. */
+	public static final String PAINT_CELLS = "paint.cells"; //$NON-NLS-1$
+	/** Timer for the painted frames. */
+	public static final String PAINT_FRAME = "paint.frame"; //$NON-NLS-1$
+	/** Prefix of the timers per layer painter class. */
+	public static final String PAINT_PREFIX = "paint."; //$NON-NLS-1$
+	/** Prefix of the counters per fired event class. */
+	public static final String EVENT_PREFIX = "event."; //$NON-NLS-1$
+	/** Counter for the events that reached a NatTable. */
+	public static final String EVENT_HANDLED = "event.handled"; //$NON-NLS-1$
+	/** Prefix of the counters per command class executed on a NatTable. */
+	public static final String COMMAND_PREFIX = "command."; //$NON-NLS-1$
+	/** Timer for the commands executed on a NatTable. */
+	public static final String COMMAND_DISPATCH = "command.dispatch"; //$NON-NLS-1$
+	/** Counter for the layers that checked their command handlers. */
+	public static final String COMMAND_HOPS = "command.hops"; //$NON-NLS-1$
+	/** Prefix of the cache hit counters. */
+	public static final String CACHE_HIT_PREFIX = "cache.hit."; //$NON-NLS-1$
+	/** Prefix of the cache miss counters. */
+	public static final String CACHE_MISS_PREFIX = "cache.miss."; //$NON-NLS-1$
+	/** Counter for the list changes received by the GlazedLists event layers. */
+	public static final String GLAZEDLISTS_LIST_CHANGES = "glazedlists.listChanges"; //$NON-NLS-1$
+	/** Counter for the conflated refresh events fired by the GlazedLists event layers. */
+	public static final String GLAZEDLISTS_REFRESHES = "glazedlists.refreshes"; //$NON-NLS-1$
+
+	private static final int FRAME_HISTORY = 256;
+
+	private static final MetricsRegistry instance = new MetricsRegistry();
+
+	private volatile boolean enabled = false;
+	private volatile int samplingInterval = 10;
+
+	private final ConcurrentMap<String, AtomicLong> counters = new ConcurrentHashMap<String, AtomicLong>();
+	private final ConcurrentMap<String, MetricsTimer> timers = new ConcurrentHashMap<String, MetricsTimer>();
+
+	private final long[] frameTimestamps = new long[FRAME_HISTORY];
+	private int frameIndex;
+	private volatile long lastFrameNanos;
+	private volatile int lastFrameCellCount;
+
+	private MetricsRegistry() {
+		// singleton
+	}
+
+	/**
+	 * @return The registry shared by all NatTable instances.
+	 */
+	public static MetricsRegistry getInstance() {
+		return instance;
+	}
+
+	/**
+	 * @return <code>true</code> if the metrics are collected.
+	 */
+	@Override
+	public boolean isEnabled() {
+		return this.enabled;
+	}
+
+	/**
+	 * Enables or disables collecting the metrics. Also enables or disables the
+	 * {@link CommandDispatchStatistics}, which are reported as {@link #COMMAND_HOPS}.
+	 * @param enabled <code>true</code> to collect the metrics.
+	 */
+	@Override
+	public void setEnabled(boolean enabled) {
+		this.enabled = enabled;
+		CommandDispatchStatistics.setEnabled(enabled);
+	}
+
+	/**
+	 * @return The interval in which timer invocations are measured.
+	 */
+	@Override
+	public int getSamplingInterval() {
+		return this.samplingInterval;
+	}
+
+	/**
+	 * @param samplingInterval The interval in which timer invocations are measured, e.g. 10
+	 * 			to measure every 10th invocation or 1 to measure every invocation.
+	 */
+	@Override
+	public void setSamplingInterval(int samplingInterval) {
+		if (samplingInterval < 1) {
+			throw new IllegalArgumentException("The sampling interval needs to be at least 1"); //$NON-NLS-1$
+		}
+		this.samplingInterval = samplingInterval;
+	}
+
+	/**
+	 * Increments a counter by one. Does nothing if the registry is disabled.
+	 * @param name The name of the counter.
+	 */
+	public void increment(String name) {
+		add(name, 1);
+	}
+
+	/**
+	 * Adds a value to a counter. Does nothing if the registry is disabled.
+	 * @param name The name of the counter.
+	 * @param delta The value to add.
+	 */
+	public void add(String name, long delta) {
+		if (!this.enabled) {
+			return;
+		}
+		AtomicLong counter = this.counters.get(name);
+		if (counter == null) {
+			counter = new AtomicLong();
+			AtomicLong existing = this.counters.putIfAbsent(name, counter);
+			if (existing != null) {
+				counter = existing;
+			}
+		}
+		counter.addAndGet(delta);
+	}
+
+	/**
+	 * @param name The name of the counter.
+	 * @return The value of the counter since the last reset.
+	 */
+	public long getCounter(String name) {
+		AtomicLong counter = this.counters.get(name);
+		return counter != null ? counter.get() : 0;
+	}
+
+	/**
+	 * @return A snapshot of all counters, sorted by name.
+	 */
+	@Override
+	public Map<String, Long> getCounters() {
+		Map<String, Long> result = new TreeMap<String, Long>();
+		for (Map.Entry<String, AtomicLong> entry : this.counters.entrySet()) {
+			result.put(entry.getKey(), Long.valueOf(entry.getValue().get()));
+		}
+		if (CommandDispatchStatistics.getHopCount() > 0) {
+			result.put(COMMAND_HOPS, Long.valueOf(CommandDispatchStatistics.getHopCount()));
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the timer with the given name, creating it if necessary. Callers that measure
+	 * frequently should keep the returned timer instead of looking it up for every
+	 * invocation.
+	 * @param name The name of the timer.
+	 * @return The timer with the given name.
+	 */
+	public MetricsTimer getTimer(String name) {
+		MetricsTimer timer = this.timers.get(name);
+		if (timer == null) {
+			timer = new MetricsTimer(this);
+			MetricsTimer existing = this.timers.putIfAbsent(name, timer);
+			if (existing != null) {
+				timer = existing;
+			}
+		}
+		return timer;
+	}
+
+	/**
+	 * @return All timers, sorted by name.
+	 */
+	@Override
+	public Map<String, MetricsTimer> getTimers() {
+		return new TreeMap<String, MetricsTimer>(this.timers);
+	}
+
+	/**
+	 * Records a painted frame. Frames are always measured, as there is only one per paint
+	 * request. Does nothing if the registry is disabled.
+	 * @param nanos The time needed to paint the frame.
+	 * @param cellCount The number of cells painted in the frame.
+	 */
+	public void frame(long nanos, int cellCount) {
+		if (!this.enabled) {
+			return;
+		}
+		getTimer(PAINT_FRAME).record(nanos);
+		this.lastFrameNanos = nanos;
+		this.lastFrameCellCount = cellCount;
+		synchronized (this.frameTimestamps) {
+			this.frameTimestamps[this.frameIndex] = System.nanoTime();
+			this.frameIndex = (this.frameIndex + 1) % FRAME_HISTORY;
+		}
+	}
+
+	/**
+	 * @return The number of frames painted within the last second.
+	 */
+	@Override
+	public double getFramesPerSecond() {
+		long oneSecondAgo = System.nanoTime() - 1000000000L;
+		int frames = 0;
+		synchronized (this.frameTimestamps) {
+			for (long timestamp : this.frameTimestamps) {
+				if (timestamp != 0 && timestamp - oneSecondAgo > 0) {
+					frames++;
+				}
+			}
+		}
+		return frames;
+	}
+
+	/**
+	 * @return The time needed to paint the last frame in milliseconds.
+	 */
+	@Override
+	public double getLastFrameMillis() {
+		return this.lastFrameNanos / 1000000.0;
+	}
+
+	/**
+	 * @return The number of cells painted in the last frame.
+	 */
+	@Override
+	public int getLastFrameCellCount() {
+		return this.lastFrameCellCount;
+	}
+
+	/**
+	 * Resets all counters, timers and frames, including the {@link CommandDispatchStatistics}.
+	 */
+	@Override
+	public void reset() {
+		this.counters.clear();
+		for (MetricsTimer timer : this.timers.values()) {
+			timer.reset();
+		}
+		synchronized (this.frameTimestamps) {
+			for (int i = 0; i < this.frameTimestamps.length; i++) {
+				this.frameTimestamps[i] = 0;
+			}
+			this.frameIndex = 0;
+		}
+		this.lastFrameNanos = 0;
+		this.lastFrameCellCount = 0;
+		CommandDispatchStatistics.reset();
+	}
+
+	/**
+	 * Registers the registry at the platform MBean server with the name {@link #OBJECT_NAME}.
+	 * Failures are logged, as the metrics are only used for diagnosis.
+	 * @return <code>true</code> if the registry is registered.
+	 */
+	public boolean registerMBean() {
+		try {
+			MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+			ObjectName name = new ObjectName(OBJECT_NAME);
+			if (!server.isRegistered(name)) {
+				server.registerMBean(this, name);
+			}
+			return true;
+		} catch (JMException e) {
+			log.warn("Failed to register the NatTable metrics MBean", e); //$NON-NLS-1$
+			return false;
+		}
+	}
+
+	/**
+	 * Removes the registry from the platform MBean server.
+	 */
+	public void unregisterMBean() {
+		try {
+			MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+			ObjectName name = new ObjectName(OBJECT_NAME);
+			if (server.isRegistered(name)) {
+				server.unregisterMBean(name);
+			}
+		} catch (JMException e) {
+			log.warn("Failed to unregister the NatTable metrics MBean", e); //$NON-NLS-1$
+		}
+	}
+}
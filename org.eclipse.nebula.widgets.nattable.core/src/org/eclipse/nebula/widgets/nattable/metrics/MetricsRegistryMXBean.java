@@ -0,0 +1,41 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Original authors and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Original authors and others - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.metrics;
+
+import java.util.Map;
+
+/**
+ * Management interface of the {@link MetricsRegistry}, so the metrics can be inspected
+ * and enabled via JMX tools like JConsole or VisualVM.
+ */
+public interface MetricsRegistryMXBean {
+
+	public boolean isEnabled();
+
+	public void setEnabled(boolean enabled);
+
+	public int getSamplingInterval();
+
+	public void setSamplingInterval(int samplingInterval);
+
+	public double getFramesPerSecond();
+
+	public double getLastFrameMillis();
+
+	public int getLastFrameCellCount();
+
+	public Map<String, Long> getCounters();
+
+	public Map<String, MetricsTimer> getTimers();
+
+	public void reset();
+
+}
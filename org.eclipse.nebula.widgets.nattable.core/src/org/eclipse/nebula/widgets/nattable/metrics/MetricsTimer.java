@@ -0,0 +1,137 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Original authors and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Original authors and others - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Sampling timer of the {@link MetricsRegistry}. Every invocation is counted, but only
+ * every n-th invocation is measured, where n is the sampling interval of the registry.
+ * <p>
+ * Usage:
+ * <pre>
+ * long start = timer.start();
+ * ...
+ * timer.stop(start);
+ * </pre>
+ */
+public final class MetricsTimer {
+
+	private final MetricsRegistry registry;
+
+	private final AtomicLong invocationCount = new AtomicLong();
+	private final AtomicLong sampleCount = new AtomicLong();
+	private final AtomicLong totalNanos = new AtomicLong();
+	private final AtomicLong maxNanos = new AtomicLong();
+
+	MetricsTimer(MetricsRegistry registry) {
+		this.registry = registry;
+	}
+
+	/**
+	 * Counts an invocation and starts measuring it, if the registry is enabled and the
+	 * invocation is sampled.
+	 * @return The start time in nanoseconds to pass to {@link #stop(long)}, or -1 if
+	 * 			the invocation is not measured.
+	 */
+	public long start() {
+		if (!this.registry.isEnabled()) {
+			return -1;
+		}
+		long invocation = this.invocationCount.getAndIncrement();
+		if (invocation % this.registry.getSamplingInterval() != 0) {
+			return -1;
+		}
+		return System.nanoTime();
+	}
+
+	/**
+	 * Stops measuring an invocation.
+	 * @param start The value returned by {@link #start()}. Negative values are ignored.
+	 */
+	public void stop(long start) {
+		if (start >= 0) {
+			addSample(System.nanoTime() - start);
+		}
+	}
+
+	/**
+	 * Records an invocation whose duration was measured without {@link #start()}, e.g.
+	 * because it is measured anyway.
+	 * @param nanos The measured duration in nanoseconds.
+	 */
+	void record(long nanos) {
+		this.invocationCount.incrementAndGet();
+		addSample(nanos);
+	}
+
+	private void addSample(long nanos) {
+		this.sampleCount.incrementAndGet();
+		this.totalNanos.addAndGet(nanos);
+		long max = this.maxNanos.get();
+		while (nanos > max && !this.maxNanos.compareAndSet(max, nanos)) {
+			max = this.maxNanos.get();
+		}
+	}
+
+	/**
+	 * @return The number of invocations since the last reset, including the invocations
+	 * 			that were not sampled.
+	 */
+	public long getInvocationCount() {
+		return this.invocationCount.get();
+	}
+
+	/**
+	 * @return The number of measured invocations since the last reset.
+	 */
+	public long getSampleCount() {
+		return this.sampleCount.get();
+	}
+
+	/**
+	 * @return The mean duration of the measured invocations in milliseconds, or 0 if
+	 * 			nothing was measured.
+	 */
+	public double getMeanMillis() {
+		long samples = this.sampleCount.get();
+		return samples == 0 ? 0 : this.totalNanos.get() / (double) samples / 1000000.0;
+	}
+
+	/**
+	 * @return The maximum duration of the measured invocations in milliseconds.
+	 */
+	public double getMaxMillis() {
+		return this.maxNanos.get() / 1000000.0;
+	}
+
+	/**
+	 * @return The estimated total duration of all invocations in milliseconds, which is
+	 * 			the mean duration multiplied by the number of invocations.
+	 */
+	public double getEstimatedTotalMillis() {
+		return getMeanMillis() * Math.max(this.invocationCount.get(), this.sampleCount.get());
+	}
+
+	void reset() {
+		this.invocationCount.set(0);
+		this.sampleCount.set(0);
+		this.totalNanos.set(0);
+		this.maxNanos.set(0);
+	}
+
+	@Override
+	public String toString() {
+		return String.format("invocations=%d, samples=%d, mean=%.3f ms, max=%.3f ms", //$NON-NLS-1$
+				Long.valueOf(getInvocationCount()), Long.valueOf(getSampleCount()),
+				Double.valueOf(getMeanMillis()), Double.valueOf(getMaxMillis()));
+	}
+}
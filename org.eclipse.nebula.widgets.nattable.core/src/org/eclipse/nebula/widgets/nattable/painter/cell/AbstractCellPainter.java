@@ -12,15 +12,73 @@ package org.eclipse.nebula.widgets.nattable.painter.cell;
 
 
 import org.eclipse.nebula.widgets.nattable.config.IConfigRegistry;
+import org.eclipse.nebula.widgets.nattable.layer.ILayer;
 import org.eclipse.nebula.widgets.nattable.layer.cell.ILayerCell;
+import org.eclipse.nebula.widgets.nattable.resize.AutoSizeService;
+import org.eclipse.nebula.widgets.nattable.resize.command.ColumnResizeCommand;
+import org.eclipse.nebula.widgets.nattable.resize.command.RowResizeCommand;
 import org.eclipse.swt.graphics.GC;
 import org.eclipse.swt.graphics.Rectangle;
 
 public abstract class AbstractCellPainter implements ICellPainter {
 
+	/**
+	 * The service that collects the resize requests raised while painting.
+	 * If <code>null</code> the resize commands are executed immediately.
+	 */
+	private AutoSizeService autoSizeService;
+
 	public ICellPainter getCellPainterAt(int x, int y, ILayerCell cell, GC gc,
 			Rectangle adjustedCellBounds, IConfigRegistry configRegistry) {
 		return this;
 	}
 
+	/**
+	 * Set the service that collects the row and column resize requests that are raised by
+	 * this painter while painting, to apply them in a batch after the paint pass.
+	 * @param autoSizeService The service to use, or <code>null</code> to execute the resize
+	 * 			commands immediately while painting.
+	 */
+	public void setAutoSizeService(AutoSizeService autoSizeService) {
+		this.autoSizeService = autoSizeService;
+	}
+
+	/**
+	 * @return The service that collects the resize requests raised by this painter,
+	 * 			or <code>null</code> if resize commands are executed immediately.
+	 */
+	public AutoSizeService getAutoSizeService() {
+		return this.autoSizeService;
+	}
+
+	/**
+	 * Resizes the row of the given cell to the given height, either deferred via the
+	 * AutoSizeService or immediately via RowResizeCommand.
+	 * @param cell The cell whose content needs the given row height.
+	 * @param rowHeight The row height to set.
+	 */
+	protected void requestRowResize(ILayerCell cell, int rowHeight) {
+		if (this.autoSizeService != null) {
+			this.autoSizeService.requestRowHeight(cell, rowHeight);
+		} else {
+			ILayer layer = cell.getLayer();
+			layer.doCommand(new RowResizeCommand(layer, cell.getRowPosition(), rowHeight));
+		}
+	}
+
+	/**
+	 * Resizes the column of the given cell to the given width, either deferred via the
+	 * AutoSizeService or immediately via ColumnResizeCommand.
+	 * @param cell The cell whose content needs the given column width.
+	 * @param columnWidth The column width to set.
+	 */
+	protected void requestColumnResize(ILayerCell cell, int columnWidth) {
+		if (this.autoSizeService != null) {
+			this.autoSizeService.requestColumnWidth(cell, columnWidth);
+		} else {
+			ILayer layer = cell.getLayer();
+			layer.doCommand(new ColumnResizeCommand(layer, cell.getColumnPosition(), columnWidth));
+		}
+	}
+
 }
@@ -10,9 +10,6 @@
  ******************************************************************************/
 package org.eclipse.nebula.widgets.nattable.painter.cell;
 
-import java.util.Map;
-import java.util.WeakHashMap;
-
 import org.eclipse.nebula.widgets.nattable.config.IConfigRegistry;
 import org.eclipse.nebula.widgets.nattable.data.convert.IDisplayConverter;
 import org.eclipse.nebula.widgets.nattable.layer.cell.CellDisplayConversionUtils;
@@ -21,9 +18,9 @@ import org.eclipse.nebula.widgets.nattable.style.CellStyleAttributes;
 import org.eclipse.nebula.widgets.nattable.style.IStyle;
 import org.eclipse.nebula.widgets.nattable.style.TextDecorationEnum;
 import org.eclipse.nebula.widgets.nattable.util.GUIHelper;
+import org.eclipse.nebula.widgets.nattable.util.TextMeasurer;
 import org.eclipse.swt.graphics.Color;
 import org.eclipse.swt.graphics.Font;
-import org.eclipse.swt.graphics.FontData;
 import org.eclipse.swt.graphics.GC;
 
 /**
@@ -56,9 +53,6 @@ public abstract class AbstractTextPainter extends BackgroundPainter {
 	private boolean underline;
 	private boolean strikethrough;
 
-	private static Map<String,Integer> temporaryMap = new WeakHashMap<String,Integer>();
-	private static Map<org.eclipse.swt.graphics.Font,FontData[]> fontDataCache = new WeakHashMap<org.eclipse.swt.graphics.Font,FontData[]>();
-
 	public AbstractTextPainter() {
 		this(false, true);
 	}
@@ -200,41 +194,17 @@ public abstract class AbstractTextPainter extends BackgroundPainter {
 	}
 
 	/**
-	 * Calculates the length of a given text by using the GC.
-	 * To minimize the count of calculations, the calculation
-	 * result will be stored within a Map, so the next time
-	 * the length of the same text is asked for, the result
-	 * is only returned by cache and is not calculated again.
+	 * Calculates the length of a given text by using the {@link TextMeasurer}.
+	 * The length of simple texts is calculated by the glyph advance widths of the
+	 * current font, other texts are measured via GC and the result is cached, so the
+	 * next time the length of the same text is asked for, the result is only returned
+	 * by cache and is not calculated again.
 	 * @param gc the current GC
 	 * @param text the text to get the length for
 	 * @return the length of the text
 	 */
 	protected int getLengthFromCache(GC gc, String text) {
-		String originalString = text;
-		StringBuilder buffer = new StringBuilder();
-		buffer.append(text);
-		if (gc.getFont() != null) {
-			FontData[] datas = fontDataCache.get(gc.getFont());
-			if (datas == null) {
-				datas = gc.getFont().getFontData();
-				fontDataCache.put(gc.getFont(), datas);
-			}
-			if (datas != null && datas.length > 0) {
-				buffer.append(datas[0].getName());
-				buffer.append(","); //$NON-NLS-1$
-				buffer.append(datas[0].getHeight());
-				buffer.append(","); //$NON-NLS-1$
-				buffer.append(datas[0].getStyle());
-			}
-		}
-		text = buffer.toString();
-		Integer width = temporaryMap.get(text);
-		if (width == null) {
-			width = Integer.valueOf(gc.textExtent(originalString).x);
-			temporaryMap.put(text, width);
-		}
-
-		return width.intValue();
+		return TextMeasurer.getTextWidth(gc, text);
 	}
 
 	/**
@@ -273,11 +243,7 @@ public abstract class AbstractTextPainter extends BackgroundPainter {
 					}
 					
 					//concat the words with spaces and newlines to be always smaller then available
-					String computedText = ""; //$NON-NLS-1$
-					for (String word : words) {
-						computedText = computeTextToDisplay(computedText, word, gc, textLength);
-					}
-					output.append(computedText);
+					output.append(wrapWords(words, gc, textLength));
 				}
 			}
 			else {
@@ -304,12 +270,7 @@ public abstract class AbstractTextPainter extends BackgroundPainter {
 				String[] words = line.split("\\s"); //$NON-NLS-1$
 				
 				//concat the words with spaces and newlines
-				String computedText = ""; //$NON-NLS-1$
-				for (String word : words) {
-					computedText = computeTextToDisplay(computedText, word, gc, availableLength);
-				}
-				
-				output.append(computedText);
+				output.append(wrapWords(words, gc, availableLength));
 			}
 			
 		}
@@ -320,6 +281,66 @@ public abstract class AbstractTextPainter extends BackgroundPainter {
 		return output.toString();
 	}
 	
+	/**
+	 * This method gets only called if word wrapping is enabled.
+	 * Concatenates the words of a line with spaces, or with new line characters if the
+	 * next word does not fit into the available space.
+	 * <p>
+	 * If all words are measured arithmetically by the {@link TextMeasurer}, the width of
+	 * the current line is tracked incrementally, otherwise every concatenation is measured
+	 * via {@link #computeTextToDisplay(String, String, GC, int)}.
+	 * @param words the words of the line
+	 * @param gc the current GC
+	 * @param availableSpace the available space
+	 * @return the concatenated words
+	 */
+	private String wrapWords(String[] words, GC gc, int availableSpace) {
+		boolean arithmetic = true;
+		for (String word : words) {
+			if (!TextMeasurer.isArithmeticMeasurable(word)) {
+				arithmetic = false;
+				break;
+			}
+		}
+
+		if (!arithmetic) {
+			String computedText = ""; //$NON-NLS-1$
+			for (String word : words) {
+				computedText = computeTextToDisplay(computedText, word, gc, availableSpace);
+			}
+			return computedText;
+		}
+
+		//same rules as computeTextToDisplay(), but without measuring the whole line again
+		StringBuilder result = new StringBuilder();
+		int spaceWidth = getLengthFromCache(gc, " "); //$NON-NLS-1$
+		boolean wrapped = false;
+		boolean endsWithNewLine = false;
+		int lineWidth = 0;
+		for (String word : words) {
+			int wordWidth = getLengthFromCache(gc, word);
+			if (result.length() == 0 || endsWithNewLine) {
+				result.append(word);
+				lineWidth = wordWidth;
+				endsWithNewLine = endsWithNewLine && word.length() == 0;
+			}
+			else if (lineWidth == availableSpace || lineWidth + spaceWidth + wordWidth >= availableSpace) {
+				String nextLine = wrapped ? word : modifyTextToDisplay(word, gc, availableSpace);
+				result.append(LINE_SEPARATOR);
+				result.append(nextLine);
+				lineWidth = getLengthFromCache(gc, nextLine);
+				wrapped = true;
+				endsWithNewLine = nextLine.length() == 0;
+			}
+			else {
+				result.append(' ');
+				result.append(word);
+				lineWidth += spaceWidth + wordWidth;
+			}
+		}
+		return result.toString();
+	}
+
 	/**
 	 * This method gets only called if word wrapping is enabled.
 	 * Concatenates the two given words by taking the availableSpace into account.
@@ -395,44 +416,7 @@ public abstract class AbstractTextPainter extends BackgroundPainter {
 				//this way every line will get ... if it doesn't fit
 				int lineLength = getLengthFromCache(gc, line);
 				if (lineLength > availableLength) {
-					int numExtraChars = 0;
-
-					int newStringLength = line.length();
-					String trialLabelText = line + DOT;
-					int newTextExtent = getLengthFromCache(gc, trialLabelText);
-
-					while (newTextExtent > availableLength + 1 && newStringLength > 0) {
-						double avgWidthPerChar = (double) newTextExtent / trialLabelText.length();
-						numExtraChars += 1 + (int) ((newTextExtent - availableLength) / avgWidthPerChar);
-
-						newStringLength = line.length() - numExtraChars;
-						if (newStringLength > 0) {
-							trialLabelText = line.substring(0, newStringLength) + DOT;
-							newTextExtent = getLengthFromCache(gc, trialLabelText);
-						}
-					}
-
-					if (numExtraChars > line.length()) {
-						numExtraChars = line.length();
-					}
-					
-					// now we have gone too short, lets add chars one at a time to exceed the width...
-					String testString = line;
-					for (int i = 0; i < line.length(); i++){
-						testString = line.substring(0, line.length() + i - numExtraChars) + DOT;
-						textLength = getLengthFromCache(gc, testString);
-						
-						if (textLength >= availableLength) {
-							
-							//  now roll back one as this was the first number that exceeded
-							if (line.length() + i - numExtraChars < 1){
-								line = EMPTY;
-							} else {
-								line = line.substring(0, line.length() + i - numExtraChars - 1 ) + DOT;
-							}
-							break;
-						}
-					}
+					line = truncateLine(line, gc, availableLength);
 				}
 				result.append(line);
 			}
@@ -442,6 +426,42 @@ public abstract class AbstractTextPainter extends BackgroundPainter {
 		return text;
 	}
 
+	/**
+	 * Cuts the given line that does not fit into the available space and adds three dots.
+	 * Searches the longest prefix that fits together with the dots via binary search over
+	 * the prefix widths.
+	 * @param line the line to cut
+	 * @param gc the current GC
+	 * @param availableLength the available space
+	 * @return the cut line ending with three dots, or an empty String if not even the
+	 * 			dots fit into the available space
+	 */
+	private String truncateLine(String line, GC gc, int availableLength) {
+		int[] prefixWidths = TextMeasurer.getPrefixWidths(gc, line);
+		int dotWidth = getLengthFromCache(gc, DOT);
+
+		//find the shortest prefix that does not fit together with the dots
+		int low = 0;
+		int high = line.length();
+		while (low < high) {
+			int middle = (low + high) >>> 1;
+			int width = (prefixWidths != null)
+					? prefixWidths[middle] + dotWidth
+					: getLengthFromCache(gc, line.substring(0, middle) + DOT);
+			if (width >= availableLength) {
+				high = middle;
+			} else {
+				low = middle + 1;
+			}
+		}
+
+		//now roll back one as this was the first length that exceeded
+		if (low < 1) {
+			return EMPTY;
+		}
+		return line.substring(0, low - 1) + DOT;
+	}
+
 	/**
 	 * This method gets only called if automatic length calculation is enabled.
 	 * Calculate the new cell width/height by using the given content length and the
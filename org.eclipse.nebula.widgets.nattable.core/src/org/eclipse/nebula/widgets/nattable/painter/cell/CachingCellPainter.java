@@ -0,0 +1,286 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Original authors and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Original authors and others - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.painter.cell;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.nebula.widgets.nattable.NatTable;
+import org.eclipse.nebula.widgets.nattable.config.CellConfigAttributes;
+import org.eclipse.nebula.widgets.nattable.config.IConfigRegistry;
+import org.eclipse.nebula.widgets.nattable.data.convert.IDisplayConverter;
+import org.eclipse.nebula.widgets.nattable.layer.ILayerListener;
+import org.eclipse.nebula.widgets.nattable.layer.cell.ILayerCell;
+import org.eclipse.nebula.widgets.nattable.layer.event.ILayerEvent;
+import org.eclipse.nebula.widgets.nattable.layer.event.StructuralRefreshEvent;
+import org.eclipse.nebula.widgets.nattable.metrics.MetricsRegistry;
+import org.eclipse.swt.events.DisposeEvent;
+import org.eclipse.swt.events.DisposeListener;
+import org.eclipse.swt.graphics.GC;
+import org.eclipse.swt.graphics.Image;
+import org.eclipse.swt.graphics.Rectangle;
+import org.eclipse.swt.widgets.Display;
+
+/**
+ * Wrapper for expensive cell painters, e.g. {@link TableCellPainter},
+ * {@link PercentageBarCellPainter}, {@link GradientBackgroundPainter} or long decorator
+ * chains, that keeps the rendered cells as images. Repainting a cell whose content didn't
+ * change is reduced to drawing the cached image.
+ * <p>
+ * A rendered cell is identified by the wrapped painter, the data value, the display value,
+ * the display mode, the config labels, which identify the resolved style, and the size of
+ * the cell. The wrapped painter therefore must not paint anything that depends on other
+ * state. As changing cell values change the data value, data updates never show a stale
+ * image. The cache is cleared on structural refreshes, e.g. if the data provider is
+ * changed, and needs to be cleared via {@link #clearCache()} after the configuration
+ * was changed.
+ * <p>
+ * The images are kept in a least recently used cache that is bounded by the number of
+ * cached pixels. As the images are rendered on the background color of the NatTable,
+ * the wrapped painter should paint the cell background itself.
+ * <p>
+ * The images are disposed together with the NatTable. Cells that are painted on another
+ * device than the display of the NatTable, e.g. on printing, are painted without caching.
+ */
+public class CachingCellPainter extends CellPainterWrapper implements ILayerListener {
+
+	/**
+	 * The default maximum number of cached pixels, which is about 16 MB of image data.
+	 */
+	public static final int DEFAULT_MAX_PIXELS = 4 * 1024 * 1024;
+
+	private final int maxPixels;
+
+	private final Display display;
+
+	private final LinkedHashMap<RenderKey, Image> cache = new LinkedHashMap<RenderKey, Image>(64, 0.75f, true);
+	private long cachedPixels = 0;
+
+	/**
+	 * @param painter The painter whose rendered cells should be cached.
+	 * @param natTable The NatTable the painter is used in. The cache listens to its events
+	 * 			and is disposed together with it.
+	 */
+	public CachingCellPainter(ICellPainter painter, NatTable natTable) {
+		this(painter, natTable, DEFAULT_MAX_PIXELS);
+	}
+
+	/**
+	 * @param painter The painter whose rendered cells should be cached.
+	 * @param natTable The NatTable the painter is used in. The cache listens to its events
+	 * 			and is disposed together with it.
+	 * @param maxPixels The maximum number of pixels of all cached images.
+	 */
+	public CachingCellPainter(ICellPainter painter, NatTable natTable, int maxPixels) {
+		super(painter);
+		if (maxPixels <= 0) {
+			throw new IllegalArgumentException("The maximum number of cached pixels must be positive"); //$NON-NLS-1$
+		}
+		this.maxPixels = maxPixels;
+		this.display = natTable.getDisplay();
+
+		natTable.addLayerListener(this);
+		natTable.addDisposeListener(new DisposeListener() {
+			@Override
+			public void widgetDisposed(DisposeEvent e) {
+				clearCache();
+			}
+		});
+	}
+
+	@Override
+	public void paintCell(ILayerCell cell, GC gc, Rectangle adjustedCellBounds, IConfigRegistry configRegistry) {
+		ICellPainter painter = getWrappedPainter();
+		if (painter == null || adjustedCellBounds.width <= 0 || adjustedCellBounds.height <= 0) {
+			return;
+		}
+
+		long pixels = (long) adjustedCellBounds.width * adjustedCellBounds.height;
+		if (pixels > this.maxPixels / 4 || gc.getDevice() != this.display) {
+			// a single image would displace too many others, or the cached images
+			// belong to another device, e.g. if the table is printed
+			painter.paintCell(cell, gc, adjustedCellBounds, configRegistry);
+			return;
+		}
+
+		MetricsRegistry metrics = MetricsRegistry.getInstance();
+		Object dataValue = cell.getDataValue();
+		RenderKey key = new RenderKey(painter, dataValue, getDisplayValue(cell, configRegistry, dataValue),
+				cell.getDisplayMode(), cell.getConfigLabels().getLabels(), adjustedCellBounds.width, adjustedCellBounds.height);
+		Image image = this.cache.get(key);
+		if (image == null) {
+			if (metrics.isEnabled()) {
+				metrics.increment(MetricsRegistry.CACHE_MISS_PREFIX + "cellRender"); //$NON-NLS-1$
+			}
+			image = render(cell, gc, adjustedCellBounds, configRegistry);
+			this.cache.put(key.copy(), image);
+			this.cachedPixels += pixels;
+			evict();
+		} else if (metrics.isEnabled()) {
+			metrics.increment(MetricsRegistry.CACHE_HIT_PREFIX + "cellRender"); //$NON-NLS-1$
+		}
+
+		gc.drawImage(image, adjustedCellBounds.x, adjustedCellBounds.y);
+	}
+
+	/**
+	 * Renders the cell via the wrapped painter into a new image of the size of the cell.
+	 * The image is prepared with the colors and font of the given GC.
+	 */
+	private Image render(ILayerCell cell, GC gc, Rectangle bounds, IConfigRegistry configRegistry) {
+		Image image = new Image(gc.getDevice(), bounds.width, bounds.height);
+		GC imageGC = new GC(image);
+		try {
+			imageGC.setBackground(gc.getBackground());
+			imageGC.fillRectangle(0, 0, bounds.width, bounds.height);
+			imageGC.setForeground(gc.getForeground());
+			imageGC.setFont(gc.getFont());
+			imageGC.setAntialias(gc.getAntialias());
+			imageGC.setTextAntialias(gc.getTextAntialias());
+
+			getWrappedPainter().paintCell(cell, imageGC, new Rectangle(0, 0, bounds.width, bounds.height), configRegistry);
+		} finally {
+			imageGC.dispose();
+		}
+		return image;
+	}
+
+	/**
+	 * Disposes the least recently used images until the cached pixels fit the maximum.
+	 */
+	private void evict() {
+		Iterator<Map.Entry<RenderKey, Image>> it = this.cache.entrySet().iterator();
+		while (this.cachedPixels > this.maxPixels && it.hasNext()) {
+			Map.Entry<RenderKey, Image> eldest = it.next();
+			this.cachedPixels -= eldest.getKey().getPixels();
+			eldest.getValue().dispose();
+			it.remove();
+		}
+	}
+
+	private Object getDisplayValue(ILayerCell cell, IConfigRegistry configRegistry, Object dataValue) {
+		IDisplayConverter displayConverter = configRegistry.getConfigAttribute(
+				CellConfigAttributes.DISPLAY_CONVERTER, cell.getDisplayMode(), cell.getConfigLabels().getLabels());
+		return displayConverter != null ? displayConverter.canonicalToDisplayValue(cell, configRegistry, dataValue) : dataValue;
+	}
+
+	/**
+	 * Clears the cache on structural refreshes, as they are fired if the whole content
+	 * of the table might have changed.
+	 */
+	@Override
+	public void handleLayerEvent(ILayerEvent event) {
+		if (event instanceof StructuralRefreshEvent) {
+			clearCache();
+		}
+	}
+
+	/**
+	 * Disposes all cached images.
+	 */
+	public void clearCache() {
+		for (Image image : this.cache.values()) {
+			image.dispose();
+		}
+		this.cache.clear();
+		this.cachedPixels = 0;
+	}
+
+	/**
+	 * @return The number of cached images.
+	 */
+	public int getCacheSize() {
+		return this.cache.size();
+	}
+
+	/**
+	 * @return The number of pixels of all cached images.
+	 */
+	public long getCachedPixels() {
+		return this.cachedPixels;
+	}
+
+	/**
+	 * Identifies a rendered cell. The painter is compared by identity. The data value is
+	 * part of the key, as painters like the {@link PercentageBarCellPainter} paint the data
+	 * value instead of the display value.
+	 */
+	private static final class RenderKey {
+
+		private final ICellPainter painter;
+		private final Object dataValue;
+		private final Object displayValue;
+		private final String displayMode;
+		private final List<String> labels;
+		private final int width;
+		private final int height;
+		private final int hashCode;
+
+		RenderKey(ICellPainter painter, Object dataValue, Object displayValue, String displayMode, List<String> labels, int width, int height) {
+			this.painter = painter;
+			this.dataValue = dataValue;
+			this.displayValue = displayValue;
+			this.displayMode = displayMode;
+			this.labels = labels;
+			this.width = width;
+			this.height = height;
+
+			int hash = System.identityHashCode(painter);
+			hash = 31 * hash + (dataValue != null ? dataValue.hashCode() : 0);
+			hash = 31 * hash + (displayValue != null ? displayValue.hashCode() : 0);
+			hash = 31 * hash + (displayMode != null ? displayMode.hashCode() : 0);
+			hash = 31 * hash + labels.hashCode();
+			hash = 31 * hash + width;
+			hash = 31 * hash + height;
+			this.hashCode = hash;
+		}
+
+		/**
+		 * @return A key that doesn't share the label list of the cell, to be stored in
+		 * 			the cache.
+		 */
+		RenderKey copy() {
+			return new RenderKey(this.painter, this.dataValue, this.displayValue, this.displayMode,
+					new ArrayList<String>(this.labels), this.width, this.height);
+		}
+
+		long getPixels() {
+			return (long) this.width * this.height;
+		}
+
+		@Override
+		public int hashCode() {
+			return this.hashCode;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj) {
+				return true;
+			}
+			if (!(obj instanceof RenderKey)) {
+				return false;
+			}
+			RenderKey other = (RenderKey) obj;
+			return this.painter == other.painter
+					&& this.width == other.width
+					&& this.height == other.height
+					&& (this.dataValue == null ? other.dataValue == null : this.dataValue.equals(other.dataValue))
+					&& (this.displayValue == null ? other.displayValue == null : this.displayValue.equals(other.displayValue))
+					&& (this.displayMode == null ? other.displayMode == null : this.displayMode.equals(other.displayMode))
+					&& this.labels.equals(other.labels);
+		}
+	}
+
+}
@@ -14,10 +14,8 @@ import java.util.Collection;
 
 import org.eclipse.nebula.widgets.nattable.config.IConfigRegistry;
 import org.eclipse.nebula.widgets.nattable.edit.editor.TableCellEditor;
-import org.eclipse.nebula.widgets.nattable.layer.ILayer;
 import org.eclipse.nebula.widgets.nattable.layer.cell.ILayerCell;
 import org.eclipse.nebula.widgets.nattable.layer.cell.LayerCell;
-import org.eclipse.nebula.widgets.nattable.resize.command.RowResizeCommand;
 import org.eclipse.nebula.widgets.nattable.style.DisplayMode;
 import org.eclipse.nebula.widgets.nattable.util.GUIHelper;
 import org.eclipse.swt.graphics.Color;
@@ -167,12 +165,7 @@ public class TableCellPainter extends BackgroundPainter {
 				//perform resize if necessary
 				int neededHeight = subGridY - bounds.y;
 				if (isCalculateParentCellHeight() && (neededHeight > bounds.height)) {
-					ILayer layer = cell.getLayer();
-					layer.doCommand(
-							new RowResizeCommand(
-									layer, 
-									cell.getRowPosition(), 
-									neededHeight));
+					requestRowResize(cell, neededHeight);
 				}
 			}
 		}
@@ -11,10 +11,7 @@
 package org.eclipse.nebula.widgets.nattable.painter.cell;
 
 import org.eclipse.nebula.widgets.nattable.config.IConfigRegistry;
-import org.eclipse.nebula.widgets.nattable.layer.ILayer;
 import org.eclipse.nebula.widgets.nattable.layer.cell.ILayerCell;
-import org.eclipse.nebula.widgets.nattable.resize.command.ColumnResizeCommand;
-import org.eclipse.nebula.widgets.nattable.resize.command.RowResizeCommand;
 import org.eclipse.nebula.widgets.nattable.style.CellStyleUtil;
 import org.eclipse.nebula.widgets.nattable.style.IStyle;
 import org.eclipse.swt.SWT;
@@ -142,12 +139,7 @@ public class TextPainter extends AbstractTextPainter {
 			int contentToCellDiff = (cell.getBounds().height - rectangle.height);
 	
 			if (performRowResize(contentHeight, rectangle)) {
-				ILayer layer = cell.getLayer();
-				layer.doCommand(
-						new RowResizeCommand(
-								layer, 
-								cell.getRowPosition(), 
-								contentHeight + contentToCellDiff));
+				requestRowResize(cell, contentHeight + contentToCellDiff);
 			}
 			
 			if (numberOfNewLines == 1) {
@@ -174,7 +166,7 @@ public class TextPainter extends AbstractTextPainter {
 						gc.drawLine(
 								x, 
 								underlineY, 
-								x + gc.textExtent(text).x, 
+								x + getLengthFromCache(gc, text), 
 								underlineY);
 					}
 					
@@ -185,7 +177,7 @@ public class TextPainter extends AbstractTextPainter {
 						gc.drawLine(
 								x, 
 								strikeY, 
-								x + gc.textExtent(text).x, 
+								x + getLengthFromCache(gc, text), 
 								strikeY);
 					}
 				}
@@ -221,7 +213,7 @@ public class TextPainter extends AbstractTextPainter {
 							gc.drawLine(
 									x, 
 									underlineY, 
-									x + gc.textExtent(line).x, 
+									x + getLengthFromCache(gc, line), 
 									underlineY);
 						}
 						
@@ -232,7 +224,7 @@ public class TextPainter extends AbstractTextPainter {
 							gc.drawLine(
 									x, 
 									strikeY, 
-									x + gc.textExtent(line).x, 
+									x + getLengthFromCache(gc, line), 
 									strikeY);
 						}
 					}
@@ -252,9 +244,7 @@ public class TextPainter extends AbstractTextPainter {
 		int cellLength = cell.getBounds().width;
 		if (cellLength < contentWidth) {
 			//execute ColumnResizeCommand
-			ILayer layer = cell.getLayer();
-			layer.doCommand(new ColumnResizeCommand(layer, cell.getColumnPosition(), 
-					contentWidth));
+			requestColumnResize(cell, contentWidth);
 		}
 	}
 
@@ -11,10 +11,7 @@
 package org.eclipse.nebula.widgets.nattable.painter.cell;
 
 import org.eclipse.nebula.widgets.nattable.config.IConfigRegistry;
-import org.eclipse.nebula.widgets.nattable.layer.ILayer;
 import org.eclipse.nebula.widgets.nattable.layer.cell.ILayerCell;
-import org.eclipse.nebula.widgets.nattable.resize.command.ColumnResizeCommand;
-import org.eclipse.nebula.widgets.nattable.resize.command.RowResizeCommand;
 import org.eclipse.nebula.widgets.nattable.style.CellStyleUtil;
 import org.eclipse.nebula.widgets.nattable.style.IStyle;
 import org.eclipse.swt.SWT;
@@ -141,12 +138,7 @@ public class VerticalTextPainter extends AbstractTextPainter {
 		int contentToCellDiff = (cell.getBounds().width - rectangle.width);
 		
 		if ((contentWidth > rectangle.width) && calculateByTextHeight) {
-			ILayer layer = cell.getLayer();
-			layer.doCommand(
-					new ColumnResizeCommand(
-							layer, 
-							cell.getColumnPosition(), 
-							contentWidth + contentToCellDiff));
+			requestColumnResize(cell, contentWidth + contentToCellDiff);
 		}
 		
 		if (text != null && text.length() > 0) {
@@ -195,9 +187,7 @@ public class VerticalTextPainter extends AbstractTextPainter {
 		int cellLength = cell.getBounds().height;
 		if (cellLength < contentHeight) {
 
-			ILayer layer = cell.getLayer();
-			layer.doCommand(new RowResizeCommand(layer, cell.getRowPosition(), 
-					contentHeight));
+			requestRowResize(cell, contentHeight);
 		}
 	}
 
@@ -205,4 +195,4 @@ public class VerticalTextPainter extends AbstractTextPainter {
 	protected int calculatePadding(ILayerCell cell, int availableLength) {
 		return cell.getBounds().height - availableLength;
 	}
-}
\ No newline at end of file
+}
\ No newline at end of file
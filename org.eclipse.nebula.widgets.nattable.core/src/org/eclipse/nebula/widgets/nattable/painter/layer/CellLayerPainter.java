@@ -10,16 +10,23 @@
  ******************************************************************************/
 package org.eclipse.nebula.widgets.nattable.painter.layer;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 
 import org.eclipse.nebula.widgets.nattable.config.IConfigRegistry;
 import org.eclipse.nebula.widgets.nattable.layer.ILayer;
 import org.eclipse.nebula.widgets.nattable.layer.cell.ILayerCell;
+import org.eclipse.nebula.widgets.nattable.metrics.MetricsRegistry;
+import org.eclipse.nebula.widgets.nattable.metrics.MetricsTimer;
 import org.eclipse.nebula.widgets.nattable.painter.cell.ICellPainter;
+import org.eclipse.nebula.widgets.nattable.style.DisplayMode;
 import org.eclipse.swt.graphics.GC;
+import org.eclipse.swt.graphics.Point;
 import org.eclipse.swt.graphics.Rectangle;
 
 
@@ -28,6 +35,7 @@ public class CellLayerPainter implements ILayerPainter {
 	private ILayer natLayer;
 	private Map<Integer, Integer> horizontalPositionToPixelMap;
 	private Map<Integer, Integer> verticalPositionToPixelMap;
+	private MetricsTimer paintTimer;
 	
 	
 	@Override
@@ -36,12 +44,71 @@ public class CellLayerPainter implements ILayerPainter {
 			return;
 		}
 		
+		MetricsRegistry metrics = MetricsRegistry.getInstance();
+		long start = -1;
+		if (metrics.isEnabled()) {
+			if (paintTimer == null) {
+				paintTimer = metrics.getTimer(MetricsRegistry.PAINT_PREFIX + getClass().getName());
+			}
+			start = paintTimer.start();
+		}
+		int paintedCells = 0;
+		
 		this.natLayer = natLayer;
 		Rectangle positionRectangle = getPositionRectangleFromPixelRectangle(natLayer, pixelRectangle);
 		
 		calculateDimensionInfo(positionRectangle);
 		
+		ProgressivePaintContext progressive = ProgressivePaintContext.getCurrent();
+		if (progressive != null) {
+			paintedCells = paintCellsProgressively(positionRectangle, gc, configRegistry, progressive);
+		} else {
+			Collection<ILayerCell> spannedCells = new HashSet<ILayerCell>();
+			
+			for (int columnPosition = positionRectangle.x; columnPosition < positionRectangle.x + positionRectangle.width; columnPosition++) {
+				for (int rowPosition = positionRectangle.y; rowPosition < positionRectangle.y + positionRectangle.height; rowPosition++) {
+					if (columnPosition == -1 || rowPosition == -1) {
+						continue;
+					}
+					ILayerCell cell = natLayer.getCellByPosition(columnPosition, rowPosition);
+					if (cell != null) {
+						if (cell.isSpannedCell()) {
+							spannedCells.add(cell);
+						} else {
+							paintCell(cell, gc, configRegistry);
+							paintedCells++;
+						}
+					}
+				}
+			}
+			
+			for (ILayerCell cell : spannedCells) {
+				paintCell(cell, gc, configRegistry);
+				paintedCells++;
+			}
+		}
+		
+		if (metrics.isEnabled()) {
+			metrics.add(MetricsRegistry.PAINT_CELLS, paintedCells);
+			if (paintTimer != null) {
+				paintTimer.stop(start);
+			}
+		}
+	}
+	
+	/**
+	 * Paints the cells that need to be painted in order of their distance to the selected
+	 * cells, or to the focus point of the frame if no cell is selected, until the time
+	 * budget of the frame is exceeded. At least one cell is painted, so every frame makes
+	 * progress. The remaining cells are deferred to the next frame.
+	 * @return The number of painted cells.
+	 */
+	private int paintCellsProgressively(Rectangle positionRectangle, GC gc, IConfigRegistry configRegistry, ProgressivePaintContext progressive) {
+		List<PrioritizedCell> cells = new ArrayList<PrioritizedCell>();
 		Collection<ILayerCell> spannedCells = new HashSet<ILayerCell>();
+		long selectedX = 0;
+		long selectedY = 0;
+		int selectedCount = 0;
 		
 		for (int columnPosition = positionRectangle.x; columnPosition < positionRectangle.x + positionRectangle.width; columnPosition++) {
 			for (int rowPosition = positionRectangle.y; rowPosition < positionRectangle.y + positionRectangle.height; rowPosition++) {
@@ -49,19 +116,43 @@ public class CellLayerPainter implements ILayerPainter {
 					continue;
 				}
 				ILayerCell cell = natLayer.getCellByPosition(columnPosition, rowPosition);
-				if (cell != null) {
-					if (cell.isSpannedCell()) {
-						spannedCells.add(cell);
-					} else {
-						paintCell(cell, gc, configRegistry);
-					}
+				if (cell == null || (cell.isSpannedCell() && !spannedCells.add(cell))) {
+					continue;
+				}
+				Rectangle bounds = cell.getBounds();
+				if (!progressive.isDamaged(bounds)) {
+					continue;
+				}
+				PrioritizedCell prioritizedCell = new PrioritizedCell(cell, bounds);
+				cells.add(prioritizedCell);
+				if (DisplayMode.SELECT.equals(cell.getDisplayMode())) {
+					selectedX += prioritizedCell.centerX;
+					selectedY += prioritizedCell.centerY;
+					selectedCount++;
 				}
 			}
 		}
 		
-		for (ILayerCell cell : spannedCells) {
-			paintCell(cell, gc, configRegistry);
+		Point focusPoint = (selectedCount > 0)
+				? new Point((int) (selectedX / selectedCount), (int) (selectedY / selectedCount))
+				: progressive.getFocusPoint();
+		if (focusPoint != null) {
+			for (PrioritizedCell cell : cells) {
+				cell.setFocusPoint(focusPoint);
+			}
+			Collections.sort(cells);
 		}
+		
+		int paintedCells = 0;
+		for (PrioritizedCell cell : cells) {
+			if (paintedCells > 0 && progressive.isExpired()) {
+				progressive.defer(cell.bounds);
+			} else {
+				paintCell(cell.cell, gc, configRegistry);
+				paintedCells++;
+			}
+		}
+		return paintedCells;
 	}
 	
 	private void calculateDimensionInfo(Rectangle positionRectangle) {
@@ -106,6 +197,36 @@ public class CellLayerPainter implements ILayerPainter {
 		return cellBounds;
 	}
 	
+	/**
+	 * A cell with its squared distance to the focus point of a progressively painted frame.
+	 */
+	private static class PrioritizedCell implements Comparable<PrioritizedCell> {
+		
+		private final ILayerCell cell;
+		private final Rectangle bounds;
+		private final int centerX;
+		private final int centerY;
+		private long distance;
+		
+		PrioritizedCell(ILayerCell cell, Rectangle bounds) {
+			this.cell = cell;
+			this.bounds = bounds;
+			this.centerX = bounds.x + bounds.width / 2;
+			this.centerY = bounds.y + bounds.height / 2;
+		}
+		
+		void setFocusPoint(Point focusPoint) {
+			long dx = centerX - focusPoint.x;
+			long dy = centerY - focusPoint.y;
+			distance = dx * dx + dy * dy;
+		}
+		
+		@Override
+		public int compareTo(PrioritizedCell other) {
+			return distance < other.distance ? -1 : (distance == other.distance ? 0 : 1);
+		}
+	}
+	
 	protected Rectangle getPositionRectangleFromPixelRectangle(ILayer natLayer, Rectangle pixelRectangle) {
 		int columnPositionOffset = natLayer.getColumnPositionByX(pixelRectangle.x);
 		int rowPositionOffset = natLayer.getRowPositionByY(pixelRectangle.y);
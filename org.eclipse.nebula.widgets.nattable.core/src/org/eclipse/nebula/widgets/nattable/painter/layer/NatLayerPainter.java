@@ -11,22 +11,86 @@
 package org.eclipse.nebula.widgets.nattable.painter.layer;
 
 
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
 import org.eclipse.nebula.widgets.nattable.NatTable;
 import org.eclipse.nebula.widgets.nattable.config.IConfigRegistry;
 import org.eclipse.nebula.widgets.nattable.layer.ILayer;
+import org.eclipse.nebula.widgets.nattable.metrics.MetricsRegistry;
 import org.eclipse.nebula.widgets.nattable.painter.IOverlayPainter;
 import org.eclipse.swt.graphics.GC;
+import org.eclipse.swt.graphics.Point;
 import org.eclipse.swt.graphics.Rectangle;
+import org.eclipse.swt.graphics.Region;
 
+/**
+ * Paints the NatTable: the background, the layer stack and the overlays.
+ * <p>
+ * With a progressive paint budget set, the background and the grid lines are painted
+ * immediately, while the cells are painted in priority order until the budget of the
+ * frame is exceeded. Cells around the selection, or around the mouse cursor if nothing
+ * is selected, are painted first. The remaining cells are painted in the next frames,
+ * so expensive cell painters don't block the input handling.
+ */
 public class NatLayerPainter implements ILayerPainter {
 
 	private final NatTable natTable;
 
+	private int progressivePaintBudget = 0;
+
+	private final List<Rectangle> pendingCells = new ArrayList<Rectangle>();
+
 	public NatLayerPainter(NatTable natTable) {
 		this.natTable = natTable;
 	}
 	
+	/**
+	 * @param millis The time in milliseconds the cells of a frame may be painted before the
+	 * 			remaining cells are deferred to the next frame, or 0 to always paint
+	 * 			complete frames, which is the default.
+	 */
+	public void setProgressivePaintBudget(int millis) {
+		if (millis < 0) {
+			throw new IllegalArgumentException("The paint budget must not be negative"); //$NON-NLS-1$
+		}
+		this.progressivePaintBudget = millis;
+		if (millis == 0) {
+			this.pendingCells.clear();
+		}
+	}
+	
+	/**
+	 * @return The time in milliseconds the cells of a frame may be painted, or 0 if
+	 * 			complete frames are painted.
+	 */
+	public int getProgressivePaintBudget() {
+		return this.progressivePaintBudget;
+	}
+	
+	/**
+	 * @return <code>true</code> if cells that were deferred by progressive painting are not
+	 * 			painted yet. Scrolling must not move the painted content via blitting then,
+	 * 			as the pending cells would be moved as well.
+	 */
+	public boolean hasPendingCells() {
+		return !this.pendingCells.isEmpty();
+	}
+	
 	public void paintLayer(ILayer natLayer, GC gc, int xOffset, int yOffset, Rectangle rectangle, IConfigRegistry configRegistry) {
+		MetricsRegistry metrics = MetricsRegistry.getInstance();
+		boolean measure = metrics.isEnabled();
+		long start = measure ? System.nanoTime() : 0;
+		long cellsBefore = measure ? metrics.getCounter(MetricsRegistry.PAINT_CELLS) : 0;
+		
+		ProgressivePaintContext progressive = null;
+		Region damagedRegion = null;
+		if (this.progressivePaintBudget > 0 && ProgressivePaintContext.getCurrent() == null) {
+			damagedRegion = new Region(gc.getDevice());
+			gc.getClipping(damagedRegion);
+			progressive = ProgressivePaintContext.begin(this.progressivePaintBudget * 1000000L, getFocusPoint(), damagedRegion);
+		}
 		try {
 			paintBackground(natLayer, gc, xOffset, yOffset, rectangle, configRegistry);
 			
@@ -39,7 +103,56 @@ public class NatLayerPainter implements ILayerPainter {
 		} catch (Exception e) {
 			e.printStackTrace(System.err);
 			System.err.println("Error while painting table: " + e.getMessage()); //$NON-NLS-1$
+		} finally {
+			if (progressive != null) {
+				ProgressivePaintContext.end();
+				updatePendingCells(damagedRegion, progressive.getDeferredBounds());
+				damagedRegion.dispose();
+			}
+		}
+		if (measure) {
+			metrics.frame(System.nanoTime() - start,
+					(int) (metrics.getCounter(MetricsRegistry.PAINT_CELLS) - cellsBefore));
+		}
+	}
+	
+	/**
+	 * @return The point in pixel coordinates around which the cells are painted first if
+	 * 			no cell is selected. Defaults to the mouse cursor if it is over the table,
+	 * 			otherwise <code>null</code> to paint the cells from the top left.
+	 */
+	protected Point getFocusPoint() {
+		Point cursor = natTable.toControl(natTable.getDisplay().getCursorLocation());
+		return natTable.getClientArea().contains(cursor) ? cursor : null;
+	}
+	
+	/**
+	 * Removes the pending cells that were painted or deferred again in the current frame,
+	 * and schedules the cells deferred in the current frame to be painted in the next one.
+	 * The redraw is requested asynchronously, so pending input events are handled first.
+	 */
+	private void updatePendingCells(Region damagedRegion, List<Rectangle> deferredCells) {
+		for (Iterator<Rectangle> it = this.pendingCells.iterator(); it.hasNext();) {
+			if (damagedRegion.intersects(it.next())) {
+				it.remove();
+			}
+		}
+		if (deferredCells.isEmpty()) {
+			return;
 		}
+		
+		this.pendingCells.addAll(deferredCells);
+		final List<Rectangle> cellsToRedraw = new ArrayList<Rectangle>(deferredCells);
+		natTable.getDisplay().asyncExec(new Runnable() {
+			@Override
+			public void run() {
+				if (!natTable.isDisposed()) {
+					for (Rectangle bounds : cellsToRedraw) {
+						natTable.redraw(bounds.x, bounds.y, bounds.width, bounds.height, false);
+					}
+				}
+			}
+		});
 	}
 	
 	protected void paintBackground(ILayer natLayer, GC gc, int xOffset, int yOffset, Rectangle rectangle, IConfigRegistry configRegistry) {
@@ -0,0 +1,119 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Original authors and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Original authors and others - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.painter.layer;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.swt.graphics.Point;
+import org.eclipse.swt.graphics.Rectangle;
+import org.eclipse.swt.graphics.Region;
+
+/**
+ * State of a frame that is painted progressively by the {@link NatLayerPainter}. The
+ * {@link CellLayerPainter}s of the layer stack paint their cells in priority order until
+ * the time budget of the frame is exceeded, and register the bounds of the remaining
+ * cells via {@link #defer(Rectangle)}. The NatLayerPainter schedules the deferred cells
+ * to be painted in the next frame.
+ * <p>
+ * The context is bound to the painting thread while the frame is painted, so the layer
+ * painters of the layer stack don't need to know the NatLayerPainter.
+ */
+public final class ProgressivePaintContext {
+
+	private static final ThreadLocal<ProgressivePaintContext> current = new ThreadLocal<ProgressivePaintContext>();
+
+	private final long deadline;
+	private final Point focusPoint;
+	private final Region damagedRegion;
+	private final List<Rectangle> deferredBounds = new ArrayList<Rectangle>();
+
+	private ProgressivePaintContext(long budgetNanos, Point focusPoint, Region damagedRegion) {
+		this.deadline = System.nanoTime() + budgetNanos;
+		this.focusPoint = focusPoint;
+		this.damagedRegion = damagedRegion;
+	}
+
+	/**
+	 * Starts painting a frame progressively on the current thread.
+	 * @param budgetNanos The time budget of the frame in nanoseconds.
+	 * @param focusPoint The point in pixel coordinates of the NatTable around which the
+	 * 			cells should be painted first, or <code>null</code>.
+	 * @param damagedRegion The region that needs to be painted, or <code>null</code> if
+	 * 			the whole painted rectangle needs to be painted. The region is not disposed
+	 * 			by the context.
+	 * @return The context of the frame.
+	 */
+	static ProgressivePaintContext begin(long budgetNanos, Point focusPoint, Region damagedRegion) {
+		ProgressivePaintContext context = new ProgressivePaintContext(budgetNanos, focusPoint, damagedRegion);
+		current.set(context);
+		return context;
+	}
+
+	/**
+	 * Finishes painting the frame of the current thread.
+	 */
+	static void end() {
+		current.remove();
+	}
+
+	/**
+	 * @return The context of the frame that is painted progressively on the current
+	 * 			thread, or <code>null</code> if the frame is painted completely.
+	 */
+	public static ProgressivePaintContext getCurrent() {
+		return current.get();
+	}
+
+	/**
+	 * @return <code>true</code> if the time budget of the frame is exceeded.
+	 */
+	public boolean isExpired() {
+		return System.nanoTime() - this.deadline >= 0;
+	}
+
+	/**
+	 * @return The point in pixel coordinates of the NatTable around which the cells
+	 * 			should be painted first, or <code>null</code>.
+	 */
+	public Point getFocusPoint() {
+		return this.focusPoint;
+	}
+
+	/**
+	 * Checks whether the given bounds need to be painted in this frame. Painting is
+	 * requested for regions, but the painted rectangle is the bounding box of the region,
+	 * so cells that were painted in a previous frame would otherwise be painted again.
+	 * @param bounds The bounds in pixel coordinates of the NatTable.
+	 * @return <code>true</code> if the bounds intersect the region that needs to be painted.
+	 */
+	public boolean isDamaged(Rectangle bounds) {
+		return this.damagedRegion == null || this.damagedRegion.intersects(bounds);
+	}
+
+	/**
+	 * Registers the bounds of a cell that couldn't be painted within the time budget.
+	 * @param bounds The bounds of the cell in pixel coordinates of the NatTable.
+	 */
+	public void defer(Rectangle bounds) {
+		if (bounds.width > 0 && bounds.height > 0) {
+			this.deferredBounds.add(bounds);
+		}
+	}
+
+	/**
+	 * @return The bounds of the cells that need to be painted in the next frame.
+	 */
+	public List<Rectangle> getDeferredBounds() {
+		return this.deferredBounds;
+	}
+
+}
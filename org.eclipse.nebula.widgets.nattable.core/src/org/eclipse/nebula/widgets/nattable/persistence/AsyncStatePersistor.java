@@ -0,0 +1,275 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Original authors and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Original authors and others - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.persistence;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledFuture;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.eclipse.nebula.widgets.nattable.NatTable;
+import org.eclipse.nebula.widgets.nattable.util.Scheduler;
+import org.eclipse.swt.events.DisposeEvent;
+import org.eclipse.swt.events.DisposeListener;
+import org.eclipse.swt.widgets.Display;
+
+/**
+ * Saves and restores the state of a {@link NatTable} to a file without blocking the
+ * UI thread for the file operations.
+ * <p>
+ * On saving, the state is collected into a {@link BinaryStateProperties} snapshot on the
+ * UI thread. Serializing and writing the snapshot is done by a background thread after
+ * the save delay. If another save is requested within the delay, only the newer snapshot
+ * is written. On loading, the file is read and parsed by the background thread and the
+ * state is applied on the UI thread via {@link NatTable#applyState(String, java.util.Properties)},
+ * which results in a single structural refresh.
+ * <p>
+ * A pending save is written when the NatTable is disposed. Disposing waits until it is
+ * written, as the background thread is a daemon thread that doesn't keep the JVM alive.
+ */
+public class AsyncStatePersistor {
+
+	private static final Log log = LogFactory.getLog(AsyncStatePersistor.class);
+
+	private static final Scheduler scheduler = new Scheduler("AsyncStatePersistor", true); //$NON-NLS-1$
+
+	/**
+	 * The default delay in milliseconds after which a requested save is written.
+	 */
+	public static final long DEFAULT_SAVE_DELAY = 500;
+
+	private final NatTable natTable;
+	private final File file;
+	private final String prefix;
+
+	private long saveDelay = DEFAULT_SAVE_DELAY;
+
+	/**
+	 * The snapshot that still needs to be written. Guarded by this.
+	 */
+	private BinaryStateProperties pendingState;
+
+	/**
+	 * The scheduled write of the pending snapshot. Guarded by this.
+	 */
+	private ScheduledFuture<?> pendingSave;
+
+	private final Runnable writeTask = new Runnable() {
+		@Override
+		public void run() {
+			writePendingState();
+		}
+	};
+
+	/**
+	 * @param natTable The NatTable whose state should be saved and restored.
+	 * @param file The file to write the state to and read the state from.
+	 * @param prefix The prefix of the state.
+	 */
+	public AsyncStatePersistor(NatTable natTable, File file, String prefix) {
+		this.natTable = natTable;
+		this.file = file;
+		this.prefix = prefix;
+
+		natTable.addDisposeListener(new DisposeListener() {
+			@Override
+			public void widgetDisposed(DisposeEvent e) {
+				try {
+					flush().get();
+				} catch (InterruptedException ex) {
+					Thread.currentThread().interrupt();
+				} catch (ExecutionException ex) {
+					log.error("Failed to write the NatTable state to " + AsyncStatePersistor.this.file, ex.getCause()); //$NON-NLS-1$
+				}
+			}
+		});
+	}
+
+	/**
+	 * @param saveDelay The delay in milliseconds after which a requested save is written.
+	 */
+	public void setSaveDelay(long saveDelay) {
+		this.saveDelay = saveDelay;
+	}
+
+	/**
+	 * @return The delay in milliseconds after which a requested save is written.
+	 */
+	public long getSaveDelay() {
+		return this.saveDelay;
+	}
+
+	/**
+	 * Takes a snapshot of the current state of the NatTable and schedules writing it
+	 * after the save delay. Needs to be called from the UI thread.
+	 */
+	public void scheduleSave() {
+		BinaryStateProperties snapshot = new BinaryStateProperties();
+		this.natTable.saveState(this.prefix, snapshot);
+
+		synchronized (this) {
+			this.pendingState = snapshot;
+			if (this.pendingSave != null) {
+				this.pendingSave.cancel(false);
+			}
+			this.pendingSave = scheduler.schedule(this.writeTask, this.saveDelay);
+		}
+	}
+
+	/**
+	 * Writes a pending snapshot without waiting for the save delay.
+	 * @return The Future representing the pending completion of the write.
+	 */
+	public synchronized Future<?> flush() {
+		if (this.pendingSave != null) {
+			this.pendingSave.cancel(false);
+			this.pendingSave = null;
+		}
+		return scheduler.submit(this.writeTask);
+	}
+
+	/**
+	 * Reads the state in the background and applies it to the NatTable on the UI thread.
+	 * If there is a snapshot that was not written yet, that snapshot is applied instead
+	 * of the file content. Nothing is applied if there is no saved state.
+	 * @return The Future representing the pending completion of reading the state.
+	 * 			The state is applied asynchronously on the UI thread afterwards.
+	 */
+	public Future<?> load() {
+		final Display display = this.natTable.getDisplay();
+		return scheduler.submit(new Runnable() {
+			@Override
+			public void run() {
+				BinaryStateProperties state;
+				synchronized (AsyncStatePersistor.this) {
+					state = pendingState;
+				}
+				if (state == null) {
+					try {
+						state = read();
+					} catch (IOException e) {
+						log.error("Failed to read the NatTable state from " + file, e); //$NON-NLS-1$
+						return;
+					}
+				}
+
+				if (state != null) {
+					final BinaryStateProperties loadedState = state;
+					display.asyncExec(new Runnable() {
+						@Override
+						public void run() {
+							if (!natTable.isDisposed()) {
+								natTable.applyState(prefix, loadedState);
+							}
+						}
+					});
+				}
+			}
+		});
+	}
+
+	private void writePendingState() {
+		BinaryStateProperties state;
+		synchronized (this) {
+			state = this.pendingState;
+			this.pendingState = null;
+		}
+
+		if (state != null) {
+			try {
+				write(state);
+			} catch (IOException e) {
+				log.error("Failed to write the NatTable state to " + this.file, e); //$NON-NLS-1$
+			}
+		}
+	}
+
+	/**
+	 * Writes the given state to a temporary file that replaces the state file afterwards,
+	 * so a failed write doesn't destroy the previously saved state. The previous state file
+	 * is kept as backup until the temporary file was renamed, so there is always a complete
+	 * state file even if the process is terminated in between.
+	 * Called by the background thread.
+	 * @param state The state to write.
+	 * @throws IOException If writing the state fails.
+	 */
+	protected void write(BinaryStateProperties state) throws IOException {
+		File tempFile = new File(this.file.getPath() + ".tmp"); //$NON-NLS-1$
+		OutputStream out = new BufferedOutputStream(new FileOutputStream(tempFile));
+		try {
+			state.writeBinary(out);
+		} finally {
+			out.close();
+		}
+
+		File backupFile = getBackupFile();
+		if (this.file.exists()) {
+			if (backupFile.exists() && !backupFile.delete()) {
+				throw new IOException("Failed to delete " + backupFile); //$NON-NLS-1$
+			}
+			if (!this.file.renameTo(backupFile)) {
+				throw new IOException("Failed to rename " + this.file + " to " + backupFile); //$NON-NLS-1$ //$NON-NLS-2$
+			}
+		}
+		if (!tempFile.renameTo(this.file)) {
+			backupFile.renameTo(this.file);
+			throw new IOException("Failed to rename " + tempFile + " to " + this.file); //$NON-NLS-1$ //$NON-NLS-2$
+		}
+		backupFile.delete();
+	}
+
+	/**
+	 * @return The file the previous state is moved to while the state file is replaced.
+	 */
+	private File getBackupFile() {
+		return new File(this.file.getPath() + ".bak"); //$NON-NLS-1$
+	}
+
+	/**
+	 * Reads the state file. Files written via {@link java.util.Properties#store(OutputStream, String)}
+	 * are supported too. If the state file is missing because writing was interrupted while
+	 * it was replaced, the backup of the previous state is read. Called by the background thread.
+	 * @return The state contained in the state file, or <code>null</code> if there is no
+	 * 			state file.
+	 * @throws IOException If reading the state fails.
+	 */
+	protected BinaryStateProperties read() throws IOException {
+		File stateFile = this.file;
+		if (!stateFile.exists()) {
+			stateFile = getBackupFile();
+			if (!stateFile.exists()) {
+				return null;
+			}
+		}
+
+		BinaryStateProperties state = new BinaryStateProperties();
+		InputStream in = new BufferedInputStream(new FileInputStream(stateFile));
+		try {
+			if (BinaryStateProperties.isBinaryState(in)) {
+				state.readBinary(in);
+			} else {
+				state.load(in);
+			}
+		} finally {
+			in.close();
+		}
+		return state;
+	}
+}
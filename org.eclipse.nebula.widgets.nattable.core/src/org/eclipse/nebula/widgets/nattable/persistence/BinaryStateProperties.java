@@ -0,0 +1,550 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Original authors and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Original authors and others - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.persistence;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Properties that additionally store binary encoded sections for large integer based
+ * states, like the sizes of millions of rows or the indexes of hidden rows.
+ * <p>
+ * As this class extends {@link Properties}, it is passed through the existing
+ * {@link IPersistable#saveState(String, Properties)} and
+ * {@link IPersistable#loadState(String, Properties)} calls. Persistables that support
+ * the binary format check whether the given Properties are an instance of this class
+ * and store their state as section instead of a delimited String. All other
+ * persistables keep writing String properties, which are stored together with the
+ * sections by {@link #writeBinary(OutputStream)}.
+ * <p>
+ * The sections are encoded as variable length integers. Integer arrays and map values
+ * are delta encoded and sets of indexes are run length encoded, so consecutive indexes
+ * and equal sizes only need one or two bytes per entry.
+ * <p>
+ * For compatibility the sections can be converted to the delimited String format via
+ * {@link #toProperties()}, and plain Properties can be imported via
+ * {@link #putAll(Map)}, as persistables fall back to the String properties if there
+ * is no section for a key.
+ */
+public class BinaryStateProperties extends Properties {
+
+	private static final long serialVersionUID = 1L;
+
+	private static final int MAGIC = 0x4E544253;
+	private static final int VERSION = 1;
+
+	private static final byte TYPE_INT_ARRAY = 1;
+	private static final byte TYPE_INDEX_SET = 2;
+	private static final byte TYPE_INT_MAP = 3;
+	private static final byte TYPE_BOOLEAN_MAP = 4;
+
+	private static final String UTF_8 = "UTF-8"; //$NON-NLS-1$
+
+	private final Map<String, byte[]> sections = new TreeMap<String, byte[]>();
+
+	// Integer arrays
+
+	/**
+	 * Stores the given values in the given order.
+	 * @param key The key of the section.
+	 * @param values The values to store.
+	 */
+	public void setIntArray(String key, int[] values) {
+		Encoder encoder = new Encoder(TYPE_INT_ARRAY, values.length);
+		encoder.writeVarInt(values.length);
+		int previous = 0;
+		for (int value : values) {
+			encoder.writeSignedVarInt(value - previous);
+			previous = value;
+		}
+		putSection(key, encoder.toByteArray());
+	}
+
+	/**
+	 * Stores the given values in the iteration order of the given collection.
+	 * @param key The key of the section.
+	 * @param values The values to store.
+	 */
+	public void setIntArray(String key, Collection<Integer> values) {
+		int[] array = new int[values.size()];
+		int i = 0;
+		for (Integer value : values) {
+			array[i++] = value.intValue();
+		}
+		setIntArray(key, array);
+	}
+
+	/**
+	 * @param key The key of the section.
+	 * @return The values stored via {@link #setIntArray(String, int[])}, or
+	 * 			<code>null</code> if there is no such section.
+	 */
+	public int[] getIntArray(String key) {
+		Decoder decoder = getDecoder(key, TYPE_INT_ARRAY);
+		if (decoder == null) {
+			return null;
+		}
+		int[] values = new int[decoder.readVarInt()];
+		int previous = 0;
+		for (int i = 0; i < values.length; i++) {
+			previous += decoder.readSignedVarInt();
+			values[i] = previous;
+		}
+		return values;
+	}
+
+	// Index sets
+
+	/**
+	 * Stores the given indexes as set. The order and duplicates are not retained.
+	 * @param key The key of the section.
+	 * @param indexes The indexes to store.
+	 */
+	public void setIndexSet(String key, Collection<Integer> indexes) {
+		putSection(key, encodeIndexSet(new Encoder(TYPE_INDEX_SET, indexes.size()), indexes).toByteArray());
+	}
+
+	/**
+	 * @param key The key of the section.
+	 * @return The ascending indexes stored via {@link #setIndexSet(String, Collection)},
+	 * 			or <code>null</code> if there is no such section.
+	 */
+	public int[] getIndexSet(String key) {
+		Decoder decoder = getDecoder(key, TYPE_INDEX_SET);
+		return (decoder != null) ? decodeIndexSet(decoder) : null;
+	}
+
+	// Maps
+
+	/**
+	 * Stores the given map of integer values. The entries are stored ordered by key.
+	 * @param key The key of the section.
+	 * @param map The map to store.
+	 */
+	public void setIntMap(String key, Map<Integer, Integer> map) {
+		int[] keys = sortedKeys(map);
+		Encoder encoder = new Encoder(TYPE_INT_MAP, keys.length * 2);
+		encoder.writeVarInt(keys.length);
+		int previousKey = 0;
+		int previousValue = 0;
+		for (int mapKey : keys) {
+			int value = map.get(mapKey).intValue();
+			encoder.writeSignedVarInt(mapKey - previousKey);
+			encoder.writeSignedVarInt(value - previousValue);
+			previousKey = mapKey;
+			previousValue = value;
+		}
+		putSection(key, encoder.toByteArray());
+	}
+
+	/**
+	 * Adds the entries stored via {@link #setIntMap(String, Map)} to the given map.
+	 * @param key The key of the section.
+	 * @param map The map to add the entries to.
+	 * @return <code>true</code> if there is a section for the given key.
+	 */
+	public boolean getIntMap(String key, Map<Integer, Integer> map) {
+		Decoder decoder = getDecoder(key, TYPE_INT_MAP);
+		if (decoder == null) {
+			return false;
+		}
+		int count = decoder.readVarInt();
+		int mapKey = 0;
+		int value = 0;
+		for (int i = 0; i < count; i++) {
+			mapKey += decoder.readSignedVarInt();
+			value += decoder.readSignedVarInt();
+			map.put(mapKey, value);
+		}
+		return true;
+	}
+
+	/**
+	 * Stores the given map of boolean values as two index sets.
+	 * @param key The key of the section.
+	 * @param map The map to store.
+	 */
+	public void setBooleanMap(String key, Map<Integer, Boolean> map) {
+		Collection<Integer> trueKeys = new ArrayList<Integer>();
+		Collection<Integer> falseKeys = new ArrayList<Integer>();
+		for (Map.Entry<Integer, Boolean> entry : map.entrySet()) {
+			if (entry.getValue().booleanValue()) {
+				trueKeys.add(entry.getKey());
+			} else {
+				falseKeys.add(entry.getKey());
+			}
+		}
+		Encoder encoder = new Encoder(TYPE_BOOLEAN_MAP, map.size());
+		encodeIndexSet(encoder, trueKeys);
+		encodeIndexSet(encoder, falseKeys);
+		putSection(key, encoder.toByteArray());
+	}
+
+	/**
+	 * Adds the entries stored via {@link #setBooleanMap(String, Map)} to the given map.
+	 * @param key The key of the section.
+	 * @param map The map to add the entries to.
+	 * @return <code>true</code> if there is a section for the given key.
+	 */
+	public boolean getBooleanMap(String key, Map<Integer, Boolean> map) {
+		Decoder decoder = getDecoder(key, TYPE_BOOLEAN_MAP);
+		if (decoder == null) {
+			return false;
+		}
+		for (int index : decodeIndexSet(decoder)) {
+			map.put(index, Boolean.TRUE);
+		}
+		for (int index : decodeIndexSet(decoder)) {
+			map.put(index, Boolean.FALSE);
+		}
+		return true;
+	}
+
+	// Sections
+
+	/**
+	 * @param key The key of the section.
+	 * @return <code>true</code> if there is a binary section for the given key.
+	 */
+	public synchronized boolean containsSection(String key) {
+		return sections.containsKey(key);
+	}
+
+	/**
+	 * Removes the binary section for the given key.
+	 * @param key The key of the section to remove.
+	 */
+	public synchronized void removeSection(String key) {
+		sections.remove(key);
+	}
+
+	/**
+	 * @return The keys of all binary sections.
+	 */
+	public synchronized Set<String> sectionKeys() {
+		return Collections.unmodifiableSet(new TreeSet<String>(sections.keySet()));
+	}
+
+	@Override
+	public synchronized void clear() {
+		super.clear();
+		sections.clear();
+	}
+
+	private synchronized void putSection(String key, byte[] data) {
+		// a String property with the same key, e.g. from an import, is outdated now
+		remove(key);
+		sections.put(key, data);
+	}
+
+	private synchronized Decoder getDecoder(String key, byte type) {
+		byte[] data = sections.get(key);
+		if (data == null || data.length == 0 || data[0] != type) {
+			return null;
+		}
+		return new Decoder(data);
+	}
+
+	// Conversion
+
+	/**
+	 * Converts this instance to plain Properties. The binary sections are converted to
+	 * the comma separated String format that is used by the persistables if they are
+	 * saved to plain Properties.
+	 * @return Properties containing all String properties and the converted sections.
+	 */
+	public synchronized Properties toProperties() {
+		Properties properties = new Properties();
+		properties.putAll(this);
+		for (Map.Entry<String, byte[]> section : sections.entrySet()) {
+			String key = section.getKey();
+			StringBuilder builder = new StringBuilder();
+			switch (section.getValue()[0]) {
+				case TYPE_INT_ARRAY:
+					for (int value : getIntArray(key)) {
+						builder.append(value).append(IPersistable.VALUE_SEPARATOR);
+					}
+					break;
+				case TYPE_INDEX_SET:
+					for (int value : getIndexSet(key)) {
+						builder.append(value).append(IPersistable.VALUE_SEPARATOR);
+					}
+					break;
+				case TYPE_INT_MAP:
+					Map<Integer, Integer> intMap = new TreeMap<Integer, Integer>();
+					getIntMap(key, intMap);
+					appendMap(builder, intMap);
+					break;
+				case TYPE_BOOLEAN_MAP:
+					Map<Integer, Boolean> booleanMap = new TreeMap<Integer, Boolean>();
+					getBooleanMap(key, booleanMap);
+					appendMap(builder, booleanMap);
+					break;
+				default:
+					continue;
+			}
+			if (builder.length() > 0) {
+				properties.setProperty(key, builder.toString());
+			}
+		}
+		return properties;
+	}
+
+	private static void appendMap(StringBuilder builder, Map<Integer, ?> map) {
+		for (Map.Entry<Integer, ?> entry : map.entrySet()) {
+			builder.append(entry.getKey()).append(':').append(entry.getValue()).append(IPersistable.VALUE_SEPARATOR);
+		}
+	}
+
+	// Streaming
+
+	/**
+	 * Writes the String properties and the binary sections to the given stream.
+	 * The stream is not closed.
+	 * @param out The stream to write to.
+	 * @throws IOException If writing to the stream fails.
+	 */
+	public synchronized void writeBinary(OutputStream out) throws IOException {
+		DataOutputStream dataOut = new DataOutputStream(out);
+		dataOut.writeInt(MAGIC);
+		dataOut.writeInt(VERSION);
+
+		Set<String> keys = stringPropertyNames();
+		dataOut.writeInt(keys.size());
+		for (String key : keys) {
+			writeString(dataOut, key);
+			writeString(dataOut, getProperty(key));
+		}
+
+		dataOut.writeInt(sections.size());
+		for (Map.Entry<String, byte[]> section : sections.entrySet()) {
+			writeString(dataOut, section.getKey());
+			dataOut.writeInt(section.getValue().length);
+			dataOut.write(section.getValue());
+		}
+		dataOut.flush();
+	}
+
+	/**
+	 * Reads String properties and binary sections written via {@link #writeBinary(OutputStream)}
+	 * from the given stream and adds them to this instance. The stream is not closed.
+	 * @param in The stream to read from.
+	 * @throws IOException If reading from the stream fails or the stream doesn't contain
+	 * 			a binary state.
+	 */
+	public synchronized void readBinary(InputStream in) throws IOException {
+		DataInputStream dataIn = new DataInputStream(in);
+		if (dataIn.readInt() != MAGIC) {
+			throw new IOException("The stream doesn't contain a binary NatTable state"); //$NON-NLS-1$
+		}
+		int version = dataIn.readInt();
+		if (version > VERSION) {
+			throw new IOException("Unsupported binary NatTable state version " + version); //$NON-NLS-1$
+		}
+
+		int propertyCount = dataIn.readInt();
+		for (int i = 0; i < propertyCount; i++) {
+			String key = readString(dataIn);
+			setProperty(key, readString(dataIn));
+		}
+
+		int sectionCount = dataIn.readInt();
+		for (int i = 0; i < sectionCount; i++) {
+			String key = readString(dataIn);
+			byte[] data = new byte[dataIn.readInt()];
+			dataIn.readFully(data);
+			sections.put(key, data);
+		}
+	}
+
+	/**
+	 * Checks whether the given stream starts with a state written via
+	 * {@link #writeBinary(OutputStream)}. The stream is reset to its current position
+	 * afterwards, so it needs to support mark and reset.
+	 * @param in The stream to check.
+	 * @return <code>true</code> if the stream contains a binary state, <code>false</code>
+	 * 			if it contains something else, e.g. a state written via
+	 * 			{@link Properties#store(OutputStream, String)}.
+	 * @throws IOException If reading from the stream fails.
+	 */
+	public static boolean isBinaryState(InputStream in) throws IOException {
+		if (!in.markSupported()) {
+			throw new IOException("The stream doesn't support mark and reset"); //$NON-NLS-1$
+		}
+		in.mark(4);
+		try {
+			int magic = 0;
+			for (int i = 0; i < 4; i++) {
+				int b = in.read();
+				if (b < 0) {
+					return false;
+				}
+				magic = (magic << 8) | b;
+			}
+			return magic == MAGIC;
+		} finally {
+			in.reset();
+		}
+	}
+
+	private static void writeString(DataOutputStream out, String value) throws IOException {
+		byte[] bytes = value.getBytes(UTF_8);
+		out.writeInt(bytes.length);
+		out.write(bytes);
+	}
+
+	private static String readString(DataInputStream in) throws IOException {
+		byte[] bytes = new byte[in.readInt()];
+		in.readFully(bytes);
+		return new String(bytes, UTF_8);
+	}
+
+	// Encoding
+
+	private static int[] sortedKeys(Map<Integer, ?> map) {
+		int[] keys = new int[map.size()];
+		int i = 0;
+		for (Integer key : map.keySet()) {
+			keys[i++] = key.intValue();
+		}
+		Arrays.sort(keys);
+		return keys;
+	}
+
+	/**
+	 * Encodes the given indexes as ascending runs of consecutive indexes. Every run is
+	 * stored as the gap to the end of the previous run and its length.
+	 */
+	private static Encoder encodeIndexSet(Encoder encoder, Collection<Integer> indexes) {
+		int[] sorted = new int[indexes.size()];
+		int i = 0;
+		for (Integer index : indexes) {
+			sorted[i++] = index.intValue();
+		}
+		Arrays.sort(sorted);
+
+		int runCount = 0;
+		for (i = 0; i < sorted.length; i++) {
+			if (i == 0 || sorted[i] > sorted[i - 1] + 1) {
+				runCount++;
+			}
+		}
+
+		encoder.writeVarInt(runCount);
+		int previousEnd = 0;
+		i = 0;
+		while (i < sorted.length) {
+			int start = sorted[i];
+			int end = start;
+			while (i < sorted.length && sorted[i] <= end + 1) {
+				end = Math.max(end, sorted[i]);
+				i++;
+			}
+			encoder.writeSignedVarInt(start - previousEnd);
+			encoder.writeVarInt(end - start + 1);
+			previousEnd = end;
+		}
+		return encoder;
+	}
+
+	private static int[] decodeIndexSet(Decoder decoder) {
+		int runCount = decoder.readVarInt();
+		int[] starts = new int[runCount];
+		int[] lengths = new int[runCount];
+		int total = 0;
+		int previousEnd = 0;
+		for (int i = 0; i < runCount; i++) {
+			starts[i] = previousEnd + decoder.readSignedVarInt();
+			lengths[i] = decoder.readVarInt();
+			total += lengths[i];
+			previousEnd = starts[i] + lengths[i] - 1;
+		}
+
+		int[] indexes = new int[total];
+		int pos = 0;
+		for (int i = 0; i < runCount; i++) {
+			for (int j = 0; j < lengths[i]; j++) {
+				indexes[pos++] = starts[i] + j;
+			}
+		}
+		return indexes;
+	}
+
+	/**
+	 * Writes unsigned and zigzag encoded signed variable length integers, 7 bits per byte.
+	 */
+	private static class Encoder {
+		private final ByteArrayOutputStream out;
+
+		Encoder(byte type, int expectedValueCount) {
+			this.out = new ByteArrayOutputStream(Math.max(16, expectedValueCount + 8));
+			this.out.write(type);
+		}
+
+		void writeVarInt(int value) {
+			while ((value & ~0x7F) != 0) {
+				this.out.write((value & 0x7F) | 0x80);
+				value >>>= 7;
+			}
+			this.out.write(value);
+		}
+
+		void writeSignedVarInt(int value) {
+			writeVarInt((value << 1) ^ (value >> 31));
+		}
+
+		byte[] toByteArray() {
+			return this.out.toByteArray();
+		}
+	}
+
+	/**
+	 * Reads the values written by an {@link Encoder}, skipping the type byte.
+	 */
+	private static class Decoder {
+		private final byte[] data;
+		private int pos = 1;
+
+		Decoder(byte[] data) {
+			this.data = data;
+		}
+
+		int readVarInt() {
+			int value = 0;
+			int shift = 0;
+			byte b;
+			do {
+				b = this.data[this.pos++];
+				value |= (b & 0x7F) << shift;
+				shift += 7;
+			} while ((b & 0x80) != 0);
+			return value;
+		}
+
+		int readSignedVarInt() {
+			int value = readVarInt();
+			return (value >>> 1) ^ -(value & 1);
+		}
+	}
+}
@@ -55,6 +55,16 @@ public class PersistenceHelper {
 			for (Object toRemove : keysToRemove) {
 				properties.remove(toRemove);
 			}
+			
+			//remove the binary sections
+			if (properties instanceof BinaryStateProperties) {
+				BinaryStateProperties binaryProperties = (BinaryStateProperties) properties;
+				for (String key : binaryProperties.sectionKeys()) {
+					if (key.startsWith(keyPrefix)) {
+						binaryProperties.removeSection(key);
+					}
+				}
+			}
 		}
 	}
 	
@@ -75,6 +85,11 @@ public class PersistenceHelper {
 					stateNames.add(keyString.split("\\.")[0]); //$NON-NLS-1$
 			}
 		}
+		if (properties instanceof BinaryStateProperties) {
+			for (String key : ((BinaryStateProperties) properties).sectionKeys()) {
+				stateNames.add(key.split("\\.")[0]); //$NON-NLS-1$
+			}
+		}
 		return stateNames;
 	}
 }
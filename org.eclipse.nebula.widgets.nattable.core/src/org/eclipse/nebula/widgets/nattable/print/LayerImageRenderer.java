@@ -0,0 +1,310 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Original authors and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Original authors and others - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.print;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+import org.eclipse.nebula.widgets.nattable.config.IConfigRegistry;
+import org.eclipse.nebula.widgets.nattable.layer.ILayer;
+import org.eclipse.nebula.widgets.nattable.print.command.PrintEntireGridCommand;
+import org.eclipse.nebula.widgets.nattable.print.command.TurnViewportOffCommand;
+import org.eclipse.nebula.widgets.nattable.print.command.TurnViewportOnCommand;
+import org.eclipse.nebula.widgets.nattable.summaryrow.command.CalculateSummaryRowValuesCommand;
+import org.eclipse.nebula.widgets.nattable.util.IClientAreaProvider;
+import org.eclipse.nebula.widgets.nattable.util.ParallelExecutor;
+import org.eclipse.swt.SWT;
+import org.eclipse.swt.graphics.Color;
+import org.eclipse.swt.graphics.GC;
+import org.eclipse.swt.graphics.Image;
+import org.eclipse.swt.graphics.ImageData;
+import org.eclipse.swt.graphics.ImageLoader;
+import org.eclipse.swt.graphics.Point;
+import org.eclipse.swt.graphics.Rectangle;
+import org.eclipse.swt.graphics.Transform;
+import org.eclipse.swt.widgets.Display;
+
+/**
+ * This class is used to render a layer into images without showing it in a Shell,
+ * e.g. for reports or thumbnails.
+ * <p>
+ * Like the {@link LayerPrinter}, the viewport is turned off while rendering, so the
+ * entire layer is rendered via its {@link org.eclipse.nebula.widgets.nattable.painter.layer.ILayerPainter}.
+ * The layer is split into tiles of a fixed size that are painted one after the other
+ * into an offscreen image, so the memory needed doesn't depend on the size of the layer.
+ * Painting needs to be done on the UI thread, while encoding and writing the PNG files
+ * is done in parallel by background threads. The number of tiles that are waiting to be
+ * written is limited, so rendering huge layers to files doesn't fill up the memory.
+ * <p>
+ * As SWT needs a Display for offscreen images, the rendering works under a virtual
+ * display too, e.g. Xvfb in continuous integration builds.
+ */
+public class LayerImageRenderer {
+
+	public static final int DEFAULT_TILE_SIZE = 1024;
+
+	private final ILayer layer;
+	private final IConfigRegistry configRegistry;
+
+	private int tileWidth = DEFAULT_TILE_SIZE;
+	private int tileHeight = DEFAULT_TILE_SIZE;
+	private int maxPendingTiles = Math.max(2, ParallelExecutor.getDefault().getParallelism() * 2);
+	private Color background;
+
+	/**
+	 * @param layer The layer to render. Usually the top most layer in the layer stack.
+	 * 			For grids this should be the GridLayer, for custom CompositeLayer compositions
+	 * 			the CompositeLayer, otherwise the ViewportLayer is a good choice.
+	 * @param configRegistry The ConfigRegistry needed for rendering the layer.
+	 */
+	public LayerImageRenderer(ILayer layer, IConfigRegistry configRegistry) {
+		this.layer = layer;
+		this.configRegistry = configRegistry;
+	}
+
+	/**
+	 * @param tileWidth The width of the rendered tiles in pixels.
+	 * @param tileHeight The height of the rendered tiles in pixels.
+	 */
+	public void setTileSize(int tileWidth, int tileHeight) {
+		if (tileWidth <= 0 || tileHeight <= 0) {
+			throw new IllegalArgumentException("The tile size needs to be positive"); //$NON-NLS-1$
+		}
+		this.tileWidth = tileWidth;
+		this.tileHeight = tileHeight;
+	}
+
+	/**
+	 * @param maxPendingTiles The maximum number of rendered tiles that are kept in memory
+	 * 			while waiting to be written to disk.
+	 */
+	public void setMaxPendingTiles(int maxPendingTiles) {
+		this.maxPendingTiles = Math.max(1, maxPendingTiles);
+	}
+
+	/**
+	 * @param background The color to fill the tiles with before rendering the layer.
+	 * 			If <code>null</code>, white is used.
+	 */
+	public void setBackground(Color background) {
+		this.background = background;
+	}
+
+	/**
+	 * Calculates the number of horizontal and vertical tiles needed to render the
+	 * entire layer. Needs to be called from the UI thread.
+	 * @return The number of horizontal and vertical tiles.
+	 */
+	public Point getTileCount() {
+		this.layer.doCommand(new TurnViewportOffCommand());
+		try {
+			return getTileCount(getTotalArea());
+		} finally {
+			this.layer.doCommand(new TurnViewportOnCommand());
+		}
+	}
+
+	/**
+	 * Renders a single tile of the layer. Needs to be called from the UI thread.
+	 * @param tileColumn The horizontal index of the tile.
+	 * @param tileRow The vertical index of the tile.
+	 * @return The rendered tile.
+	 */
+	public ImageData renderTile(int tileColumn, int tileRow) {
+		Display display = getDisplay();
+		Rectangle totalArea = prepareLayer();
+		try {
+			return paintTile(display, totalArea, tileColumn, tileRow);
+		} finally {
+			restoreLayer();
+		}
+	}
+
+	/**
+	 * Renders the entire layer into PNG files in the given directory. The files are named
+	 * <i>fileNamePrefix_tileRow_tileColumn.png</i>. Needs to be called from the UI thread,
+	 * which is blocked until all tiles are written.
+	 * @param directory The directory to write the tiles to.
+	 * @param fileNamePrefix The prefix for the file names of the tiles.
+	 * @return The written files, rows of tiles from top to bottom and tiles within a row
+	 * 			from left to right.
+	 * @throws IOException If writing a tile fails.
+	 */
+	public List<File> renderToFiles(File directory, String fileNamePrefix) throws IOException {
+		Display display = getDisplay();
+		if (!directory.isDirectory() && !directory.mkdirs()) {
+			throw new IOException("Failed to create directory " + directory); //$NON-NLS-1$
+		}
+
+		List<File> files = new ArrayList<File>();
+		LinkedList<Future<File>> pendingTiles = new LinkedList<Future<File>>();
+		Rectangle totalArea = prepareLayer();
+		try {
+			Point tileCount = getTileCount(totalArea);
+			for (int tileRow = 0; tileRow < tileCount.y; tileRow++) {
+				for (int tileColumn = 0; tileColumn < tileCount.x; tileColumn++) {
+					ImageData tile = paintTile(display, totalArea, tileColumn, tileRow);
+					File file = new File(directory, fileNamePrefix + "_" + tileRow + "_" + tileColumn + ".png"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+					pendingTiles.add(ParallelExecutor.getDefault().submit(new WriteTileTask(tile, file)));
+
+					// bound the memory by waiting for the oldest tile to be written
+					if (pendingTiles.size() >= this.maxPendingTiles) {
+						files.add(waitFor(pendingTiles.removeFirst()));
+					}
+				}
+			}
+			while (!pendingTiles.isEmpty()) {
+				files.add(waitFor(pendingTiles.removeFirst()));
+			}
+		} finally {
+			for (Future<File> pendingTile : pendingTiles) {
+				pendingTile.cancel(true);
+			}
+			restoreLayer();
+		}
+		return files;
+	}
+
+	private Display getDisplay() {
+		Display display = Display.getCurrent();
+		if (display == null) {
+			throw new IllegalStateException("Rendering a layer needs to be done on the UI thread"); //$NON-NLS-1$
+		}
+		return display;
+	}
+
+	/**
+	 * Turns off the viewport and extends the client area, so the entire layer can be rendered.
+	 * @return The size of the layer to fit all the contents.
+	 */
+	private Rectangle prepareLayer() {
+		//if a SummaryRowLayer is in the layer stack, we need to ensure that the values are calculated
+		this.layer.doCommand(new CalculateSummaryRowValuesCommand());
+		this.layer.doCommand(new TurnViewportOffCommand());
+
+		final Rectangle totalArea = getTotalArea();
+		final IClientAreaProvider originalClientAreaProvider = this.layer.getClientAreaProvider();
+		this.layer.setClientAreaProvider(new RenderClientAreaProvider(originalClientAreaProvider, totalArea));
+		this.layer.doCommand(new PrintEntireGridCommand());
+		return totalArea;
+	}
+
+	/**
+	 * Restores the layer state to match the display characteristics again.
+	 */
+	private void restoreLayer() {
+		IClientAreaProvider clientAreaProvider = this.layer.getClientAreaProvider();
+		if (clientAreaProvider instanceof RenderClientAreaProvider) {
+			this.layer.setClientAreaProvider(((RenderClientAreaProvider) clientAreaProvider).originalClientAreaProvider);
+		}
+		this.layer.doCommand(new TurnViewportOnCommand());
+	}
+
+	private Rectangle getTotalArea() {
+		return new Rectangle(0, 0, this.layer.getWidth(), this.layer.getHeight());
+	}
+
+	private Point getTileCount(Rectangle totalArea) {
+		return new Point(
+				Math.max(1, (totalArea.width + this.tileWidth - 1) / this.tileWidth),
+				Math.max(1, (totalArea.height + this.tileHeight - 1) / this.tileHeight));
+	}
+
+	private ImageData paintTile(Display display, Rectangle totalArea, int tileColumn, int tileRow) {
+		Rectangle tileBounds = new Rectangle(tileColumn * this.tileWidth, tileRow * this.tileHeight,
+				this.tileWidth, this.tileHeight).intersection(totalArea);
+		// the tiles at the right and bottom edge are smaller
+		int width = Math.max(1, tileBounds.width);
+		int height = Math.max(1, tileBounds.height);
+
+		Image image = new Image(display, width, height);
+		GC gc = new GC(image);
+		Transform transform = new Transform(display);
+		try {
+			gc.setBackground(this.background != null ? this.background : display.getSystemColor(SWT.COLOR_WHITE));
+			gc.fillRectangle(0, 0, width, height);
+
+			// the layer painters paint in layer coordinates
+			transform.translate(-tileBounds.x, -tileBounds.y);
+			gc.setTransform(transform);
+			gc.setClipping(tileBounds);
+
+			this.layer.getLayerPainter().paintLayer(this.layer, gc, 0, 0, tileBounds, this.configRegistry);
+		} finally {
+			transform.dispose();
+			gc.dispose();
+		}
+
+		ImageData imageData = image.getImageData();
+		image.dispose();
+		return imageData;
+	}
+
+	private File waitFor(Future<File> pendingTile) throws IOException {
+		try {
+			return pendingTile.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Interrupted while writing the tiles"); //$NON-NLS-1$
+		} catch (ExecutionException e) {
+			throw new IOException("Failed to write a tile", e.getCause()); //$NON-NLS-1$
+		}
+	}
+
+	/**
+	 * Encodes a tile as PNG and writes it to a file. Only operates on the ImageData,
+	 * so it can be executed by a background thread.
+	 */
+	private static class WriteTileTask implements Callable<File> {
+
+		private final ImageData tile;
+		private final File file;
+
+		WriteTileTask(ImageData tile, File file) {
+			this.tile = tile;
+			this.file = file;
+		}
+
+		@Override
+		public File call() throws Exception {
+			ImageLoader imageLoader = new ImageLoader();
+			imageLoader.data = new ImageData[] { this.tile };
+			imageLoader.save(this.file.getPath(), SWT.IMAGE_PNG);
+			return this.file;
+		}
+	}
+
+	/**
+	 * Client area provider that is set while rendering, so the entire layer fits into
+	 * the client area. Remembers the original client area provider to restore it.
+	 */
+	private static class RenderClientAreaProvider implements IClientAreaProvider {
+
+		private final IClientAreaProvider originalClientAreaProvider;
+		private final Rectangle clientArea;
+
+		RenderClientAreaProvider(IClientAreaProvider originalClientAreaProvider, Rectangle clientArea) {
+			this.originalClientAreaProvider = originalClientAreaProvider;
+			this.clientArea = clientArea;
+		}
+
+		@Override
+		public Rectangle getClientArea() {
+			return this.clientArea;
+		}
+	}
+}
@@ -30,6 +30,7 @@ import org.eclipse.nebula.widgets.nattable.layer.event.ILayerEvent;
 import org.eclipse.nebula.widgets.nattable.layer.event.IStructuralChangeEvent;
 import org.eclipse.nebula.widgets.nattable.layer.event.StructuralChangeEventHelper;
 import org.eclipse.nebula.widgets.nattable.layer.event.StructuralDiff;
+import org.eclipse.nebula.widgets.nattable.persistence.BinaryStateProperties;
 import org.eclipse.nebula.widgets.nattable.reorder.command.ColumnReorderCommandHandler;
 import org.eclipse.nebula.widgets.nattable.reorder.command.ColumnReorderEndCommandHandler;
 import org.eclipse.nebula.widgets.nattable.reorder.command.ColumnReorderStartCommandHandler;
@@ -110,7 +111,10 @@ public class ColumnReorderLayer extends AbstractLayerTransform implements IUniqu
 	@Override
 	public void saveState(String prefix, Properties properties) {
 		super.saveState(prefix, properties);
-		if (columnIndexOrder.size() > 0) {
+		if (columnIndexOrder.size() > 0 && properties instanceof BinaryStateProperties) {
+			((BinaryStateProperties) properties).setIntArray(prefix + PERSISTENCE_KEY_COLUMN_INDEX_ORDER, columnIndexOrder);
+		}
+		else if (columnIndexOrder.size() > 0) {
 			StringBuilder strBuilder = new StringBuilder();
 			for (Integer index : columnIndexOrder) {
 				strBuilder.append(index);
@@ -123,9 +127,22 @@ public class ColumnReorderLayer extends AbstractLayerTransform implements IUniqu
 	@Override
 	public void loadState(String prefix, Properties properties) {
 		super.loadState(prefix, properties);
+		int[] persistedOrder = (properties instanceof BinaryStateProperties)
+				? ((BinaryStateProperties) properties).getIntArray(prefix + PERSISTENCE_KEY_COLUMN_INDEX_ORDER) : null;
 		String property = properties.getProperty(prefix + PERSISTENCE_KEY_COLUMN_INDEX_ORDER);
 
-		if (property != null) {
+		if (persistedOrder != null) {
+			List<Integer> newColumnIndexOrder = new ArrayList<Integer>(persistedOrder.length);
+			for (int index : persistedOrder) {
+				newColumnIndexOrder.add(index);
+			}
+			
+			if(isRestoredStateValid(newColumnIndexOrder)){
+				columnIndexOrder.clear();
+				columnIndexOrder.addAll(newColumnIndexOrder);
+			}
+		}
+		else if (property != null) {
 			List<Integer> newColumnIndexOrder = new ArrayList<Integer>();
 			StringTokenizer tok = new StringTokenizer(property, ","); //$NON-NLS-1$
 			while (tok.hasMoreTokens()) {
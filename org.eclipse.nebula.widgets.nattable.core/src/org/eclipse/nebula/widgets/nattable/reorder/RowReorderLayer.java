@@ -30,6 +30,7 @@ import org.eclipse.nebula.widgets.nattable.layer.event.IStructuralChangeEvent;
 import org.eclipse.nebula.widgets.nattable.layer.event.RowStructuralRefreshEvent;
 import org.eclipse.nebula.widgets.nattable.layer.event.StructuralChangeEventHelper;
 import org.eclipse.nebula.widgets.nattable.layer.event.StructuralDiff;
+import org.eclipse.nebula.widgets.nattable.persistence.BinaryStateProperties;
 import org.eclipse.nebula.widgets.nattable.persistence.IPersistable;
 import org.eclipse.nebula.widgets.nattable.reorder.command.MultiRowReorderCommandHandler;
 import org.eclipse.nebula.widgets.nattable.reorder.command.RowReorderCommandHandler;
@@ -122,7 +123,10 @@ public class RowReorderLayer extends AbstractLayerTransform implements IUniqueIn
 	@Override
 	public void saveState(String prefix, Properties properties) {
 		super.saveState(prefix, properties);
-		if (rowIndexOrder.size() > 0) {
+		if (rowIndexOrder.size() > 0 && properties instanceof BinaryStateProperties) {
+			((BinaryStateProperties) properties).setIntArray(prefix + PERSISTENCE_KEY_ROW_INDEX_ORDER, rowIndexOrder);
+		}
+		else if (rowIndexOrder.size() > 0) {
 			StringBuilder strBuilder = new StringBuilder();
 			for (Integer index : rowIndexOrder) {
 				strBuilder.append(index);
@@ -135,9 +139,22 @@ public class RowReorderLayer extends AbstractLayerTransform implements IUniqueIn
 	@Override
 	public void loadState(String prefix, Properties properties) {
 		super.loadState(prefix, properties);
+		int[] persistedOrder = (properties instanceof BinaryStateProperties)
+				? ((BinaryStateProperties) properties).getIntArray(prefix + PERSISTENCE_KEY_ROW_INDEX_ORDER) : null;
 		String property = properties.getProperty(prefix + PERSISTENCE_KEY_ROW_INDEX_ORDER);
 
-		if (property != null) {
+		if (persistedOrder != null) {
+			List<Integer> newRowIndexOrder = new ArrayList<Integer>(persistedOrder.length);
+			for (int index : persistedOrder) {
+				newRowIndexOrder.add(index);
+			}
+			
+			if(isRestoredStateValid(newRowIndexOrder)){
+				rowIndexOrder.clear();
+				rowIndexOrder.addAll(newRowIndexOrder);
+			}
+		}
+		else if (property != null) {
 			List<Integer> newRowIndexOrder = new ArrayList<Integer>();
 			StringTokenizer tok = new StringTokenizer(property, IPersistable.VALUE_SEPARATOR);
 			while (tok.hasMoreTokens()) {
@@ -0,0 +1,159 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Original authors and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Original authors and others - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.resize;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Configures which cells are measured on auto resizing columns. Measuring every row of a
+ * column blocks the UI for a long time on large tables, so the measuring can be restricted
+ * to the visible rows, to a sample of the rows, or to the distinct contents of the column.
+ * <p>
+ * The strategy is registered via {@link ResizeConfigAttributes#AUTO_RESIZE_STRATEGY}.
+ * If no strategy is registered, all rows are measured.
+ */
+public class AutoResizeStrategy {
+
+	/**
+	 * The modes that specify which rows are measured on auto resizing a column.
+	 */
+	public enum Mode {
+		/**
+		 * All rows of the column are measured.
+		 */
+		ALL,
+		/**
+		 * Only the rows currently visible in the viewport are measured.
+		 */
+		VISIBLE,
+		/**
+		 * The first and the last rows and a random sample of the rows in between are measured.
+		 */
+		SAMPLED,
+		/**
+		 * All rows are inspected, but the content of cells with the same painter, labels and
+		 * data value is only measured once. Only the measuring is skipped for repeated
+		 * content; the cell, its painter and its labels are still resolved for every row.
+		 */
+		DISTINCT
+	}
+
+	/**
+	 * The default number of rows at the beginning and at the end that are measured in
+	 * {@link Mode#SAMPLED}.
+	 */
+	public static final int DEFAULT_EDGE_COUNT = 100;
+	/**
+	 * The default number of randomly chosen rows that are measured in {@link Mode#SAMPLED}.
+	 */
+	public static final int DEFAULT_RANDOM_COUNT = 1000;
+
+	private final Mode mode;
+	private int headCount = DEFAULT_EDGE_COUNT;
+	private int tailCount = DEFAULT_EDGE_COUNT;
+	private int randomCount = DEFAULT_RANDOM_COUNT;
+	private long seed = 0;
+
+	/**
+	 * @param mode The mode that specifies which rows are measured.
+	 */
+	public AutoResizeStrategy(Mode mode) {
+		this.mode = mode;
+	}
+
+	/**
+	 * @return The mode that specifies which rows are measured.
+	 */
+	public Mode getMode() {
+		return this.mode;
+	}
+
+	/**
+	 * @param headCount The number of rows at the beginning that are always measured in
+	 * 			{@link Mode#SAMPLED}.
+	 */
+	public void setHeadCount(int headCount) {
+		this.headCount = headCount;
+	}
+
+	/**
+	 * @param tailCount The number of rows at the end that are always measured in
+	 * 			{@link Mode#SAMPLED}.
+	 */
+	public void setTailCount(int tailCount) {
+		this.tailCount = tailCount;
+	}
+
+	/**
+	 * @param randomCount The number of randomly chosen rows between the head and the tail
+	 * 			that are measured in {@link Mode#SAMPLED}.
+	 */
+	public void setRandomCount(int randomCount) {
+		this.randomCount = randomCount;
+	}
+
+	/**
+	 * @param seed The seed for choosing the random rows, so repeated auto resizing of the
+	 * 			same data results in the same widths.
+	 */
+	public void setSeed(long seed) {
+		this.seed = seed;
+	}
+
+	/**
+	 * @return <code>true</code> if the viewport needs to be turned off on auto resizing, so
+	 * 			rows outside the visible area are measured.
+	 */
+	public boolean isMeasuringInvisibleRows() {
+		return this.mode != Mode.VISIBLE;
+	}
+
+	/**
+	 * Returns the positions of the rows to measure out of the given number of rows.
+	 * @param rowCount The number of rows in the layer.
+	 * @return The ascending positions of the rows to measure, or <code>null</code> if all
+	 * 			rows should be measured.
+	 */
+	public int[] getRowPositionsToMeasure(int rowCount) {
+		if (this.mode != Mode.SAMPLED
+				|| rowCount <= this.headCount + this.tailCount + this.randomCount) {
+			return null;
+		}
+
+		int tailStart = rowCount - this.tailCount;
+		int[] positions = new int[this.headCount + this.randomCount + this.tailCount];
+		for (int i = 0; i < this.headCount; i++) {
+			positions[i] = i;
+		}
+
+		// reservoir sampling over the rows between head and tail
+		Random random = new Random(this.seed);
+		int offset = this.headCount;
+		for (int i = 0; i < tailStart - this.headCount; i++) {
+			if (i < this.randomCount) {
+				positions[offset + i] = this.headCount + i;
+			} else {
+				int replace = random.nextInt(i + 1);
+				if (replace < this.randomCount) {
+					positions[offset + replace] = this.headCount + i;
+				}
+			}
+		}
+		Arrays.sort(positions, offset, offset + this.randomCount);
+
+		offset += this.randomCount;
+		for (int i = 0; i < this.tailCount; i++) {
+			positions[offset + i] = tailStart + i;
+		}
+		return positions;
+	}
+}
@@ -0,0 +1,396 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Original authors and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Original authors and others - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.resize;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.nebula.widgets.nattable.layer.ILayer;
+import org.eclipse.nebula.widgets.nattable.layer.ILayerListener;
+import org.eclipse.nebula.widgets.nattable.layer.LabelStack;
+import org.eclipse.nebula.widgets.nattable.layer.cell.ILayerCell;
+import org.eclipse.nebula.widgets.nattable.layer.event.CellVisualChangeEvent;
+import org.eclipse.nebula.widgets.nattable.layer.event.CellVisualUpdateEvent;
+import org.eclipse.nebula.widgets.nattable.layer.event.ILayerEvent;
+import org.eclipse.nebula.widgets.nattable.layer.event.MultiCellVisualChangeEvent;
+import org.eclipse.nebula.widgets.nattable.layer.event.IStructuralChangeEvent;
+import org.eclipse.nebula.widgets.nattable.resize.command.MultiColumnResizeCommand;
+import org.eclipse.nebula.widgets.nattable.resize.command.MultiRowResizeCommand;
+import org.eclipse.nebula.widgets.nattable.resize.event.ColumnResizeEvent;
+import org.eclipse.nebula.widgets.nattable.resize.event.RowResizeEvent;
+import org.eclipse.nebula.widgets.nattable.selection.event.ISelectionEvent;
+import org.eclipse.nebula.widgets.nattable.viewport.event.ScrollEvent;
+import org.eclipse.swt.widgets.Display;
+
+/**
+ * Collects the row height and column width requests that cell painters raise while painting,
+ * e.g. a TextPainter with calculateByTextLength or calculateByTextHeight enabled, and applies
+ * them in a batch after the current paint pass.
+ * <p>
+ * Executing a resize command for every painted cell causes a resize event, cache invalidation
+ * and a repaint per cell, and on scrolling the resizing cascades row by row. This service
+ * instead keeps the maximum size requested per row and column, and executes a single
+ * {@link MultiRowResizeCommand} and {@link MultiColumnResizeCommand} per layer after the
+ * paint pass has finished.
+ * <p>
+ * The applied sizes are remembered per region and row or column index, so e.g. the column
+ * header and the body row with the same index don't share their sizes. Further requests for
+ * an index that do not exceed the remembered size are ignored, so painters that calculate
+ * different sizes for cells in the same row do not resize it back and forth. The remembered
+ * size of a row or column is dropped if the data of one of its cells changes, all remembered
+ * sizes are dropped on structural changes other than resizing and scrolling. Selection and
+ * other visual only updates don't affect the remembered sizes. Therefore a row or column
+ * that was resized manually is not enlarged again by the painters until its content changes.
+ * <p>
+ * A service instance can be shared by all painters of a NatTable, it needs to be set to the
+ * painters via {@link org.eclipse.nebula.widgets.nattable.painter.cell.AbstractCellPainter#setAutoSizeService(AutoSizeService)}.
+ */
+public class AutoSizeService implements ILayerListener {
+
+	private final Map<ILayer, Map<Integer, SizeRequest>> rowRequests = new LinkedHashMap<ILayer, Map<Integer, SizeRequest>>();
+	private final Map<ILayer, Map<Integer, SizeRequest>> columnRequests = new LinkedHashMap<ILayer, Map<Integer, SizeRequest>>();
+
+	private final Map<Region, Map<Integer, Integer>> rowHeightsByRegion = new HashMap<Region, Map<Integer, Integer>>();
+	private final Map<Region, Map<Integer, Integer>> columnWidthsByRegion = new HashMap<Region, Map<Integer, Integer>>();
+
+	/**
+	 * The layers this service is registered to as listener, to get informed about data changes.
+	 */
+	private final Set<ILayer> observedLayers = Collections.newSetFromMap(new IdentityHashMap<ILayer, Boolean>());
+
+	private boolean flushScheduled = false;
+	/**
+	 * Flag to ignore the resize events that are caused by applying the collected requests.
+	 */
+	private boolean applying = false;
+
+	private final Runnable flushRunnable = new Runnable() {
+		@Override
+		public void run() {
+			flush();
+		}
+	};
+
+	/**
+	 * Requests the row of the given cell to be resized to the given height.
+	 * @param cell The cell whose content needs the given row height.
+	 * @param rowHeight The needed row height.
+	 */
+	public void requestRowHeight(ILayerCell cell, int rowHeight) {
+		Region region = getRegion(cell);
+		if (rowHeight <= getRememberedSize(this.rowHeightsByRegion, region, cell.getRowIndex())) {
+			return;
+		}
+		addRequest(this.rowRequests, cell.getLayer(), cell.getRowPosition(), cell.getRowIndex(),
+				region, rowHeight, cell.getBounds().height);
+	}
+
+	/**
+	 * Requests the column of the given cell to be resized to the given width.
+	 * @param cell The cell whose content needs the given column width.
+	 * @param columnWidth The needed column width.
+	 */
+	public void requestColumnWidth(ILayerCell cell, int columnWidth) {
+		Region region = getRegion(cell);
+		if (columnWidth <= getRememberedSize(this.columnWidthsByRegion, region, cell.getColumnIndex())) {
+			return;
+		}
+		addRequest(this.columnRequests, cell.getLayer(), cell.getColumnPosition(), cell.getColumnIndex(),
+				region, columnWidth, cell.getBounds().width);
+	}
+
+	private void addRequest(Map<ILayer, Map<Integer, SizeRequest>> requests, ILayer layer,
+			int position, int index, Region region, int size, int currentSize) {
+		Map<Integer, SizeRequest> layerRequests = requests.get(layer);
+		if (layerRequests == null) {
+			layerRequests = new LinkedHashMap<Integer, SizeRequest>();
+			requests.put(layer, layerRequests);
+		}
+
+		SizeRequest request = layerRequests.get(position);
+		if (request == null) {
+			layerRequests.put(position, new SizeRequest(index, region, size, currentSize));
+		} else {
+			request.size = Math.max(request.size, size);
+		}
+
+		if (this.observedLayers.add(layer)) {
+			layer.addLayerListener(this);
+		}
+		scheduleFlush();
+	}
+
+	/**
+	 * Schedules applying the collected requests after the current paint pass. If no SWT
+	 * Display is available for the current thread, the requests are applied immediately.
+	 */
+	protected void scheduleFlush() {
+		Display display = Display.getCurrent();
+		if (display == null) {
+			flush();
+		}
+		else if (!this.flushScheduled) {
+			this.flushScheduled = true;
+			display.asyncExec(this.flushRunnable);
+		}
+	}
+
+	/**
+	 * Applies all collected requests by executing one MultiRowResizeCommand and one
+	 * MultiColumnResizeCommand per layer.
+	 */
+	public void flush() {
+		this.flushScheduled = false;
+		this.applying = true;
+		try {
+			for (Map.Entry<ILayer, Map<Integer, SizeRequest>> entry : this.rowRequests.entrySet()) {
+				int[][] resize = collectResize(entry.getValue(), this.rowHeightsByRegion);
+				if (resize[0].length > 0) {
+					entry.getKey().doCommand(new MultiRowResizeCommand(entry.getKey(), resize[0], resize[1]));
+				}
+			}
+			for (Map.Entry<ILayer, Map<Integer, SizeRequest>> entry : this.columnRequests.entrySet()) {
+				int[][] resize = collectResize(entry.getValue(), this.columnWidthsByRegion);
+				if (resize[0].length > 0) {
+					entry.getKey().doCommand(new MultiColumnResizeCommand(entry.getKey(), resize[0], resize[1]));
+				}
+			}
+		} finally {
+			this.rowRequests.clear();
+			this.columnRequests.clear();
+			this.applying = false;
+		}
+	}
+
+	/**
+	 * Collects the positions and sizes of the given requests that differ from the current size
+	 * and remembers the requested sizes per region and index.
+	 * @return Array with the positions at index 0 and the corresponding sizes at index 1.
+	 */
+	private int[][] collectResize(Map<Integer, SizeRequest> requests, Map<Region, Map<Integer, Integer>> sizesByRegion) {
+		int[] positions = new int[requests.size()];
+		int[] sizes = new int[requests.size()];
+		int count = 0;
+		for (Map.Entry<Integer, SizeRequest> entry : requests.entrySet()) {
+			SizeRequest request = entry.getValue();
+			Map<Integer, Integer> sizesByIndex = sizesByRegion.get(request.region);
+			if (sizesByIndex == null) {
+				sizesByIndex = new HashMap<Integer, Integer>();
+				sizesByRegion.put(request.region, sizesByIndex);
+			}
+			sizesByIndex.put(request.index, request.size);
+			if (request.size != request.currentSize) {
+				positions[count] = entry.getKey();
+				sizes[count] = request.size;
+				count++;
+			}
+		}
+		int[] resultPositions = new int[count];
+		int[] resultSizes = new int[count];
+		System.arraycopy(positions, 0, resultPositions, 0, count);
+		System.arraycopy(sizes, 0, resultSizes, 0, count);
+		return new int[][] { resultPositions, resultSizes };
+	}
+
+	/**
+	 * Drops all remembered sizes, so the sizes of all rows and columns are requested again on
+	 * the next paint pass.
+	 */
+	public void clearRememberedSizes() {
+		this.rowHeightsByRegion.clear();
+		this.columnWidthsByRegion.clear();
+	}
+
+	/**
+	 * @param cell The cell whose row height is requested.
+	 * @return The remembered row height for the row of the given cell in the region of the
+	 * 			cell, or -1 if there is none.
+	 */
+	public int getRememberedRowHeight(ILayerCell cell) {
+		return getRememberedSize(this.rowHeightsByRegion, getRegion(cell), cell.getRowIndex());
+	}
+
+	/**
+	 * @param rowIndex The row index.
+	 * @return The maximum remembered row height for the given row index in all regions,
+	 * 			or -1 if there is none.
+	 */
+	public int getRememberedRowHeight(int rowIndex) {
+		return getMaxRememberedSize(this.rowHeightsByRegion, rowIndex);
+	}
+
+	/**
+	 * @param cell The cell whose column width is requested.
+	 * @return The remembered column width for the column of the given cell in the region of
+	 * 			the cell, or -1 if there is none.
+	 */
+	public int getRememberedColumnWidth(ILayerCell cell) {
+		return getRememberedSize(this.columnWidthsByRegion, getRegion(cell), cell.getColumnIndex());
+	}
+
+	/**
+	 * @param columnIndex The column index.
+	 * @return The maximum remembered column width for the given column index in all regions,
+	 * 			or -1 if there is none.
+	 */
+	public int getRememberedColumnWidth(int columnIndex) {
+		return getMaxRememberedSize(this.columnWidthsByRegion, columnIndex);
+	}
+
+	private int getRememberedSize(Map<Region, Map<Integer, Integer>> sizesByRegion, Region region, int index) {
+		Map<Integer, Integer> sizesByIndex = sizesByRegion.get(region);
+		Integer size = sizesByIndex != null ? sizesByIndex.get(index) : null;
+		return size != null ? size.intValue() : -1;
+	}
+
+	private int getMaxRememberedSize(Map<Region, Map<Integer, Integer>> sizesByRegion, int index) {
+		int result = -1;
+		for (Map<Integer, Integer> sizesByIndex : sizesByRegion.values()) {
+			Integer size = sizesByIndex.get(index);
+			if (size != null) {
+				result = Math.max(result, size.intValue());
+			}
+		}
+		return result;
+	}
+
+	@Override
+	public void handleLayerEvent(ILayerEvent event) {
+		if (this.applying
+				|| event instanceof ScrollEvent
+				|| event instanceof ISelectionEvent
+				|| event instanceof CellVisualUpdateEvent) {
+			//scrolling, selecting and visual only updates don't change the content of a cell
+			return;
+		}
+
+		if (event instanceof CellVisualChangeEvent) {
+			CellVisualChangeEvent changeEvent = (CellVisualChangeEvent) event;
+			forgetSizes(changeEvent.getLayer(), changeEvent.getColumnPosition(), changeEvent.getRowPosition());
+		}
+		else if (event instanceof MultiCellVisualChangeEvent) {
+			MultiCellVisualChangeEvent changeEvent = (MultiCellVisualChangeEvent) event;
+			for (int i = 0; i < changeEvent.getCellCount(); i++) {
+				forgetSizes(changeEvent.getLayer(), changeEvent.getColumnPosition(i), changeEvent.getRowPosition(i));
+			}
+		}
+		else if (event instanceof IStructuralChangeEvent
+				&& !(event instanceof RowResizeEvent) && !(event instanceof ColumnResizeEvent)) {
+			//sizes are remembered by index, so they stay valid on resizing
+			clearRememberedSizes();
+		}
+	}
+
+	/**
+	 * Drops the remembered row height and column width of the cell at the given position.
+	 * If the region of the cell can not be determined, the sizes for its row and column index
+	 * are dropped in all regions.
+	 */
+	private void forgetSizes(ILayer layer, int columnPosition, int rowPosition) {
+		int columnIndex = layer.getColumnIndexByPosition(columnPosition);
+		int rowIndex = layer.getRowIndexByPosition(rowPosition);
+		Region region = null;
+		if (columnPosition >= 0 && columnPosition < layer.getColumnCount()
+				&& rowPosition >= 0 && rowPosition < layer.getRowCount()) {
+			region = getRegion(layer, layer.getStartXOfColumnPosition(columnPosition),
+					layer.getStartYOfRowPosition(rowPosition));
+		}
+		forgetSize(this.rowHeightsByRegion, region, rowIndex);
+		forgetSize(this.columnWidthsByRegion, region, columnIndex);
+	}
+
+	private void forgetSize(Map<Region, Map<Integer, Integer>> sizesByRegion, Region region, int index) {
+		if (region != null) {
+			Map<Integer, Integer> sizesByIndex = sizesByRegion.get(region);
+			if (sizesByIndex != null) {
+				sizesByIndex.remove(index);
+			}
+		} else {
+			for (Map<Integer, Integer> sizesByIndex : sizesByRegion.values()) {
+				sizesByIndex.remove(index);
+			}
+		}
+	}
+
+	private Region getRegion(ILayerCell cell) {
+		return getRegion(cell.getLayer(), cell.getBounds().x, cell.getBounds().y);
+	}
+
+	private Region getRegion(ILayer layer, int x, int y) {
+		LabelStack regionLabels = layer.getRegionLabelsByXY(x, y);
+		return new Region(layer, regionLabels != null ? regionLabels.getLabels() : Collections.<String>emptyList());
+	}
+
+	/**
+	 * Unregisters this service from the layers it listens to and drops all collected
+	 * requests and remembered sizes.
+	 */
+	public void dispose() {
+		for (ILayer layer : this.observedLayers) {
+			layer.removeLayerListener(this);
+		}
+		this.observedLayers.clear();
+		this.rowRequests.clear();
+		this.columnRequests.clear();
+		clearRememberedSizes();
+	}
+
+	/**
+	 * The maximum size requested for a position during a paint pass.
+	 */
+	private static class SizeRequest {
+		final int index;
+		final Region region;
+		int size;
+		final int currentSize;
+
+		SizeRequest(int index, Region region, int size, int currentSize) {
+			this.index = index;
+			this.region = region;
+			this.size = size;
+			this.currentSize = currentSize;
+		}
+	}
+
+	/**
+	 * Identifies the region of a layer a size is remembered for, by the layer instance and
+	 * the region labels of the cell.
+	 */
+	private static class Region {
+		final ILayer layer;
+		final List<String> labels;
+
+		Region(ILayer layer, List<String> labels) {
+			this.layer = layer;
+			this.labels = new ArrayList<String>(labels);
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof Region)) {
+				return false;
+			}
+			Region other = (Region) obj;
+			return this.layer == other.layer && this.labels.equals(other.labels);
+		}
+
+		@Override
+		public int hashCode() {
+			return System.identityHashCode(this.layer) * 31 + this.labels.hashCode();
+		}
+	}
+}
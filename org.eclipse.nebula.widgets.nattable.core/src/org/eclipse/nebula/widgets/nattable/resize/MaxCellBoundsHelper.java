@@ -10,11 +10,18 @@
  ******************************************************************************/
 package org.eclipse.nebula.widgets.nattable.resize;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.lang.ObjectUtils;
 import org.eclipse.nebula.widgets.nattable.config.IConfigRegistry;
 import org.eclipse.nebula.widgets.nattable.config.IConfiguration;
 import org.eclipse.nebula.widgets.nattable.grid.command.AutoResizeColumnCommandHandler;
 import org.eclipse.nebula.widgets.nattable.grid.command.AutoResizeRowCommandHandler;
 import org.eclipse.nebula.widgets.nattable.layer.ILayer;
+import org.eclipse.nebula.widgets.nattable.layer.LabelStack;
 import org.eclipse.nebula.widgets.nattable.layer.cell.ILayerCell;
 import org.eclipse.nebula.widgets.nattable.painter.cell.ICellPainter;
 import org.eclipse.nebula.widgets.nattable.util.GCFactory;
@@ -26,17 +33,34 @@ import org.eclipse.swt.graphics.Rectangle;
  * Helper class for {@link AutoResizeColumnCommandHandler} and {@link AutoResizeRowCommandHandler}
  */
 public class MaxCellBoundsHelper {
-	
+
 	/**
 	 * @return Preferred widths for columns. Preferred width is the minimum width
 	 *    required to horizontally fit all the contents of the column (including header)
 	 */
 	public static int[] getPreferredColumnWidths(IConfigRegistry configRegistry, GCFactory gcFactory, ILayer layer, int[]columnPositions) {
+		return getPreferredColumnWidths(configRegistry, gcFactory, layer, columnPositions, null);
+	}
+
+	/**
+	 * @param strategy The strategy that specifies which rows of the columns are measured.
+	 * 			If <code>null</code>, all rows are measured.
+	 * @return Preferred widths for columns. Preferred width is the minimum width
+	 *    required to horizontally fit the contents of the measured rows of the column
+	 */
+	public static int[] getPreferredColumnWidths(IConfigRegistry configRegistry, GCFactory gcFactory, ILayer layer, int[]columnPositions, AutoResizeStrategy strategy) {
 		int[] columnWidths = new int[columnPositions.length];
+		int[] rowPositions = (strategy != null) ? strategy.getRowPositionsToMeasure(layer.getRowCount()) : null;
+		boolean distinct = strategy != null && strategy.getMode() == AutoResizeStrategy.Mode.DISTINCT;
 		
 		GC gc = gcFactory.createGC();
 		for (int i = 0; i < columnPositions.length; i++) {
-			columnWidths[i] = getPreferredColumnWidth(layer, columnPositions[i], configRegistry, gc);
+			if (distinct) {
+				columnWidths[i] = getPreferredColumnWidthByDistinctContent(
+						layer, columnPositions[i], configRegistry, gc);
+			} else {
+				columnWidths[i] = getPreferredColumnWidth(layer, columnPositions[i], rowPositions, configRegistry, gc);
+			}
 		}
 		gc.dispose();
 		
@@ -47,33 +71,21 @@ public class MaxCellBoundsHelper {
 	 * Calculates the minimum width (in pixels) required to display the complete 
 	 *    contents of the cells in a column. Takes into account the font settings 
 	 *    and display type conversion. 
+	 * @param rowPositions The positions of the rows to measure, or <code>null</code> to measure all rows.
 	 */
-	private static int getPreferredColumnWidth(ILayer layer, int columnPosition, IConfigRegistry configRegistry, GC gc) {
-		ICellPainter painter;
+	private static int getPreferredColumnWidth(ILayer layer, int columnPosition, int[] rowPositions, IConfigRegistry configRegistry, GC gc) {
 		int maxWidth = 0;
-		ILayerCell cell;
+		int rowCount = (rowPositions != null) ? rowPositions.length : layer.getRowCount();
 		
-		for (int rowPosition = 0; rowPosition < layer.getRowCount(); rowPosition++) {
-			cell = layer.getCellByPosition(columnPosition, rowPosition);
+		for (int i = 0; i < rowCount; i++) {
+			int rowPosition = (rowPositions != null) ? rowPositions[i] : i;
+			ILayerCell cell = layer.getCellByPosition(columnPosition, rowPosition);
 			if (cell != null) {
 				boolean atEndOfCellSpan = cell.getOriginColumnPosition() + cell.getColumnSpan() - 1 == columnPosition;
 				if (atEndOfCellSpan) {
-					painter = layer.getCellPainter(cell.getColumnPosition(), cell.getRowPosition(), cell, configRegistry);
+					ICellPainter painter = layer.getCellPainter(cell.getColumnPosition(), cell.getRowPosition(), cell, configRegistry);
 					if (painter != null) {
-						int preferredWidth = painter.getPreferredWidth(cell, gc, configRegistry);
-						
-						// Adjust width
-						Rectangle bounds = cell.getBounds();
-						bounds.width = preferredWidth;
-						Rectangle adjustedCellBounds = cell.getLayer().getLayerPainter().adjustCellBounds(columnPosition, rowPosition, bounds);
-						preferredWidth += preferredWidth - adjustedCellBounds.width;
-						
-						if (cell.getColumnSpan() > 1) {
-							int columnStartX = layer.getStartXOfColumnPosition(columnPosition);
-							int cellStartX = layer.getStartXOfColumnPosition(cell.getOriginColumnPosition());
-							preferredWidth = Math.max(0, preferredWidth - (columnStartX - cellStartX));
-						}
-						
+						int preferredWidth = getPreferredWidth(layer, columnPosition, rowPosition, cell, painter, configRegistry, gc);
 						maxWidth = (preferredWidth > maxWidth) ? preferredWidth : maxWidth;
 					}
 				}
@@ -82,6 +94,55 @@ public class MaxCellBoundsHelper {
 		
 		return maxWidth;
 	}
+
+	/**
+	 * Calculates the minimum width required to display the contents of the cells in a column
+	 *    by measuring only one cell for every distinct combination of painter, config labels
+	 *    and data value. Cells that span several columns are always measured.
+	 * <p>
+	 * This only saves the calls to {@link ICellPainter#getPreferredWidth(ILayerCell, GC, IConfigRegistry)}
+	 *    for repeated content. The cell, its painter and its config labels are still resolved
+	 *    for every row to build the key, so on columns with mostly distinct content this is
+	 *    not faster than measuring all rows.
+	 * <p>
+	 * The cells are inspected in the calling thread, as the layer stack and the config registry
+	 *    are not thread safe. The text widths are calculated by the painters via the font
+	 *    metric tables of the {@link org.eclipse.nebula.widgets.nattable.util.TextMeasurer}.
+	 */
+	private static int getPreferredColumnWidthByDistinctContent(ILayer layer, int columnPosition, IConfigRegistry configRegistry, GC gc) {
+		DistinctCells distinctCells = new DistinctCells();
+		distinctCells.collect(layer, columnPosition, 0, layer.getRowCount(), configRegistry);
+
+		int maxWidth = 0;
+		for (MeasuredCell measuredCell : distinctCells.getCells()) {
+			int preferredWidth = getPreferredWidth(layer, columnPosition, measuredCell.rowPosition,
+					measuredCell.cell, measuredCell.painter, configRegistry, gc);
+			maxWidth = (preferredWidth > maxWidth) ? preferredWidth : maxWidth;
+		}
+		return maxWidth;
+	}
+
+	/**
+	 * Calculates the preferred width of the given cell, adjusted by the layer painter and
+	 *    reduced by the width of the preceding columns the cell spans.
+	 */
+	private static int getPreferredWidth(ILayer layer, int columnPosition, int rowPosition, ILayerCell cell,
+			ICellPainter painter, IConfigRegistry configRegistry, GC gc) {
+		int preferredWidth = painter.getPreferredWidth(cell, gc, configRegistry);
+		
+		// Adjust width
+		Rectangle bounds = cell.getBounds();
+		bounds.width = preferredWidth;
+		Rectangle adjustedCellBounds = cell.getLayer().getLayerPainter().adjustCellBounds(columnPosition, rowPosition, bounds);
+		preferredWidth += preferredWidth - adjustedCellBounds.width;
+		
+		if (cell.getColumnSpan() > 1) {
+			int columnStartX = layer.getStartXOfColumnPosition(columnPosition);
+			int cellStartX = layer.getStartXOfColumnPosition(cell.getOriginColumnPosition());
+			preferredWidth = Math.max(0, preferredWidth - (columnStartX - cellStartX));
+		}
+		return preferredWidth;
+	}
 	
 	public static int[] getPreferredRowHeights(IConfigRegistry configRegistry, GCFactory gcFactory, ILayer layer, int[]rows) {
 		int[] rowHeights = new int[rows.length];
@@ -142,4 +203,89 @@ public class MaxCellBoundsHelper {
 		}
 		return result;
 	}
+
+	/**
+	 * A cell that needs to be measured, together with its painter.
+	 */
+	private static class MeasuredCell {
+		final ILayerCell cell;
+		final int rowPosition;
+		final ICellPainter painter;
+
+		MeasuredCell(ILayerCell cell, int rowPosition, ICellPainter painter) {
+			this.cell = cell;
+			this.rowPosition = rowPosition;
+			this.painter = painter;
+		}
+	}
+
+	/**
+	 * The key that identifies cells whose preferred width is equal, as they are painted by
+	 * the same painter with the same configuration and data value.
+	 */
+	private static class ContentKey {
+		final ICellPainter painter;
+		final LabelStack labels;
+		final Object dataValue;
+		final int hash;
+
+		ContentKey(ICellPainter painter, LabelStack labels, Object dataValue) {
+			this.painter = painter;
+			this.labels = labels;
+			this.dataValue = dataValue;
+			this.hash = 31 * (31 * System.identityHashCode(painter) + labels.hashCode())
+					+ (dataValue != null ? dataValue.hashCode() : 0);
+		}
+
+		@Override
+		public int hashCode() {
+			return this.hash;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof ContentKey)) {
+				return false;
+			}
+			ContentKey that = (ContentKey) obj;
+			return this.painter == that.painter
+					&& this.labels.equals(that.labels)
+					&& ObjectUtils.equals(this.dataValue, that.dataValue);
+		}
+	}
+
+	/**
+	 * The cells of a range of rows in a column that need to be measured, one per distinct
+	 * content plus all cells that span several columns.
+	 */
+	private static class DistinctCells {
+		private final Map<ContentKey, MeasuredCell> distinct = new LinkedHashMap<ContentKey, MeasuredCell>();
+		private final List<MeasuredCell> spanned = new ArrayList<MeasuredCell>();
+
+		void collect(ILayer layer, int columnPosition, int fromRow, int toRow, IConfigRegistry configRegistry) {
+			for (int rowPosition = fromRow; rowPosition < toRow; rowPosition++) {
+				ILayerCell cell = layer.getCellByPosition(columnPosition, rowPosition);
+				if (cell != null && cell.getOriginColumnPosition() + cell.getColumnSpan() - 1 == columnPosition) {
+					ICellPainter painter = layer.getCellPainter(cell.getColumnPosition(), cell.getRowPosition(), cell, configRegistry);
+					if (painter != null) {
+						MeasuredCell measuredCell = new MeasuredCell(cell, rowPosition, painter);
+						if (cell.getColumnSpan() > 1) {
+							this.spanned.add(measuredCell);
+						} else {
+							ContentKey key = new ContentKey(painter, cell.getConfigLabels(), cell.getDataValue());
+							if (!this.distinct.containsKey(key)) {
+								this.distinct.put(key, measuredCell);
+							}
+						}
+					}
+				}
+			}
+		}
+
+		List<MeasuredCell> getCells() {
+			List<MeasuredCell> cells = new ArrayList<MeasuredCell>(this.distinct.values());
+			cells.addAll(this.spanned);
+			return cells;
+		}
+	}
 }
@@ -0,0 +1,23 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Original authors and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Original authors and others - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.resize;
+
+import org.eclipse.nebula.widgets.nattable.style.ConfigAttribute;
+
+public interface ResizeConfigAttributes {
+
+	/**
+	 * The {@link AutoResizeStrategy} that specifies which rows are measured on auto resizing
+	 * columns. If none is registered, all rows are measured.
+	 */
+	public static final ConfigAttribute<AutoResizeStrategy> AUTO_RESIZE_STRATEGY = new ConfigAttribute<AutoResizeStrategy>();
+
+}
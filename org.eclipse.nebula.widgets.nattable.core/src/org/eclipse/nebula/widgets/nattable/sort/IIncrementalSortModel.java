@@ -0,0 +1,44 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Original authors and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Original authors and others - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.sort;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Extension of the {@link ISortModel} for sort models that are able to keep the sort order
+ * up to date if values of sorted columns change, by only relocating the changed rows instead
+ * of sorting the whole data again.
+ *
+ * @see IncrementalSortListener
+ */
+public interface IIncrementalSortModel extends ISortModel {
+
+	/**
+	 * Relocates the given row objects according to the current sorting, e.g. because values
+	 * of sorted columns have changed. Row objects that are not part of the sorted data are
+	 * ignored.
+	 * @param rowObjects The row objects whose sort relevant values have changed.
+	 */
+	public void updateSortPosition(Collection<?> rowObjects);
+
+	/**
+	 * Relocates the given row objects like {@link #updateSortPosition(Collection)}, using the
+	 * given row indexes as hints for the current positions of the row objects. Row objects
+	 * with a matching hint don't need to be searched in the sorted data.
+	 * @param rowObjects The row objects whose sort relevant values have changed.
+	 * @param rowIndexHints The row indexes of the row objects, in the order of the given list,
+	 * 			or -1 if the row index of a row object is unknown. Hints that don't match the
+	 * 			current position of a row object are ignored.
+	 */
+	public void updateSortPosition(List<?> rowObjects, int[] rowIndexHints);
+
+}
@@ -0,0 +1,201 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Original authors and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Original authors and others - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.sort;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.nebula.widgets.nattable.data.IColumnPropertyResolver;
+import org.eclipse.nebula.widgets.nattable.data.IRowDataProvider;
+import org.eclipse.nebula.widgets.nattable.layer.ILayer;
+import org.eclipse.nebula.widgets.nattable.layer.ILayerListener;
+import org.eclipse.nebula.widgets.nattable.layer.event.CellVisualChangeEvent;
+import org.eclipse.nebula.widgets.nattable.layer.event.CellVisualUpdateEvent;
+import org.eclipse.nebula.widgets.nattable.layer.event.ILayerEvent;
+import org.eclipse.nebula.widgets.nattable.layer.event.MultiCellVisualChangeEvent;
+import org.eclipse.nebula.widgets.nattable.layer.event.PropertyUpdateEvent;
+import org.eclipse.nebula.widgets.nattable.selection.event.ISelectionEvent;
+import org.eclipse.swt.widgets.Display;
+
+/**
+ * Listener on the body layer stack that informs an {@link IIncrementalSortModel} about
+ * value changes in sorted columns, so the changed rows are relocated without sorting
+ * the whole data again.
+ * <p>
+ * Value changes are detected by {@link PropertyUpdateEvent}s, e.g. fired by the
+ * GlazedListsEventLayer for bean updates, and by {@link CellVisualChangeEvent}s, e.g. fired
+ * by the DataLayer on processing an UpdateDataCommand. Changes in columns that are not
+ * sorted are ignored, as well as selection events and {@link CellVisualUpdateEvent}s, which
+ * only change the visual state of cells. The row indexes of the CellVisualChangeEvents are
+ * passed to the sort model as hints for the current positions of the changed rows.
+ * <p>
+ * By default the changed row objects are collected and relocated at most once per frame
+ * interval. This avoids relocating the same row several times if its values tick with a
+ * high frequency. Throttling can be disabled via {@link #setThrottled(boolean)}.
+ *
+ * @param <T> Type of the row objects in the backing data source.
+ *
+ * @see SortHeaderLayer#enableIncrementalSorting(ILayer, IRowDataProvider, IColumnPropertyResolver)
+ */
+public class IncrementalSortListener<T> implements ILayerListener {
+
+	/**
+	 * The default interval in milliseconds in which throttled relocations are performed.
+	 */
+	public static final int DEFAULT_FRAME_INTERVAL = 16;
+
+	private final IIncrementalSortModel sortModel;
+	private final IRowDataProvider<T> rowDataProvider;
+	private final IColumnPropertyResolver columnPropertyResolver;
+
+	/**
+	 * The changed row objects that are not relocated yet, mapped to their last known row
+	 * index or -1 if unknown.
+	 */
+	private final Map<T, Integer> changedRowObjects = new IdentityHashMap<T, Integer>();
+	private boolean throttled = true;
+	private int frameInterval = DEFAULT_FRAME_INTERVAL;
+	private boolean flushScheduled = false;
+
+	private final Runnable flushRunnable = new Runnable() {
+		@Override
+		public void run() {
+			flushScheduled = false;
+			flush();
+		}
+	};
+
+	/**
+	 * @param sortModel The sort model that should relocate the changed rows.
+	 * @param rowDataProvider The IRowDataProvider to retrieve the row objects for
+	 * 			CellVisualChangeEvents.
+	 * @param columnPropertyResolver The IColumnPropertyResolver to retrieve the column
+	 * 			index for the property names of PropertyUpdateEvents.
+	 */
+	public IncrementalSortListener(IIncrementalSortModel sortModel,
+			IRowDataProvider<T> rowDataProvider, IColumnPropertyResolver columnPropertyResolver) {
+		this.sortModel = sortModel;
+		this.rowDataProvider = rowDataProvider;
+		this.columnPropertyResolver = columnPropertyResolver;
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	public void handleLayerEvent(ILayerEvent event) {
+		if (event instanceof ISelectionEvent || event instanceof CellVisualUpdateEvent) {
+			//no value changes
+			return;
+		}
+
+		if (event instanceof PropertyUpdateEvent) {
+			PropertyUpdateEvent<T> updateEvent = (PropertyUpdateEvent<T>) event;
+			int columnIndex = this.columnPropertyResolver.getColumnIndex(updateEvent.getPropertyName());
+			if (columnIndex >= 0 && this.sortModel.isColumnIndexSorted(columnIndex)) {
+				rowObjectChanged(updateEvent.getSourceBean());
+			}
+		}
+		else if (event instanceof CellVisualChangeEvent) {
+			CellVisualChangeEvent changeEvent = (CellVisualChangeEvent) event;
+			ILayer layer = changeEvent.getLayer();
+			int columnIndex = layer.getColumnIndexByPosition(changeEvent.getColumnPosition());
+			int rowIndex = layer.getRowIndexByPosition(changeEvent.getRowPosition());
+			if (columnIndex >= 0 && rowIndex >= 0 && this.sortModel.isColumnIndexSorted(columnIndex)) {
+				rowObjectChanged(this.rowDataProvider.getRowObject(rowIndex), rowIndex);
+			}
+		}
+		else if (event instanceof MultiCellVisualChangeEvent) {
+			MultiCellVisualChangeEvent changeEvent = (MultiCellVisualChangeEvent) event;
+			ILayer layer = changeEvent.getLayer();
+			for (int i = 0; i < changeEvent.getCellCount(); i++) {
+				int columnIndex = layer.getColumnIndexByPosition(changeEvent.getColumnPosition(i));
+				int rowIndex = layer.getRowIndexByPosition(changeEvent.getRowPosition(i));
+				if (columnIndex >= 0 && rowIndex >= 0 && this.sortModel.isColumnIndexSorted(columnIndex)) {
+					rowObjectChanged(this.rowDataProvider.getRowObject(rowIndex), rowIndex);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Registers the given row object for relocation. Relocates it immediately if throttling
+	 * is disabled or no SWT Display is available, otherwise schedules the relocation for the
+	 * end of the current frame interval.
+	 * @param rowObject The row object whose sort relevant values have changed.
+	 */
+	protected void rowObjectChanged(T rowObject) {
+		rowObjectChanged(rowObject, -1);
+	}
+
+	/**
+	 * Registers the given row object for relocation, like {@link #rowObjectChanged(Object)}.
+	 * @param rowObject The row object whose sort relevant values have changed.
+	 * @param rowIndex The row index of the row object in the IRowDataProvider, or -1 if unknown.
+	 */
+	protected void rowObjectChanged(T rowObject, int rowIndex) {
+		Integer knownIndex = this.changedRowObjects.get(rowObject);
+		if (knownIndex == null || rowIndex >= 0) {
+			this.changedRowObjects.put(rowObject, rowIndex);
+		}
+
+		Display display = Display.getCurrent();
+		if (!this.throttled || display == null) {
+			flush();
+		}
+		else if (!this.flushScheduled) {
+			this.flushScheduled = true;
+			display.timerExec(this.frameInterval, this.flushRunnable);
+		}
+	}
+
+	/**
+	 * Relocates all collected row objects.
+	 */
+	public void flush() {
+		if (!this.changedRowObjects.isEmpty()) {
+			List<T> rowObjects = new ArrayList<T>(this.changedRowObjects.size());
+			int[] rowIndexHints = new int[this.changedRowObjects.size()];
+			for (Map.Entry<T, Integer> entry : this.changedRowObjects.entrySet()) {
+				rowIndexHints[rowObjects.size()] = entry.getValue();
+				rowObjects.add(entry.getKey());
+			}
+			this.changedRowObjects.clear();
+			this.sortModel.updateSortPosition(rowObjects, rowIndexHints);
+		}
+	}
+
+	/**
+	 * @param throttled <code>true</code> if relocations should be performed at most once per
+	 * 			frame interval, <code>false</code> if changed rows should be relocated immediately.
+	 * 			Default is <code>true</code>.
+	 */
+	public void setThrottled(boolean throttled) {
+		this.throttled = throttled;
+		if (!throttled) {
+			flush();
+		}
+	}
+
+	/**
+	 * @return <code>true</code> if relocations are performed at most once per frame interval.
+	 */
+	public boolean isThrottled() {
+		return this.throttled;
+	}
+
+	/**
+	 * @param frameInterval The interval in milliseconds in which throttled relocations are performed.
+	 */
+	public void setFrameInterval(int frameInterval) {
+		this.frameInterval = frameInterval;
+	}
+}
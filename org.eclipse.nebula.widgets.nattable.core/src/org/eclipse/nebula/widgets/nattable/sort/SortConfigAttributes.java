@@ -12,6 +12,7 @@ package org.eclipse.nebula.widgets.nattable.sort;
 
 import java.util.Comparator;
 
+import org.eclipse.nebula.widgets.nattable.data.convert.IDisplayConverter;
 import org.eclipse.nebula.widgets.nattable.style.ConfigAttribute;
 
 
@@ -19,4 +20,14 @@ public interface SortConfigAttributes {
 	
 	public static final ConfigAttribute<Comparator<?>> SORT_COMPARATOR = new ConfigAttribute<Comparator<?>>();
 
+	/**
+	 * Display converter that is used to normalize the column values to sort keys before
+	 * they are compared with the configured {@link #SORT_COMPARATOR}. If configured for a
+	 * column, the column is sorted by the values returned by
+	 * {@link IDisplayConverter#canonicalToDisplayValue(Object)}. Evaluated by sort models
+	 * that extract the sort keys in advance, like the key extracted sorting of the
+	 * GlazedListsSortModel.
+	 */
+	public static final ConfigAttribute<IDisplayConverter> SORT_KEY_DISPLAY_CONVERTER = new ConfigAttribute<IDisplayConverter>();
+
 }
@@ -10,6 +10,8 @@
  ******************************************************************************/
 package org.eclipse.nebula.widgets.nattable.sort;
 
+import org.eclipse.nebula.widgets.nattable.data.IColumnPropertyResolver;
+import org.eclipse.nebula.widgets.nattable.data.IRowDataProvider;
 import org.eclipse.nebula.widgets.nattable.layer.AbstractLayerTransform;
 import org.eclipse.nebula.widgets.nattable.layer.ILayer;
 import org.eclipse.nebula.widgets.nattable.layer.LabelStack;
@@ -85,4 +87,29 @@ public class SortHeaderLayer<T> extends AbstractLayerTransform implements IPersi
 	public ISortModel getSortModel() {
 		return sortModel;
 	}
+
+	/**
+	 * Enables the incremental maintenance of the sort order. Value changes in sorted columns
+	 * that are reported by the given body layer result in relocating only the changed rows,
+	 * instead of leaving the sort order stale until the next sort operation.
+	 * <p>
+	 * Requires the ISortModel of this layer to be an {@link IIncrementalSortModel}.
+	 * @param bodyLayer The layer of the body layer stack that reports the value changes.
+	 * 			Needs to be the layer that fires the PropertyUpdateEvents or a layer above,
+	 * 			and its row indexes need to match the row indexes of the given IRowDataProvider.
+	 * @param rowDataProvider The IRowDataProvider of the body.
+	 * @param columnPropertyResolver The IColumnPropertyResolver to map property names to column indexes.
+	 * @return The registered listener, e.g. to configure throttling.
+	 * @throws IllegalStateException if the ISortModel does not support incremental sorting.
+	 */
+	public IncrementalSortListener<T> enableIncrementalSorting(ILayer bodyLayer,
+			IRowDataProvider<T> rowDataProvider, IColumnPropertyResolver columnPropertyResolver) {
+		if (!(sortModel instanceof IIncrementalSortModel)) {
+			throw new IllegalStateException("The sort model does not support incremental sorting"); //$NON-NLS-1$
+		}
+		IncrementalSortListener<T> listener = new IncrementalSortListener<T>(
+				(IIncrementalSortModel) sortModel, rowDataProvider, columnPropertyResolver);
+		bodyLayer.addLayerListener(listener);
+		return listener;
+	}
 }
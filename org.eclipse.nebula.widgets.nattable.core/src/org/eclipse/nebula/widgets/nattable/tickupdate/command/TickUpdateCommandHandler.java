@@ -10,6 +10,11 @@
  ******************************************************************************/
 package org.eclipse.nebula.widgets.nattable.tickupdate.command;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.eclipse.nebula.widgets.nattable.command.AbstractLayerCommandHandler;
@@ -19,6 +24,7 @@ import org.eclipse.nebula.widgets.nattable.coordinate.PositionCoordinate;
 import org.eclipse.nebula.widgets.nattable.data.validate.IDataValidator;
 import org.eclipse.nebula.widgets.nattable.edit.EditConfigAttributes;
 import org.eclipse.nebula.widgets.nattable.edit.command.EditUtils;
+import org.eclipse.nebula.widgets.nattable.edit.command.MultiUpdateDataCommand;
 import org.eclipse.nebula.widgets.nattable.edit.command.UpdateDataCommand;
 import org.eclipse.nebula.widgets.nattable.layer.cell.ILayerCell;
 import org.eclipse.nebula.widgets.nattable.selection.SelectionLayer;
@@ -58,9 +64,7 @@ public class TickUpdateCommandHandler extends AbstractLayerCommandHandler<TickUp
 			if (EditUtils.allCellsEditable(selectionLayer, configRegistry)
 					&& EditUtils.isEditorSame(selectionLayer, configRegistry) 
 					&& EditUtils.isConverterSame(selectionLayer, configRegistry)) {
-				for (PositionCoordinate position : selectedPositions) {
-					updateSingleCell(command, position);
-				}
+				updateMultipleCells(command, selectedPositions);
 			}
 		} else {
 			// Tick update for single selected cell
@@ -70,6 +74,64 @@ public class TickUpdateCommandHandler extends AbstractLayerCommandHandler<TickUp
 		return true;
 	}
 
+	/**
+	 * Will calculate the new values after tick update processing for the cells at the given
+	 * coordinates and update all valid values via one {@link MultiUpdateDataCommand}.
+	 * The configuration is only resolved once per distinct label stack of the cells.
+	 * @param command The command to process
+	 * @param selectedPositions The coordinates of the cells on which the tick update
+	 * 			should be executed
+	 */
+	private void updateMultipleCells(TickUpdateCommand command, PositionCoordinate[] selectedPositions) {
+		IConfigRegistry configRegistry = command.getConfigRegistry();
+		Map<List<String>, CellConfig> configs = new HashMap<List<String>, CellConfig>();
+
+		int[] columnPositions = new int[selectedPositions.length];
+		int[] rowPositions = new int[selectedPositions.length];
+		List<Object> newValues = new ArrayList<Object>(selectedPositions.length);
+
+		for (PositionCoordinate selectedPosition : selectedPositions) {
+			ILayerCell cell = selectionLayer.getCellByPosition(
+					selectedPosition.columnPosition, selectedPosition.rowPosition);
+
+			List<String> labels = cell.getConfigLabels().getLabels();
+			CellConfig config = configs.get(labels);
+			if (config == null) {
+				config = new CellConfig(configRegistry, labels);
+				configs.put(labels, config);
+			}
+
+			if (config.editableRule.isEditable(cell, configRegistry)) {
+				Object newValue = getNewCellValue(command, config.tickUpdateHandler, cell);
+				try {
+					if (config.validator == null || config.validator.validate(cell, configRegistry, newValue)) {
+						columnPositions[newValues.size()] = selectedPosition.columnPosition;
+						rowPositions[newValues.size()] = selectedPosition.rowPosition;
+						newValues.add(newValue);
+					}
+					else {
+						log.warn("Tick update failed for cell at " + selectedPosition + " and value " + newValue //$NON-NLS-1$ //$NON-NLS-2$
+								+ ". New value is not valid!"); //$NON-NLS-1$
+					}
+				}
+				catch (Exception e) {
+					log.warn("Tick update failed for cell at " + selectedPosition + " and value " + newValue //$NON-NLS-1$ //$NON-NLS-2$
+							+ ". " + e.getLocalizedMessage()); //$NON-NLS-1$
+				}
+			}
+		}
+
+		if (!newValues.isEmpty()) {
+			int count = newValues.size();
+			int[] updateColumnPositions = new int[count];
+			int[] updateRowPositions = new int[count];
+			System.arraycopy(columnPositions, 0, updateColumnPositions, 0, count);
+			System.arraycopy(rowPositions, 0, updateRowPositions, 0, count);
+			selectionLayer.doCommand(new MultiUpdateDataCommand(
+					selectionLayer, updateColumnPositions, updateRowPositions, newValues.toArray()));
+		}
+	}
+
 	/**
 	 * Will calculate the new value after tick update processing for the cell at the given coordinates,
 	 * trying to update the value represented by that cell. The update will only be processed if the
@@ -96,7 +158,11 @@ public class TickUpdateCommandHandler extends AbstractLayerCommandHandler<TickUp
 		
 		if (editableRule.isEditable(cell, configRegistry)) {
 			//process the tick update
-			Object newValue = getNewCellValue(command, cell);
+			ITickUpdateHandler tickUpdateHandler = configRegistry.getConfigAttribute(
+					TickUpdateConfigAttributes.UPDATE_HANDLER,
+					DisplayMode.EDIT, 
+					cell.getConfigLabels().getLabels());
+			Object newValue = getNewCellValue(command, tickUpdateHandler, cell);
 			//validate the value
 			try {
 				if (validator == null || validator.validate(cell, configRegistry, newValue)) {
@@ -121,15 +187,11 @@ public class TickUpdateCommandHandler extends AbstractLayerCommandHandler<TickUp
 	/**
 	 * Will calculate the new value for the given cell after tick update is processed.
 	 * @param command The command to process
+	 * @param tickUpdateHandler The {@link ITickUpdateHandler} configured for the cell
 	 * @param cell The cell on which the command should be processed
 	 * @return The processed value after the command was executed on the current cell value
 	 */
-	private Object getNewCellValue(TickUpdateCommand command, ILayerCell cell) {
-		ITickUpdateHandler tickUpdateHandler = command.getConfigRegistry().getConfigAttribute(
-				TickUpdateConfigAttributes.UPDATE_HANDLER,
-				DisplayMode.EDIT, 
-				cell.getConfigLabels().getLabels());
-
+	private Object getNewCellValue(TickUpdateCommand command, ITickUpdateHandler tickUpdateHandler, ILayerCell cell) {
 		Object dataValue = cell.getDataValue();
 
 		if (tickUpdateHandler != null && tickUpdateHandler.isApplicableFor(dataValue)) {
@@ -147,4 +209,22 @@ public class TickUpdateCommandHandler extends AbstractLayerCommandHandler<TickUp
 	public Class<TickUpdateCommand> getCommandClass() {
 		return TickUpdateCommand.class;
 	}
+
+	/**
+	 * The configuration needed for a tick update, resolved for one label stack.
+	 */
+	private static class CellConfig {
+		final IEditableRule editableRule;
+		final IDataValidator validator;
+		final ITickUpdateHandler tickUpdateHandler;
+
+		CellConfig(IConfigRegistry configRegistry, List<String> labels) {
+			this.editableRule = configRegistry.getConfigAttribute(
+					EditConfigAttributes.CELL_EDITABLE_RULE, DisplayMode.EDIT, labels);
+			this.validator = configRegistry.getConfigAttribute(
+					EditConfigAttributes.DATA_VALIDATOR, DisplayMode.EDIT, labels);
+			this.tickUpdateHandler = configRegistry.getConfigAttribute(
+					TickUpdateConfigAttributes.UPDATE_HANDLER, DisplayMode.EDIT, labels);
+		}
+	}
 }
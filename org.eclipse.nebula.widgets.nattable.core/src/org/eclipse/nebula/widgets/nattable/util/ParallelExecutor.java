@@ -0,0 +1,157 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Original authors and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Original authors and others - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pool of worker threads used to split expensive operations like filtering, sorting or
+ * measuring over several cores. The threads are daemon threads of the NatTable thread group,
+ * so they don't prevent the application from exiting.
+ * <p>
+ * The default instance is sized to the number of available processors and created lazily.
+ */
+public class ParallelExecutor implements ThreadFactory {
+
+	private static ParallelExecutor defaultExecutor;
+
+	private final String threadNamePrefix;
+	private final int parallelism;
+	private final AtomicInteger counter = new AtomicInteger();
+	private ExecutorService threadPool;
+
+	/**
+	 * @return The shared ParallelExecutor sized to the number of available processors.
+	 */
+	public static synchronized ParallelExecutor getDefault() {
+		if (defaultExecutor == null) {
+			defaultExecutor = new ParallelExecutor("NatTableWorker", Runtime.getRuntime().availableProcessors()); //$NON-NLS-1$
+		}
+		return defaultExecutor;
+	}
+
+	/**
+	 * @param threadNamePrefix The prefix for the names of the worker threads.
+	 * @param parallelism The number of worker threads.
+	 */
+	public ParallelExecutor(String threadNamePrefix, int parallelism) {
+		this.threadNamePrefix = threadNamePrefix;
+		this.parallelism = Math.max(1, parallelism);
+	}
+
+	/**
+	 * @return The number of worker threads.
+	 */
+	public int getParallelism() {
+		return this.parallelism;
+	}
+
+	/**
+	 * Calculates the number of chunks a range of the given size should be split into.
+	 * Uses several chunks per worker thread for load balancing, but does not create chunks
+	 * that are smaller than the given minimum.
+	 * @param size The size of the range to split.
+	 * @param minChunkSize The minimum number of elements per chunk.
+	 * @return The number of chunks, at least 1.
+	 */
+	public int getChunkCount(int size, int minChunkSize) {
+		int chunks = Math.min(this.parallelism * 4, size / Math.max(1, minChunkSize));
+		return Math.max(1, chunks);
+	}
+
+	/**
+	 * Submits the given task for asynchronous execution.
+	 * @param task The task to execute.
+	 * @return The Future representing the pending result of the task.
+	 */
+	public synchronized <V> Future<V> submit(Callable<V> task) {
+		return getThreadPool().submit(task);
+	}
+
+	/**
+	 * Submits the given task for asynchronous execution.
+	 * @param task The task to execute.
+	 * @return The Future representing the pending completion of the task.
+	 */
+	public synchronized Future<?> submit(Runnable task) {
+		return getThreadPool().submit(task);
+	}
+
+	/**
+	 * Executes the given tasks in parallel and waits for their completion.
+	 * If only one task is given, it is executed in the calling thread.
+	 * @param tasks The tasks to execute.
+	 * @return The results of the tasks in the order of the given tasks.
+	 * @throws InterruptedException if the calling thread was interrupted while waiting.
+	 * @throws ExecutionException if one of the tasks threw an exception.
+	 */
+	public <V> List<V> invokeAll(List<? extends Callable<V>> tasks) throws InterruptedException, ExecutionException {
+		List<V> results = new ArrayList<V>(tasks.size());
+		if (tasks.size() == 1) {
+			try {
+				results.add(tasks.get(0).call());
+			} catch (InterruptedException e) {
+				throw e;
+			} catch (Exception e) {
+				throw new ExecutionException(e);
+			}
+			return results;
+		}
+
+		List<Future<V>> futures = new ArrayList<Future<V>>(tasks.size());
+		try {
+			for (Callable<V> task : tasks) {
+				futures.add(submit(task));
+			}
+			for (Future<V> future : futures) {
+				results.add(future.get());
+			}
+		} finally {
+			for (Future<V> future : futures) {
+				future.cancel(true);
+			}
+		}
+		return results;
+	}
+
+	/**
+	 * Shuts down the worker threads. The ParallelExecutor can still be used afterwards,
+	 * new worker threads are created on demand.
+	 */
+	public synchronized void shutdown() {
+		if (this.threadPool != null) {
+			this.threadPool.shutdownNow();
+			this.threadPool = null;
+		}
+	}
+
+	private synchronized ExecutorService getThreadPool() {
+		if (this.threadPool == null) {
+			this.threadPool = Executors.newFixedThreadPool(this.parallelism, this);
+		}
+		return this.threadPool;
+	}
+
+	@Override
+	public Thread newThread(Runnable r) {
+		Thread thread = new Thread(ObjectUtils.getNatTableThreadGroup(), r, this.threadNamePrefix + "-" + this.counter.incrementAndGet()); //$NON-NLS-1$
+		thread.setDaemon(true);
+		return thread;
+	}
+}
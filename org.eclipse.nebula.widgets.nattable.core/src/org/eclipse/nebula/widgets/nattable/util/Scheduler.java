@@ -21,12 +21,23 @@ import java.util.concurrent.atomic.AtomicInteger;
 public class Scheduler implements ThreadFactory  {
     
 	private final String threadNamePrefix;
+	private final boolean daemon;
 	private final AtomicInteger counter = new AtomicInteger();
 	private int scheduledTasks;
 	private ScheduledExecutorService threadPool;
 	
 	public Scheduler(String threadNamePrefix) {
+		this(threadNamePrefix, false);
+	}
+	
+	/**
+	 * @param threadNamePrefix The prefix of the names of the created threads.
+	 * @param daemon <code>true</code> if the created threads should be daemon threads,
+	 * 			which don't prevent the JVM from exiting.
+	 */
+	public Scheduler(String threadNamePrefix, boolean daemon) {
 		this.threadNamePrefix = threadNamePrefix;
+		this.daemon = daemon;
 	}
 	
 	public synchronized ScheduledFuture<?> schedule(Runnable runnable, long initialDelayMillis) {
@@ -60,7 +71,9 @@ public class Scheduler implements ThreadFactory  {
 
 	@Override
 	public Thread newThread(Runnable r) {
-		return new Thread(ObjectUtils.getNatTableThreadGroup(),r,threadNamePrefix+"-"+counter.incrementAndGet()); //$NON-NLS-1$
+		Thread thread = new Thread(ObjectUtils.getNatTableThreadGroup(),r,threadNamePrefix+"-"+counter.incrementAndGet()); //$NON-NLS-1$
+		thread.setDaemon(daemon);
+		return thread;
 	}
 	
 	public synchronized Future<?> submit(Runnable runnable) {
@@ -0,0 +1,294 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Original authors and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Original authors and others - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.util;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import org.eclipse.swt.graphics.Device;
+import org.eclipse.swt.graphics.Font;
+import org.eclipse.swt.graphics.FontData;
+import org.eclipse.swt.graphics.GC;
+
+/**
+ * Measures the width of texts for the font currently set to a GC.
+ * <p>
+ * For every font a table of glyph advance widths is built lazily via
+ * {@link GC#getAdvanceWidth(char)}. The width of simple texts, that only contain latin
+ * characters and line delimiters, is calculated arithmetically by summing up the advance
+ * widths of the characters. Kerning is not taken into account for these texts. All other
+ * texts, e.g. containing tabs or characters of complex scripts, are measured via
+ * {@link GC#textExtent(String)} and the results are stored in a LRU cache of limited size.
+ * <p>
+ * As the measuring is performed via GC, the methods need to be called in the UI thread.
+ */
+public final class TextMeasurer {
+
+	/**
+	 * The default maximum number of text widths stored in the cache for texts that are
+	 * measured via {@link GC#textExtent(String)}.
+	 */
+	public static final int DEFAULT_CACHE_SIZE = 10000;
+
+	/**
+	 * The characters up to this value, excluding control characters, are measured
+	 * arithmetically. It covers the Latin-1 and the Latin Extended-A/B blocks.
+	 */
+	private static final char MAX_SIMPLE_CHAR = '\u024F';
+
+	private static final Map<Font, FontMetricsTable> tablesByFont = new WeakHashMap<Font, FontMetricsTable>();
+	/**
+	 * The tables per font data of a device. The devices are referenced weakly, so the tables
+	 * of disposed devices, e.g. printers, don't stay in memory.
+	 */
+	private static final Map<Device, Map<FontKey, FontMetricsTable>> tablesByDevice = new WeakHashMap<Device, Map<FontKey, FontMetricsTable>>();
+
+	private static int cacheSize = DEFAULT_CACHE_SIZE;
+	private static final Map<TextKey, Integer> extentCache = new LinkedHashMap<TextKey, Integer>(256, 0.75f, true) {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<TextKey, Integer> eldest) {
+			return size() > cacheSize;
+		}
+	};
+
+	private static boolean arithmeticMeasuring = true;
+
+	private TextMeasurer() {
+		// private default constructor for helper class
+	}
+
+	/**
+	 * @param gc The GC whose current font is used for measuring.
+	 * @param text The text to measure.
+	 * @return The width of the given text, which is the width of its longest line if it
+	 * 			contains line delimiters.
+	 */
+	public static int getTextWidth(GC gc, String text) {
+		Font font = gc.getFont();
+		if (font == null) {
+			return gc.textExtent(text).x;
+		}
+		FontMetricsTable table = getTable(font);
+
+		if (arithmeticMeasuring && isSimple(text)) {
+			int maxWidth = 0;
+			int lineWidth = 0;
+			for (int i = 0; i < text.length(); i++) {
+				char c = text.charAt(i);
+				if (c == '\n' || c == '\r') {
+					maxWidth = Math.max(maxWidth, lineWidth);
+					lineWidth = 0;
+				} else {
+					lineWidth += table.getAdvanceWidth(gc, c);
+				}
+			}
+			return Math.max(maxWidth, lineWidth);
+		}
+
+		TextKey key = new TextKey(table, text);
+		Integer width = extentCache.get(key);
+		if (width == null) {
+			width = Integer.valueOf(gc.textExtent(text).x);
+			extentCache.put(key, width);
+		}
+		return width.intValue();
+	}
+
+	/**
+	 * Calculates the widths of all prefixes of the given single line text.
+	 * @param gc The GC whose current font is used for measuring.
+	 * @param text The single line text to measure.
+	 * @return Array with the width of the prefix of length i at index i, or
+	 * 			<code>null</code> if the text can not be measured arithmetically.
+	 */
+	public static int[] getPrefixWidths(GC gc, String text) {
+		Font font = gc.getFont();
+		if (font == null || !arithmeticMeasuring || !isSimple(text)
+				|| text.indexOf('\n') >= 0 || text.indexOf('\r') >= 0) {
+			return null;
+		}
+		FontMetricsTable table = getTable(font);
+
+		int[] prefixWidths = new int[text.length() + 1];
+		for (int i = 0; i < text.length(); i++) {
+			prefixWidths[i + 1] = prefixWidths[i] + table.getAdvanceWidth(gc, text.charAt(i));
+		}
+		return prefixWidths;
+	}
+
+	/**
+	 * @param text The text to check.
+	 * @return <code>true</code> if the width of the given text is calculated arithmetically,
+	 * 			which means that the width of a concatenation of texts is the sum of their widths.
+	 */
+	public static boolean isArithmeticMeasurable(String text) {
+		return arithmeticMeasuring && isSimple(text);
+	}
+
+	private static boolean isSimple(String text) {
+		for (int i = 0; i < text.length(); i++) {
+			char c = text.charAt(i);
+			if ((c < ' ' && c != '\n' && c != '\r') || (c >= '\u007F' && c < '\u00A0') || c > MAX_SIMPLE_CHAR) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static FontMetricsTable getTable(Font font) {
+		FontMetricsTable table = tablesByFont.get(font);
+		if (table == null) {
+			// fonts of the same device with the same font data share one table,
+			// e.g. if a font is created again by the GUIHelper after it was disposed
+			FontData[] fontData = font.getFontData();
+			Map<FontKey, FontMetricsTable> tablesByFontData = null;
+			FontKey key = null;
+			if (fontData != null && fontData.length > 0) {
+				tablesByFontData = tablesByDevice.get(font.getDevice());
+				if (tablesByFontData == null) {
+					tablesByFontData = new HashMap<FontKey, FontMetricsTable>();
+					tablesByDevice.put(font.getDevice(), tablesByFontData);
+				}
+				key = new FontKey(fontData[0]);
+				table = tablesByFontData.get(key);
+			}
+			if (table == null) {
+				table = new FontMetricsTable();
+				if (key != null) {
+					tablesByFontData.put(key, table);
+				}
+			}
+			tablesByFont.put(font, table);
+		}
+		return table;
+	}
+
+	/**
+	 * @param arithmeticMeasuring <code>true</code> if the width of simple texts should be
+	 * 			calculated by the glyph advance widths, <code>false</code> if all texts should
+	 * 			be measured via {@link GC#textExtent(String)}, e.g. to take kerning into account.
+	 */
+	public static void setArithmeticMeasuring(boolean arithmeticMeasuring) {
+		TextMeasurer.arithmeticMeasuring = arithmeticMeasuring;
+	}
+
+	/**
+	 * @return <code>true</code> if the width of simple texts is calculated by the glyph
+	 * 			advance widths.
+	 */
+	public static boolean isArithmeticMeasuring() {
+		return arithmeticMeasuring;
+	}
+
+	/**
+	 * @param size The maximum number of text widths stored in the cache for texts that are
+	 * 			measured via {@link GC#textExtent(String)}.
+	 */
+	public static void setCacheSize(int size) {
+		cacheSize = size;
+		if (extentCache.size() > size) {
+			extentCache.clear();
+		}
+	}
+
+	/**
+	 * Clears the cached text widths and glyph advance tables.
+	 */
+	public static void clearCache() {
+		extentCache.clear();
+		tablesByFont.clear();
+		tablesByDevice.clear();
+	}
+
+	/**
+	 * The glyph advance widths of the simple characters for one font.
+	 */
+	private static class FontMetricsTable {
+		private final int[] advanceWidths = new int[MAX_SIMPLE_CHAR + 1];
+
+		FontMetricsTable() {
+			Arrays.fill(this.advanceWidths, -1);
+		}
+
+		int getAdvanceWidth(GC gc, char c) {
+			int width = this.advanceWidths[c];
+			if (width < 0) {
+				width = gc.getAdvanceWidth(c);
+				this.advanceWidths[c] = width;
+			}
+			return width;
+		}
+	}
+
+	/**
+	 * Key for fonts of a device with the same name, height and style. Doesn't reference
+	 * the device, as it is stored in a map that is weakly keyed by the device.
+	 */
+	private static class FontKey {
+		private final String name;
+		private final int height;
+		private final int style;
+
+		FontKey(FontData fontData) {
+			this.name = fontData.getName();
+			this.height = fontData.getHeight();
+			this.style = fontData.getStyle();
+		}
+
+		@Override
+		public int hashCode() {
+			return 31 * (31 * (this.name != null ? this.name.hashCode() : 0) + this.height) + this.style;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof FontKey)) {
+				return false;
+			}
+			FontKey that = (FontKey) obj;
+			return this.height == that.height
+					&& this.style == that.style
+					&& (this.name != null ? this.name.equals(that.name) : that.name == null);
+		}
+	}
+
+	/**
+	 * Key for the width of a text measured with a font.
+	 */
+	private static class TextKey {
+		private final FontMetricsTable table;
+		private final String text;
+
+		TextKey(FontMetricsTable table, String text) {
+			this.table = table;
+			this.text = text;
+		}
+
+		@Override
+		public int hashCode() {
+			return 31 * System.identityHashCode(this.table) + this.text.hashCode();
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof TextKey)) {
+				return false;
+			}
+			TextKey that = (TextKey) obj;
+			return this.table == that.table && this.text.equals(that.text);
+		}
+	}
+}
@@ -35,18 +35,18 @@ public class HorizontalScrollBarHandler extends ScrollBarHandlerTemplate {
 	}
 
 	@Override
-	int getViewportOrigin() {
+	long getViewportOrigin() {
 		return viewportLayer.getOrigin().getX();
 	}
 	
 	@Override
-	int getViewportMinimumOrigin() {
+	long getViewportMinimumOrigin() {
 		return viewportLayer.getMinimumOrigin().getX();
 	}
 
 	@Override
-	void setViewportOrigin(int x) {
-		viewportLayer.setOriginX(x);
+	void setViewportOrigin(long x) {
+		viewportLayer.setOriginX((int) x);
 	}
 	
 	@Override
@@ -65,7 +65,7 @@ public class HorizontalScrollBarHandler extends ScrollBarHandlerTemplate {
 	}
 
 	@Override
-	int getScrollableLayerSpan() {
+	long getScrollableLayerSpan() {
 		if (viewportLayer.getMaxWidth() >= 0 && viewportLayer.getMaxWidth() < scrollableLayer.getWidth()) {
 			return viewportLayer.getMaxWidth();
 		} else {
@@ -20,6 +20,14 @@ import org.eclipse.swt.widgets.Listener;
 public abstract class ScrollBarHandlerTemplate implements Listener {
 
 	public static final int DEFAULT_OFFSET = 1;
+	
+	/**
+	 * The maximum range that is set to the underlying scroller. Scrollable spans that
+	 * exceed this range, e.g. on using virtual coordinates in the ViewportLayer, are
+	 * scaled down so the scroller never needs to handle more than this number of units.
+	 */
+	public static final int MAX_SCROLLER_RANGE = 1 << 30;
+	
 	protected final ViewportLayer viewportLayer;
 	protected final IUniqueIndexLayer scrollableLayer;
 	protected final IScroller<?> scroller;
@@ -33,6 +41,12 @@ public abstract class ScrollBarHandlerTemplate implements Listener {
 	 * twice.
 	 */
 	private boolean dragging = false;
+	
+	/**
+	 * The number of pixels that are represented by one unit of the scroller.
+	 * Is 1 as long as the scrollable span fits into {@link #MAX_SCROLLER_RANGE}.
+	 */
+	private long scrollFactor = 1;
 
 	public ScrollBarHandlerTemplate(ViewportLayer viewportLayer, IScroller<?> scroller) {
 		this.viewportLayer = viewportLayer;
@@ -64,7 +78,7 @@ public abstract class ScrollBarHandlerTemplate implements Listener {
 		}
 			
 		if (handle && event.widget == scroller.getUnderlying()) {
-			setViewportOrigin(getViewportMinimumOrigin() + scroller.getSelection());
+			setViewportOrigin(getViewportMinimumOrigin() + scroller.getSelection() * this.scrollFactor);
 			setScrollIncrement();
 		} else {
 			adjustScrollBar();
@@ -76,9 +90,9 @@ public abstract class ScrollBarHandlerTemplate implements Listener {
 		if (scroller.isDisposed()) {
 			return;
 		}
-		int startPixel = getViewportOrigin() - getViewportMinimumOrigin();
+		long startPixel = getViewportOrigin() - getViewportMinimumOrigin();
 		
-		scroller.setSelection(startPixel);
+		scroller.setSelection((int) (startPixel / this.scrollFactor));
 	}
 
 	void recalculateScrollBarSize() {
@@ -86,24 +100,25 @@ public abstract class ScrollBarHandlerTemplate implements Listener {
 			return;
 		}
 		
-		int max = getScrollableLayerSpan() - getViewportMinimumOrigin();
+		long max = getScrollableLayerSpan() - getViewportMinimumOrigin();
+		this.scrollFactor = Math.max(1, (max + MAX_SCROLLER_RANGE - 1) / MAX_SCROLLER_RANGE);
 		if (! scroller.isDisposed()) {
-			scroller.setMaximum(max);
+			scroller.setMaximum(toScrollerUnits(max));
 		}
 		
 		int viewportWindowSpan = getViewportWindowSpan();
 		
 		int thumbSize;
 		if (viewportWindowSpan < max && viewportWindowSpan != 0) {
-			thumbSize = viewportWindowSpan;
+			thumbSize = toScrollerUnits(viewportWindowSpan);
 			scroller.setEnabled(true);
 			scroller.setVisible(true);
 			
 			setScrollIncrement();
 			
-			scroller.setPageIncrement(viewportWindowSpan);
+			scroller.setPageIncrement(thumbSize);
 		} else {
-			thumbSize = max;
+			thumbSize = toScrollerUnits(max);
 			scroller.setEnabled(false);
 			scroller.setVisible(false);
 		}
@@ -114,7 +129,27 @@ public abstract class ScrollBarHandlerTemplate implements Listener {
 
 	void setScrollIncrement() {
 		int scrollIncrement = Math.min(getScrollIncrement(), getViewportWindowSpan() / 4);
-		scroller.setIncrement(scrollIncrement);
+		scroller.setIncrement(toScrollerUnits(scrollIncrement));
+	}
+	
+	/**
+	 * Converts the given pixel span to scroller units. Spans greater than 0 result in at
+	 * least one unit, so increments and the thumb do not vanish on scaling.
+	 * @param pixels The pixel span to convert.
+	 * @return The number of scroller units that represent the given span.
+	 */
+	int toScrollerUnits(long pixels) {
+		if (pixels <= 0) {
+			return (int) pixels;
+		}
+		return (int) Math.max(1, pixels / this.scrollFactor);
+	}
+	
+	/**
+	 * @return The number of pixels that are represented by one unit of the scroller.
+	 */
+	long getScrollFactor() {
+		return this.scrollFactor;
 	}
 	
 	/**
@@ -123,15 +158,15 @@ public abstract class ScrollBarHandlerTemplate implements Listener {
 	 */
 	abstract int getViewportWindowSpan();
 	
-	abstract int getScrollableLayerSpan();
+	abstract long getScrollableLayerSpan();
 
 	abstract boolean keepScrolling();
 
-	abstract int getViewportOrigin();
+	abstract long getViewportOrigin();
 
-	abstract int getViewportMinimumOrigin();
+	abstract long getViewportMinimumOrigin();
 
-	abstract void setViewportOrigin(int pixel);
+	abstract void setViewportOrigin(long pixel);
 
 	abstract MoveDirectionEnum scrollDirectionForEventDetail(int eventDetail);
 	
@@ -38,18 +38,18 @@ public class VerticalScrollBarHandler extends ScrollBarHandlerTemplate implement
 	 * @return
 	 */
 	@Override
-	int getViewportOrigin() {
-		return viewportLayer.getOrigin().getY();
+	long getViewportOrigin() {
+		return viewportLayer.getVirtualOriginY();
 	}
 
 	@Override
-	int getViewportMinimumOrigin() {
+	long getViewportMinimumOrigin() {
 		return viewportLayer.getMinimumOrigin().getY();
 	}
 
 	@Override
-	void setViewportOrigin(int y) {
-		viewportLayer.setOriginY(y);
+	void setViewportOrigin(long y) {
+		viewportLayer.setVirtualOriginY(y);
 	}
 
 	@Override
@@ -68,11 +68,12 @@ public class VerticalScrollBarHandler extends ScrollBarHandlerTemplate implement
 	}
 
 	@Override
-	int getScrollableLayerSpan() {
-		if (viewportLayer.getMaxHeight() >= 0 && viewportLayer.getMaxHeight() < scrollableLayer.getHeight()) {
+	long getScrollableLayerSpan() {
+		long height = viewportLayer.getVirtualHeight();
+		if (viewportLayer.getMaxHeight() >= 0 && viewportLayer.getMaxHeight() < height) {
 			return viewportLayer.getMaxHeight();
 		} else {
-			return scrollableLayer.getHeight();
+			return height;
 		}
 	}
 	
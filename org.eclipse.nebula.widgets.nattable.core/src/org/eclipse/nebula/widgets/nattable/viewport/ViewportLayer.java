@@ -17,6 +17,7 @@ import org.eclipse.nebula.widgets.nattable.grid.command.ClientAreaResizeCommand;
 import org.eclipse.nebula.widgets.nattable.layer.AbstractLayerTransform;
 import org.eclipse.nebula.widgets.nattable.layer.ILayer;
 import org.eclipse.nebula.widgets.nattable.layer.IUniqueIndexLayer;
+import org.eclipse.nebula.widgets.nattable.layer.LayerUtil;
 import org.eclipse.nebula.widgets.nattable.layer.event.ILayerEvent;
 import org.eclipse.nebula.widgets.nattable.layer.event.ILayerEventHandler;
 import org.eclipse.nebula.widgets.nattable.layer.event.IStructuralChangeEvent;
@@ -73,6 +74,14 @@ public class ViewportLayer extends AbstractLayerTransform implements IUniqueInde
 	private int maxHeight = -1;
 	private boolean viewportOff = false;
 	private PixelCoordinate savedOrigin = new PixelCoordinate(0, 0);
+	private boolean blitScrollingEnabled = false;
+	
+	// Virtual vertical coordinates
+	private boolean virtualCoordinatesEnabled = false;
+	private long virtualOriginY = 0;
+	private int estimatedRowHeight = -1;
+	private int cachedOriginRowY = 0;
+	private int cachedOriginRowPosition = -1;
 
 	// Cache
 	private int cachedColumnCount = -1;
@@ -81,6 +90,8 @@ public class ViewportLayer extends AbstractLayerTransform implements IUniqueInde
 	private int cachedClientAreaHeight = 0;
 	private int cachedWidth = -1;
 	private int cachedHeight = -1;
+	private final ViewportWindow columnWindow = new ViewportWindow();
+	private final ViewportWindow rowWindow = new ViewportWindow();
 	
 	// Edge hover scrolling
 	
@@ -222,6 +233,9 @@ public class ViewportLayer extends AbstractLayerTransform implements IUniqueInde
 	 * @return The origin column position
 	 */
 	private int getOriginColumnPosition() {
+		if (!viewportOff && columnWindow.isValid(origin.getX())) {
+			return columnWindow.getOriginPosition();
+		}
 		return scrollableLayer.getColumnPositionByX(getOrigin().getX());
 	}
 	
@@ -229,6 +243,16 @@ public class ViewportLayer extends AbstractLayerTransform implements IUniqueInde
 	 * @return The origin row position
 	 */
 	private int getOriginRowPosition() {
+		if (!viewportOff && rowWindow.isValid(origin.getY())) {
+			return rowWindow.getOriginPosition();
+		}
+		if (virtualCoordinatesEnabled && !viewportOff) {
+			if (cachedOriginRowPosition < 0 || cachedOriginRowY != origin.getY()) {
+				cachedOriginRowY = origin.getY();
+				cachedOriginRowPosition = getRowPositionByVirtualY(getVirtualOriginY());
+			}
+			return cachedOriginRowPosition;
+		}
 		return scrollableLayer.getRowPositionByY(getOrigin().getY());
 	}
 	
@@ -255,6 +279,9 @@ public class ViewportLayer extends AbstractLayerTransform implements IUniqueInde
 	 * @return A valid y value within bounds: minimum origin y < y < max y (= row 0 y + height)
 	 */
 	private int boundsCheckOriginY(int y) {
+		if (virtualCoordinatesEnabled) {
+			return (int) boundsCheckVirtualOriginY(toVirtualY(y));
+		}
 		int min = minimumOrigin.getY();
 		if (y <= min) {
 			return min;
@@ -275,9 +302,10 @@ public class ViewportLayer extends AbstractLayerTransform implements IUniqueInde
 		newOriginX = boundsCheckOriginX(adjustOriginX(newOriginX));
 
 		if (newOriginX != origin.getX()) {
-			invalidateHorizontalStructure();
+			int deltaX = newOriginX - origin.getX();
+			invalidateHorizontalOrigin();
 			origin = new PixelCoordinate(newOriginX, origin.getY());
-			fireScrollEvent();
+			fireScrollEvent(deltaX, 0);
 		}
 	}
 
@@ -286,13 +314,18 @@ public class ViewportLayer extends AbstractLayerTransform implements IUniqueInde
 	 * @param newOriginY
 	 */
 	public void setOriginY(int newOriginY) {
+		if (virtualCoordinatesEnabled) {
+			setVirtualOriginY(toVirtualY(newOriginY));
+			return;
+		}
 		newOriginY = boundsCheckOriginY(newOriginY);
 		newOriginY = boundsCheckOriginY(adjustOriginY(newOriginY));
 
 		if (newOriginY != origin.getY()) {
-			invalidateVerticalStructure();
+			int deltaY = newOriginY - origin.getY();
+			invalidateVerticalOrigin();
 			origin = new PixelCoordinate(origin.getX(), newOriginY);
-			fireScrollEvent();
+			fireScrollEvent(0, deltaY);
 		}
 	}
 	
@@ -308,13 +341,14 @@ public class ViewportLayer extends AbstractLayerTransform implements IUniqueInde
 		minimumOriginColumnPosition = 0;
 		minimumOriginRowPosition = 0;
 		origin = new PixelCoordinate(newOriginX, newOriginY);
+		virtualOriginY = newOriginY;
 		
 		if (origin.getX() != previousOrigin.getX()) {
-			invalidateHorizontalStructure();
+			invalidateHorizontalOrigin();
 		}
 		
 		if (origin.getY() != previousOrigin.getY()) {
-			invalidateVerticalStructure();
+			invalidateVerticalOrigin();
 		}
 	}
 	
@@ -411,6 +445,9 @@ public class ViewportLayer extends AbstractLayerTransform implements IUniqueInde
 	
 	@Override
 	public int getColumnWidthByPosition(int columnPosition) {
+		if (!viewportOff && columnWindow.isValid(origin.getX()) && columnWindow.contains(columnPosition)) {
+			return columnWindow.getSize(columnPosition);
+		}
 		int width = super.getColumnWidthByPosition(columnPosition);
 		return width;
 	}
@@ -426,11 +463,20 @@ public class ViewportLayer extends AbstractLayerTransform implements IUniqueInde
 
 	@Override
 	public int getColumnPositionByX(int x) {
+		if (!viewportOff && columnWindow.isValid(origin.getX())) {
+			int columnPosition = columnWindow.getLocalPositionByPixel(x);
+			if (columnPosition >= 0) {
+				return columnPosition;
+			}
+		}
 		return getUnderlyingLayer().getColumnPositionByX(getOrigin().getX() + x) - getOriginColumnPosition();
 	}
 
 	@Override
 	public int getStartXOfColumnPosition(int columnPosition) {
+		if (!viewportOff && columnWindow.isValid(origin.getX()) && columnWindow.contains(columnPosition)) {
+			return columnWindow.getStart(columnPosition);
+		}
 		return getUnderlyingLayer().getStartXOfColumnPosition(getOriginColumnPosition() + columnPosition) - getOrigin().getX();
 	}
 
@@ -451,8 +497,9 @@ public class ViewportLayer extends AbstractLayerTransform implements IUniqueInde
 				if (availableHeight >= 0) {
 					
 					// lower bound check
-					if (origin.getY() < minimumOrigin.getY()) {
+					if (getVirtualOriginY() < minimumOrigin.getY()) {
 						origin = new PixelCoordinate(origin.getX(), minimumOrigin.getY());
+						virtualOriginY = minimumOrigin.getY();
 					}
 					
 					recalculateAvailableHeightAndRowCount();
@@ -509,6 +556,9 @@ public class ViewportLayer extends AbstractLayerTransform implements IUniqueInde
 	
 	@Override
 	public int getRowHeightByPosition(int rowPosition) {
+		if (!viewportOff && rowWindow.isValid(origin.getY()) && rowWindow.contains(rowPosition)) {
+			return rowWindow.getSize(rowPosition);
+		}
 		int height = super.getRowHeightByPosition(rowPosition);
 		return height;
 	}
@@ -519,11 +569,23 @@ public class ViewportLayer extends AbstractLayerTransform implements IUniqueInde
 
 	@Override
 	public int getRowPositionByY(int y) {
+		if (!viewportOff && rowWindow.isValid(origin.getY())) {
+			int rowPosition = rowWindow.getLocalPositionByPixel(y);
+			if (rowPosition >= 0) {
+				return rowPosition;
+			}
+		}
+		if (virtualCoordinatesEnabled && !viewportOff) {
+			return getRowPositionByVirtualY(getVirtualOriginY() + y) - getOriginRowPosition();
+		}
 		return getUnderlyingLayer().getRowPositionByY(getOrigin().getY() + y) - getOriginRowPosition();
 	}
 
 	@Override
 	public int getStartYOfRowPosition(int rowPosition) {
+		if (!viewportOff && rowWindow.isValid(origin.getY()) && rowWindow.contains(rowPosition)) {
+			return rowWindow.getStart(rowPosition);
+		}
 		return getUnderlyingLayer().getStartYOfRowPosition(getOriginRowPosition() + rowPosition) - getOrigin().getY();
 	}
 
@@ -546,6 +608,7 @@ public class ViewportLayer extends AbstractLayerTransform implements IUniqueInde
 		cachedColumnCount = -1;
 		cachedClientAreaWidth = 0;
 		cachedWidth = -1;
+		columnWindow.invalidate();
 	}
 
 	/**
@@ -555,6 +618,31 @@ public class ViewportLayer extends AbstractLayerTransform implements IUniqueInde
 		cachedRowCount = -1;
 		cachedClientAreaHeight = 0;
 		cachedHeight = -1;
+		cachedOriginRowPosition = -1;
+		rowWindow.invalidate();
+	}
+
+	/**
+	 * Clear horizontal caches after the origin has changed. The widths of the visible columns
+	 * are retained, so only the columns that enter the viewport are requested from the
+	 * underlying layer on recalculation.
+	 */
+	private void invalidateHorizontalOrigin() {
+		cachedColumnCount = -1;
+		cachedWidth = -1;
+		columnWindow.invalidateOrigin();
+	}
+
+	/**
+	 * Clear vertical caches after the origin has changed. The heights of the visible rows
+	 * are retained, so only the rows that enter the viewport are requested from the
+	 * underlying layer on recalculation.
+	 */
+	private void invalidateVerticalOrigin() {
+		cachedRowCount = -1;
+		cachedHeight = -1;
+		cachedOriginRowPosition = -1;
+		rowWindow.invalidateOrigin();
 	}
 
 	/**
@@ -564,20 +652,29 @@ public class ViewportLayer extends AbstractLayerTransform implements IUniqueInde
 		int clientAreaWidth = maxWidth >= 0 ? Math.min(maxWidth, getClientAreaWidth()) : getClientAreaWidth();
 		int availableWidth = clientAreaWidth;
 		int originColumnPosition = getOriginColumnPosition();
+		int startX = 0;
 		if (originColumnPosition >= 0) {
-			availableWidth += getOrigin().getX() - underlyingLayer.getStartXOfColumnPosition(originColumnPosition);
+			startX = underlyingLayer.getStartXOfColumnPosition(originColumnPosition) - getOrigin().getX();
+			availableWidth -= startX;
 		}
 		ILayer underlyingLayer = getUnderlyingLayer();
 
 		cachedWidth = 0;
 		cachedColumnCount = 0;
 
+		//columns that were already visible before scrolling keep their width
+		columnWindow.begin(originColumnPosition, getOrigin().getX(), startX);
 		for (int columnPosition = originColumnPosition; columnPosition >= 0 && columnPosition < underlyingLayer.getColumnCount() && availableWidth > 0; columnPosition++) {
-			int width = underlyingLayer.getColumnWidthByPosition(columnPosition);
+			int width = columnWindow.getRetainedSize(columnPosition);
+			if (width < 0) {
+				width = underlyingLayer.getColumnWidthByPosition(columnPosition);
+			}
 			availableWidth -= width;
 			cachedWidth += width;
 			cachedColumnCount++;
+			columnWindow.add(width);
 		}
+		columnWindow.commit();
 		
 		if (cachedWidth > clientAreaWidth) cachedWidth = clientAreaWidth;
 
@@ -594,26 +691,44 @@ public class ViewportLayer extends AbstractLayerTransform implements IUniqueInde
 		int clientAreaHeight = maxHeight >= 0 ? Math.min(maxHeight, getClientAreaHeight()) : getClientAreaHeight();
 		int availableHeight = clientAreaHeight;
 		int originRowPosition = getOriginRowPosition();
+		int startY = 0;
 		if (originRowPosition >= 0) {
-			availableHeight += getOrigin().getY() - underlyingLayer.getStartYOfRowPosition(originRowPosition);
+			startY = underlyingLayer.getStartYOfRowPosition(originRowPosition) - getOrigin().getY();
+			availableHeight -= startY;
 		}
 		ILayer underlyingLayer = getUnderlyingLayer();
 
 		cachedHeight = 0;
 		cachedRowCount = 0;
 
-		for (int rowPosition = getOriginRowPosition(); rowPosition >= 0 && rowPosition < underlyingLayer.getRowCount() && availableHeight > 0; rowPosition++) {
-			int height = underlyingLayer.getRowHeightByPosition(rowPosition);
+		//rows that were already visible before scrolling keep their height
+		rowWindow.begin(originRowPosition, getOrigin().getY(), startY);
+		for (int rowPosition = originRowPosition; rowPosition >= 0 && rowPosition < underlyingLayer.getRowCount() && availableHeight > 0; rowPosition++) {
+			int height = rowWindow.getRetainedSize(rowPosition);
+			if (height < 0) {
+				height = underlyingLayer.getRowHeightByPosition(rowPosition);
+			}
 			availableHeight -= height;
 			cachedHeight += height;
 			cachedRowCount++;
+			rowWindow.add(height);
 		}
+		rowWindow.commit();
 		
 		if (cachedHeight > clientAreaHeight) cachedHeight = clientAreaHeight;
 
-		int checkedOriginY = boundsCheckOriginY(origin.getY());
-		if (checkedOriginY != origin.getY()) {
-			origin = new PixelCoordinate(origin.getX(), checkedOriginY);
+		if (virtualCoordinatesEnabled) {
+			long currentOriginY = getVirtualOriginY();
+			long checkedOriginY = boundsCheckVirtualOriginY(currentOriginY);
+			if (checkedOriginY != currentOriginY) {
+				virtualOriginY = checkedOriginY;
+				origin = new PixelCoordinate(origin.getX(), (int) checkedOriginY);
+			}
+		} else {
+			int checkedOriginY = boundsCheckOriginY(origin.getY());
+			if (checkedOriginY != origin.getY()) {
+				origin = new PixelCoordinate(origin.getX(), checkedOriginY);
+			}
 		}
 	}
 
@@ -683,9 +798,11 @@ public class ViewportLayer extends AbstractLayerTransform implements IUniqueInde
 
 					int maxY = maxHeight >= 0 ? Math.min(maxHeight, scrollableRowEndY) : scrollableRowEndY;
 
-					if (viewportEndY < maxY) {
+					//compare via the difference, as in virtual coordinate mode the values
+					//of the underlying layer might have wrapped around
+					if (maxY - viewportEndY > 0) {
 						// Move down
-						setOriginY(Math.min(maxY - clientAreaHeight, maxY));
+						setOriginY(maxY - Math.max(clientAreaHeight, 0));
 					}
 				}
 				
@@ -713,6 +830,238 @@ public class ViewportLayer extends AbstractLayerTransform implements IUniqueInde
 		fireLayerEvent(new ScrollEvent(this));
 	}
 
+	/**
+	 * Fires a ScrollEvent for the given origin change. If blit scrolling is enabled, the event
+	 * carries the scrolled area, so the NatTable is able to move the already rendered pixels
+	 * and only paint the newly exposed strip.
+	 * @param deltaX The number of pixels the origin moved horizontally.
+	 * @param deltaY The number of pixels the origin moved vertically.
+	 */
+	protected void fireScrollEvent(int deltaX, int deltaY) {
+		if (blitScrollingEnabled && !viewportOff) {
+			fireLayerEvent(new ScrollEvent(this, deltaX, deltaY, getClientAreaProvider().getClientArea()));
+		} else {
+			fireScrollEvent();
+		}
+	}
+
+	/**
+	 * Enables or disables blit scrolling. If enabled, scrolling moves the already rendered pixels
+	 * of the viewport area and only the newly exposed rows or columns are painted, together with
+	 * the areas that scroll along like row and column headers and frozen areas. Otherwise the
+	 * whole table is repainted on scrolling.
+	 * @param blitScrollingEnabled <code>true</code> to enable blit scrolling.
+	 */
+	public void setBlitScrollingEnabled(boolean blitScrollingEnabled) {
+		this.blitScrollingEnabled = blitScrollingEnabled;
+	}
+
+	/**
+	 * @return <code>true</code> if blit scrolling is enabled.
+	 */
+	public boolean isBlitScrollingEnabled() {
+		return blitScrollingEnabled;
+	}
+
+	// Virtual vertical coordinates
+
+	/**
+	 * Enables or disables virtual vertical coordinates. The pixel values of the layer stack are
+	 * calculated with int arithmetic, which overflows for tables that are higher than
+	 * 2^31 pixels, e.g. 100 million rows with a height of 22 pixels. With virtual coordinates
+	 * the viewport keeps its vertical origin as a long value, while the int values of the
+	 * underlying layers are only used relative to the origin, which is correct as long as
+	 * the distance fits into an int, as it is the case for the visible window. The vertical
+	 * scroll bar is scaled so it is able to represent the long extent.
+	 * <p>
+	 * Note that in this mode {@link #getOrigin()} returns the origin y in the wrapped int
+	 * coordinates of the underlying layers. Use {@link #getVirtualOriginY()} and
+	 * {@link #getVirtualHeight()} to get the long values.
+	 * @param virtualCoordinatesEnabled <code>true</code> to enable virtual vertical coordinates.
+	 */
+	public void setVirtualCoordinatesEnabled(boolean virtualCoordinatesEnabled) {
+		if (this.virtualCoordinatesEnabled != virtualCoordinatesEnabled) {
+			this.virtualOriginY = origin.getY();
+			this.virtualCoordinatesEnabled = virtualCoordinatesEnabled;
+			this.estimatedRowHeight = -1;
+			invalidateVerticalStructure();
+			recalculateVerticalScrollBar();
+		}
+	}
+
+	/**
+	 * @return <code>true</code> if virtual vertical coordinates are enabled.
+	 */
+	public boolean isVirtualCoordinatesEnabled() {
+		return virtualCoordinatesEnabled;
+	}
+
+	/**
+	 * @return The origin y pixel position as long value. Without virtual coordinates this is
+	 * 			the same as the y value of {@link #getOrigin()}.
+	 */
+	public long getVirtualOriginY() {
+		if (viewportOff) {
+			return minimumOrigin.getY();
+		}
+		if (!virtualCoordinatesEnabled) {
+			return origin.getY();
+		}
+		//origin y might have been modified via int values relative to the current origin
+		virtualOriginY = unwrap(origin.getY(), virtualOriginY);
+		return virtualOriginY;
+	}
+
+	/**
+	 * @return The height of the scrollable layer as long value. Without virtual coordinates
+	 * 			this is the same as the height of the scrollable layer.
+	 */
+	public long getVirtualHeight() {
+		if (!virtualCoordinatesEnabled) {
+			return scrollableLayer.getHeight();
+		}
+		return unwrap(scrollableLayer.getHeight(), (long) scrollableLayer.getRowCount() * getEstimatedRowHeight());
+	}
+
+	/**
+	 * Set the origin Y pixel position as long value. Without virtual coordinates this
+	 * is the same as {@link #setOriginY(int)}.
+	 * @param newOriginY The new origin y.
+	 */
+	public void setVirtualOriginY(long newOriginY) {
+		if (!virtualCoordinatesEnabled) {
+			setOriginY((int) Math.max(Integer.MIN_VALUE, Math.min(Integer.MAX_VALUE, newOriginY)));
+			return;
+		}
+
+		newOriginY = boundsCheckVirtualOriginY(newOriginY);
+		newOriginY = boundsCheckVirtualOriginY(adjustVirtualOriginY(newOriginY));
+
+		long currentOriginY = unwrap(origin.getY(), virtualOriginY);
+		if (newOriginY != currentOriginY) {
+			long deltaY = newOriginY - currentOriginY;
+			invalidateVerticalOrigin();
+			virtualOriginY = newOriginY;
+			origin = new PixelCoordinate(origin.getX(), (int) newOriginY);
+			fireScrollEvent(0, (int) Math.max(-Integer.MAX_VALUE, Math.min(Integer.MAX_VALUE, deltaY)));
+		}
+	}
+
+	/**
+	 * Range checking for the long origin Y pixel position.
+	 * @param y
+	 * @return A valid y value within bounds: minimum origin y < y < max y (= row 0 y + height)
+	 */
+	private long boundsCheckVirtualOriginY(long y) {
+		long min = minimumOrigin.getY();
+		if (y <= min) {
+			return min;
+		}
+		long max = Math.max(getVirtualStartYOfRowPosition(0) + getVirtualHeight(), min);
+		if (y > max) {
+			return max;
+		}
+		return y;
+	}
+
+	/**
+	 * If the client area size is greater than the content size, move origin to fill as much
+	 * content as possible. Long value variant of {@link #adjustOriginY(int)}.
+	 */
+	private long adjustVirtualOriginY(long originY) {
+		if (getRowCount() == 0) {
+			return 0;
+		}
+
+		long availableHeight = getClientAreaHeight() - (getVirtualHeight() - originY);
+		if (availableHeight <= 0) {
+			return originY;
+		} else {
+			return boundsCheckVirtualOriginY(originY - availableHeight);
+		}
+	}
+
+	/**
+	 * Converts a y value in the int coordinates of the underlying layers to a long value, assuming
+	 * it is located within an int distance of the current origin.
+	 */
+	private long toVirtualY(int y) {
+		return unwrap(y, getVirtualOriginY());
+	}
+
+	/**
+	 * @param rowPosition The row position in the scrollable layer.
+	 * @return The long start y of the given row position in the scrollable layer.
+	 */
+	private long getVirtualStartYOfRowPosition(int rowPosition) {
+		return unwrap(scrollableLayer.getStartYOfRowPosition(rowPosition), (long) rowPosition * getEstimatedRowHeight());
+	}
+
+	/**
+	 * Long value variant of {@link LayerUtil#getRowPositionByY(ILayer, int)} for the scrollable layer.
+	 * @param y The long y value.
+	 * @return The row position in the scrollable layer that contains the given y,
+	 * 			or -1 if there is none.
+	 */
+	private int getRowPositionByVirtualY(long y) {
+		long totalHeight = getVirtualHeight();
+		if (y < 0 || y >= totalHeight) {
+			return -1;
+		}
+
+		long yOffset = 0;
+		int rowOffset = 0;
+		int rowCount = scrollableLayer.getRowCount();
+		while (rowOffset < rowCount) {
+			double size = (double) (totalHeight - yOffset) / (rowCount - rowOffset);
+			int rowPosition = Math.min(rowOffset + (int) ((y - yOffset) / size), rowCount - 1);
+
+			long startY = getVirtualStartYOfRowPosition(rowPosition);
+			long endY = startY + scrollableLayer.getRowHeightByPosition(rowPosition);
+			if (y < startY) {
+				totalHeight = startY;
+				rowCount = rowPosition;
+			} else if (y >= endY) {
+				yOffset = endY;
+				rowOffset = rowPosition + 1;
+			} else {
+				return rowPosition;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * @return The estimated row height of the scrollable layer, used to resolve the wrapped
+	 * 			int pixel values of the underlying layers to long values.
+	 */
+	private int getEstimatedRowHeight() {
+		if (estimatedRowHeight < 0) {
+			int rowCount = scrollableLayer.getRowCount();
+			if (rowCount > 0) {
+				long sampledHeight = (long) scrollableLayer.getRowHeightByPosition(0)
+						+ scrollableLayer.getRowHeightByPosition(rowCount / 2)
+						+ scrollableLayer.getRowHeightByPosition(rowCount - 1);
+				estimatedRowHeight = (int) Math.max(1, sampledHeight / 3);
+			} else {
+				estimatedRowHeight = 1;
+			}
+		}
+		return estimatedRowHeight;
+	}
+
+	/**
+	 * Resolves an int value that might have wrapped around on overflow to the long value that
+	 * is nearest to the given estimate. The result is exact if the real value is within an int
+	 * distance of the estimate.
+	 * @param wrapped The int value, calculated with int arithmetic.
+	 * @param estimate An estimate for the real value.
+	 * @return The long value that matches the wrapped value and is nearest to the estimate.
+	 */
+	static long unwrap(int wrapped, long estimate) {
+		return estimate + (wrapped - (int) estimate);
+	}
+
 	boolean processingClientAreaResizeCommand = false;
 	
 	@Override
@@ -776,6 +1125,7 @@ public class ViewportLayer extends AbstractLayerTransform implements IUniqueInde
 		} else if (command instanceof TurnViewportOnCommand) {
 			viewportOff = false;
 			origin = savedOrigin;
+			invalidateVerticalStructure();
 			return true;
 		} else if (command instanceof PrintEntireGridCommand) {
 			moveCellPositionIntoViewport(0, 0);
@@ -907,11 +1257,15 @@ public class ViewportLayer extends AbstractLayerTransform implements IUniqueInde
 	public void handleLayerEvent(ILayerEvent event) {
 		if (event instanceof IStructuralChangeEvent) {
 			IStructuralChangeEvent structuralChangeEvent = (IStructuralChangeEvent) event;
+			//sizes might also be changed by events that do not report the affected axis correctly
+			columnWindow.invalidate();
+			rowWindow.invalidate();
 			if (structuralChangeEvent.isHorizontalStructureChanged()) {
 				invalidateHorizontalStructure();
 			}
 			if (structuralChangeEvent.isVerticalStructureChanged()) {
 				invalidateVerticalStructure();
+				estimatedRowHeight = -1;
 			}
 		}
 
@@ -0,0 +1,185 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Original authors and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Original authors and others - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.viewport;
+
+import java.util.Arrays;
+
+/**
+ * The window of positions that are visible in the {@link ViewportLayer} along one axis,
+ * together with their sizes and local start pixels.
+ * <p>
+ * The window is rebuilt from the previous one after scrolling. Positions that stay in the
+ * window keep their size, so only the sizes of the positions that enter the window need
+ * to be requested from the underlying layer. On structural changes the retained sizes
+ * are dropped, as they might be outdated.
+ */
+class ViewportWindow {
+
+	private int[] sizes = new int[16];
+	private int[] starts = new int[16];
+	private int[] nextSizes = new int[16];
+	private int[] nextStarts = new int[16];
+
+	/**
+	 * The underlying position of the first position in the window.
+	 */
+	private int originPosition = -1;
+	/**
+	 * The origin pixel the window was calculated for.
+	 */
+	private int originPixel;
+	private int count = 0;
+	private boolean valid = false;
+
+	private int nextOriginPosition;
+	private int nextOriginPixel;
+	private int nextCount;
+	private int nextStart;
+
+	/**
+	 * Invalidates the window and drops the retained sizes. Needs to be called on structural
+	 * changes, as the sizes of the positions might have changed.
+	 */
+	void invalidate() {
+		this.valid = false;
+		this.count = 0;
+	}
+
+	/**
+	 * Invalidates the window after the origin has changed. The sizes are retained, so they
+	 * can be reused on rebuilding the window.
+	 */
+	void invalidateOrigin() {
+		this.valid = false;
+	}
+
+	/**
+	 * @param originPixel The current origin pixel of the viewport.
+	 * @return <code>true</code> if the window was calculated for the given origin and
+	 * 			there was no structural change since then.
+	 */
+	boolean isValid(int originPixel) {
+		return this.valid && this.originPixel == originPixel;
+	}
+
+	/**
+	 * @return The underlying position of the first position in the window.
+	 */
+	int getOriginPosition() {
+		return this.originPosition;
+	}
+
+	/**
+	 * @param localPosition The local position in the viewport.
+	 * @return <code>true</code> if the given local position is part of the window.
+	 */
+	boolean contains(int localPosition) {
+		return localPosition >= 0 && localPosition < this.count;
+	}
+
+	/**
+	 * @param localPosition The local position in the viewport, needs to be part of the window.
+	 * @return The size of the given local position.
+	 */
+	int getSize(int localPosition) {
+		return this.sizes[localPosition];
+	}
+
+	/**
+	 * @param localPosition The local position in the viewport, needs to be part of the window.
+	 * @return The local start pixel of the given local position.
+	 */
+	int getStart(int localPosition) {
+		return this.starts[localPosition];
+	}
+
+	/**
+	 * @param pixel The local pixel in the viewport.
+	 * @return The local position that contains the given pixel, or -1 if the pixel is
+	 * 			not covered by the window.
+	 */
+	int getLocalPositionByPixel(int pixel) {
+		if (this.count == 0
+				|| pixel < this.starts[0]
+				|| pixel >= this.starts[this.count - 1] + this.sizes[this.count - 1]) {
+			return -1;
+		}
+		int index = Arrays.binarySearch(this.starts, 0, this.count, pixel);
+		if (index < 0) {
+			return -index - 2;
+		}
+		//positions with size 0 share their start pixel with the following position
+		while (this.sizes[index] == 0 && index < this.count - 1) {
+			index++;
+		}
+		return index;
+	}
+
+	/**
+	 * @param underlyingPosition The position in the underlying layer.
+	 * @return The size of the given position if it was part of the previous window,
+	 * 			-1 otherwise.
+	 */
+	int getRetainedSize(int underlyingPosition) {
+		int index = underlyingPosition - this.originPosition;
+		if (index >= 0 && index < this.count) {
+			return this.sizes[index];
+		}
+		return -1;
+	}
+
+	/**
+	 * Starts rebuilding the window. Until {@link #commit()} is called the previous window
+	 * stays accessible via {@link #getRetainedSize(int)}.
+	 * @param originPosition The underlying position of the first position in the window.
+	 * @param originPixel The origin pixel the window is calculated for.
+	 * @param startPixel The local start pixel of the first position, which is negative
+	 * 			if the first position is only partially visible.
+	 */
+	void begin(int originPosition, int originPixel, int startPixel) {
+		this.nextOriginPosition = originPosition;
+		this.nextOriginPixel = originPixel;
+		this.nextCount = 0;
+		this.nextStart = startPixel;
+	}
+
+	/**
+	 * Adds the next position to the window that is rebuilt.
+	 * @param size The size of the position.
+	 */
+	void add(int size) {
+		if (this.nextCount == this.nextSizes.length) {
+			this.nextSizes = Arrays.copyOf(this.nextSizes, this.nextCount * 2);
+			this.nextStarts = Arrays.copyOf(this.nextStarts, this.nextCount * 2);
+		}
+		this.nextSizes[this.nextCount] = size;
+		this.nextStarts[this.nextCount] = this.nextStart;
+		this.nextStart += size;
+		this.nextCount++;
+	}
+
+	/**
+	 * Finishes rebuilding and makes the rebuilt window the current one.
+	 */
+	void commit() {
+		int[] swap = this.sizes;
+		this.sizes = this.nextSizes;
+		this.nextSizes = swap;
+		swap = this.starts;
+		this.starts = this.nextStarts;
+		this.nextStarts = swap;
+
+		this.originPosition = this.nextOriginPosition;
+		this.originPixel = this.nextOriginPixel;
+		this.count = this.nextCount;
+		this.valid = true;
+	}
+}
@@ -15,16 +15,40 @@ import java.util.Collection;
 import org.eclipse.nebula.widgets.nattable.layer.event.StructuralDiff;
 import org.eclipse.nebula.widgets.nattable.layer.event.StructuralRefreshEvent;
 import org.eclipse.nebula.widgets.nattable.viewport.ViewportLayer;
+import org.eclipse.swt.graphics.Rectangle;
 
 
 public class ScrollEvent extends StructuralRefreshEvent {
 
+	private final int deltaX;
+	private final int deltaY;
+	private final Rectangle scrolledArea;
+
 	public ScrollEvent(ViewportLayer viewportLayer) {
+		this(viewportLayer, 0, 0, null);
+	}
+
+	/**
+	 * Creates a ScrollEvent that carries the information needed to scroll the already
+	 * rendered pixels instead of repainting the whole table.
+	 * @param viewportLayer The ViewportLayer that was scrolled.
+	 * @param deltaX The number of pixels the origin moved horizontally.
+	 * @param deltaY The number of pixels the origin moved vertically.
+	 * @param scrolledArea The area of the ViewportLayer in NatTable coordinates whose content
+	 * 			moved by the given deltas, or <code>null</code> if the whole table needs to be repainted.
+	 */
+	public ScrollEvent(ViewportLayer viewportLayer, int deltaX, int deltaY, Rectangle scrolledArea) {
 		super(viewportLayer);
+		this.deltaX = deltaX;
+		this.deltaY = deltaY;
+		this.scrolledArea = scrolledArea;
 	}
 	
 	protected ScrollEvent(ScrollEvent event) {
 		super(event);
+		this.deltaX = event.deltaX;
+		this.deltaY = event.deltaY;
+		this.scrolledArea = event.scrolledArea;
 	}
 	
 	public ScrollEvent cloneEvent() {
@@ -40,5 +64,28 @@ public class ScrollEvent extends StructuralRefreshEvent {
 		// TODO this is bogus - should have a horiz/vert scroll event instead that are multi col/row structural changes
 		return null;
 	}
+
+	/**
+	 * @return The number of pixels the origin moved horizontally.
+	 */
+	public int getDeltaX() {
+		return deltaX;
+	}
+
+	/**
+	 * @return The number of pixels the origin moved vertically.
+	 */
+	public int getDeltaY() {
+		return deltaY;
+	}
+
+	/**
+	 * @return The area of the ViewportLayer in NatTable coordinates whose content moved
+	 * 			by the deltas, or <code>null</code> if the already rendered pixels can not
+	 * 			be reused and the whole table needs to be repainted.
+	 */
+	public Rectangle getScrolledArea() {
+		return scrolledArea;
+	}
 	
 }
@@ -0,0 +1,87 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Original authors and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Original authors and others - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.dataset.generator;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.eclipse.nebula.widgets.nattable.dataset.pricing.PricingDataBean;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ParallelDataGeneratorTest {
+
+	@Test
+	public void sameSeedGeneratesSameColumnsWithAnyParallelism() throws Exception {
+		double[] doubles = generator(42, 1).generateDoubles(100000, -10, 100);
+		int[] ints = generator(42, 1).generateInts(100000, 5, 10);
+
+		Assert.assertTrue(Arrays.equals(doubles, generator(42, 4).generateDoubles(100000, -10, 100)));
+		Assert.assertTrue(Arrays.equals(ints, generator(42, 4).generateInts(100000, 5, 10)));
+		Assert.assertFalse(Arrays.equals(doubles, generator(43, 4).generateDoubles(100000, -10, 100)));
+
+		for (int i = 0; i < doubles.length; i++) {
+			Assert.assertTrue(doubles[i] >= -10 && doubles[i] < 90);
+			Assert.assertTrue(ints[i] >= 5 && ints[i] < 15);
+		}
+	}
+
+	@Test
+	public void consecutiveColumnsAreIndependent() throws Exception {
+		ParallelDataGenerator generator = generator(42, 2);
+
+		Assert.assertFalse(Arrays.equals(generator.generateDoubles(1000, 0, 1), generator.generateDoubles(1000, 0, 1)));
+	}
+
+	@Test
+	public void sameSeedGeneratesSameBeansWithAnyParallelism() throws Exception {
+		List<PricingDataBean> beans = generator(7, 1).generateBeans(PricingDataBean.class, 5000);
+		List<PricingDataBean> parallelBeans = generator(7, 3).generateBeans(PricingDataBean.class, 5000);
+
+		Assert.assertEquals(5000, beans.size());
+		Assert.assertEquals(5000, parallelBeans.size());
+		for (int i = 0; i < beans.size(); i++) {
+			PricingDataBean bean = beans.get(i);
+			PricingDataBean parallelBean = parallelBeans.get(i);
+			// unique ids are derived from the row index
+			Assert.assertTrue(bean.getIsin().endsWith(String.valueOf(i)));
+			Assert.assertEquals(bean.getIsin(), parallelBean.getIsin());
+			Assert.assertEquals(bean.getBid(), parallelBean.getBid(), 0);
+			Assert.assertEquals(bean.getAsk(), parallelBean.getAsk(), 0);
+			Assert.assertEquals(bean.getBidAskType(), parallelBean.getBidAskType());
+			Assert.assertEquals(bean.getNativeTradingGroup(), parallelBean.getNativeTradingGroup());
+		}
+	}
+
+	@Test
+	public void customChunkGenerator() throws Exception {
+		final int[] rows = new int[10];
+		ParallelDataGenerator generator = generator(1, 4);
+		generator.setChunkSize(3);
+		generator.generate(rows.length, new IChunkGenerator() {
+			@Override
+			public void generate(int fromRow, int toRow, java.util.Random random) {
+				for (int i = fromRow; i < toRow; i++) {
+					rows[i] = fromRow;
+				}
+			}
+		});
+
+		Assert.assertTrue(Arrays.equals(new int[] { 0, 0, 0, 3, 3, 3, 6, 6, 6, 9 }, rows));
+	}
+
+	private ParallelDataGenerator generator(long seed, int parallelism) {
+		ParallelDataGenerator generator = new ParallelDataGenerator(seed);
+		generator.setParallelism(parallelism);
+		generator.setChunkSize(1000);
+		return generator;
+	}
+}
@@ -0,0 +1,145 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Original authors and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Original authors and others - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.dataset.pricing;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class MappedDelimitedFileParserTest {
+
+	private File file;
+
+	@Before
+	public void setup() throws IOException {
+		file = File.createTempFile("delimited", ".txt");
+	}
+
+	@After
+	public void tearDown() {
+		file.delete();
+	}
+
+	@Test
+	public void parseFields() throws Exception {
+		write("a\t1\t2.5\n\t \t\t\r\nb\t-3\t1e3\n");
+
+		List<String[]> rows = parse(1);
+
+		Assert.assertEquals(3, rows.size());
+		Assert.assertEquals("a|1|2.5|3", rows.get(0)[0]);
+		// empty fields are decoded as null or 0, trailing empty fields are counted
+		Assert.assertEquals("null|0|0.0|4", rows.get(1)[0]);
+		Assert.assertEquals("b|-3|1000.0|3", rows.get(2)[0]);
+	}
+
+	@Test
+	public void decodeMissingFieldsOfShortLineAsEmpty() throws Exception {
+		write("a\t1\t2.5\nb\n");
+
+		List<String[]> rows = parse(1);
+
+		Assert.assertEquals(2, rows.size());
+		// the fields of the previous line must not be returned for the short line
+		Assert.assertEquals("b|0|0.0|1", rows.get(1)[0]);
+	}
+
+	@Test
+	public void skipEmptyLinesAndMissingLastLineFeed() throws Exception {
+		write("a\t1\t1\n\n\r\nb\t2\t2");
+
+		List<String[]> rows = parse(1);
+
+		Assert.assertEquals(2, rows.size());
+		Assert.assertEquals("b|2|2.0|3", rows.get(1)[0]);
+	}
+
+	@Test
+	public void decodeDoublesLikeParseDouble() throws Exception {
+		String[] values = new String[] {
+				"0", "-0", "0.1", "99.125", "-1234.5678", "4.35", "0.000001", "1.7976931348623157E308",
+				"3.141592653589793238", "123456789012345678", "1e-5", "2.5E+10", "NaN", "-Infinity", " 7.5 " };
+		StringBuilder content = new StringBuilder();
+		for (String value : values) {
+			content.append(value).append('\n');
+		}
+		write(content.toString());
+
+		List<Double> parsed = new MappedDelimitedFileParser(file, '\t').parse(new IDelimitedRecordMapper<Double>() {
+			@Override
+			public Double map(DelimitedRecord record) {
+				return Double.valueOf(record.getDouble(0));
+			}
+		});
+
+		Assert.assertEquals(values.length, parsed.size());
+		for (int i = 0; i < values.length; i++) {
+			Assert.assertEquals(values[i], Double.valueOf(Double.parseDouble(values[i].trim())), parsed.get(i));
+		}
+	}
+
+	@Test
+	public void parallelParseKeepsOrder() throws Exception {
+		StringBuilder content = new StringBuilder();
+		for (int i = 0; i < 10000; i++) {
+			content.append("row").append(i).append('\t').append(i).append('\t').append(i / 4.0).append('\n');
+		}
+		write(content.toString());
+
+		MappedDelimitedFileParser parser = new MappedDelimitedFileParser(file, '\t');
+		parser.setParallelism(4);
+		parser.setMinChunkSize(1000);
+		List<String[]> rows = parse(parser);
+
+		Assert.assertEquals(10000, rows.size());
+		for (int i = 0; i < 10000; i++) {
+			Assert.assertEquals("row" + i + "|" + i + "|" + (i / 4.0) + "|3", rows.get(i)[0]);
+		}
+	}
+
+	@Test(expected = IOException.class)
+	public void invalidNumber() throws Exception {
+		write("a\tb\tc\n");
+		parse(1);
+	}
+
+	private void write(String content) throws IOException {
+		OutputStream out = new FileOutputStream(file);
+		try {
+			out.write(content.getBytes("UTF-8"));
+		} finally {
+			out.close();
+		}
+	}
+
+	private List<String[]> parse(int parallelism) throws IOException {
+		MappedDelimitedFileParser parser = new MappedDelimitedFileParser(file, '\t');
+		parser.setParallelism(parallelism);
+		return parse(parser);
+	}
+
+	private List<String[]> parse(MappedDelimitedFileParser parser) throws IOException {
+		return parser.parse(new IDelimitedRecordMapper<String[]>() {
+			@Override
+			public String[] map(DelimitedRecord record) {
+				return new String[] { record.getString(0) + "|" + record.getInt(1) + "|"
+						+ record.getDouble(2) + "|" + record.getFieldCount() };
+			}
+		});
+	}
+}
@@ -106,7 +106,7 @@ public class DataGenerator<T> {
 		}
 	}
 	
-	private static class ValueGeneratorFactory implements IValueGeneratorFactory {
+	static class ValueGeneratorFactory implements IValueGeneratorFactory {
 		public IValueGenerator createValueGenerator(Field field) throws InstantiationException, IllegalAccessException {
 			if (field.isAnnotationPresent(DataValueGenerator.class)) {
 				return new DataValueGeneratorFactory().createValueGenerator(field);
@@ -0,0 +1,30 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Original authors and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Original authors and others - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.dataset.generator;
+
+import java.util.Random;
+
+/**
+ * Generates the data for a range of rows. Called by the {@link ParallelDataGenerator}
+ * from several threads at the same time, for different ranges of rows.
+ */
+public interface IChunkGenerator {
+
+	/**
+	 * @param fromRow The index of the first row to generate.
+	 * @param toRow The index after the last row to generate.
+	 * @param random The random number generator of the chunk. It is seeded only by the seed
+	 * 			of the {@link ParallelDataGenerator} and the position of the chunk, so using it
+	 * 			in row order generates the same data in every run.
+	 * @throws GeneratorException If the data can't be generated.
+	 */
+	void generate(int fromRow, int toRow, Random random) throws GeneratorException;
+}
@@ -0,0 +1,28 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Original authors and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Original authors and others - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.dataset.generator;
+
+import java.util.Random;
+
+/**
+ * Value generator whose values depend on the index of the generated row, e.g. unique ids.
+ * The {@link ParallelDataGenerator} passes the row index, so the values don't depend on
+ * the order in which the rows are generated by the threads.
+ */
+public interface IIndexedValueGenerator extends IValueGenerator {
+
+	/**
+	 * @param rowIndex The index of the generated row.
+	 * @param random The random number generator of the chunk the row belongs to.
+	 * @return The generated value.
+	 */
+	Object newValue(long rowIndex, Random random);
+}
@@ -0,0 +1,296 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Original authors and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Original authors and others - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.dataset.generator;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Generator for big data sets, e.g. for reproducible performance tests with millions of rows.
+ * <p>
+ * The rows are split into chunks of a fixed size that are generated in parallel. Every chunk
+ * gets its own {@link Random}, which is seeded by the seed of this generator and the index
+ * of the chunk. So the same seed always generates the same data, no matter how many threads
+ * are used. Changing the chunk size changes the generated data.
+ * <p>
+ * Every call of a generate method continues with another stream of random numbers, so
+ * several columns generated one after the other are independent. The same sequence of
+ * calls on generators with the same seed generates the same data.
+ * <p>
+ * Beans are generated via the same annotations as used by the {@link DataGenerator}, but the
+ * setters are resolved only once per call and the value generators are created per chunk,
+ * so there is no locking between the threads. Values of an {@link IIndexedValueGenerator}
+ * are generated for the index of the row. For the biggest data sets the primitive columns
+ * should be preferred, as they don't create an object per value.
+ */
+public class ParallelDataGenerator {
+
+	/**
+	 * The default number of rows generated with the same {@link Random}.
+	 */
+	public static final int DEFAULT_CHUNK_SIZE = 64 * 1024;
+
+	/**
+	 * The increment of the Weyl sequence used to derive the seeds of the chunks.
+	 */
+	private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+
+	private final long seed;
+	private final AtomicLong stream = new AtomicLong();
+	private int parallelism = Runtime.getRuntime().availableProcessors();
+	private int chunkSize = DEFAULT_CHUNK_SIZE;
+
+	/**
+	 * @param seed The seed the generated data is derived from.
+	 */
+	public ParallelDataGenerator(long seed) {
+		this.seed = seed;
+	}
+
+	/**
+	 * @param parallelism The number of threads used to generate the data. 1 to generate the
+	 * 			data in the calling thread. Doesn't change the generated data.
+	 */
+	public void setParallelism(int parallelism) {
+		this.parallelism = Math.max(1, parallelism);
+	}
+
+	/**
+	 * @param chunkSize The number of rows generated with the same {@link Random}.
+	 * 			Changes the generated data.
+	 */
+	public void setChunkSize(int chunkSize) {
+		this.chunkSize = Math.max(1, chunkSize);
+	}
+
+	/**
+	 * Generates beans whose fields are annotated with {@link DataValueGenerator},
+	 * {@link GenerateDouble} or {@link GenerateListOfStrings}.
+	 * @param beanClass The class of the beans. Needs a default constructor and setters for
+	 * 			the annotated fields.
+	 * @param rowCount The number of beans to generate.
+	 * @return The generated beans. The list has a fixed size.
+	 * @throws GeneratorException If a bean can't be created.
+	 */
+	public <T> List<T> generateBeans(final Class<T> beanClass, int rowCount) throws GeneratorException {
+		@SuppressWarnings("unchecked")
+		final T[] rows = (T[]) new Object[rowCount];
+		final BeanTemplate<T> template = new BeanTemplate<T>(beanClass);
+		generate(rowCount, new IChunkGenerator() {
+			@Override
+			public void generate(int fromRow, int toRow, Random random) throws GeneratorException {
+				IValueGenerator[] generators = template.createValueGenerators();
+				for (int i = fromRow; i < toRow; i++) {
+					rows[i] = template.newBean(generators, i, random);
+				}
+			}
+		});
+		return Arrays.asList(rows);
+	}
+
+	/**
+	 * Generates a column of doubles such that: (floor) <= value < (floor + range)
+	 * @param rowCount The number of values to generate.
+	 * @param floor The minimum value.
+	 * @param range The size of the range of the values. Must be > 0.
+	 * @return The generated values.
+	 * @throws GeneratorException If the generation is interrupted.
+	 */
+	public double[] generateDoubles(int rowCount, final double floor, final double range) throws GeneratorException {
+		if (range <= 0) {
+			throw new IllegalArgumentException("Range must be > 0"); //$NON-NLS-1$
+		}
+		final double[] values = new double[rowCount];
+		generate(rowCount, new IChunkGenerator() {
+			@Override
+			public void generate(int fromRow, int toRow, Random random) {
+				for (int i = fromRow; i < toRow; i++) {
+					values[i] = floor + random.nextDouble() * range;
+				}
+			}
+		});
+		return values;
+	}
+
+	/**
+	 * Generates a column of integers such that: (floor) <= value < (floor + range)
+	 * @param rowCount The number of values to generate.
+	 * @param floor The minimum value.
+	 * @param range The size of the range of the values. Must be > 0.
+	 * @return The generated values.
+	 * @throws GeneratorException If the generation is interrupted.
+	 */
+	public int[] generateInts(int rowCount, final int floor, final int range) throws GeneratorException {
+		if (range <= 0) {
+			throw new IllegalArgumentException("Range must be > 0"); //$NON-NLS-1$
+		}
+		final int[] values = new int[rowCount];
+		generate(rowCount, new IChunkGenerator() {
+			@Override
+			public void generate(int fromRow, int toRow, Random random) {
+				for (int i = fromRow; i < toRow; i++) {
+					values[i] = floor + random.nextInt(range);
+				}
+			}
+		});
+		return values;
+	}
+
+	/**
+	 * Generates custom data, e.g. several columns at once, by calling the given generator
+	 * for all chunks of rows. Returns after all chunks are generated.
+	 * @param rowCount The number of rows to generate.
+	 * @param generator The generator that is called for the chunks.
+	 * @throws GeneratorException If a chunk can't be generated or the generation is interrupted.
+	 */
+	public void generate(int rowCount, final IChunkGenerator generator) throws GeneratorException {
+		if (rowCount < 0) {
+			throw new IllegalArgumentException("Row count must be >= 0"); //$NON-NLS-1$
+		}
+		final long streamSeed = mix(this.seed + this.stream.getAndIncrement() * GOLDEN_GAMMA);
+		final int chunkCount = (int) ((rowCount + (long) this.chunkSize - 1) / this.chunkSize);
+
+		if (chunkCount <= 1 || this.parallelism == 1) {
+			for (int chunk = 0; chunk < chunkCount; chunk++) {
+				generateChunk(generator, streamSeed, chunk, rowCount);
+			}
+			return;
+		}
+
+		ExecutorService executor = Executors.newFixedThreadPool(Math.min(this.parallelism, chunkCount));
+		try {
+			List<Future<Void>> futures = new ArrayList<Future<Void>>(chunkCount);
+			for (int i = 0; i < chunkCount; i++) {
+				final int chunk = i;
+				final int rows = rowCount;
+				futures.add(executor.submit(new Callable<Void>() {
+					@Override
+					public Void call() throws Exception {
+						generateChunk(generator, streamSeed, chunk, rows);
+						return null;
+					}
+				}));
+			}
+			for (Future<Void> future : futures) {
+				future.get();
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new GeneratorException(e);
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof GeneratorException) {
+				throw (GeneratorException) e.getCause();
+			}
+			if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			}
+			throw new GeneratorException(e);
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	private void generateChunk(IChunkGenerator generator, long streamSeed, int chunk, int rowCount) throws GeneratorException {
+		int fromRow = chunk * this.chunkSize;
+		int toRow = (int) Math.min(rowCount, (long) fromRow + this.chunkSize);
+		generator.generate(fromRow, toRow, new Random(mix(streamSeed + (chunk + 1) * GOLDEN_GAMMA)));
+	}
+
+	/**
+	 * Scrambles the bits of a value, so seeds that only differ by a few bits result in
+	 * unrelated sequences of random numbers. This is the finalizer of the SplitMix64
+	 * generator.
+	 */
+	private static long mix(long z) {
+		z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+		z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+		return z ^ (z >>> 31);
+	}
+
+	/**
+	 * The annotated fields of a bean class and their setters, resolved once for all beans.
+	 */
+	private static class BeanTemplate<T> {
+
+		private final Class<T> beanClass;
+		private final List<Field> fields = new ArrayList<Field>();
+		private final List<Method> setters = new ArrayList<Method>();
+
+		BeanTemplate(Class<T> beanClass) throws GeneratorException {
+			this.beanClass = beanClass;
+			try {
+				DataGenerator.ValueGeneratorFactory generatorFactory = new DataGenerator.ValueGeneratorFactory();
+				for (Field field : beanClass.getDeclaredFields()) {
+					if (generatorFactory.createValueGenerator(field) != null) {
+						String name = field.getName();
+						this.fields.add(field);
+						this.setters.add(beanClass.getDeclaredMethod("set" + name.substring(0, 1).toUpperCase() + name.substring(1), field.getType())); //$NON-NLS-1$
+					}
+				}
+			} catch (InstantiationException e) {
+				throw new GeneratorException(e);
+			} catch (IllegalAccessException e) {
+				throw new GeneratorException(e);
+			} catch (NoSuchMethodException e) {
+				throw new GeneratorException(e);
+			}
+		}
+
+		/**
+		 * Value generators may not be thread safe, so they are created for every chunk.
+		 */
+		IValueGenerator[] createValueGenerators() throws GeneratorException {
+			DataGenerator.ValueGeneratorFactory generatorFactory = new DataGenerator.ValueGeneratorFactory();
+			IValueGenerator[] generators = new IValueGenerator[this.fields.size()];
+			try {
+				for (int i = 0; i < generators.length; i++) {
+					generators[i] = generatorFactory.createValueGenerator(this.fields.get(i));
+				}
+			} catch (InstantiationException e) {
+				throw new GeneratorException(e);
+			} catch (IllegalAccessException e) {
+				throw new GeneratorException(e);
+			}
+			return generators;
+		}
+
+		T newBean(IValueGenerator[] generators, long rowIndex, Random random) throws GeneratorException {
+			try {
+				T bean = this.beanClass.newInstance();
+				for (int i = 0; i < generators.length; i++) {
+					IValueGenerator generator = generators[i];
+					Object value = generator instanceof IIndexedValueGenerator
+							? ((IIndexedValueGenerator) generator).newValue(rowIndex, random)
+							: generator.newValue(random);
+					this.setters.get(i).invoke(bean, value);
+				}
+				return bean;
+			} catch (InstantiationException e) {
+				throw new GeneratorException(e);
+			} catch (IllegalAccessException e) {
+				throw new GeneratorException(e);
+			} catch (InvocationTargetException e) {
+				throw new GeneratorException(e);
+			}
+		}
+	}
+}
@@ -0,0 +1,308 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Original authors and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Original authors and others - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.dataset.pricing;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+
+/**
+ * One line of a delimited file, as it is passed to an {@link IDelimitedRecordMapper} by
+ * the {@link MappedDelimitedFileParser}. The fields are not copied out of the file buffer;
+ * only their offsets are known. Numeric fields are decoded directly to primitives, only
+ * {@link #getString(int)} creates objects.
+ * <p>
+ * Empty fields and fields that only contain blanks are decoded as 0 or <code>null</code>.
+ * Fields that are missing because a line is too short are decoded the same way.
+ * A record is reused for all lines of a chunk, so it must not be kept by the mapper.
+ */
+public class DelimitedRecord {
+
+	private static final double[] POWERS_OF_TEN = {
+		1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+		1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+	};
+
+	/**
+	 * Doubles can represent all integers up to 2^53 exactly.
+	 */
+	private static final long MAX_EXACT_MANTISSA = 1L << 53;
+
+	private final Charset charset;
+
+	private ByteBuffer buffer;
+	private int fieldCount;
+	private int[] fieldStarts = new int[32];
+	private int[] fieldEnds = new int[32];
+	private byte[] scratch = new byte[256];
+
+	DelimitedRecord(Charset charset) {
+		this.charset = charset;
+	}
+
+	/**
+	 * Splits the line between the given offsets of the buffer into fields.
+	 * @param buffer The buffer containing the line.
+	 * @param start The offset of the first character of the line.
+	 * @param end The offset after the last character of the line, without line delimiter.
+	 * @param delimiter The field delimiter.
+	 */
+	void reset(ByteBuffer buffer, int start, int end, byte delimiter) {
+		this.buffer = buffer;
+		this.fieldCount = 0;
+		int fieldStart = start;
+		for (int i = start; i < end; i++) {
+			if (buffer.get(i) == delimiter) {
+				addField(fieldStart, i);
+				fieldStart = i + 1;
+			}
+		}
+		addField(fieldStart, end);
+	}
+
+	private void addField(int start, int end) {
+		if (this.fieldCount == this.fieldStarts.length) {
+			int[] newStarts = new int[this.fieldCount * 2];
+			int[] newEnds = new int[this.fieldCount * 2];
+			System.arraycopy(this.fieldStarts, 0, newStarts, 0, this.fieldCount);
+			System.arraycopy(this.fieldEnds, 0, newEnds, 0, this.fieldCount);
+			this.fieldStarts = newStarts;
+			this.fieldEnds = newEnds;
+		}
+		this.fieldStarts[this.fieldCount] = start;
+		this.fieldEnds[this.fieldCount] = end;
+		this.fieldCount++;
+	}
+
+	/**
+	 * @return The number of fields of this record. Empty fields are counted too.
+	 */
+	public int getFieldCount() {
+		return this.fieldCount;
+	}
+
+	/**
+	 * @param field The index of the field.
+	 * @return <code>true</code> if the field is empty, only contains blanks or is missing.
+	 */
+	public boolean isEmpty(int field) {
+		return trimmedStart(field) >= trimmedEnd(field);
+	}
+
+	/**
+	 * @param field The index of the field.
+	 * @return The content of the field, or <code>null</code> if the field is empty or
+	 * 			only contains blanks.
+	 */
+	public String getString(int field) {
+		if (trimmedStart(field) >= trimmedEnd(field)) {
+			return null;
+		}
+		int start = this.fieldStarts[field];
+		int end = this.fieldEnds[field];
+		int length = end - start;
+		if (this.scratch.length < length) {
+			this.scratch = new byte[Math.max(length, this.scratch.length * 2)];
+		}
+		for (int i = 0; i < length; i++) {
+			this.scratch[i] = this.buffer.get(start + i);
+		}
+		return new String(this.scratch, 0, length, this.charset);
+	}
+
+	/**
+	 * @param field The index of the field.
+	 * @return The value of the field, or 0 if the field is empty or only contains blanks.
+	 * @throws NumberFormatException If the field doesn't contain an integer.
+	 */
+	public int getInt(int field) {
+		long value = getLong(field);
+		if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+			throw new NumberFormatException("Value out of int range: " + getString(field)); //$NON-NLS-1$
+		}
+		return (int) value;
+	}
+
+	/**
+	 * @param field The index of the field.
+	 * @return The value of the field, or 0 if the field is empty or only contains blanks.
+	 * @throws NumberFormatException If the field doesn't contain an integer.
+	 */
+	public long getLong(int field) {
+		int start = trimmedStart(field);
+		int end = trimmedEnd(field);
+		if (start >= end) {
+			return 0;
+		}
+
+		boolean negative = false;
+		byte first = this.buffer.get(start);
+		if (first == '-' || first == '+') {
+			negative = first == '-';
+			start++;
+		}
+		if (start >= end || end - start > 18) {
+			// no digits, or too many digits to be accumulated without overflow
+			return Long.parseLong(getString(field).trim());
+		}
+
+		long value = 0;
+		for (int i = start; i < end; i++) {
+			int digit = this.buffer.get(i) - '0';
+			if (digit < 0 || digit > 9) {
+				throw new NumberFormatException("Not an integer: " + getString(field)); //$NON-NLS-1$
+			}
+			value = value * 10 + digit;
+		}
+		return negative ? -value : value;
+	}
+
+	/**
+	 * Decodes the field to a double. Values with up to 15 significant digits and a
+	 * small exponent are decoded directly from the bytes with the same result as
+	 * {@link Double#parseDouble(String)}, all other values are decoded via
+	 * {@link Double#parseDouble(String)}.
+	 * @param field The index of the field.
+	 * @return The value of the field, or 0 if the field is empty or only contains blanks.
+	 * @throws NumberFormatException If the field doesn't contain a number.
+	 */
+	public double getDouble(int field) {
+		int start = trimmedStart(field);
+		int end = trimmedEnd(field);
+		if (start >= end) {
+			return 0;
+		}
+
+		int i = start;
+		boolean negative = false;
+		byte b = this.buffer.get(i);
+		if (b == '-' || b == '+') {
+			negative = b == '-';
+			i++;
+		}
+
+		long mantissa = 0;
+		boolean hasDigits = false;
+		int digits = 0;
+		int fractionDigits = 0;
+		boolean fraction = false;
+		int exponent = 0;
+		for (; i < end; i++) {
+			b = this.buffer.get(i);
+			if (b >= '0' && b <= '9') {
+				hasDigits = true;
+				if (mantissa > 0 || b != '0') {
+					digits++;
+				}
+				mantissa = mantissa * 10 + (b - '0');
+				if (fraction) {
+					fractionDigits++;
+				}
+				if (digits > 15) {
+					return parseDoubleSlow(field);
+				}
+			} else if (b == '.' && !fraction) {
+				fraction = true;
+			} else if ((b == 'e' || b == 'E') && i + 1 < end) {
+				long parsedExponent = parseExponent(i + 1, end);
+				if (parsedExponent == Long.MIN_VALUE) {
+					return parseDoubleSlow(field);
+				}
+				exponent = (int) parsedExponent;
+				break;
+			} else {
+				// special values like NaN or Infinity, or invalid content
+				return parseDoubleSlow(field);
+			}
+		}
+
+		if (!hasDigits) {
+			return parseDoubleSlow(field);
+		}
+
+		exponent -= fractionDigits;
+		double value;
+		if (mantissa == 0) {
+			value = 0;
+		} else if (mantissa < MAX_EXACT_MANTISSA && exponent >= 0 && exponent < POWERS_OF_TEN.length) {
+			// both operands are exact, so the result of the single operation is correctly rounded
+			value = mantissa * POWERS_OF_TEN[exponent];
+		} else if (mantissa < MAX_EXACT_MANTISSA && exponent < 0 && -exponent < POWERS_OF_TEN.length) {
+			value = mantissa / POWERS_OF_TEN[-exponent];
+		} else {
+			return parseDoubleSlow(field);
+		}
+		return negative ? -value : value;
+	}
+
+	/**
+	 * @return The exponent, or Long.MIN_VALUE if it can't be decoded or is too big.
+	 */
+	private long parseExponent(int start, int end) {
+		boolean negative = false;
+		byte b = this.buffer.get(start);
+		if (b == '-' || b == '+') {
+			negative = b == '-';
+			start++;
+		}
+		if (start >= end || end - start > 3) {
+			return Long.MIN_VALUE;
+		}
+		long exponent = 0;
+		for (int i = start; i < end; i++) {
+			int digit = this.buffer.get(i) - '0';
+			if (digit < 0 || digit > 9) {
+				return Long.MIN_VALUE;
+			}
+			exponent = exponent * 10 + digit;
+		}
+		return negative ? -exponent : exponent;
+	}
+
+	private double parseDoubleSlow(int field) {
+		return Double.parseDouble(getString(field).trim());
+	}
+
+	/**
+	 * @return The offset of the first non blank character of the field, or 0 for a missing
+	 * 			field, as the offsets of previous lines are still contained in the arrays.
+	 */
+	private int trimmedStart(int field) {
+		if (field >= this.fieldCount) {
+			return 0;
+		}
+		int start = this.fieldStarts[field];
+		int end = this.fieldEnds[field];
+		while (start < end && isBlank(this.buffer.get(start))) {
+			start++;
+		}
+		return start;
+	}
+
+	/**
+	 * @return The offset after the last non blank character of the field, or 0 for a
+	 * 			missing field.
+	 */
+	private int trimmedEnd(int field) {
+		if (field >= this.fieldCount) {
+			return 0;
+		}
+		int start = this.fieldStarts[field];
+		int end = this.fieldEnds[field];
+		while (end > start && isBlank(this.buffer.get(end - 1))) {
+			end--;
+		}
+		return end;
+	}
+
+	private static boolean isBlank(byte b) {
+		return b == ' ' || b == '\t';
+	}
+}
@@ -0,0 +1,29 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Original authors and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Original authors and others - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.dataset.pricing;
+
+/**
+ * Creates the row objects out of the lines parsed by the {@link MappedDelimitedFileParser}.
+ * Implementations are called concurrently for different parts of the file, so they
+ * need to be thread safe.
+ *
+ * @param <T> The type of the row objects.
+ */
+public interface IDelimitedRecordMapper<T> {
+
+	/**
+	 * @param record The current line of the file. Only valid during this call.
+	 * @return The row object for the given line, or <code>null</code> if the line
+	 * 			should be skipped.
+	 */
+	T map(DelimitedRecord record);
+
+}
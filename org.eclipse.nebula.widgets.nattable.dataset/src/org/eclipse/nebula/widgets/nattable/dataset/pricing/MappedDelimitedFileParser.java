@@ -0,0 +1,250 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Original authors and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Original authors and others - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.dataset.pricing;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Parser for big delimited files, e.g. tab delimited pricing snapshots.
+ * <p>
+ * The file is split into chunks at line boundaries, which are memory mapped and parsed
+ * in parallel. The lines are tokenized directly on the mapped bytes, and the fields are
+ * decoded by the {@link IDelimitedRecordMapper} via a {@link DelimitedRecord}, without
+ * creating intermediate String objects for numeric fields. The row objects are returned
+ * in the order of the lines in the file.
+ * <p>
+ * Lines may be terminated by \n or \r\n. Empty lines are skipped. Quoting of delimiters
+ * is not supported. The charset needs to be ASCII compatible, e.g. UTF-8 or ISO-8859-1.
+ */
+public class MappedDelimitedFileParser {
+
+	/**
+	 * The maximum size of a chunk, as a mapped buffer is limited to 2GB.
+	 */
+	private static final long MAX_CHUNK_SIZE = Integer.MAX_VALUE / 2;
+
+	/**
+	 * The default minimum size of a chunk, so small files are not split into many tiny chunks.
+	 */
+	public static final long DEFAULT_MIN_CHUNK_SIZE = 1024 * 1024;
+
+	private final File file;
+	private final byte delimiter;
+	private final Charset charset;
+	private int parallelism = Runtime.getRuntime().availableProcessors();
+	private long minChunkSize = DEFAULT_MIN_CHUNK_SIZE;
+
+	/**
+	 * Creates a parser that decodes String fields as UTF-8.
+	 * @param file The file to parse.
+	 * @param delimiter The field delimiter, e.g. a tab.
+	 */
+	public MappedDelimitedFileParser(File file, char delimiter) {
+		this(file, delimiter, Charset.forName("UTF-8")); //$NON-NLS-1$
+	}
+
+	/**
+	 * @param file The file to parse.
+	 * @param delimiter The field delimiter, e.g. a tab. Needs to be an ASCII character.
+	 * @param charset The charset used to decode String fields.
+	 */
+	public MappedDelimitedFileParser(File file, char delimiter, Charset charset) {
+		if (delimiter > 127) {
+			throw new IllegalArgumentException("The delimiter needs to be an ASCII character"); //$NON-NLS-1$
+		}
+		this.file = file;
+		this.delimiter = (byte) delimiter;
+		this.charset = charset;
+	}
+
+	/**
+	 * @param parallelism The number of threads used to parse the file. 1 to parse the file
+	 * 			in the calling thread.
+	 */
+	public void setParallelism(int parallelism) {
+		this.parallelism = Math.max(1, parallelism);
+	}
+
+	/**
+	 * @param minChunkSize The minimum number of bytes parsed by one thread.
+	 */
+	public void setMinChunkSize(long minChunkSize) {
+		this.minChunkSize = Math.max(1, minChunkSize);
+	}
+
+	/**
+	 * Parses the file.
+	 * @param mapper The mapper that creates the row objects out of the lines.
+	 * @return The row objects in the order of the lines in the file.
+	 * @throws IOException If reading the file fails or a line can't be mapped.
+	 */
+	public <T> List<T> parse(final IDelimitedRecordMapper<T> mapper) throws IOException {
+		RandomAccessFile randomAccessFile = new RandomAccessFile(this.file, "r"); //$NON-NLS-1$
+		try {
+			final FileChannel channel = randomAccessFile.getChannel();
+			long[] boundaries = getChunkBoundaries(channel);
+			int chunkCount = boundaries.length - 1;
+
+			if (chunkCount == 1 || this.parallelism == 1) {
+				List<T> result = new ArrayList<T>();
+				for (int i = 0; i < chunkCount; i++) {
+					parseChunk(channel, boundaries[i], boundaries[i + 1], mapper, result);
+				}
+				return result;
+			}
+
+			ExecutorService executor = Executors.newFixedThreadPool(Math.min(this.parallelism, chunkCount));
+			try {
+				List<Future<List<T>>> futures = new ArrayList<Future<List<T>>>(chunkCount);
+				for (int i = 0; i < chunkCount; i++) {
+					final long start = boundaries[i];
+					final long end = boundaries[i + 1];
+					futures.add(executor.submit(new Callable<List<T>>() {
+						@Override
+						public List<T> call() throws Exception {
+							List<T> chunkResult = new ArrayList<T>();
+							parseChunk(channel, start, end, mapper, chunkResult);
+							return chunkResult;
+						}
+					}));
+				}
+
+				List<List<T>> chunkResults = new ArrayList<List<T>>(chunkCount);
+				int size = 0;
+				for (Future<List<T>> future : futures) {
+					List<T> chunkResult = future.get();
+					chunkResults.add(chunkResult);
+					size += chunkResult.size();
+				}
+				List<T> result = new ArrayList<T>(size);
+				for (List<T> chunkResult : chunkResults) {
+					result.addAll(chunkResult);
+				}
+				return result;
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new IOException("Interrupted while parsing " + this.file); //$NON-NLS-1$
+			} catch (ExecutionException e) {
+				if (e.getCause() instanceof IOException) {
+					throw (IOException) e.getCause();
+				}
+				throw new IOException("Failed to parse " + this.file, e.getCause()); //$NON-NLS-1$
+			} finally {
+				executor.shutdownNow();
+			}
+		} finally {
+			randomAccessFile.close();
+		}
+	}
+
+	/**
+	 * Splits the file into chunks that start at the beginning of a line.
+	 * @return The start offsets of the chunks, followed by the size of the file.
+	 */
+	private long[] getChunkBoundaries(FileChannel channel) throws IOException {
+		long size = channel.size();
+		// several chunks per thread for load balancing, but enough chunks to respect the
+		// maximum chunk size
+		long chunkCount = Math.min(this.parallelism * 4L, size / this.minChunkSize);
+		chunkCount = Math.max(chunkCount, (size + MAX_CHUNK_SIZE - 1) / MAX_CHUNK_SIZE);
+		chunkCount = Math.max(1, chunkCount);
+
+		List<Long> boundaries = new ArrayList<Long>();
+		boundaries.add(Long.valueOf(0));
+		ByteBuffer buffer = ByteBuffer.allocate(4096);
+		for (long i = 1; i < chunkCount; i++) {
+			long position = findLineStart(channel, Math.max(i * size / chunkCount, boundaries.get(boundaries.size() - 1)), size, buffer);
+			if (position > boundaries.get(boundaries.size() - 1) && position < size) {
+				boundaries.add(Long.valueOf(position));
+			}
+		}
+		boundaries.add(Long.valueOf(size));
+
+		long[] result = new long[boundaries.size()];
+		for (int i = 0; i < result.length; i++) {
+			result[i] = boundaries.get(i);
+		}
+		return result;
+	}
+
+	/**
+	 * @return The offset after the first line feed at or after the given position, or the
+	 * 			size of the file if there is none.
+	 */
+	private long findLineStart(FileChannel channel, long position, long size, ByteBuffer buffer) throws IOException {
+		while (position < size) {
+			buffer.clear();
+			int read = channel.read(buffer, position);
+			if (read <= 0) {
+				break;
+			}
+			for (int i = 0; i < read; i++) {
+				if (buffer.get(i) == '\n') {
+					return position + i + 1;
+				}
+			}
+			position += read;
+		}
+		return size;
+	}
+
+	private <T> void parseChunk(FileChannel channel, long start, long end,
+			IDelimitedRecordMapper<T> mapper, List<T> result) throws IOException {
+		if (end <= start) {
+			return;
+		}
+		if (end - start > Integer.MAX_VALUE) {
+			throw new IOException("Line too long in " + this.file); //$NON-NLS-1$
+		}
+
+		MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+		DelimitedRecord record = new DelimitedRecord(this.charset);
+		int limit = buffer.limit();
+		int lineStart = 0;
+		while (lineStart < limit) {
+			int lineEnd = lineStart;
+			while (lineEnd < limit && buffer.get(lineEnd) != '\n') {
+				lineEnd++;
+			}
+			int nextLineStart = lineEnd + 1;
+			if (lineEnd > lineStart && buffer.get(lineEnd - 1) == '\r') {
+				lineEnd--;
+			}
+
+			if (lineEnd > lineStart) {
+				record.reset(buffer, lineStart, lineEnd, this.delimiter);
+				T row;
+				try {
+					row = mapper.map(record);
+				} catch (RuntimeException e) {
+					throw new IOException("Failed to parse line at offset " + (start + lineStart) + " in " + this.file, e); //$NON-NLS-1$ //$NON-NLS-2$
+				}
+				if (row != null) {
+					result.add(row);
+				}
+			}
+			lineStart = nextLineStart;
+		}
+	}
+}
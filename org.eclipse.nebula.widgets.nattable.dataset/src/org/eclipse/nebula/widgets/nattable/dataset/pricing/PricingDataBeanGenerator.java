@@ -15,6 +15,7 @@ import java.util.List;
 
 import org.eclipse.nebula.widgets.nattable.dataset.generator.DataGenerator;
 import org.eclipse.nebula.widgets.nattable.dataset.generator.GeneratorException;
+import org.eclipse.nebula.widgets.nattable.dataset.generator.ParallelDataGenerator;
 
 
 public class PricingDataBeanGenerator {
@@ -36,4 +37,19 @@ public class PricingDataBeanGenerator {
 		}
 		return beans;
 	}
+
+	/**
+	 * Generates the beans in parallel. The same seed always generates the same beans.
+	 * @param num The number of beans to generate.
+	 * @param seed The seed the beans are derived from.
+	 * @return The generated beans.
+	 */
+	public static List<PricingDataBean> getData(int num, long seed) {
+		try {
+			return new ArrayList<PricingDataBean>(
+					new ParallelDataGenerator(seed).generateBeans(PricingDataBean.class, num));
+		} catch (GeneratorException e) {
+			throw new RuntimeException(e);
+		}
+	}
 }
@@ -11,6 +11,7 @@
 package org.eclipse.nebula.widgets.nattable.dataset.pricing;
 
 import java.io.BufferedReader;
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.util.ArrayList;
@@ -32,6 +33,20 @@ public class PricingDataFileLoader<T> {
 		return data;
 	}
 
+	/**
+	 * Loads the pricing data from the given tab delimited file, with the columns in the
+	 * same order as in the bundled pricing data. The file is memory mapped and parsed in
+	 * parallel, so this is the preferred way to load big files.
+	 * @param file The tab delimited file to load.
+	 * @return The loaded pricing data in the order of the file.
+	 * @throws IOException If reading the file fails.
+	 */
+	@SuppressWarnings("unchecked")
+	public List<T> loadDataFromFile(File file) throws IOException {
+		MappedDelimitedFileParser parser = new MappedDelimitedFileParser(file, '\t');
+		return (List<T>) parser.parse(new PricingDataBeanMapper());
+	}
+
 	@SuppressWarnings("unchecked")
 	public void parseTabDelimitedLine(StringTokenizer tabs, List<T> data) {
 		while (tabs.hasMoreElements()) {
@@ -101,17 +116,47 @@ public class PricingDataFileLoader<T> {
 	}
 
 	private int extractIntFromToken(String token) {
-		System.out.println("int: " + token);
 		return token.trim().equals("") || token.trim().equals("\t") ? 0 : Integer.parseInt(token);
 	}
 
 	private double extractDoubleFromToken(String token) {
-		System.out.println("double: " + token);
 		return token.trim().equals("") || token.trim().equals("\t") ? 0 : Double.parseDouble(token);
 	}
 
 	private String extractStringFromToken(String token) {
-		System.out.println("string: " + token);
 		return token == null || (token.trim().equals("") || token.trim().equals("\t")) ? null : token;
 	}
+
+	/**
+	 * Creates the {@link PricingDataBean}s out of the lines of a tab delimited file.
+	 */
+	private static class PricingDataBeanMapper implements IDelimitedRecordMapper<PricingDataBean> {
+
+		@Override
+		public PricingDataBean map(DelimitedRecord record) {
+			PricingDataBean bean = new PricingDataBean();
+			bean.setIsin(record.getString(0));
+
+			bean.setBid(record.getDouble(1));
+			bean.setAsk(record.getDouble(2));
+			bean.setBidYield(record.getDouble(3));
+			bean.setAskYield(record.getDouble(4));
+			bean.setBidSpread(record.getDouble(5));
+			bean.setAskSpread(record.getDouble(6));
+			bean.setBidOverAsk(record.getDouble(7));
+			bean.setBidOverAskP(record.getDouble(8));
+			bean.setBidAskType(record.getString(9));
+
+			bean.setPricingModel(record.getString(10));
+			bean.setBaseIssue(record.getString(11));
+
+			bean.setAlias(record.getString(12));
+			bean.setErrorMessage(record.getString(13));
+			bean.setErrorSeverity(record.getInt(14));
+			bean.setPricingSource(record.getString(15));
+			bean.setSecurityType(record.getString(16));
+			bean.setComments(record.getFieldCount() > 17 ? record.getString(17) : null);
+			return bean;
+		}
+	}
 }
@@ -29,7 +29,14 @@ public class IsinValueGenerator extends UniqueLongValueGenerator {
 	
 	@Override
 	public Object newValue(Random random) {
-		return prefixes[random.nextInt(prefixes.length)] + format.format(super.newValue(random));
+		String prefix = prefixes[random.nextInt(prefixes.length)];
+		return prefix + format.format(super.newValue(random));
+	}
+
+	@Override
+	public Object newValue(long rowIndex, Random random) {
+		String prefix = prefixes[random.nextInt(prefixes.length)];
+		return prefix + format.format(super.newValue(rowIndex, random));
 	}
 
 }
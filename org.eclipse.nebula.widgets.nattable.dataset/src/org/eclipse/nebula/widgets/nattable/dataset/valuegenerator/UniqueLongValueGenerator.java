@@ -11,16 +11,21 @@
 package org.eclipse.nebula.widgets.nattable.dataset.valuegenerator;
 
 import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
 
-import org.eclipse.nebula.widgets.nattable.dataset.generator.IValueGenerator;
+import org.eclipse.nebula.widgets.nattable.dataset.generator.IIndexedValueGenerator;
 
 
-public class UniqueLongValueGenerator implements IValueGenerator {
+public class UniqueLongValueGenerator implements IIndexedValueGenerator {
 
-	private static long value = 0;
+	private static final AtomicLong value = new AtomicLong();
 	
 	public Object newValue(Random random) {
-		return Long.valueOf(value++);
+		return Long.valueOf(value.getAndIncrement());
+	}
+
+	public Object newValue(long rowIndex, Random random) {
+		return Long.valueOf(rowIndex);
 	}
 
 }
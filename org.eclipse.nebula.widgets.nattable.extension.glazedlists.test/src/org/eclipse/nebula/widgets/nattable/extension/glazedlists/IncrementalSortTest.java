@@ -0,0 +1,157 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Original authors and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Original authors and others - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.extension.glazedlists;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.beans.PropertyChangeEvent;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.nebula.widgets.nattable.config.ConfigRegistry;
+import org.eclipse.nebula.widgets.nattable.config.DefaultComparator;
+import org.eclipse.nebula.widgets.nattable.data.IColumnPropertyAccessor;
+import org.eclipse.nebula.widgets.nattable.data.ListDataProvider;
+import org.eclipse.nebula.widgets.nattable.data.ReflectiveColumnPropertyAccessor;
+import org.eclipse.nebula.widgets.nattable.edit.command.UpdateDataCommand;
+import org.eclipse.nebula.widgets.nattable.grid.data.DefaultColumnHeaderDataProvider;
+import org.eclipse.nebula.widgets.nattable.grid.layer.DefaultColumnHeaderDataLayer;
+import org.eclipse.nebula.widgets.nattable.layer.DataLayer;
+import org.eclipse.nebula.widgets.nattable.layer.event.RowDeleteEvent;
+import org.eclipse.nebula.widgets.nattable.layer.event.RowInsertEvent;
+import org.eclipse.nebula.widgets.nattable.layer.event.RowStructuralRefreshEvent;
+import org.eclipse.nebula.widgets.nattable.selection.SelectionLayer;
+import org.eclipse.nebula.widgets.nattable.selection.event.CellSelectionEvent;
+import org.eclipse.nebula.widgets.nattable.sort.IncrementalSortListener;
+import org.eclipse.nebula.widgets.nattable.sort.SortConfigAttributes;
+import org.eclipse.nebula.widgets.nattable.sort.SortDirectionEnum;
+import org.eclipse.nebula.widgets.nattable.sort.SortHeaderLayer;
+import org.eclipse.nebula.widgets.nattable.test.fixture.data.RowDataFixture;
+import org.eclipse.nebula.widgets.nattable.test.fixture.data.RowDataListFixture;
+import org.eclipse.nebula.widgets.nattable.test.fixture.layer.LayerListenerFixture;
+import org.junit.Before;
+import org.junit.Test;
+
+import ca.odell.glazedlists.EventList;
+import ca.odell.glazedlists.GlazedLists;
+import ca.odell.glazedlists.SortedList;
+
+public class IncrementalSortTest {
+
+	private static final int BID_PRICE = 5;
+
+	private SortedList<RowDataFixture> sortedList;
+	private GlazedListsSortModel<RowDataFixture> sortModel;
+	private DataLayer bodyDataLayer;
+	private GlazedListsEventLayer<RowDataFixture> eventLayer;
+	private LayerListenerFixture listenerFixture;
+	private IncrementalSortListener<RowDataFixture> sortListener;
+	private List<Integer> rowIndexHints;
+
+	@Before
+	public void setup() {
+		EventList<RowDataFixture> eventList = GlazedLists.eventList(RowDataListFixture.getList());
+		sortedList = new SortedList<RowDataFixture>(eventList, null);
+
+		IColumnPropertyAccessor<RowDataFixture> columnPropertyAccessor =
+				new ReflectiveColumnPropertyAccessor<RowDataFixture>(RowDataListFixture.getPropertyNames());
+		ListDataProvider<RowDataFixture> bodyDataProvider =
+				new ListDataProvider<RowDataFixture>(sortedList, columnPropertyAccessor);
+		bodyDataLayer = new DataLayer(bodyDataProvider);
+		eventLayer = new GlazedListsEventLayer<RowDataFixture>(bodyDataLayer, sortedList);
+		eventLayer.setTestMode(true);
+		eventLayer.setExactRowEvents(true);
+
+		ConfigRegistry configRegistry = new ConfigRegistry();
+		configRegistry.registerConfigAttribute(SortConfigAttributes.SORT_COMPARATOR, new DefaultComparator());
+		DataLayer columnHeaderDataLayer = new DefaultColumnHeaderDataLayer(
+				new DefaultColumnHeaderDataProvider(RowDataListFixture.getPropertyNames()));
+		rowIndexHints = new ArrayList<Integer>();
+		sortModel = new GlazedListsSortModel<RowDataFixture>(
+				sortedList, columnPropertyAccessor, configRegistry, columnHeaderDataLayer) {
+			@Override
+			public void updateSortPosition(List<?> rowObjects, int[] hints) {
+				for (int hint : hints) {
+					rowIndexHints.add(hint);
+				}
+				super.updateSortPosition(rowObjects, hints);
+			}
+		};
+		SortHeaderLayer<RowDataFixture> sortHeaderLayer =
+				new SortHeaderLayer<RowDataFixture>(columnHeaderDataLayer, sortModel, false);
+		sortListener = sortHeaderLayer.enableIncrementalSorting(eventLayer, bodyDataProvider, columnPropertyAccessor);
+		assertTrue(sortListener.isThrottled());
+		sortListener.setThrottled(false);
+
+		sortModel.sort(BID_PRICE, SortDirectionEnum.ASC, false);
+
+		listenerFixture = new LayerListenerFixture();
+		eventLayer.addLayerListener(listenerFixture);
+	}
+
+	@Test
+	public void shouldRelocateRowOnPropertyUpdate() {
+		RowDataFixture rowObject = sortedList.get(2);
+		double oldValue = rowObject.getBid_price();
+		rowObject.setBid_price(1000);
+		eventLayer.propertyChange(new PropertyChangeEvent(rowObject, "bid_price", oldValue, 1000d));
+
+		assertSame(rowObject, sortedList.get(sortedList.size() - 1));
+		assertSortedByBidPrice();
+		assertTrue(listenerFixture.containsInstanceOf(RowDeleteEvent.class));
+		assertTrue(listenerFixture.containsInstanceOf(RowInsertEvent.class));
+		assertFalse(listenerFixture.containsInstanceOf(RowStructuralRefreshEvent.class));
+	}
+
+	@Test
+	public void shouldRelocateRowOnUpdateDataCommand() {
+		RowDataFixture rowObject = sortedList.get(sortedList.size() - 1);
+		bodyDataLayer.doCommand(new UpdateDataCommand(bodyDataLayer, BID_PRICE, sortedList.size() - 1, 0.5d));
+
+		assertSame(rowObject, sortedList.get(0));
+		assertSortedByBidPrice();
+		assertEquals(0.5d, rowObject.getBid_price(), 0);
+		// the row index of the cell event is passed as position hint
+		assertEquals(1, rowIndexHints.size());
+		assertEquals(sortedList.size() - 1, rowIndexHints.get(0).intValue());
+	}
+
+	@Test
+	public void shouldIgnoreSelectionEvents() {
+		RowDataFixture rowObject = sortedList.get(2);
+		rowObject.setBid_price(1000);
+
+		SelectionLayer selectionLayer = new SelectionLayer(eventLayer);
+		sortListener.handleLayerEvent(new CellSelectionEvent(selectionLayer, BID_PRICE, 2, false, false));
+
+		assertSame(rowObject, sortedList.get(2));
+		assertTrue(rowIndexHints.isEmpty());
+	}
+
+	@Test
+	public void shouldIgnoreUnsortedColumns() {
+		RowDataFixture rowObject = sortedList.get(2);
+		rowObject.setRating("ZZZ");
+		eventLayer.propertyChange(new PropertyChangeEvent(rowObject, "rating", "A", "ZZZ"));
+
+		assertSame(rowObject, sortedList.get(2));
+		assertFalse(listenerFixture.containsInstanceOf(RowDeleteEvent.class));
+	}
+
+	private void assertSortedByBidPrice() {
+		for (int i = 1; i < sortedList.size(); i++) {
+			assertTrue(sortedList.get(i - 1).getBid_price() <= sortedList.get(i).getBid_price());
+		}
+	}
+}
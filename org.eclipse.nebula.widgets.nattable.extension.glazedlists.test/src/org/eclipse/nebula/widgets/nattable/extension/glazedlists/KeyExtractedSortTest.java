@@ -0,0 +1,183 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Original authors and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Original authors and others - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.extension.glazedlists;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+import org.eclipse.nebula.widgets.nattable.config.ConfigRegistry;
+import org.eclipse.nebula.widgets.nattable.config.DefaultComparator;
+import org.eclipse.nebula.widgets.nattable.config.IConfigRegistry;
+import org.eclipse.nebula.widgets.nattable.data.IColumnPropertyAccessor;
+import org.eclipse.nebula.widgets.nattable.data.ReflectiveColumnPropertyAccessor;
+import org.eclipse.nebula.widgets.nattable.data.convert.DisplayConverter;
+import org.eclipse.nebula.widgets.nattable.extension.glazedlists.KeyExtractedSorter.SortColumn;
+import org.eclipse.nebula.widgets.nattable.grid.data.DefaultColumnHeaderDataProvider;
+import org.eclipse.nebula.widgets.nattable.grid.layer.DefaultColumnHeaderDataLayer;
+import org.eclipse.nebula.widgets.nattable.layer.DataLayer;
+import org.eclipse.nebula.widgets.nattable.sort.SortConfigAttributes;
+import org.eclipse.nebula.widgets.nattable.sort.SortDirectionEnum;
+import org.eclipse.nebula.widgets.nattable.test.fixture.data.RowDataFixture;
+import org.eclipse.nebula.widgets.nattable.test.fixture.data.RowDataListFixture;
+import org.eclipse.nebula.widgets.nattable.util.ParallelExecutor;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import ca.odell.glazedlists.EventList;
+import ca.odell.glazedlists.GlazedLists;
+import ca.odell.glazedlists.SortedList;
+
+public class KeyExtractedSortTest {
+
+	private static final int RATING = 2;
+	private static final int BID_PRICE = 5;
+	private static final int LOT_SIZE = 8;
+
+	private ParallelExecutor executor;
+	private IColumnPropertyAccessor<RowDataFixture> columnPropertyAccessor;
+	private IConfigRegistry configRegistry;
+	private DataLayer columnHeaderDataLayer;
+	private EventList<RowDataFixture> eventList;
+
+	@Before
+	public void setup() {
+		executor = new ParallelExecutor("SortTest", 4);
+		columnPropertyAccessor = new ReflectiveColumnPropertyAccessor<RowDataFixture>(RowDataListFixture.getPropertyNames());
+		configRegistry = new ConfigRegistry();
+		configRegistry.registerConfigAttribute(SortConfigAttributes.SORT_COMPARATOR, new DefaultComparator());
+		columnHeaderDataLayer = new DefaultColumnHeaderDataLayer(
+				new DefaultColumnHeaderDataProvider(RowDataListFixture.getPropertyNames()));
+		eventList = GlazedLists.eventList(RowDataListFixture.getList(60000));
+	}
+
+	@After
+	public void tearDown() {
+		executor.shutdown();
+	}
+
+	@Test
+	public void shouldSortLikeComparatorChain() {
+		GlazedListsSortModel<RowDataFixture> chainModel = createSortModel(new SortedList<RowDataFixture>(eventList, null));
+		SortedList<RowDataFixture> keyExtractedList = new SortedList<RowDataFixture>(eventList, null);
+		GlazedListsSortModel<RowDataFixture> keyExtractedModel = createSortModel(keyExtractedList);
+		keyExtractedModel.setKeyExtractedSorting(true);
+
+		chainModel.sort(RATING, SortDirectionEnum.ASC, false);
+		chainModel.sort(LOT_SIZE, SortDirectionEnum.DESC, true);
+		chainModel.sort(BID_PRICE, SortDirectionEnum.ASC, true);
+		keyExtractedModel.sort(RATING, SortDirectionEnum.ASC, false);
+		keyExtractedModel.sort(LOT_SIZE, SortDirectionEnum.DESC, true);
+		keyExtractedModel.sort(BID_PRICE, SortDirectionEnum.ASC, true);
+
+		assertEquals(chainModel.getSortedColumnIndexes(), keyExtractedModel.getSortedColumnIndexes());
+		assertEquals(SortDirectionEnum.DESC, keyExtractedModel.getSortDirection(LOT_SIZE));
+		assertSameOrder(chainModel.sortedList, keyExtractedList);
+	}
+
+	@Test
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	public void shouldUseActiveComparatorOfColumn() {
+		Comparator<String> lengthComparator = new Comparator<String>() {
+			@Override
+			public int compare(String rating1, String rating2) {
+				return rating1.length() - rating2.length();
+			}
+		};
+
+		GlazedListsSortModel<RowDataFixture> chainModel = createSortModel(new SortedList<RowDataFixture>(eventList, null));
+		SortedList<RowDataFixture> keyExtractedList = new SortedList<RowDataFixture>(eventList, null);
+		GlazedListsSortModel<RowDataFixture> keyExtractedModel = createSortModel(keyExtractedList);
+		keyExtractedModel.setKeyExtractedSorting(true);
+
+		for (GlazedListsSortModel<RowDataFixture> model : Arrays.asList(chainModel, keyExtractedModel)) {
+			List<Comparator> comparators = model.getComparatorsForColumnIndex(RATING);
+			comparators.add(lengthComparator);
+			model.getComparatorChooser().appendComparator(RATING, 1, false);
+		}
+		keyExtractedModel.applyKeyExtractedSort();
+
+		assertSameOrder(chainModel.sortedList, keyExtractedList);
+		for (int i = 1; i < keyExtractedList.size(); i++) {
+			assertTrue(keyExtractedList.get(i - 1).getRating().length() <= keyExtractedList.get(i).getRating().length());
+		}
+	}
+
+	@Test
+	public void shouldKeepOrderOnInsertsAfterSort() {
+		SortedList<RowDataFixture> keyExtractedList = new SortedList<RowDataFixture>(eventList, null);
+		GlazedListsSortModel<RowDataFixture> keyExtractedModel = createSortModel(keyExtractedList);
+		keyExtractedModel.setKeyExtractedSorting(true);
+		keyExtractedModel.sort(BID_PRICE, SortDirectionEnum.DESC, false);
+
+		eventList.addAll(RowDataListFixture.getList());
+
+		for (int i = 1; i < keyExtractedList.size(); i++) {
+			assertTrue(keyExtractedList.get(i - 1).getBid_price() >= keyExtractedList.get(i).getBid_price());
+		}
+	}
+
+	@Test
+	public void shouldClearSort() {
+		SortedList<RowDataFixture> keyExtractedList = new SortedList<RowDataFixture>(eventList, null);
+		GlazedListsSortModel<RowDataFixture> keyExtractedModel = createSortModel(keyExtractedList);
+		keyExtractedModel.setKeyExtractedSorting(true);
+		keyExtractedModel.sort(RATING, SortDirectionEnum.DESC, false);
+
+		keyExtractedModel.clear();
+
+		assertTrue(keyExtractedModel.getSortedColumnIndexes().isEmpty());
+		assertSameOrder(eventList, keyExtractedList);
+	}
+
+	@Test
+	public void shouldSortStableByNormalizedKeys() {
+		List<RowDataFixture> rows = RowDataListFixture.getList();
+		KeyExtractedSorter<RowDataFixture> sorter = new KeyExtractedSorter<RowDataFixture>(columnPropertyAccessor, executor);
+
+		DisplayConverter upperCaseConverter = new DisplayConverter() {
+			@Override
+			public Object canonicalToDisplayValue(Object canonicalValue) {
+				return canonicalValue.toString().toUpperCase();
+			}
+			@Override
+			public Object displayToCanonicalValue(Object displayValue) {
+				return displayValue;
+			}
+		};
+
+		int[] sorted = sorter.sort(rows, Arrays.asList(new SortColumn(RATING, null, false, upperCaseConverter)));
+
+		List<String> ratings = new ArrayList<String>();
+		for (int index : sorted) {
+			ratings.add(rows.get(index).getRating());
+		}
+		//equal keys after normalization, like "AAA" and "aaa", keep their original order
+		assertEquals(Arrays.asList("a", "A-", "AA", "aa", "AA", "AAA", "aaa", "AAA", "AAA", "B", "B-", "BB", "C"), ratings);
+	}
+
+	private GlazedListsSortModel<RowDataFixture> createSortModel(SortedList<RowDataFixture> sortedList) {
+		return new GlazedListsSortModel<RowDataFixture>(sortedList, columnPropertyAccessor, configRegistry, columnHeaderDataLayer);
+	}
+
+	private void assertSameOrder(List<RowDataFixture> expected, List<RowDataFixture> actual) {
+		assertEquals(expected.size(), actual.size());
+		for (int i = 0; i < expected.size(); i++) {
+			assertSame("different row at index " + i, expected.get(i), actual.get(i));
+		}
+	}
+}
@@ -0,0 +1,231 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Original authors and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Original authors and others - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.extension.glazedlists.filterrow;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.nebula.widgets.nattable.config.ConfigRegistry;
+import org.eclipse.nebula.widgets.nattable.config.DefaultNatTableStyleConfiguration;
+import org.eclipse.nebula.widgets.nattable.data.ReflectiveColumnPropertyAccessor;
+import org.eclipse.nebula.widgets.nattable.data.convert.DefaultDoubleDisplayConverter;
+import org.eclipse.nebula.widgets.nattable.extension.glazedlists.filterrow.CompiledFilterRowMatcher.FilterRowClause;
+import org.eclipse.nebula.widgets.nattable.filterrow.FilterRowDataLayer;
+import org.eclipse.nebula.widgets.nattable.filterrow.TextMatchingMode;
+import org.eclipse.nebula.widgets.nattable.filterrow.config.DefaultFilterRowConfiguration;
+import org.eclipse.nebula.widgets.nattable.filterrow.config.FilterRowConfigAttributes;
+import org.eclipse.nebula.widgets.nattable.style.DisplayMode;
+import org.eclipse.nebula.widgets.nattable.test.fixture.data.RowDataFixture;
+import org.eclipse.nebula.widgets.nattable.test.fixture.data.RowDataListFixture;
+import org.junit.Before;
+import org.junit.Test;
+
+import ca.odell.glazedlists.FilterList;
+import ca.odell.glazedlists.GlazedLists;
+import ca.odell.glazedlists.matchers.MatcherEditor;
+
+public class CompiledFilterRowMatcherTest {
+
+	private FilterList<RowDataFixture> filterList;
+	private ConfigRegistry configRegistry;
+	private DefaultGlazedListsFilterStrategy<RowDataFixture> filterStrategy;
+	private List<Integer> matcherEventTypes;
+
+	@Before
+	public void setup() {
+		configRegistry = new ConfigRegistry();
+		new DefaultNatTableStyleConfiguration().configureRegistry(configRegistry);
+		new DefaultFilterRowConfiguration().configureRegistry(configRegistry);
+
+		// Index 5, 'bid' column
+		configRegistry.registerConfigAttribute(
+				FilterRowConfigAttributes.FILTER_DISPLAY_CONVERTER,
+				new DefaultDoubleDisplayConverter(),
+				DisplayMode.NORMAL,
+				FilterRowDataLayer.FILTER_ROW_COLUMN_LABEL_PREFIX + 5);
+		configRegistry.registerConfigAttribute(
+				FilterRowConfigAttributes.TEXT_MATCHING_MODE,
+				TextMatchingMode.REGULAR_EXPRESSION,
+				DisplayMode.NORMAL,
+				FilterRowDataLayer.FILTER_ROW_COLUMN_LABEL_PREFIX + 5);
+
+		filterList = new FilterList<RowDataFixture>(GlazedLists.eventList(RowDataListFixture.getList()));
+
+		filterStrategy = new DefaultGlazedListsFilterStrategy<RowDataFixture>(
+				filterList,
+				new ReflectiveColumnPropertyAccessor<RowDataFixture>(RowDataListFixture.getPropertyNames()),
+				configRegistry);
+		filterStrategy.setCompiledFiltering(true);
+
+		matcherEventTypes = new ArrayList<Integer>();
+		filterStrategy.getCompiledMatcherEditor().addMatcherEditorListener(new MatcherEditor.Listener<RowDataFixture>() {
+			@Override
+			public void changedMatcher(MatcherEditor.Event<RowDataFixture> matcherEvent) {
+				matcherEventTypes.add(matcherEvent.getType());
+			}
+		});
+	}
+
+	private void applyFilter(int columnIndex, Object filterValue) {
+		Map<Integer, Object> filter = new HashMap<Integer, Object>();
+		filter.put(columnIndex, filterValue);
+		filterStrategy.applyFilter(filter);
+	}
+
+	@Test
+	public void textFilterIsCaseInsensitive() {
+		assertEquals(13, filterList.size());
+
+		applyFilter(1, "ford");
+		assertEquals(1, filterList.size());
+
+		filterStrategy.applyFilter(new HashMap<Integer, Object>());
+		assertEquals(13, filterList.size());
+	}
+
+	@Test
+	public void thresholdFilterComparesNumerics() {
+		applyFilter(5, ">20");
+		assertEquals(6, filterList.size());
+
+		applyFilter(5, "<=4.7912");
+		assertEquals(3, filterList.size());
+	}
+
+	@Test
+	public void regularExpressionFilter() {
+		configRegistry.registerConfigAttribute(
+				FilterRowConfigAttributes.TEXT_MATCHING_MODE,
+				TextMatchingMode.REGULAR_EXPRESSION,
+				DisplayMode.NORMAL,
+				FilterRowDataLayer.FILTER_ROW_COLUMN_LABEL_PREFIX + 1);
+
+		applyFilter(1, "(D|E|F){1}.*");
+		assertEquals(3, filterList.size());
+	}
+
+	@Test
+	public void multipleColumnsAreCombinedWithAnd() {
+		Map<Integer, Object> filter = new HashMap<Integer, Object>();
+		filter.put(1, "motor");
+		filter.put(5, ">20");
+		filterStrategy.applyFilter(filter);
+
+		//Toyota and Honda
+		assertEquals(2, filterList.size());
+	}
+
+	@Test
+	public void narrowingFilterFiresConstrained() {
+		applyFilter(1, "motor");
+		assertEquals(5, filterList.size());
+
+		applyFilter(1, "motors");
+		assertEquals(1, filterList.size());
+
+		applyFilter(1, "motor");
+		assertEquals(5, filterList.size());
+
+		applyFilter(1, "ford");
+		assertEquals(1, filterList.size());
+
+		assertEquals(4, matcherEventTypes.size());
+		assertEquals(MatcherEditor.Event.CONSTRAINED, matcherEventTypes.get(0).intValue());
+		assertEquals(MatcherEditor.Event.CONSTRAINED, matcherEventTypes.get(1).intValue());
+		assertEquals(MatcherEditor.Event.RELAXED, matcherEventTypes.get(2).intValue());
+		assertEquals(MatcherEditor.Event.CHANGED, matcherEventTypes.get(3).intValue());
+	}
+
+	@Test
+	public void unchangedFilterDoesNotRefilter() {
+		applyFilter(1, "motor");
+		applyFilter(1, "motor");
+
+		assertEquals(5, filterList.size());
+		assertEquals(1, matcherEventTypes.size());
+	}
+
+	@Test
+	public void clausesAreOrderedByCost() {
+		Map<Integer, String> filter = new HashMap<Integer, String>();
+		filter.put(1, "motor");
+		filter.put(5, ">20");
+
+		FilterRowMatcherCompiler<RowDataFixture> compiler = new FilterRowMatcherCompiler<RowDataFixture>(
+				new ReflectiveColumnPropertyAccessor<RowDataFixture>(RowDataListFixture.getPropertyNames()),
+				configRegistry);
+		List<FilterRowClause<RowDataFixture>> clauses = compiler.compile(filter).getClauses();
+
+		assertEquals(2, clauses.size());
+		assertTrue(clauses.get(0).getKey().startsWith("threshold:5"));
+		assertTrue(clauses.get(1).getKey().startsWith("text:1"));
+	}
+
+	@Test
+	public void narrowingDetection() {
+		FilterRowMatcherCompiler<RowDataFixture> compiler = new FilterRowMatcherCompiler<RowDataFixture>(
+				new ReflectiveColumnPropertyAccessor<RowDataFixture>(RowDataListFixture.getPropertyNames()),
+				configRegistry);
+
+		Map<Integer, String> filter = new HashMap<Integer, String>();
+		filter.put(1, "Mot");
+		CompiledFilterRowMatcher<RowDataFixture> m1 = compiler.compile(filter);
+		filter.put(1, "motor");
+		CompiledFilterRowMatcher<RowDataFixture> m2 = compiler.compile(filter);
+		filter.put(2, "A");
+		CompiledFilterRowMatcher<RowDataFixture> m3 = compiler.compile(filter);
+
+		assertTrue(m2.isNarrowingOf(m1));
+		assertFalse(m1.isNarrowingOf(m2));
+		assertTrue(m3.isNarrowingOf(m2));
+		assertFalse(m2.isNarrowingOf(m3));
+	}
+
+	@Test
+	public void statisticsAreCountedOnConcurrentEvaluation() throws Exception {
+		FilterRowMatcherCompiler<RowDataFixture> compiler = new FilterRowMatcherCompiler<RowDataFixture>(
+				new ReflectiveColumnPropertyAccessor<RowDataFixture>(RowDataListFixture.getPropertyNames()),
+				configRegistry);
+		Map<Integer, String> filter = new HashMap<Integer, String>();
+		filter.put(1, "motor");
+		final CompiledFilterRowMatcher<RowDataFixture> matcher = compiler.compile(filter);
+		final List<RowDataFixture> rows = RowDataListFixture.getList();
+		final int iterations = 10000;
+
+		Thread[] threads = new Thread[4];
+		for (int i = 0; i < threads.length; i++) {
+			threads[i] = new Thread() {
+				@Override
+				public void run() {
+					for (int j = 0; j < iterations; j++) {
+						for (RowDataFixture row : rows) {
+							matcher.matches(row);
+						}
+					}
+				}
+			};
+			threads[i].start();
+		}
+		for (Thread thread : threads) {
+			thread.join();
+		}
+
+		FilterRowClause<RowDataFixture> clause = matcher.getClauses().get(0);
+		assertEquals(threads.length * iterations * rows.size(), clause.getEvaluations());
+		assertEquals(threads.length * iterations * (rows.size() - 5), clause.getRejections());
+	}
+}
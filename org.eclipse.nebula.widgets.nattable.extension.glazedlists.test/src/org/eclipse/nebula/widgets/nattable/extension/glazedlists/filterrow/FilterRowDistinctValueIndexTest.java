@@ -0,0 +1,153 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Original authors and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Original authors and others - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.extension.glazedlists.filterrow;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.eclipse.nebula.widgets.nattable.data.IColumnAccessor;
+import org.eclipse.nebula.widgets.nattable.filterrow.combobox.FilterRowComboUpdateEvent;
+import org.junit.Before;
+import org.junit.Test;
+
+import ca.odell.glazedlists.BasicEventList;
+import ca.odell.glazedlists.EventList;
+import ca.odell.glazedlists.event.ListEvent;
+import ca.odell.glazedlists.event.ListEventListener;
+
+public class FilterRowDistinctValueIndexTest {
+
+	private EventList<String[]> list;
+	private FilterRowDistinctValueIndex<String[]> index;
+
+	@Before
+	public void setup() {
+		list = new BasicEventList<String[]>();
+		list.add(new String[] {"A", "x"});
+		list.add(new String[] {"B", "x"});
+		list.add(new String[] {"A", "y"});
+
+		index = new FilterRowDistinctValueIndex<String[]>(new IColumnAccessor<String[]>() {
+			public Object getDataValue(String[] rowObject, int columnIndex) {
+				return rowObject[columnIndex];
+			}
+			public void setDataValue(String[] rowObject, int columnIndex, Object newValue) {
+				rowObject[columnIndex] = (String) newValue;
+			}
+			public int getColumnCount() {
+				return 2;
+			}
+		});
+		index.build(list);
+
+		list.addListEventListener(new ListEventListener<String[]>() {
+			public void listChanged(ListEvent<String[]> listChanges) {
+				index.listChanged(listChanges);
+			}
+		});
+	}
+
+	@Test
+	public void buildCollectsDistinctValues() {
+		assertEquals(Arrays.asList("A", "B"), index.getValues(0));
+		assertEquals(Arrays.asList("x", "y"), index.getValues(1));
+		assertEquals(2, index.getCount(0, "A"));
+		assertEquals(0, index.getCount(0, "C"));
+		assertTrue(index.collectUpdateEvents().isEmpty());
+	}
+
+	@Test
+	public void insertOfExistingValuesFiresNoEvents() {
+		list.add(new String[] {"B", "y"});
+
+		assertEquals(2, index.getCount(0, "B"));
+		assertTrue(index.collectUpdateEvents().isEmpty());
+	}
+
+	@Test
+	public void insertOfNewValueFiresEventForColumn() {
+		list.add(new String[] {"C", "x"});
+
+		List<FilterRowComboUpdateEvent> events = index.collectUpdateEvents();
+		assertEquals(1, events.size());
+		assertEquals(0, events.get(0).getColumnIndex());
+		assertEquals(1, events.get(0).getAddedItems().size());
+		assertTrue(events.get(0).getAddedItems().contains("C"));
+		assertTrue(events.get(0).getRemovedItems().isEmpty());
+		assertEquals(Arrays.asList("A", "B", "C"), index.getValues(0));
+	}
+
+	@Test
+	public void deleteOfLastOccurrenceFiresRemoveEvent() {
+		list.remove(1);
+
+		List<FilterRowComboUpdateEvent> events = index.collectUpdateEvents();
+		assertEquals(1, events.size());
+		assertEquals(0, events.get(0).getColumnIndex());
+		assertTrue(events.get(0).getRemovedItems().contains("B"));
+		assertEquals(Arrays.asList("A"), index.getValues(0));
+		assertEquals(Arrays.asList("x", "y"), index.getValues(1));
+	}
+
+	@Test
+	public void deleteOfOneOccurrenceFiresNoEvent() {
+		list.remove(0);
+
+		assertTrue(index.collectUpdateEvents().isEmpty());
+		assertEquals(1, index.getCount(0, "A"));
+	}
+
+	@Test
+	public void updateReplacesValue() {
+		list.set(2, new String[] {"D", "x"});
+
+		List<FilterRowComboUpdateEvent> events = index.collectUpdateEvents();
+		assertEquals(2, events.size());
+		assertTrue(events.get(0).getAddedItems().contains("D"));
+		assertTrue(events.get(0).getRemovedItems().isEmpty());
+		assertTrue(events.get(1).getAddedItems().isEmpty());
+		assertTrue(events.get(1).getRemovedItems().contains("y"));
+		assertEquals(Arrays.asList("A", "B", "D"), index.getValues(0));
+	}
+
+	@Test
+	public void appearAndDisappearInOneChangeCancelOut() {
+		list.add(new String[] {"E", "x"});
+		list.remove(3);
+
+		assertTrue(index.collectUpdateEvents().isEmpty());
+	}
+
+	@Test
+	public void clearRemovesAllValues() {
+		list.clear();
+
+		List<FilterRowComboUpdateEvent> events = index.collectUpdateEvents();
+		assertEquals(2, events.size());
+		assertEquals(2, events.get(0).getRemovedItems().size());
+		assertTrue(index.getValues(0).isEmpty());
+	}
+
+	@Test
+	public void refreshColumnDetectsInPlaceUpdates() {
+		//modify the row object directly, so no ListEvent is fired
+		list.get(1)[0] = "A";
+		index.refreshColumn(list, 0);
+
+		List<FilterRowComboUpdateEvent> events = index.collectUpdateEvents();
+		assertEquals(1, events.size());
+		assertTrue(events.get(0).getRemovedItems().contains("B"));
+		assertEquals(3, index.getCount(0, "A"));
+	}
+}
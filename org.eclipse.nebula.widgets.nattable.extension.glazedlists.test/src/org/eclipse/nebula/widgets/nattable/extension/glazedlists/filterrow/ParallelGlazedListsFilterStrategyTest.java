@@ -0,0 +1,145 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Original authors and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Original authors and others - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.extension.glazedlists.filterrow;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.eclipse.nebula.widgets.nattable.config.ConfigRegistry;
+import org.eclipse.nebula.widgets.nattable.config.DefaultNatTableStyleConfiguration;
+import org.eclipse.nebula.widgets.nattable.data.ReflectiveColumnPropertyAccessor;
+import org.eclipse.nebula.widgets.nattable.data.convert.DefaultDoubleDisplayConverter;
+import org.eclipse.nebula.widgets.nattable.filterrow.FilterRowDataLayer;
+import org.eclipse.nebula.widgets.nattable.filterrow.TextMatchingMode;
+import org.eclipse.nebula.widgets.nattable.filterrow.config.DefaultFilterRowConfiguration;
+import org.eclipse.nebula.widgets.nattable.filterrow.config.FilterRowConfigAttributes;
+import org.eclipse.nebula.widgets.nattable.style.DisplayMode;
+import org.eclipse.nebula.widgets.nattable.test.fixture.data.RowDataFixture;
+import org.eclipse.nebula.widgets.nattable.test.fixture.data.RowDataListFixture;
+import org.eclipse.nebula.widgets.nattable.util.ParallelExecutor;
+import org.junit.Before;
+import org.junit.Test;
+
+import ca.odell.glazedlists.EventList;
+import ca.odell.glazedlists.FilterList;
+import ca.odell.glazedlists.GlazedLists;
+
+public class ParallelGlazedListsFilterStrategyTest {
+
+	// 13 rows per fixture list
+	private static final int COPIES = 1000;
+
+	private EventList<RowDataFixture> sourceList;
+	private FilterList<RowDataFixture> filterList;
+	private ParallelGlazedListsFilterStrategy<RowDataFixture> filterStrategy;
+
+	@Before
+	public void setup() {
+		ConfigRegistry configRegistry = new ConfigRegistry();
+		new DefaultNatTableStyleConfiguration().configureRegistry(configRegistry);
+		new DefaultFilterRowConfiguration().configureRegistry(configRegistry);
+		configRegistry.registerConfigAttribute(
+				FilterRowConfigAttributes.FILTER_DISPLAY_CONVERTER,
+				new DefaultDoubleDisplayConverter(),
+				DisplayMode.NORMAL,
+				FilterRowDataLayer.FILTER_ROW_COLUMN_LABEL_PREFIX + 5);
+		configRegistry.registerConfigAttribute(
+				FilterRowConfigAttributes.TEXT_MATCHING_MODE,
+				TextMatchingMode.REGULAR_EXPRESSION,
+				DisplayMode.NORMAL,
+				FilterRowDataLayer.FILTER_ROW_COLUMN_LABEL_PREFIX + 5);
+
+		sourceList = GlazedLists.eventList(RowDataListFixture.getList(13 * COPIES));
+		filterList = new FilterList<RowDataFixture>(sourceList);
+
+		filterStrategy = new ParallelGlazedListsFilterStrategy<RowDataFixture>(
+				filterList, sourceList,
+				new ReflectiveColumnPropertyAccessor<RowDataFixture>(RowDataListFixture.getPropertyNames()),
+				configRegistry,
+				new ParallelExecutor("FilterTest", 4));
+		filterStrategy.setParallelThreshold(0);
+		filterStrategy.setAsynchronous(false);
+	}
+
+	private void applyFilter(int columnIndex, Object filterValue) {
+		Map<Integer, Object> filter = new HashMap<Integer, Object>();
+		filter.put(columnIndex, filterValue);
+		filterStrategy.applyFilter(filter);
+	}
+
+	@Test
+	public void parallelTextFilter() {
+		assertEquals(13 * COPIES, filterList.size());
+
+		applyFilter(1, "motor");
+		assertEquals(5 * COPIES, filterList.size());
+
+		// narrowing only evaluates the current matches
+		applyFilter(1, "motors");
+		assertEquals(COPIES, filterList.size());
+
+		applyFilter(1, "ford");
+		assertEquals(COPIES, filterList.size());
+
+		filterStrategy.applyFilter(new HashMap<Integer, Object>());
+		assertEquals(13 * COPIES, filterList.size());
+	}
+
+	@Test
+	public void parallelThresholdFilter() {
+		applyFilter(5, ">20");
+		assertEquals(6 * COPIES, filterList.size());
+	}
+
+	@Test
+	public void insertAfterParallelFilterIsEvaluated() {
+		applyFilter(1, "ford");
+		assertEquals(COPIES, filterList.size());
+
+		sourceList.add(RowDataFixture.getInstance("Ford Focus", "A"));
+		sourceList.add(RowDataFixture.getInstance("Opel Astra", "A"));
+		assertEquals(COPIES + 1, filterList.size());
+	}
+
+	@Test
+	public void clauseStatisticsAreMergedAfterParallelEvaluation() {
+		applyFilter(1, "motor");
+
+		CompiledFilterRowMatcher<RowDataFixture> matcher = filterStrategy.getCompiledMatcherEditor().getCompiledMatcher();
+		assertEquals(13 * COPIES, matcher.getClauses().get(0).getEvaluations());
+		assertEquals(8 * COPIES, matcher.getClauses().get(0).getRejections());
+	}
+
+	@Test
+	public void disablingCompiledFilteringFallsBackToSequentialFiltering() {
+		filterStrategy.setCompiledFiltering(false);
+		assertFalse(filterStrategy.isCompiledFiltering());
+
+		applyFilter(1, "ford");
+		assertEquals(COPIES, filterList.size());
+
+		applyFilter(5, ">20");
+		assertEquals(6 * COPIES, filterList.size());
+	}
+
+	@Test
+	public void filterStillWorksAfterDispose() {
+		applyFilter(1, "ford");
+		filterStrategy.dispose();
+
+		// the FilterList itself still evaluates the compiled matcher
+		sourceList.add(RowDataFixture.getInstance("Ford Focus", "A"));
+		assertEquals(COPIES + 1, filterList.size());
+	}
+}
@@ -22,6 +22,7 @@ import org.eclipse.nebula.widgets.nattable.layer.IUniqueIndexLayer;
 import org.eclipse.nebula.widgets.nattable.layer.event.PropertyUpdateEvent;
 import org.eclipse.nebula.widgets.nattable.layer.event.RowDeleteEvent;
 import org.eclipse.nebula.widgets.nattable.layer.event.RowInsertEvent;
+import org.eclipse.nebula.widgets.nattable.metrics.MetricsRegistry;
 import org.eclipse.swt.widgets.Display;
 
 import ca.odell.glazedlists.EventList;
@@ -93,6 +94,7 @@ public class DetailGlazedListsEventLayer<T> extends AbstractLayerTransform
 	 */
 	@Override
 	public void listChanged(final ListEvent<T> event) {
+		MetricsRegistry.getInstance().increment(MetricsRegistry.GLAZEDLISTS_LIST_CHANGES);
 		try {
 			this.eventList.getReadWriteLock().readLock().lock();
 			
@@ -17,12 +17,17 @@ import java.util.concurrent.ScheduledFuture;
 
 import org.eclipse.nebula.widgets.nattable.command.DisposeResourcesCommand;
 import org.eclipse.nebula.widgets.nattable.command.ILayerCommand;
+import org.eclipse.nebula.widgets.nattable.coordinate.Range;
 import org.eclipse.nebula.widgets.nattable.layer.AbstractLayerTransform;
 import org.eclipse.nebula.widgets.nattable.layer.IUniqueIndexLayer;
 import org.eclipse.nebula.widgets.nattable.layer.event.ILayerEvent;
 import org.eclipse.nebula.widgets.nattable.layer.event.PropertyUpdateEvent;
+import org.eclipse.nebula.widgets.nattable.layer.event.RowDeleteEvent;
+import org.eclipse.nebula.widgets.nattable.layer.event.RowInsertEvent;
 import org.eclipse.nebula.widgets.nattable.layer.event.RowStructuralRefreshEvent;
+import org.eclipse.nebula.widgets.nattable.layer.event.RowUpdateEvent;
 import org.eclipse.nebula.widgets.nattable.layer.event.VisualRefreshEvent;
+import org.eclipse.nebula.widgets.nattable.metrics.MetricsRegistry;
 import org.eclipse.nebula.widgets.nattable.util.Scheduler;
 import org.eclipse.swt.widgets.Display;
 
@@ -40,6 +45,11 @@ import ca.odell.glazedlists.event.ListEventListener;
  * is fired for any number of GlazedLists events received during that interval.
  * <p>
  * PropertyChangeEvent(s) are propagated immediately as a {@link PropertyUpdateEvent}.
+ * <p>
+ * If exact row events are enabled, GlazedLists events that are received on the SWT Display
+ * thread while no conflated events are pending are propagated immediately as
+ * {@link RowDeleteEvent}, {@link RowInsertEvent} and {@link RowUpdateEvent}. This is useful
+ * for small changes like the relocation of single rows in a sorted list.
  *
  * @param <T> Type of the bean in the backing list.
  */
@@ -53,6 +63,7 @@ public class GlazedListsEventLayer<T> extends AbstractLayerTransform implements
     private boolean structuralChangeEventsToProcess = false;
 	private boolean eventsToProcess = false;
 	private boolean terminated;
+	private boolean exactRowEvents = false;
 
 	public GlazedListsEventLayer(IUniqueIndexLayer underlyingLayer, EventList<T> eventList) {
 	    super(underlyingLayer);
@@ -78,6 +89,7 @@ public class GlazedListsEventLayer<T> extends AbstractLayerTransform implements
                     } else {
                         layerEvent = new VisualRefreshEvent(getUnderlyingLayer());
                     }
+                    MetricsRegistry.getInstance().increment(MetricsRegistry.GLAZEDLISTS_REFRESHES);
                     fireEventFromSWTDisplayThread(layerEvent);
                 }
                 eventsToProcess = false;
@@ -90,6 +102,13 @@ public class GlazedListsEventLayer<T> extends AbstractLayerTransform implements
 	 * Glazed list event handling.
 	 */
 	public void listChanged(ListEvent<T> event) {
+		MetricsRegistry.getInstance().increment(MetricsRegistry.GLAZEDLISTS_LIST_CHANGES);
+		if (exactRowEvents && !eventsToProcess && !event.isReordering()
+				&& (testMode || Display.getCurrent() != null)) {
+			fireRowEvents(event);
+			return;
+		}
+
         while (event.next()) {
             int eventType = event.getType();
             if (eventType == ListEvent.DELETE || eventType == ListEvent.INSERT) {
@@ -99,6 +118,27 @@ public class GlazedListsEventLayer<T> extends AbstractLayerTransform implements
 		eventsToProcess = true;
 	}
 
+	/**
+	 * Fires a row event for every block of the given GlazedLists event. The blocks are
+	 * processed in order, so the positions of every event are valid after processing
+	 * the previous events.
+	 */
+	private void fireRowEvents(ListEvent<T> event) {
+		while (event.nextBlock()) {
+			Range range = new Range(event.getBlockStartIndex(), event.getBlockEndIndex() + 1);
+			switch (event.getType()) {
+				case ListEvent.DELETE:
+					fireLayerEvent(new RowDeleteEvent(getUnderlyingLayer(), range));
+					break;
+				case ListEvent.INSERT:
+					fireLayerEvent(new RowInsertEvent(getUnderlyingLayer(), range));
+					break;
+				default:
+					fireLayerEvent(new RowUpdateEvent(getUnderlyingLayer(), range));
+			}
+		}
+	}
+
 	/**
 	 * Object property updated event
 	 */
@@ -153,6 +193,15 @@ public class GlazedListsEventLayer<T> extends AbstractLayerTransform implements
 		eventList.addListEventListener(this);
 	}
 
+	/**
+	 * @param exactRowEvents <code>true</code> if GlazedLists events received on the SWT Display
+	 * 			thread should be propagated immediately as row delete, insert and update events
+	 * 			instead of being conflated to a structural refresh.
+	 */
+	public void setExactRowEvents(boolean exactRowEvents) {
+		this.exactRowEvents = exactRowEvents;
+	}
+
 	public void setTestMode(boolean testMode) {
 		this.testMode = testMode;
 	}
@@ -10,23 +10,45 @@
  ******************************************************************************/
 package org.eclipse.nebula.widgets.nattable.extension.glazedlists;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Comparator;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.eclipse.nebula.widgets.nattable.config.IConfigRegistry;
 import org.eclipse.nebula.widgets.nattable.data.IColumnAccessor;
 import org.eclipse.nebula.widgets.nattable.data.IColumnPropertyAccessor;
 import org.eclipse.nebula.widgets.nattable.data.IColumnPropertyResolver;
+import org.eclipse.nebula.widgets.nattable.data.convert.IDisplayConverter;
+import org.eclipse.nebula.widgets.nattable.extension.glazedlists.KeyExtractedSorter.SortColumn;
 import org.eclipse.nebula.widgets.nattable.layer.ILayer;
 import org.eclipse.nebula.widgets.nattable.layer.ILayerListener;
+import org.eclipse.nebula.widgets.nattable.layer.cell.ILayerCell;
 import org.eclipse.nebula.widgets.nattable.layer.event.ILayerEvent;
 import org.eclipse.nebula.widgets.nattable.layer.event.StructuralRefreshEvent;
-import org.eclipse.nebula.widgets.nattable.sort.ISortModel;
+import org.eclipse.nebula.widgets.nattable.sort.IIncrementalSortModel;
+import org.eclipse.nebula.widgets.nattable.sort.SortConfigAttributes;
 import org.eclipse.nebula.widgets.nattable.sort.SortDirectionEnum;
+import org.eclipse.nebula.widgets.nattable.util.ParallelExecutor;
 
+import ca.odell.glazedlists.BasicEventList;
 import ca.odell.glazedlists.SortedList;
 
-public class GlazedListsSortModel<T> implements ISortModel, ILayerListener {
+public class GlazedListsSortModel<T> implements IIncrementalSortModel, ILayerListener {
+
+	/**
+	 * If more than 1/RESORT_RATIO of the rows changed, the whole list is sorted again
+	 * instead of relocating the changed rows one by one.
+	 */
+	private static final int RESORT_RATIO = 16;
+	/**
+	 * The maximum number of rows that are relocated one by one. Above, the whole list is
+	 * sorted again, as adjusting the positions of the pending rows grows quadratically.
+	 */
+	private static final int MAX_RELOCATIONS = 2048;
 
 	private NatTableComparatorChooser<T> comparatorChooser;
 	protected final SortedList<T> sortedList;
@@ -35,6 +57,13 @@ public class GlazedListsSortModel<T> implements ISortModel, ILayerListener {
 	protected final IConfigRegistry configRegistry;
 	protected final ILayer columnHeaderDataLayer;
 
+	/**
+	 * Flag to configure whether sorting is performed by the {@link KeyExtractedSorter}
+	 * instead of the comparator chain of the GlazedLists comparator chooser.
+	 */
+	private boolean keyExtractedSorting = false;
+	private KeyExtractedSorter<T> keyExtractedSorter;
+
 	public GlazedListsSortModel(SortedList<T> sortedList, IColumnPropertyAccessor<T> columnPropertyAccessor, IConfigRegistry configRegistry, ILayer dataLayer) {
 		this(sortedList, columnPropertyAccessor, columnPropertyAccessor, configRegistry, dataLayer);
 	}
@@ -51,9 +80,11 @@ public class GlazedListsSortModel<T> implements ISortModel, ILayerListener {
 
 	protected NatTableComparatorChooser<T> getComparatorChooser() {
 		if (comparatorChooser == null) {
+			//with key extracted sorting the comparator chooser only manages the sort state,
+			//so it operates on an empty list and the sortedList is sorted separately
 			comparatorChooser =
 				new NatTableComparatorChooser<T>(
-						sortedList,
+						keyExtractedSorting ? new SortedList<T>(new BasicEventList<T>(), null) : sortedList,
 						new NatColumnTableFormat<T>(columnAccessor, columnPropertyResolver, configRegistry, columnHeaderDataLayer)
 				);
 		}
@@ -89,11 +120,13 @@ public class GlazedListsSortModel<T> implements ISortModel, ILayerListener {
 	@Override
 	public void sort(int columnIndex, SortDirectionEnum sortDirection, boolean accumulate) {
 		getComparatorChooser().sort(columnIndex, sortDirection, accumulate);
+		applyKeyExtractedSort();
 	}
 
 	@Override
 	public void clear() {
 		getComparatorChooser().clearComparator();
+		applyKeyExtractedSort();
 	}
 
 	@Override
@@ -102,6 +135,336 @@ public class GlazedListsSortModel<T> implements ISortModel, ILayerListener {
 			String test = getComparatorChooser().toString();
 			this.comparatorChooser = null;
 			getComparatorChooser().fromString(test);
+			applyKeyExtractedSort();
+		}
+	}
+
+	/**
+	 * Relocates the given row objects in the sortedList. The row objects are located with a
+	 * single scan over the sortedList and then updated one by one via
+	 * {@link SortedList#set(int, Object)}. This way the SortedList removes and reinserts them
+	 * at their new position via binary search and fires delete/insert pairs for the moved
+	 * rows only, instead of sorting the whole list again.
+	 * <p>
+	 * Requires the source of the sortedList to support {@link List#set(int, Object)}.
+	 */
+	@Override
+	public void updateSortPosition(Collection<?> rowObjects) {
+		//remove duplicates, as every row object is relocated once
+		Map<Object, Boolean> distinct = new IdentityHashMap<Object, Boolean>(rowObjects.size());
+		List<Object> rows = new ArrayList<Object>(rowObjects.size());
+		for (Object rowObject : rowObjects) {
+			if (distinct.put(rowObject, Boolean.TRUE) == null) {
+				rows.add(rowObject);
+			}
+		}
+		int[] rowIndexHints = new int[rows.size()];
+		Arrays.fill(rowIndexHints, -1);
+		updateSortPosition(rows, rowIndexHints);
+	}
+
+	/**
+	 * Relocates the given row objects in the sortedList like
+	 * {@link #updateSortPosition(Collection)}. Row objects whose hint matches their position
+	 * in the sortedList are not searched, which is the case if the body data provider is
+	 * backed by the sortedList directly. Only if there are row objects without matching hint,
+	 * the sortedList is scanned once to locate them.
+	 * <p>
+	 * The given row objects need to be distinct.
+	 */
+	@Override
+	public void updateSortPosition(List<?> rowObjects, int[] rowIndexHints) {
+		if (rowObjects.isEmpty() || getComparatorChooser().getSortingColumns().isEmpty()) {
+			return;
+		}
+
+		this.sortedList.getReadWriteLock().writeLock().lock();
+		try {
+			int size = this.sortedList.size();
+			if (rowObjects.size() > Math.max(1, Math.min(MAX_RELOCATIONS, size / RESORT_RATIO))) {
+				resort();
+				return;
+			}
+
+			//use the hints that match the current positions
+			int[] positions = new int[rowObjects.size()];
+			Map<Object, Integer> pending = null;
+			for (int p = 0; p < positions.length; p++) {
+				int hint = rowIndexHints[p];
+				Object rowObject = rowObjects.get(p);
+				if (hint >= 0 && hint < size && this.sortedList.get(hint) == rowObject) {
+					positions[p] = hint;
+				} else {
+					positions[p] = -1;
+					if (pending == null) {
+						pending = new IdentityHashMap<Object, Integer>();
+					}
+					pending.put(rowObject, p);
+				}
+			}
+
+			//locate the remaining row objects with a single scan
+			if (pending != null) {
+				for (int i = 0; i < size && !pending.isEmpty(); i++) {
+					Integer p = pending.remove(this.sortedList.get(i));
+					if (p != null) {
+						positions[p] = i;
+					}
+				}
+			}
+
+			for (int p = 0; p < positions.length; p++) {
+				int oldPosition = positions[p];
+				if (oldPosition < 0) {
+					//not part of the sortedList
+					continue;
+				}
+				T rowObject = this.sortedList.get(oldPosition);
+				this.sortedList.set(oldPosition, rowObject);
+				int newPosition = getPosition(rowObject, oldPosition);
+
+				//adjust the positions of the row objects that are not relocated yet
+				for (int q = p + 1; q < positions.length; q++) {
+					int position = positions[q];
+					if (position < 0) {
+						continue;
+					}
+					if (position > oldPosition) {
+						position--;
+					}
+					if (newPosition >= 0 && position >= newPosition) {
+						position++;
+					}
+					positions[q] = position;
+				}
+			}
+		} finally {
+			this.sortedList.getReadWriteLock().writeLock().unlock();
+		}
+	}
+
+	/**
+	 * @return The current position of the given row object in the sortedList.
+	 */
+	private int getPosition(T rowObject, int previousPosition) {
+		if (previousPosition < this.sortedList.size() && this.sortedList.get(previousPosition) == rowObject) {
+			return previousPosition;
+		}
+		//the SortedList locates the row object via binary search
+		int position = this.sortedList.indexOf(rowObject);
+		if (position >= 0 && this.sortedList.get(position) == rowObject) {
+			return position;
+		}
+		for (int i = 0; i < this.sortedList.size(); i++) {
+			if (this.sortedList.get(i) == rowObject) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Sorts the whole sortedList again with the current sort state.
+	 */
+	protected void resort() {
+		if (this.keyExtractedSorting) {
+			applyKeyExtractedSort();
+		} else {
+			this.sortedList.getReadWriteLock().writeLock().lock();
+			try {
+				this.sortedList.setComparator(this.sortedList.getComparator());
+			} finally {
+				this.sortedList.getReadWriteLock().writeLock().unlock();
+			}
+		}
+	}
+
+	/**
+	 * Configure whether sorting should be performed by extracting the sort keys of all rows
+	 * once and sorting them in parallel, instead of using the comparator chain of the GlazedLists
+	 * comparator chooser that accesses the column values on every comparison. This is significantly
+	 * faster for large lists and multi column sorts.
+	 * <p>
+	 * The resulting order is the same, as the keys are compared with the configured comparators.
+	 * If a {@link SortConfigAttributes#SORT_KEY_DISPLAY_CONVERTER} is configured for a column,
+	 * the column values are normalized with it before they are compared.
+	 * @param keyExtractedSorting <code>true</code> to enable key extracted sorting.
+	 */
+	public void setKeyExtractedSorting(boolean keyExtractedSorting) {
+		if (this.keyExtractedSorting != keyExtractedSorting) {
+			String sortState = getComparatorChooser().toString();
+			if (keyExtractedSorting) {
+				//release the comparator chain, the sortedList is sorted by key extraction from now on
+				getComparatorChooser().clearComparator();
+			}
+			this.keyExtractedSorting = keyExtractedSorting;
+			this.comparatorChooser = null;
+			getComparatorChooser().fromString(sortState);
+			applyKeyExtractedSort();
+		}
+	}
+
+	/**
+	 * @return <code>true</code> if sorting is performed by extracting the sort keys once.
+	 */
+	public boolean isKeyExtractedSorting() {
+		return this.keyExtractedSorting;
+	}
+
+	/**
+	 * @return The KeyExtractedSorter that is used for key extracted sorting.
+	 */
+	protected KeyExtractedSorter<T> getKeyExtractedSorter() {
+		if (this.keyExtractedSorter == null) {
+			this.keyExtractedSorter = new KeyExtractedSorter<T>(this.columnAccessor, ParallelExecutor.getDefault());
+		}
+		return this.keyExtractedSorter;
+	}
+
+	/**
+	 * Sorts the sortedList according to the current sort state of the comparator chooser
+	 * if key extracted sorting is enabled.
+	 * <p>
+	 * The ranks of all row objects are calculated by the KeyExtractedSorter, which extracts
+	 * the keys once and performs the expensive comparisons in parallel. The SortedList does
+	 * not support applying a permutation directly, so the ranks are applied by setting a
+	 * comparator that compares the precomputed ranks. The SortedList still sorts itself with
+	 * that comparator, but every comparison is reduced to two lookups in a primitive identity
+	 * table, and the new order is fired as one list change. After that the comparator compares
+	 * by extracting the keys on demand, which results in the same order. This way later
+	 * inserts and updates are handled like with the comparator chain.
+	 */
+	protected void applyKeyExtractedSort() {
+		if (!this.keyExtractedSorting) {
+			return;
+		}
+
+		List<SortColumn> sortColumns = getSortColumns();
+
+		this.sortedList.getReadWriteLock().writeLock().lock();
+		try {
+			if (sortColumns.isEmpty()) {
+				this.sortedList.setComparator(null);
+				return;
+			}
+
+			KeyExtractedSorter<T> sorter = getKeyExtractedSorter();
+			List<T> rows = new ArrayList<T>(this.sortedList);
+			int[] ranks = sorter.rank(rows, sortColumns);
+
+			RankComparator<T> comparator = new RankComparator<T>(rows, ranks, sorter.createComparator(sortColumns));
+			this.sortedList.setComparator(comparator);
+			comparator.releaseRanks();
+		} finally {
+			this.sortedList.getReadWriteLock().writeLock().unlock();
+		}
+	}
+
+	/**
+	 * @return The sort columns for the current sort state of the comparator chooser. Like in
+	 * 			the comparator chain of the chooser, the active comparator of every sorted
+	 * 			column is used.
+	 */
+	protected List<SortColumn> getSortColumns() {
+		NatTableComparatorChooser<T> chooser = getComparatorChooser();
+		List<SortColumn> sortColumns = new ArrayList<SortColumn>();
+		for (Integer columnIndex : chooser.getSortingColumns()) {
+			List<Comparator> comparators = chooser.getComparatorsForColumn(columnIndex);
+			int comparatorIndex = chooser.getColumnComparatorIndex(columnIndex);
+			if (comparatorIndex < 0 || comparatorIndex >= comparators.size()) {
+				continue;
+			}
+			IDisplayConverter displayConverter = null;
+			ILayerCell cell = this.columnHeaderDataLayer.getCellByPosition(columnIndex, 0);
+			if (cell != null) {
+				displayConverter = this.configRegistry.getConfigAttribute(
+						SortConfigAttributes.SORT_KEY_DISPLAY_CONVERTER,
+						cell.getDisplayMode(),
+						cell.getConfigLabels().getLabels());
+			}
+			sortColumns.add(new SortColumn(
+					columnIndex, comparators.get(comparatorIndex), chooser.isColumnReverse(columnIndex), displayConverter));
+		}
+		return sortColumns;
+	}
+
+	/**
+	 * Comparator that compares precomputed ranks of row objects while they are available,
+	 * and delegates to a comparator that results in the same order otherwise.
+	 * <p>
+	 * The ranks are kept in an open addressing table keyed by identity, so looking up a rank
+	 * neither boxes the rank nor creates map entries.
+	 */
+	static class RankComparator<T> implements Comparator<T> {
+
+		private Object[] rows;
+		private int[] ranks;
+		private final int mask;
+		private final Comparator<T> delegate;
+
+		/**
+		 * @param rows The row objects.
+		 * @param ranks The ranks of the row objects, in the order of the given list.
+		 * @param delegate The comparator to use for row objects without rank.
+		 */
+		RankComparator(List<T> rows, int[] ranks, Comparator<T> delegate) {
+			int capacity = Integer.highestOneBit(Math.max(2, rows.size()) * 2 - 1) << 1;
+			this.rows = new Object[capacity];
+			this.ranks = new int[capacity];
+			this.mask = capacity - 1;
+			this.delegate = delegate;
+
+			for (int i = 0; i < ranks.length; i++) {
+				Object row = rows.get(i);
+				int slot = slot(row);
+				while (this.rows[slot] != null && this.rows[slot] != row) {
+					slot = (slot + 1) & this.mask;
+				}
+				this.rows[slot] = row;
+				this.ranks[slot] = ranks[i];
+			}
+		}
+
+		private int slot(Object row) {
+			//spread the identity hash, as the table size is a power of two
+			int hash = System.identityHashCode(row) * 0x9E3779B9;
+			return (hash ^ (hash >>> 16)) & this.mask;
+		}
+
+		/**
+		 * @return The rank of the given row object or -1 if it has no rank.
+		 */
+		private int getRank(Object row) {
+			Object[] table = this.rows;
+			if (table == null) {
+				return -1;
+			}
+			int slot = slot(row);
+			Object current;
+			while ((current = table[slot]) != null) {
+				if (current == row) {
+					return this.ranks[slot];
+				}
+				slot = (slot + 1) & this.mask;
+			}
+			return -1;
+		}
+
+		@Override
+		public int compare(T row1, T row2) {
+			int rank1 = getRank(row1);
+			if (rank1 >= 0) {
+				int rank2 = getRank(row2);
+				if (rank2 >= 0) {
+					return rank1 < rank2 ? -1 : (rank1 == rank2 ? 0 : 1);
+				}
+			}
+			return this.delegate.compare(row1, row2);
+		}
+
+		void releaseRanks() {
+			this.rows = null;
+			this.ranks = null;
 		}
 	}
 }
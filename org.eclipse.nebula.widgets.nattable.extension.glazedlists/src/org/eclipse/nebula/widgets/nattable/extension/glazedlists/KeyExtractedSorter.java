@@ -0,0 +1,431 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Original authors and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Original authors and others - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.extension.glazedlists;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+
+import org.eclipse.nebula.widgets.nattable.config.DefaultComparator;
+import org.eclipse.nebula.widgets.nattable.data.IColumnAccessor;
+import org.eclipse.nebula.widgets.nattable.data.convert.IDisplayConverter;
+import org.eclipse.nebula.widgets.nattable.util.ParallelExecutor;
+
+/**
+ * Sorts row objects by several columns by extracting the sort keys once per row and column
+ * instead of accessing the column values on every comparison.
+ * <p>
+ * The sort keys of a column are stored in primitive arrays if the column is compared with
+ * the {@link DefaultComparator} and all values are integral or floating point numbers of the
+ * same type. Otherwise they are stored in an object array and compared with the configured
+ * comparator. Optionally the column values are normalized via an {@link IDisplayConverter}
+ * before they are compared.
+ * <p>
+ * The keys are extracted in the calling thread, as column accessors and display converters
+ * are typically not thread safe. The index permutation is sorted with a merge sort that is
+ * split over the worker threads of the given {@link ParallelExecutor}.
+ *
+ * @param <T> The type of the row objects that are sorted.
+ */
+public class KeyExtractedSorter<T> {
+
+	/**
+	 * The number of rows from which on the permutation is sorted in parallel.
+	 */
+	private static final int PARALLEL_THRESHOLD = 50000;
+	/**
+	 * The minimum number of rows a chunk that is sorted by one worker thread should contain.
+	 */
+	private static final int MIN_CHUNK_SIZE = 25000;
+	/**
+	 * Ranges up to this size are sorted with insertion sort.
+	 */
+	private static final int INSERTION_SORT_THRESHOLD = 16;
+
+	private final IColumnAccessor<T> columnAccessor;
+	private final ParallelExecutor executor;
+
+	/**
+	 * @param columnAccessor The IColumnAccessor to access the column values of the row objects.
+	 * @param executor The ParallelExecutor used to sort large lists in parallel.
+	 */
+	public KeyExtractedSorter(IColumnAccessor<T> columnAccessor, ParallelExecutor executor) {
+		this.columnAccessor = columnAccessor;
+		this.executor = executor;
+	}
+
+	/**
+	 * Calculates the sort rank of every given row object. Row objects that are equal
+	 * regarding all sort columns get the same rank.
+	 * @param rows The row objects to sort.
+	 * @param sortColumns The columns to sort by, in the order of their priority.
+	 * @return The rank of every row object, in the order of the given row objects.
+	 */
+	public int[] rank(List<T> rows, List<SortColumn> sortColumns) {
+		SortKeys[] keys = extractKeys(rows, sortColumns);
+		int[] permutation = sort(keys, rows.size());
+
+		int[] ranks = new int[permutation.length];
+		int rank = 0;
+		for (int i = 0; i < permutation.length; i++) {
+			if (i > 0 && compare(keys, permutation[i - 1], permutation[i]) != 0) {
+				rank++;
+			}
+			ranks[permutation[i]] = rank;
+		}
+		return ranks;
+	}
+
+	/**
+	 * Sorts the given row objects.
+	 * @param rows The row objects to sort.
+	 * @param sortColumns The columns to sort by, in the order of their priority.
+	 * @return The indexes of the given row objects in sorted order. Row objects that are
+	 * 			equal regarding all sort columns keep their relative order.
+	 */
+	public int[] sort(List<T> rows, List<SortColumn> sortColumns) {
+		return sort(extractKeys(rows, sortColumns), rows.size());
+	}
+
+	/**
+	 * Creates a comparator that compares row objects the same way as this sorter, extracting
+	 * the keys on every comparison. Used for comparing single row objects, e.g. on inserts.
+	 * @param sortColumns The columns to sort by, in the order of their priority.
+	 * @return The comparator for the given sort columns.
+	 */
+	public Comparator<T> createComparator(final List<SortColumn> sortColumns) {
+		return new Comparator<T>() {
+			@Override
+			public int compare(T row1, T row2) {
+				for (SortColumn sortColumn : sortColumns) {
+					Object key1 = sortColumn.getKey(columnAccessor.getDataValue(row1, sortColumn.columnIndex));
+					Object key2 = sortColumn.getKey(columnAccessor.getDataValue(row2, sortColumn.columnIndex));
+					int result = sortColumn.reverse
+							? sortColumn.comparator.compare(key2, key1)
+							: sortColumn.comparator.compare(key1, key2);
+					if (result != 0) {
+						return result;
+					}
+				}
+				return 0;
+			}
+		};
+	}
+
+	/**
+	 * Extracts the sort keys of the given row objects for all sort columns.
+	 */
+	private SortKeys[] extractKeys(List<T> rows, List<SortColumn> sortColumns) {
+		SortKeys[] keys = new SortKeys[sortColumns.size()];
+		int size = rows.size();
+		for (int c = 0; c < keys.length; c++) {
+			SortColumn sortColumn = sortColumns.get(c);
+			Object[] values = new Object[size];
+			int i = 0;
+			for (T row : rows) {
+				values[i++] = sortColumn.getKey(this.columnAccessor.getDataValue(row, sortColumn.columnIndex));
+			}
+			keys[c] = SortKeys.create(values, sortColumn.comparator, sortColumn.reverse);
+		}
+		return keys;
+	}
+
+	private int[] sort(final SortKeys[] keys, int size) {
+		final int[] permutation = new int[size];
+		for (int i = 0; i < size; i++) {
+			permutation[i] = i;
+		}
+		if (keys.length == 0 || size < 2) {
+			return permutation;
+		}
+
+		final int[] buffer = new int[size];
+		int chunks = (size < PARALLEL_THRESHOLD) ? 1 : this.executor.getChunkCount(size, MIN_CHUNK_SIZE);
+		if (chunks == 1) {
+			mergeSort(keys, permutation, buffer, 0, size);
+			return permutation;
+		}
+
+		//sort the chunks in parallel
+		final int[] bounds = new int[chunks + 1];
+		for (int i = 0; i <= chunks; i++) {
+			bounds[i] = (int) ((long) size * i / chunks);
+		}
+		List<Callable<Object>> tasks = new ArrayList<Callable<Object>>(chunks);
+		for (int i = 0; i < chunks; i++) {
+			final int from = bounds[i];
+			final int to = bounds[i + 1];
+			tasks.add(new Callable<Object>() {
+				@Override
+				public Object call() {
+					mergeSort(keys, permutation, buffer, from, to);
+					return null;
+				}
+			});
+		}
+		invokeAll(tasks);
+
+		//merge the sorted chunks pairwise, alternating between the two arrays
+		int[] source = permutation;
+		int[] target = buffer;
+		int[] runs = bounds;
+		while (runs.length > 2) {
+			final int[] src = source;
+			final int[] dest = target;
+			int runCount = runs.length - 1;
+			int[] merged = new int[(runCount + 1) / 2 + 1];
+			tasks.clear();
+			for (int r = 0; r < runCount; r += 2) {
+				final int from = runs[r];
+				final int mid = runs[r + 1];
+				final int to = (r + 2 <= runCount) ? runs[r + 2] : mid;
+				merged[r / 2] = from;
+				tasks.add(new Callable<Object>() {
+					@Override
+					public Object call() {
+						merge(keys, src, dest, from, mid, to);
+						return null;
+					}
+				});
+			}
+			merged[merged.length - 1] = size;
+			invokeAll(tasks);
+			runs = merged;
+			source = dest;
+			target = src;
+		}
+		return source;
+	}
+
+	private void invokeAll(List<Callable<Object>> tasks) {
+		try {
+			this.executor.invokeAll(tasks);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Sorting was interrupted", e); //$NON-NLS-1$
+		} catch (ExecutionException e) {
+			throw new IllegalStateException("Sorting failed", e.getCause()); //$NON-NLS-1$
+		}
+	}
+
+	/**
+	 * Stable merge sort of the range [from, to) of the given permutation, using the buffer
+	 * range as temporary storage.
+	 */
+	static void mergeSort(SortKeys[] keys, int[] permutation, int[] buffer, int from, int to) {
+		if (to - from <= INSERTION_SORT_THRESHOLD) {
+			for (int i = from + 1; i < to; i++) {
+				int index = permutation[i];
+				int j = i - 1;
+				while (j >= from && compare(keys, permutation[j], index) > 0) {
+					permutation[j + 1] = permutation[j];
+					j--;
+				}
+				permutation[j + 1] = index;
+			}
+			return;
+		}
+		int mid = (from + to) >>> 1;
+		mergeSort(keys, permutation, buffer, from, mid);
+		mergeSort(keys, permutation, buffer, mid, to);
+		if (compare(keys, permutation[mid - 1], permutation[mid]) <= 0) {
+			//already in order
+			return;
+		}
+		merge(keys, permutation, buffer, from, mid, to);
+		System.arraycopy(buffer, from, permutation, from, to - from);
+	}
+
+	/**
+	 * Merges the sorted ranges [from, mid) and [mid, to) of the source into the same
+	 * range of the target.
+	 */
+	static void merge(SortKeys[] keys, int[] source, int[] target, int from, int mid, int to) {
+		int left = from;
+		int right = mid;
+		for (int i = from; i < to; i++) {
+			if (right >= to || (left < mid && compare(keys, source[left], source[right]) <= 0)) {
+				target[i] = source[left++];
+			} else {
+				target[i] = source[right++];
+			}
+		}
+	}
+
+	static int compare(SortKeys[] keys, int index1, int index2) {
+		for (SortKeys columnKeys : keys) {
+			int result = columnKeys.compare(index1, index2);
+			if (result != 0) {
+				return result;
+			}
+		}
+		return 0;
+	}
+
+	/**
+	 * Description of a column to sort by.
+	 */
+	public static class SortColumn {
+
+		final int columnIndex;
+		final Comparator<Object> comparator;
+		final boolean reverse;
+		final IDisplayConverter displayConverter;
+
+		/**
+		 * @param columnIndex The index of the column to sort by.
+		 * @param comparator The comparator to compare the column values with.
+		 * 			<code>null</code> to use the {@link DefaultComparator}.
+		 * @param reverse <code>true</code> if the column should be sorted descending.
+		 * @param displayConverter The display converter to normalize the column values with
+		 * 			before comparing them. <code>null</code> to compare the column values.
+		 */
+		@SuppressWarnings("unchecked")
+		public SortColumn(int columnIndex, Comparator<?> comparator, boolean reverse, IDisplayConverter displayConverter) {
+			this.columnIndex = columnIndex;
+			this.comparator = (comparator != null) ? (Comparator<Object>) comparator : DefaultComparator.getInstance();
+			this.reverse = reverse;
+			this.displayConverter = displayConverter;
+		}
+
+		Object getKey(Object value) {
+			return (this.displayConverter != null) ? this.displayConverter.canonicalToDisplayValue(value) : value;
+		}
+	}
+
+	/**
+	 * The extracted sort keys of one column.
+	 */
+	abstract static class SortKeys {
+
+		/**
+		 * Creates the sort keys for the given normalized values. Uses primitive arrays if the
+		 * default comparator is used and all values are numbers of the same type.
+		 */
+		static SortKeys create(Object[] values, Comparator<Object> comparator, boolean reverse) {
+			if (comparator.getClass() == DefaultComparator.class) {
+				Class<?> valueType = getCommonType(values);
+				if (valueType == Integer.class || valueType == Long.class
+						|| valueType == Short.class || valueType == Byte.class) {
+					long[] longKeys = new long[values.length];
+					boolean[] nulls = new boolean[values.length];
+					for (int i = 0; i < values.length; i++) {
+						if (values[i] == null) {
+							nulls[i] = true;
+						} else {
+							longKeys[i] = ((Number) values[i]).longValue();
+						}
+					}
+					return new LongKeys(longKeys, nulls, reverse);
+				}
+				else if (valueType == Double.class || valueType == Float.class) {
+					double[] doubleKeys = new double[values.length];
+					boolean[] nulls = new boolean[values.length];
+					for (int i = 0; i < values.length; i++) {
+						if (values[i] == null) {
+							nulls[i] = true;
+						} else {
+							doubleKeys[i] = ((Number) values[i]).doubleValue();
+						}
+					}
+					return new DoubleKeys(doubleKeys, nulls, reverse);
+				}
+			}
+			return new ObjectKeys(values, comparator, reverse);
+		}
+
+		private static Class<?> getCommonType(Object[] values) {
+			Class<?> type = null;
+			for (Object value : values) {
+				if (value != null) {
+					if (type == null) {
+						type = value.getClass();
+					} else if (type != value.getClass()) {
+						return null;
+					}
+				}
+			}
+			return type;
+		}
+
+		private final boolean reverse;
+
+		SortKeys(boolean reverse) {
+			this.reverse = reverse;
+		}
+
+		int compare(int index1, int index2) {
+			return this.reverse ? compareKeys(index2, index1) : compareKeys(index1, index2);
+		}
+
+		abstract int compareKeys(int index1, int index2);
+	}
+
+	static class ObjectKeys extends SortKeys {
+		private final Object[] keys;
+		private final Comparator<Object> comparator;
+
+		ObjectKeys(Object[] keys, Comparator<Object> comparator, boolean reverse) {
+			super(reverse);
+			this.keys = keys;
+			this.comparator = comparator;
+		}
+
+		@Override
+		int compareKeys(int index1, int index2) {
+			return this.comparator.compare(this.keys[index1], this.keys[index2]);
+		}
+	}
+
+	static class LongKeys extends SortKeys {
+		private final long[] keys;
+		private final boolean[] nulls;
+
+		LongKeys(long[] keys, boolean[] nulls, boolean reverse) {
+			super(reverse);
+			this.keys = keys;
+			this.nulls = nulls;
+		}
+
+		@Override
+		int compareKeys(int index1, int index2) {
+			//same null handling as the DefaultComparator
+			if (this.nulls[index1] || this.nulls[index2]) {
+				return (this.nulls[index1] ? 0 : 1) - (this.nulls[index2] ? 0 : 1);
+			}
+			long key1 = this.keys[index1];
+			long key2 = this.keys[index2];
+			return (key1 < key2) ? -1 : ((key1 == key2) ? 0 : 1);
+		}
+	}
+
+	static class DoubleKeys extends SortKeys {
+		private final double[] keys;
+		private final boolean[] nulls;
+
+		DoubleKeys(double[] keys, boolean[] nulls, boolean reverse) {
+			super(reverse);
+			this.keys = keys;
+			this.nulls = nulls;
+		}
+
+		@Override
+		int compareKeys(int index1, int index2) {
+			//same null handling as the DefaultComparator
+			if (this.nulls[index1] || this.nulls[index2]) {
+				return (this.nulls[index1] ? 0 : 1) - (this.nulls[index2] ? 0 : 1);
+			}
+			return Double.compare(this.keys[index1], this.keys[index2]);
+		}
+	}
+}
@@ -0,0 +1,489 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Original authors and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Original authors and others - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.extension.glazedlists.filterrow;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+import org.eclipse.nebula.widgets.nattable.data.IColumnAccessor;
+import org.eclipse.nebula.widgets.nattable.data.convert.DefaultDisplayConverter;
+import org.eclipse.nebula.widgets.nattable.data.convert.IDisplayConverter;
+import org.eclipse.nebula.widgets.nattable.filterrow.ParseResult.MatchType;
+import org.eclipse.nebula.widgets.nattable.filterrow.TextMatchingMode;
+
+import ca.odell.glazedlists.matchers.Matcher;
+
+/**
+ * Matcher that evaluates the whole filter row state as one predicate. It is created by the
+ * {@link FilterRowMatcherCompiler} and consists of clauses that are combined with AND.
+ * The clauses are ordered so that cheap and selective clauses are evaluated first, which
+ * makes the evaluation of a row object stop as early as possible.
+ * <p>
+ * In contrast to the GlazedLists TextMatcherEditor and ThresholdMatcherEditor, the clauses
+ * compare numeric values as primitives, text is matched case insensitive without creating
+ * intermediate lower case Strings and regular expressions are compiled only once.
+ * <p>
+ * The clauses count how often they were evaluated and how often they rejected a row object.
+ * These statistics are used by the {@link FilterRowMatcherCompiler} to order the clauses of the
+ * next compiled matcher. The counters are thread safe, so a matcher can be evaluated by
+ * several threads concurrently.
+ *
+ * @param <T> The type of the row objects that are filtered.
+ */
+public class CompiledFilterRowMatcher<T> implements Matcher<T> {
+
+	/**
+	 * The clauses of this matcher in evaluation order.
+	 */
+	private final FilterRowClause<T>[] clauses;
+	/**
+	 * The filter texts per column index this matcher was compiled from.
+	 * Used to determine if a matcher is a narrowing of another one.
+	 */
+	private final Map<Integer, ColumnFilter> columnFilters;
+
+	/**
+	 * @param clauses The clauses of this matcher in evaluation order.
+	 * @param columnFilters The filter texts per column index this matcher was compiled from.
+	 */
+	CompiledFilterRowMatcher(FilterRowClause<T>[] clauses, Map<Integer, ColumnFilter> columnFilters) {
+		this.clauses = clauses;
+		this.columnFilters = columnFilters;
+	}
+
+	@Override
+	public boolean matches(T item) {
+		for (FilterRowClause<T> clause : this.clauses) {
+			if (!clause.evaluate(item)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Checks whether the given row object matches, like {@link #matches(Object)}, but counts
+	 * the clause statistics in the given array instead of the shared counters of the clauses.
+	 * Used by worker threads that evaluate a part of a list, to avoid contention on the shared
+	 * counters. The counted statistics are added to the clauses via
+	 * {@link #addStatistics(long[])} after the part is evaluated.
+	 * @param item The row object to check.
+	 * @param statistics The array created via {@link #createStatistics()}.
+	 * @return <code>true</code> if the row object matches all clauses.
+	 */
+	public boolean matches(T item, long[] statistics) {
+		for (int i = 0; i < this.clauses.length; i++) {
+			statistics[i << 1]++;
+			if (!this.clauses[i].matches(item)) {
+				statistics[(i << 1) + 1]++;
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * @return An array to count the evaluations and rejections of the clauses in
+	 * 			via {@link #matches(Object, long[])}.
+	 */
+	public long[] createStatistics() {
+		return new long[this.clauses.length << 1];
+	}
+
+	/**
+	 * Adds the statistics counted via {@link #matches(Object, long[])} to the counters
+	 * of the clauses.
+	 * @param statistics The array created via {@link #createStatistics()}.
+	 */
+	public void addStatistics(long[] statistics) {
+		for (int i = 0; i < this.clauses.length; i++) {
+			this.clauses[i].addStatistics(statistics[i << 1], statistics[(i << 1) + 1]);
+		}
+	}
+
+	/**
+	 * @return The clauses of this matcher in evaluation order.
+	 */
+	public List<FilterRowClause<T>> getClauses() {
+		return Arrays.asList(this.clauses);
+	}
+
+	/**
+	 * Checks if this matcher only matches a subset of the row objects the given matcher matches.
+	 * This is the case if every column filter of the given matcher is also contained in this
+	 * matcher, either unchanged or narrowed, e.g. by typing additional characters in a CONTAINS
+	 * or STARTS_WITH filter. In that case only the current matches need to be filtered again.
+	 * @param other The matcher to check against.
+	 * @return <code>true</code> if this matcher is a narrowing of the given matcher.
+	 */
+	public boolean isNarrowingOf(CompiledFilterRowMatcher<T> other) {
+		for (Map.Entry<Integer, ColumnFilter> entry : other.columnFilters.entrySet()) {
+			ColumnFilter filter = this.columnFilters.get(entry.getKey());
+			if (filter == null || !filter.isNarrowingOf(entry.getValue())) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * @param other The matcher to check against.
+	 * @return <code>true</code> if this matcher was compiled from the same filter row state as the
+	 * 			given matcher.
+	 */
+	public boolean isEquivalent(CompiledFilterRowMatcher<T> other) {
+		return this.columnFilters.equals(other.columnFilters);
+	}
+
+
+	/**
+	 * The filter row state of one column. Used to compare filter states.
+	 */
+	static class ColumnFilter {
+
+		final String filterText;
+		final TextMatchingMode textMatchingMode;
+		final boolean simpleText;
+
+		/**
+		 * @param filterText The filter text of the column.
+		 * @param textMatchingMode The TextMatchingMode configured for the column.
+		 * @param simpleText <code>true</code> if the filter consists of a single text clause
+		 * 			without delimiters or threshold operations.
+		 */
+		ColumnFilter(String filterText, TextMatchingMode textMatchingMode, boolean simpleText) {
+			this.filterText = filterText;
+			this.textMatchingMode = textMatchingMode;
+			this.simpleText = simpleText;
+		}
+
+		boolean isNarrowingOf(ColumnFilter other) {
+			if (this.equals(other)) {
+				return true;
+			}
+			if (!this.simpleText || !other.simpleText || this.textMatchingMode != other.textMatchingMode) {
+				return false;
+			}
+			if (this.textMatchingMode == TextMatchingMode.CONTAINS) {
+				return TextClause.containsIgnoreCase(this.filterText, other.filterText);
+			}
+			if (this.textMatchingMode == TextMatchingMode.STARTS_WITH) {
+				return this.filterText.regionMatches(true, 0, other.filterText, 0, other.filterText.length());
+			}
+			return false;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof ColumnFilter)) {
+				return false;
+			}
+			ColumnFilter other = (ColumnFilter) obj;
+			return this.filterText.equals(other.filterText) && this.textMatchingMode == other.textMatchingMode;
+		}
+
+		@Override
+		public int hashCode() {
+			return this.filterText.hashCode();
+		}
+	}
+
+
+	/**
+	 * One clause of a compiled filter row matcher.
+	 *
+	 * @param <T> The type of the row objects that are filtered.
+	 */
+	public static abstract class FilterRowClause<T> {
+
+		/**
+		 * Key that identifies the clause over several compilations.
+		 * Used to carry over the observed statistics.
+		 */
+		private final String key;
+		/**
+		 * The estimated relative cost of a single evaluation.
+		 */
+		private final int cost;
+
+		private final AtomicLong evaluations = new AtomicLong();
+		private final AtomicLong rejections = new AtomicLong();
+
+		protected FilterRowClause(String key, int cost) {
+			this.key = key;
+			this.cost = cost;
+		}
+
+		final boolean evaluate(T item) {
+			this.evaluations.incrementAndGet();
+			if (matches(item)) {
+				return true;
+			}
+			this.rejections.incrementAndGet();
+			return false;
+		}
+
+		final void addStatistics(long evaluations, long rejections) {
+			this.evaluations.addAndGet(evaluations);
+			this.rejections.addAndGet(rejections);
+		}
+
+		/**
+		 * @param item The row object to check.
+		 * @return <code>true</code> if the row object matches this clause.
+		 */
+		public abstract boolean matches(T item);
+
+		/**
+		 * @return Key that identifies the clause over several compilations.
+		 */
+		public String getKey() {
+			return this.key;
+		}
+
+		/**
+		 * @return The estimated relative cost of a single evaluation.
+		 */
+		public int getCost() {
+			return this.cost;
+		}
+
+		/**
+		 * @return How often this clause was evaluated.
+		 */
+		public long getEvaluations() {
+			return this.evaluations.get();
+		}
+
+		/**
+		 * @return How often this clause rejected a row object.
+		 */
+		public long getRejections() {
+			return this.rejections.get();
+		}
+	}
+
+
+	/**
+	 * Clause that matches if any of its clauses match. Used to combine the
+	 * text clauses of one column.
+	 */
+	static class OrClause<T> extends FilterRowClause<T> {
+
+		private final FilterRowClause<T>[] clauses;
+
+		OrClause(String key, FilterRowClause<T>[] clauses) {
+			super(key, sumCosts(clauses));
+			this.clauses = clauses;
+		}
+
+		@Override
+		public boolean matches(T item) {
+			for (FilterRowClause<T> clause : this.clauses) {
+				if (clause.matches(item)) {
+					return true;
+				}
+			}
+			return false;
+		}
+
+		private static <T> int sumCosts(FilterRowClause<T>[] clauses) {
+			int cost = 0;
+			for (FilterRowClause<T> clause : clauses) {
+				cost += clause.getCost();
+			}
+			return cost;
+		}
+	}
+
+
+	/**
+	 * Clause that matches the display value of a column against a text
+	 * using a {@link TextMatchingMode}. Matching is case insensitive.
+	 */
+	static class TextClause<T> extends FilterRowClause<T> {
+
+		private final IColumnAccessor<T> columnAccessor;
+		private final int columnIndex;
+		private final IDisplayConverter displayConverter;
+		/**
+		 * Whether the display conversion can be skipped for String values.
+		 */
+		private final boolean identityConversion;
+		private final TextMatchingMode textMatchingMode;
+		private final String text;
+		/**
+		 * The compiled pattern in case of TextMatchingMode.REGULAR_EXPRESSION.
+		 */
+		private final Pattern pattern;
+		/**
+		 * As java.util.regex.Matcher is not thread safe, a Matcher is cached per thread.
+		 */
+		private final ThreadLocal<java.util.regex.Matcher> regexMatcher;
+
+		TextClause(String key, int cost, IColumnAccessor<T> columnAccessor, int columnIndex,
+				IDisplayConverter displayConverter, TextMatchingMode textMatchingMode, String text) {
+			super(key, cost);
+			this.columnAccessor = columnAccessor;
+			this.columnIndex = columnIndex;
+			this.displayConverter = displayConverter;
+			this.identityConversion = displayConverter.getClass() == DefaultDisplayConverter.class;
+			this.textMatchingMode = textMatchingMode;
+			this.text = text;
+			if (textMatchingMode == TextMatchingMode.REGULAR_EXPRESSION) {
+				this.pattern = Pattern.compile(text, Pattern.CASE_INSENSITIVE);
+				this.regexMatcher = new ThreadLocal<java.util.regex.Matcher>() {
+					@Override
+					protected java.util.regex.Matcher initialValue() {
+						return pattern.matcher(""); //$NON-NLS-1$
+					}
+				};
+			}
+			else {
+				this.pattern = null;
+				this.regexMatcher = null;
+			}
+		}
+
+		@Override
+		public boolean matches(T item) {
+			Object cellData = this.columnAccessor.getDataValue(item, this.columnIndex);
+			String value;
+			if (this.identityConversion) {
+				value = (cellData != null) ? cellData.toString() : ""; //$NON-NLS-1$
+			}
+			else {
+				Object displayValue = this.displayConverter.canonicalToDisplayValue(cellData);
+				value = (displayValue != null) ? displayValue.toString() : ""; //$NON-NLS-1$
+			}
+
+			switch (this.textMatchingMode) {
+				case EXACT:
+					return value.equalsIgnoreCase(this.text);
+				case STARTS_WITH:
+					return value.regionMatches(true, 0, this.text, 0, this.text.length());
+				case REGULAR_EXPRESSION:
+					return this.regexMatcher.get().reset(value).matches();
+				default:
+					return containsIgnoreCase(value, this.text);
+			}
+		}
+
+		/**
+		 * Case insensitive contains check that does not create lower case copies of the Strings.
+		 * @param value The String to search in.
+		 * @param text The String to search for.
+		 * @return <code>true</code> if value contains text ignoring the case.
+		 */
+		static boolean containsIgnoreCase(String value, String text) {
+			int length = text.length();
+			if (length == 0) {
+				return true;
+			}
+			char firstLower = Character.toLowerCase(text.charAt(0));
+			char firstUpper = Character.toUpperCase(text.charAt(0));
+			int max = value.length() - length;
+			for (int i = 0; i <= max; i++) {
+				char c = value.charAt(i);
+				if ((c == firstLower || c == firstUpper) && value.regionMatches(true, i, text, 0, length)) {
+					return true;
+				}
+			}
+			return false;
+		}
+	}
+
+
+	/**
+	 * Clause that compares the canonical value of a column against a threshold.
+	 * If the threshold and the column value are primitive wrapper types and the default
+	 * comparator is configured, the comparison is performed on primitives.
+	 */
+	static class ThresholdClause<T> extends FilterRowClause<T> {
+
+		private final IColumnAccessor<T> columnAccessor;
+		private final int columnIndex;
+		private final Object threshold;
+		private final Comparator<Object> comparator;
+		private final MatchType matchType;
+
+		/**
+		 * Whether the primitive comparison can be used if the column value is a number.
+		 */
+		private final boolean primitive;
+		private final boolean integralThreshold;
+		private final long longThreshold;
+		private final double doubleThreshold;
+
+		ThresholdClause(String key, int cost, IColumnAccessor<T> columnAccessor, int columnIndex,
+				Object threshold, Comparator<Object> comparator, boolean defaultComparator, MatchType matchType) {
+			super(key, cost);
+			this.columnAccessor = columnAccessor;
+			this.columnIndex = columnIndex;
+			this.threshold = threshold;
+			this.comparator = comparator;
+			this.matchType = matchType;
+
+			this.primitive = defaultComparator && isPrimitiveNumber(threshold);
+			this.integralThreshold = this.primitive && isIntegral(threshold);
+			this.longThreshold = this.primitive ? ((Number) threshold).longValue() : 0;
+			this.doubleThreshold = this.primitive ? ((Number) threshold).doubleValue() : 0;
+		}
+
+		@Override
+		public boolean matches(T item) {
+			Object value = this.columnAccessor.getDataValue(item, this.columnIndex);
+
+			int compareResult;
+			if (this.primitive && isPrimitiveNumber(value)) {
+				if (this.integralThreshold && isIntegral(value)) {
+					long longValue = ((Number) value).longValue();
+					compareResult = (longValue < this.longThreshold) ? -1 : ((longValue == this.longThreshold) ? 0 : 1);
+				}
+				else {
+					compareResult = Double.compare(((Number) value).doubleValue(), this.doubleThreshold);
+				}
+			}
+			else {
+				compareResult = this.comparator.compare(value, this.threshold);
+			}
+
+			switch (this.matchType) {
+				case GREATER_THAN:
+					return compareResult > 0;
+				case GREATER_THAN_OR_EQUAL:
+					return compareResult >= 0;
+				case LESS_THAN:
+					return compareResult < 0;
+				case LESS_THAN_OR_EQUAL:
+					return compareResult <= 0;
+				case NOT_EQUAL:
+					return compareResult != 0;
+				default:
+					return compareResult == 0;
+			}
+		}
+
+		static boolean isPrimitiveNumber(Object value) {
+			return value instanceof Integer || value instanceof Long || value instanceof Double
+					|| value instanceof Float || value instanceof Short || value instanceof Byte;
+		}
+
+		static boolean isIntegral(Object value) {
+			return value instanceof Integer || value instanceof Long
+					|| value instanceof Short || value instanceof Byte;
+		}
+	}
+}
@@ -0,0 +1,83 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Original authors and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Original authors and others - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.extension.glazedlists.filterrow;
+
+import ca.odell.glazedlists.matchers.AbstractMatcherEditor;
+import ca.odell.glazedlists.matchers.Matcher;
+
+/**
+ * MatcherEditor that carries the {@link CompiledFilterRowMatcher} of the filter row.
+ * <p>
+ * On changing the matcher it checks whether the new matcher is a narrowing or a
+ * relaxation of the previous one and fires the corresponding constrained or relaxed
+ * events. This way the FilterList only needs to test the currently matching row objects
+ * if a filter is narrowed, e.g. by typing additional characters into the filter row,
+ * and only the currently not matching row objects if a filter is relaxed.
+ *
+ * @param <T> The type of the row objects that are filtered.
+ */
+public class CompiledFilterRowMatcherEditor<T> extends AbstractMatcherEditor<T> {
+
+	/**
+	 * The currently applied compiled matcher or <code>null</code> if no filter is applied.
+	 */
+	private CompiledFilterRowMatcher<T> compiledMatcher;
+
+	/**
+	 * Sets the given compiled matcher and informs the listeners about the change.
+	 * @param newMatcher The compiled matcher to apply or <code>null</code> to match all.
+	 */
+	public void setCompiledMatcher(CompiledFilterRowMatcher<T> newMatcher) {
+		setCompiledMatcher(newMatcher, null);
+	}
+
+	/**
+	 * Sets the given compiled matcher and informs the listeners about the change.
+	 * @param newMatcher The compiled matcher to apply or <code>null</code> to match all.
+	 * @param evaluationMatcher The matcher that is fired to the listeners instead of the compiled
+	 * 			matcher. Needs to produce the same results as the compiled matcher, e.g. by serving
+	 * 			precomputed results. <code>null</code> if the compiled matcher should be fired.
+	 */
+	public void setCompiledMatcher(CompiledFilterRowMatcher<T> newMatcher, Matcher<T> evaluationMatcher) {
+		CompiledFilterRowMatcher<T> oldMatcher = this.compiledMatcher;
+		this.compiledMatcher = newMatcher;
+
+		Matcher<T> firedMatcher = (evaluationMatcher != null) ? evaluationMatcher : newMatcher;
+		if (newMatcher == null) {
+			if (oldMatcher != null) {
+				fireMatchAll();
+			}
+		}
+		else if (oldMatcher == null) {
+			fireConstrained(firedMatcher);
+		}
+		else if (newMatcher.isEquivalent(oldMatcher)) {
+			//nothing changed, keep the currently applied matcher to avoid refiltering
+			this.compiledMatcher = oldMatcher;
+		}
+		else if (newMatcher.isNarrowingOf(oldMatcher)) {
+			fireConstrained(firedMatcher);
+		}
+		else if (oldMatcher.isNarrowingOf(newMatcher)) {
+			fireRelaxed(firedMatcher);
+		}
+		else {
+			fireChanged(firedMatcher);
+		}
+	}
+
+	/**
+	 * @return The currently applied compiled matcher or <code>null</code> if no filter is applied.
+	 */
+	public CompiledFilterRowMatcher<T> getCompiledMatcher() {
+		return this.compiledMatcher;
+	}
+}
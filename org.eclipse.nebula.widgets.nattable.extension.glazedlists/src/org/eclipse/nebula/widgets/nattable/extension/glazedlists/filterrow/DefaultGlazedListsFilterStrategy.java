@@ -18,6 +18,8 @@ import static org.eclipse.nebula.widgets.nattable.filterrow.config.FilterRowConf
 import static org.eclipse.nebula.widgets.nattable.style.DisplayMode.NORMAL;
 
 import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -39,6 +41,7 @@ import ca.odell.glazedlists.FunctionList;
 import ca.odell.glazedlists.FunctionList.Function;
 import ca.odell.glazedlists.TextFilterator;
 import ca.odell.glazedlists.matchers.CompositeMatcherEditor;
+import ca.odell.glazedlists.matchers.Matcher;
 import ca.odell.glazedlists.matchers.MatcherEditor;
 import ca.odell.glazedlists.matchers.TextMatcherEditor;
 import ca.odell.glazedlists.matchers.ThresholdMatcherEditor;
@@ -54,6 +57,19 @@ public class DefaultGlazedListsFilterStrategy<T> implements IFilterStrategy<T> {
 	
 	protected FilterList<T> filterList;
 	protected ReadWriteLock filterLock;
+
+	/**
+	 * The compiler that creates a single typed matcher out of the filter row state.
+	 * <code>null</code> if filtering is performed via GlazedLists TextMatcherEditors 
+	 * and ThresholdMatcherEditors.
+	 */
+	private FilterRowMatcherCompiler<T> matcherCompiler;
+	/**
+	 * The MatcherEditor that carries the compiled matcher. Stays registered in the 
+	 * CompositeMatcherEditor while compiled filtering is enabled, so narrowing a filter 
+	 * only refilters the current matches.
+	 */
+	private CompiledFilterRowMatcherEditor<T> compiledMatcherEditor;
 	
 	/**
 	 * Create a new DefaultGlazedListsFilterStrategy on top of the given FilterList.
@@ -100,6 +116,11 @@ public class DefaultGlazedListsFilterStrategy<T> implements IFilterStrategy<T> {
 	@SuppressWarnings({ "unchecked", "rawtypes" })
 	public void applyFilter(Map<Integer, Object> filterIndexToObjectMap) {
 		
+		if (this.matcherCompiler != null) {
+			applyCompiledFilter(filterIndexToObjectMap);
+			return;
+		}
+
 		//wait until all listeners had the chance to handle the clear event
 		try {
 			this.filterLock.writeLock().lock();
@@ -165,6 +186,145 @@ public class DefaultGlazedListsFilterStrategy<T> implements IFilterStrategy<T> {
 		}
 	}
 
+	/**
+	 * Compile the filter row state to a single matcher and apply it via the CompiledFilterRowMatcherEditor.
+	 * All other MatcherEditors are removed from the CompositeMatcherEditor, except the ones for which 
+	 * {@link #isRetainedMatcherEditor(MatcherEditor)} returns <code>true</code>.
+	 * @param filterIndexToObjectMap A Map of column indexes to filter objects.
+	 */
+	protected void applyCompiledFilter(Map<Integer, Object> filterIndexToObjectMap) {
+		applyCompiledMatcher(compileFilter(filterIndexToObjectMap), null);
+	}
+
+	/**
+	 * Compile the filter row state to a single matcher.
+	 * @param filterIndexToObjectMap A Map of column indexes to filter objects.
+	 * @return The compiled matcher or <code>null</code> if there is no filter or the 
+	 * 			filter could not be compiled.
+	 */
+	protected CompiledFilterRowMatcher<T> compileFilter(Map<Integer, Object> filterIndexToObjectMap) {
+		try {
+			if (!filterIndexToObjectMap.isEmpty()) {
+				return this.matcherCompiler.compile(getFilterTexts(filterIndexToObjectMap));
+			}
+		} catch (Exception e) {
+			log.error("Error on applying a filter", e); //$NON-NLS-1$
+		}
+		return null;
+	}
+
+	/**
+	 * Apply the given compiled matcher via the CompiledFilterRowMatcherEditor.
+	 * All other MatcherEditors are removed from the CompositeMatcherEditor, except the ones for which 
+	 * {@link #isRetainedMatcherEditor(MatcherEditor)} returns <code>true</code>.
+	 * @param compiledMatcher The compiled matcher to apply or <code>null</code> to remove the filter.
+	 * @param evaluationMatcher The matcher that should be used by the FilterList to evaluate the 
+	 * 			compiled matcher, e.g. a matcher that serves precomputed results. <code>null</code> if
+	 * 			the compiled matcher should be used directly.
+	 */
+	protected void applyCompiledMatcher(CompiledFilterRowMatcher<T> compiledMatcher, Matcher<T> evaluationMatcher) {
+		CompiledFilterRowMatcher<T> previousMatcher = this.compiledMatcherEditor.getCompiledMatcher();
+		if (previousMatcher != null) {
+			this.matcherCompiler.collectStatistics(previousMatcher);
+		}
+
+		try {
+			this.filterLock.writeLock().lock();
+
+			EventList<MatcherEditor<T>> matcherEditors = this.matcherEditor.getMatcherEditors();
+			for (Iterator<MatcherEditor<T>> it = matcherEditors.iterator(); it.hasNext();) {
+				MatcherEditor<T> editor = it.next();
+				if (editor != this.compiledMatcherEditor && !isRetainedMatcherEditor(editor)) {
+					it.remove();
+				}
+			}
+			if (!matcherEditors.contains(this.compiledMatcherEditor)) {
+				matcherEditors.add(this.compiledMatcherEditor);
+			}
+
+			this.compiledMatcherEditor.setCompiledMatcher(compiledMatcher, evaluationMatcher);
+		}
+		finally {
+			this.filterLock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Converts the filter objects of the given map to their String representation.
+	 * @param filterIndexToObjectMap A Map of column indexes to filter objects.
+	 * @return A Map of column indexes to filter texts.
+	 */
+	protected Map<Integer, String> getFilterTexts(Map<Integer, Object> filterIndexToObjectMap) {
+		Map<Integer, String> filterTexts = new LinkedHashMap<Integer, String>();
+		for (Entry<Integer, Object> mapEntry : filterIndexToObjectMap.entrySet()) {
+			filterTexts.put(mapEntry.getKey(), getStringFromColumnObject(mapEntry.getKey(), mapEntry.getValue()));
+		}
+		return filterTexts;
+	}
+
+	/**
+	 * Checks whether the given MatcherEditor should stay registered in the CompositeMatcherEditor 
+	 * when a compiled filter is applied. Subclasses that add MatcherEditors on their own should 
+	 * override this method to avoid that they are removed and added again on every filter change.
+	 * @param matcherEditor The MatcherEditor to check.
+	 * @return <code>true</code> if the given MatcherEditor should not be removed.
+	 */
+	protected boolean isRetainedMatcherEditor(MatcherEditor<T> matcherEditor) {
+		return false;
+	}
+
+	/**
+	 * Enables or disables compiled filtering. If enabled, the filter row state is compiled into
+	 * a single {@link CompiledFilterRowMatcher} that compares numeric values as primitives, 
+	 * precompiles text and regular expression patterns and orders the clauses by observed 
+	 * selectivity and cost. Additionally narrowing a filter, e.g. by typing additional characters, 
+	 * only refilters the current matches instead of the whole source list.
+	 * <p>
+	 * Changing the mode does not reapply the current filter.
+	 * @param compiledFiltering <code>true</code> to enable compiled filtering.
+	 */
+	public void setCompiledFiltering(boolean compiledFiltering) {
+		if (compiledFiltering && this.matcherCompiler == null) {
+			this.matcherCompiler = createMatcherCompiler();
+			this.compiledMatcherEditor = new CompiledFilterRowMatcherEditor<T>();
+		}
+		else if (!compiledFiltering && this.matcherCompiler != null) {
+			try {
+				this.filterLock.writeLock().lock();
+				this.matcherEditor.getMatcherEditors().remove(this.compiledMatcherEditor);
+			}
+			finally {
+				this.filterLock.writeLock().unlock();
+			}
+			this.matcherCompiler = null;
+			this.compiledMatcherEditor = null;
+		}
+	}
+
+	/**
+	 * @return <code>true</code> if compiled filtering is enabled.
+	 */
+	public boolean isCompiledFiltering() {
+		return this.matcherCompiler != null;
+	}
+
+	/**
+	 * Creates the FilterRowMatcherCompiler that is used for compiled filtering.
+	 * Subclasses can override this method to provide customized clauses.
+	 * @return The FilterRowMatcherCompiler to use.
+	 */
+	protected FilterRowMatcherCompiler<T> createMatcherCompiler() {
+		return new FilterRowMatcherCompiler<T>(this.columnAccessor, this.configRegistry);
+	}
+
+	/**
+	 * @return The MatcherEditor that carries the compiled matcher or <code>null</code> if 
+	 * 			compiled filtering is not enabled.
+	 */
+	protected CompiledFilterRowMatcherEditor<T> getCompiledMatcherEditor() {
+		return this.compiledMatcherEditor;
+	}
+
 	/**
 	 * Converts the object inserted to the filter cell at the given column position to the corresponding String.
 	 * @param columnIndex The column index of the filter cell that should be processed.
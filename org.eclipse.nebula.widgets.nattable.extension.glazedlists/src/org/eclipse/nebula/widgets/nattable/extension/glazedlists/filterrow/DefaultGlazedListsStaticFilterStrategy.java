@@ -73,7 +73,21 @@ public class DefaultGlazedListsStaticFilterStrategy<T> extends
 	@Override
 	public void applyFilter(Map<Integer, Object> filterIndexToObjectMap) {
 		super.applyFilter(filterIndexToObjectMap);
-		this.getMatcherEditor().getMatcherEditors().addAll(staticMatcherEditor.values());
+		for (MatcherEditor<T> matcherEditor : staticMatcherEditor.values()) {
+			//on compiled filtering the static MatcherEditors are retained
+			if (!this.getMatcherEditor().getMatcherEditors().contains(matcherEditor)) {
+				this.getMatcherEditor().getMatcherEditors().add(matcherEditor);
+			}
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * Retains the static matchers, so they are not removed and added again on every filter change.
+	 */
+	@Override
+	protected boolean isRetainedMatcherEditor(MatcherEditor<T> matcherEditor) {
+		return staticMatcherEditor.containsValue(matcherEditor);
 	}
 	
 	/**
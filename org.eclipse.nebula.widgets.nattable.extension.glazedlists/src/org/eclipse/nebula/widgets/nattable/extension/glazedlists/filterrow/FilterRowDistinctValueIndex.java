@@ -0,0 +1,367 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Original authors and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Original authors and others - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.extension.glazedlists.filterrow;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.nebula.widgets.nattable.data.IColumnAccessor;
+import org.eclipse.nebula.widgets.nattable.filterrow.combobox.FilterRowComboUpdateEvent;
+
+import ca.odell.glazedlists.event.ListEvent;
+
+/**
+ * Index of the distinct values per column of a collection, used to serve the filter row
+ * combo boxes without rescanning the whole collection on every change.
+ * <p>
+ * For every column a reference counting map value -&gt; number of occurrences is maintained.
+ * Additionally a shadow copy of the column values per row is kept, so on deletes and updates
+ * the previous values are known without the need to access the removed row objects.
+ * The index is updated incrementally via {@link #listChanged(ListEvent)} by processing the
+ * insert/delete/update blocks of the ListEvent. Only values whose reference count changes
+ * from 0 to 1 or from 1 to 0 are reported as added or removed.
+ *
+ * @param <T> The type of the objects in the indexed collection.
+ */
+public class FilterRowDistinctValueIndex<T> {
+
+	/**
+	 * The IColumnAccessor to be able to read the values out of the row objects.
+	 */
+	private final IColumnAccessor<T> columnAccessor;
+	/**
+	 * The number of columns that are indexed. Evaluated once on creation.
+	 */
+	private final int columnCount;
+	/**
+	 * Per column the reference counts of the contained values.
+	 * A int[1] is used as mutable counter to avoid boxing on every change.
+	 */
+	private final List<Map<Object, int[]>> valueCounts;
+	/**
+	 * Shadow copy of the column values per row, in the order of the indexed list.
+	 */
+	private final List<Object[]> rowValues = new ArrayList<Object[]>();
+	/**
+	 * Per column the sorted distinct values, created lazily and reset if the
+	 * distinct values of a column change.
+	 */
+	private final List<List<?>> sortedValues;
+	/**
+	 * Per column the values that appeared since the last call to {@link #collectUpdateEvents()}.
+	 */
+	private final List<Set<Object>> addedValues;
+	/**
+	 * Per column the values that disappeared since the last call to {@link #collectUpdateEvents()}.
+	 */
+	private final List<Set<Object>> removedValues;
+
+	/**
+	 * @param columnAccessor The IColumnAccessor to be able to read the values out of the row objects.
+	 */
+	public FilterRowDistinctValueIndex(IColumnAccessor<T> columnAccessor) {
+		this.columnAccessor = columnAccessor;
+		this.columnCount = columnAccessor.getColumnCount();
+
+		this.valueCounts = new ArrayList<Map<Object, int[]>>(this.columnCount);
+		this.sortedValues = new ArrayList<List<?>>(this.columnCount);
+		this.addedValues = new ArrayList<Set<Object>>(this.columnCount);
+		this.removedValues = new ArrayList<Set<Object>>(this.columnCount);
+		for (int i = 0; i < this.columnCount; i++) {
+			this.valueCounts.add(new HashMap<Object, int[]>());
+			this.sortedValues.add(null);
+			this.addedValues.add(new HashSet<Object>());
+			this.removedValues.add(new HashSet<Object>());
+		}
+	}
+
+	/**
+	 * Clears the index and builds it up again from the given collection.
+	 * No change information is collected by this operation.
+	 * @param rows The collection whose values should be indexed.
+	 */
+	public void build(Collection<T> rows) {
+		this.rowValues.clear();
+		for (int i = 0; i < this.columnCount; i++) {
+			this.valueCounts.get(i).clear();
+			this.sortedValues.set(i, null);
+			this.addedValues.get(i).clear();
+			this.removedValues.get(i).clear();
+		}
+
+		for (T row : rows) {
+			Object[] values = readValues(row);
+			this.rowValues.add(values);
+			for (int column = 0; column < this.columnCount; column++) {
+				int[] count = this.valueCounts.get(column).get(values[column]);
+				if (count == null) {
+					this.valueCounts.get(column).put(values[column], new int[] { 1 });
+				}
+				else {
+					count[0]++;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Updates the index for the changes described by the given ListEvent.
+	 * The source list of the event needs to be the list this index was built for.
+	 * @param listChanges The ListEvent describing the changes of the indexed list.
+	 */
+	public void listChanged(ListEvent<T> listChanges) {
+		List<T> source = listChanges.getSourceList();
+
+		if (listChanges.isReordering()) {
+			//values are not changed on reordering, only the positions in the shadow copy
+			int[] reorderMap = listChanges.getReorderMap();
+			List<Object[]> reordered = new ArrayList<Object[]>(reorderMap.length);
+			for (int i = 0; i < reorderMap.length; i++) {
+				reordered.add(this.rowValues.get(reorderMap[i]));
+			}
+			this.rowValues.clear();
+			this.rowValues.addAll(reordered);
+			return;
+		}
+
+		boolean inSync = true;
+		while (inSync && listChanges.nextBlock()) {
+			int type = listChanges.getType();
+			int start = listChanges.getBlockStartIndex();
+			int end = listChanges.getBlockEndIndex();
+
+			if ((type == ListEvent.INSERT && start > this.rowValues.size())
+					|| (type != ListEvent.INSERT && end >= this.rowValues.size())) {
+				//the shadow copy is out of sync, stop processing the changes
+				inSync = false;
+				continue;
+			}
+
+			if (type == ListEvent.INSERT) {
+				List<Object[]> inserted = new ArrayList<Object[]>(end - start + 1);
+				for (int i = start; i <= end; i++) {
+					Object[] values = readValues(source.get(i));
+					inserted.add(values);
+					increment(values);
+				}
+				this.rowValues.addAll(start, inserted);
+			}
+			else if (type == ListEvent.DELETE) {
+				List<Object[]> deleted = this.rowValues.subList(start, end + 1);
+				for (Object[] values : deleted) {
+					decrement(values);
+				}
+				deleted.clear();
+			}
+			else if (type == ListEvent.UPDATE) {
+				for (int i = start; i <= end; i++) {
+					update(i, source.get(i));
+				}
+			}
+		}
+
+		if (!inSync || this.rowValues.size() != source.size()) {
+			//the shadow copy is out of sync, e.g. because the index was registered too late
+			//so we need to rebuild and report the complete differences
+			rebuild(source);
+		}
+	}
+
+	/**
+	 * Re-reads the values of the given column for all rows of the given collection and
+	 * updates the reference counts for changed values. Used for in-place updates of row
+	 * objects that are not reported via ListEvents.
+	 * @param rows The collection whose values are indexed.
+	 * @param column The column index for which the values should be re-read.
+	 */
+	public void refreshColumn(Collection<T> rows, int column) {
+		if (column < 0 || column >= this.columnCount) {
+			return;
+		}
+		if (this.rowValues.size() != rows.size()) {
+			rebuild(rows);
+			return;
+		}
+
+		int i = 0;
+		for (T row : rows) {
+			Object[] values = this.rowValues.get(i++);
+			Object newValue = this.columnAccessor.getDataValue(row, column);
+			if (!equals(values[column], newValue)) {
+				decrement(column, values[column]);
+				values[column] = newValue;
+				increment(column, newValue);
+			}
+		}
+	}
+
+	/**
+	 * @param column The column index for which the distinct values are requested.
+	 * @return The sorted distinct values of the given column. A new list is returned on every call,
+	 * 			as the returned lists are used and modified as filter collections. The sorting
+	 * 			is only performed again if the distinct values of the column changed.
+	 */
+	@SuppressWarnings({ "rawtypes", "unchecked" })
+	public List<?> getValues(int column) {
+		List sorted = this.sortedValues.get(column);
+		if (sorted == null) {
+			sorted = new ArrayList(this.valueCounts.get(column).keySet());
+			if (!sorted.isEmpty() && sorted.get(0) instanceof Comparable) {
+				Collections.sort(sorted);
+			}
+			this.sortedValues.set(column, sorted);
+		}
+		return new ArrayList(sorted);
+	}
+
+	/**
+	 * @param column The column index.
+	 * @param value The value whose occurrences are requested.
+	 * @return The number of rows that contain the given value in the given column.
+	 */
+	public int getCount(int column, Object value) {
+		int[] count = this.valueCounts.get(column).get(value);
+		return (count != null) ? count[0] : 0;
+	}
+
+	/**
+	 * @return The number of indexed columns.
+	 */
+	public int getColumnCount() {
+		return this.columnCount;
+	}
+
+	/**
+	 * Creates the FilterRowComboUpdateEvents for all columns whose distinct values changed
+	 * since the last call and resets the collected change information.
+	 * @return The FilterRowComboUpdateEvents for the changed columns. Never <code>null</code>.
+	 */
+	public List<FilterRowComboUpdateEvent> collectUpdateEvents() {
+		List<FilterRowComboUpdateEvent> events = new ArrayList<FilterRowComboUpdateEvent>();
+		for (int column = 0; column < this.columnCount; column++) {
+			Set<Object> added = this.addedValues.get(column);
+			Set<Object> removed = this.removedValues.get(column);
+			if (!added.isEmpty() || !removed.isEmpty()) {
+				events.add(new FilterRowComboUpdateEvent(
+						column, new HashSet<Object>(added), new HashSet<Object>(removed)));
+				added.clear();
+				removed.clear();
+			}
+		}
+		return events;
+	}
+
+	/**
+	 * Rebuilds the index from the given collection and records the distinct value
+	 * differences compared to the state before.
+	 * @param rows The collection whose values should be indexed.
+	 */
+	private void rebuild(Collection<T> rows) {
+		List<Set<Object>> before = new ArrayList<Set<Object>>(this.columnCount);
+		for (int column = 0; column < this.columnCount; column++) {
+			Set<Object> values = new HashSet<Object>(this.valueCounts.get(column).keySet());
+			//take pending changes into account so they are not lost by rebuilding
+			values.removeAll(this.addedValues.get(column));
+			values.addAll(this.removedValues.get(column));
+			before.add(values);
+		}
+
+		build(rows);
+
+		for (int column = 0; column < this.columnCount; column++) {
+			Set<Object> after = this.valueCounts.get(column).keySet();
+			for (Object value : after) {
+				if (!before.get(column).contains(value)) {
+					this.addedValues.get(column).add(value);
+				}
+			}
+			for (Object value : before.get(column)) {
+				if (!after.contains(value)) {
+					this.removedValues.get(column).add(value);
+				}
+			}
+		}
+	}
+
+	private Object[] readValues(T row) {
+		Object[] values = new Object[this.columnCount];
+		for (int column = 0; column < this.columnCount; column++) {
+			values[column] = this.columnAccessor.getDataValue(row, column);
+		}
+		return values;
+	}
+
+	private void update(int rowIndex, T row) {
+		Object[] values = this.rowValues.get(rowIndex);
+		for (int column = 0; column < this.columnCount; column++) {
+			Object newValue = this.columnAccessor.getDataValue(row, column);
+			if (!equals(values[column], newValue)) {
+				decrement(column, values[column]);
+				values[column] = newValue;
+				increment(column, newValue);
+			}
+		}
+	}
+
+	private void increment(Object[] values) {
+		for (int column = 0; column < this.columnCount; column++) {
+			increment(column, values[column]);
+		}
+	}
+
+	private void decrement(Object[] values) {
+		for (int column = 0; column < this.columnCount; column++) {
+			decrement(column, values[column]);
+		}
+	}
+
+	private void increment(int column, Object value) {
+		Map<Object, int[]> counts = this.valueCounts.get(column);
+		int[] count = counts.get(value);
+		if (count == null) {
+			counts.put(value, new int[] { 1 });
+			//the value appeared
+			if (!this.removedValues.get(column).remove(value)) {
+				this.addedValues.get(column).add(value);
+			}
+			this.sortedValues.set(column, null);
+		}
+		else {
+			count[0]++;
+		}
+	}
+
+	private void decrement(int column, Object value) {
+		Map<Object, int[]> counts = this.valueCounts.get(column);
+		int[] count = counts.get(value);
+		if (count == null) {
+			return;
+		}
+		if (--count[0] == 0) {
+			counts.remove(value);
+			//the value disappeared
+			if (!this.addedValues.get(column).remove(value)) {
+				this.removedValues.get(column).add(value);
+			}
+			this.sortedValues.set(column, null);
+		}
+	}
+
+	private static boolean equals(Object o1, Object o2) {
+		return (o1 == null) ? o2 == null : o1.equals(o2);
+	}
+}
@@ -0,0 +1,250 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Original authors and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Original authors and others - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.extension.glazedlists.filterrow;
+
+import static org.eclipse.nebula.widgets.nattable.filterrow.FilterRowDataLayer.FILTER_ROW_COLUMN_LABEL_PREFIX;
+import static org.eclipse.nebula.widgets.nattable.filterrow.config.FilterRowConfigAttributes.FILTER_COMPARATOR;
+import static org.eclipse.nebula.widgets.nattable.filterrow.config.FilterRowConfigAttributes.FILTER_DISPLAY_CONVERTER;
+import static org.eclipse.nebula.widgets.nattable.filterrow.config.FilterRowConfigAttributes.TEXT_DELIMITER;
+import static org.eclipse.nebula.widgets.nattable.filterrow.config.FilterRowConfigAttributes.TEXT_MATCHING_MODE;
+import static org.eclipse.nebula.widgets.nattable.style.DisplayMode.NORMAL;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import org.eclipse.nebula.widgets.nattable.config.DefaultComparator;
+import org.eclipse.nebula.widgets.nattable.config.IConfigRegistry;
+import org.eclipse.nebula.widgets.nattable.data.IColumnAccessor;
+import org.eclipse.nebula.widgets.nattable.data.convert.IDisplayConverter;
+import org.eclipse.nebula.widgets.nattable.extension.glazedlists.filterrow.CompiledFilterRowMatcher.ColumnFilter;
+import org.eclipse.nebula.widgets.nattable.extension.glazedlists.filterrow.CompiledFilterRowMatcher.FilterRowClause;
+import org.eclipse.nebula.widgets.nattable.extension.glazedlists.filterrow.CompiledFilterRowMatcher.OrClause;
+import org.eclipse.nebula.widgets.nattable.extension.glazedlists.filterrow.CompiledFilterRowMatcher.TextClause;
+import org.eclipse.nebula.widgets.nattable.extension.glazedlists.filterrow.CompiledFilterRowMatcher.ThresholdClause;
+import org.eclipse.nebula.widgets.nattable.filterrow.ParseResult;
+import org.eclipse.nebula.widgets.nattable.filterrow.ParseResult.MatchType;
+import org.eclipse.nebula.widgets.nattable.filterrow.TextMatchingMode;
+
+/**
+ * Compiles the filter row state into a single {@link CompiledFilterRowMatcher}.
+ * <p>
+ * The filter texts are parsed the same way as in the DefaultGlazedListsFilterStrategy.
+ * Text clauses of one column are combined with OR, threshold clauses and the clauses
+ * of different columns are combined with AND. The configuration values are resolved
+ * once per compilation instead of once per row.
+ * <p>
+ * The compiler remembers the selectivity observed for the clauses of the previously
+ * compiled matchers. The clauses of a new matcher are ordered ascending by
+ * cost / rejection rate, which is the optimal order for short circuit evaluation of
+ * independent clauses.
+ *
+ * @param <T> The type of the row objects that are filtered.
+ */
+public class FilterRowMatcherCompiler<T> {
+
+	/**
+	 * The rejection rate that is assumed for clauses that were not evaluated before.
+	 */
+	private static final double DEFAULT_REJECTION_RATE = 0.5d;
+	/**
+	 * The minimum rejection rate used for ordering, to avoid divisions by zero for clauses
+	 * that never rejected a row object.
+	 */
+	private static final double MIN_REJECTION_RATE = 0.001d;
+	/**
+	 * The minimum number of evaluations that need to be observed for a clause so its
+	 * statistics are taken into account.
+	 */
+	private static final long MIN_EVALUATIONS = 100;
+
+	private static final int COST_PRIMITIVE_THRESHOLD = 1;
+	private static final int COST_THRESHOLD = 2;
+	private static final int COST_DISPLAY_CONVERSION = 2;
+	private static final int COST_EXACT = 2;
+	private static final int COST_STARTS_WITH = 2;
+	private static final int COST_CONTAINS = 4;
+	private static final int COST_REGULAR_EXPRESSION = 16;
+
+	protected final IColumnAccessor<T> columnAccessor;
+	protected final IConfigRegistry configRegistry;
+
+	/**
+	 * The rejection rates observed for clauses of previously compiled matchers,
+	 * identified by clause key.
+	 */
+	private final Map<String, Double> observedRejectionRates = new HashMap<String, Double>();
+
+	/**
+	 * @param columnAccessor The IColumnAccessor necessary to access the column data of the row objects.
+	 * @param configRegistry The IConfigRegistry necessary to retrieve filter specific configurations.
+	 */
+	public FilterRowMatcherCompiler(IColumnAccessor<T> columnAccessor, IConfigRegistry configRegistry) {
+		this.columnAccessor = columnAccessor;
+		this.configRegistry = configRegistry;
+	}
+
+	/**
+	 * Compiles the given filter texts into a single matcher.
+	 * @param filterIndexToTextMap Map of column indexes to the filter texts.
+	 * @return The compiled matcher for the given filter texts.
+	 * @throws java.util.regex.PatternSyntaxException if a regular expression is not valid.
+	 */
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	public CompiledFilterRowMatcher<T> compile(Map<Integer, String> filterIndexToTextMap) {
+		List<FilterRowClause<T>> clauses = new ArrayList<FilterRowClause<T>>();
+		Map<Integer, ColumnFilter> columnFilters = new LinkedHashMap<Integer, ColumnFilter>();
+
+		for (Entry<Integer, String> mapEntry : filterIndexToTextMap.entrySet()) {
+			Integer columnIndex = mapEntry.getKey();
+			String filterText = mapEntry.getValue();
+
+			String textDelimiter = this.configRegistry.getConfigAttribute(
+					TEXT_DELIMITER, NORMAL, FILTER_ROW_COLUMN_LABEL_PREFIX + columnIndex);
+			TextMatchingMode textMatchingMode = this.configRegistry.getConfigAttribute(
+					TEXT_MATCHING_MODE, NORMAL, FILTER_ROW_COLUMN_LABEL_PREFIX + columnIndex);
+			IDisplayConverter displayConverter = this.configRegistry.getConfigAttribute(
+					FILTER_DISPLAY_CONVERTER, NORMAL, FILTER_ROW_COLUMN_LABEL_PREFIX + columnIndex);
+			Comparator comparator = this.configRegistry.getConfigAttribute(
+					FILTER_COMPARATOR, NORMAL, FILTER_ROW_COLUMN_LABEL_PREFIX + columnIndex);
+
+			List<ParseResult> parseResults = FilterRowUtils.parse(filterText, textDelimiter, textMatchingMode);
+
+			List<FilterRowClause<T>> textClauses = new ArrayList<FilterRowClause<T>>();
+			boolean matchAllText = false;
+			boolean thresholds = false;
+			for (ParseResult parseResult : parseResults) {
+				MatchType matchOperation = parseResult.getMatchOperation();
+				String valueToMatch = parseResult.getValueToMatch();
+				if (matchOperation == MatchType.NONE) {
+					if (valueToMatch == null || valueToMatch.length() == 0) {
+						//an empty text matches everything
+						matchAllText = true;
+					}
+					else {
+						textClauses.add(createTextClause(columnIndex, textMatchingMode, displayConverter, valueToMatch));
+					}
+				} else {
+					thresholds = true;
+					Object threshold = displayConverter.displayToCanonicalValue(valueToMatch);
+					clauses.add(createThresholdClause(columnIndex, threshold, comparator, matchOperation));
+				}
+			}
+
+			if (!textClauses.isEmpty() && !matchAllText) {
+				if (textClauses.size() == 1) {
+					clauses.add(textClauses.get(0));
+				}
+				else {
+					clauses.add(new OrClause<T>(
+							"or:" + columnIndex + ":" + filterText, //$NON-NLS-1$ //$NON-NLS-2$
+							textClauses.toArray(new FilterRowClause[textClauses.size()])));
+				}
+			}
+
+			boolean simpleText = !thresholds && parseResults.size() == 1;
+			columnFilters.put(columnIndex, new ColumnFilter(filterText, textMatchingMode, simpleText));
+		}
+
+		sortClauses(clauses);
+
+		return new CompiledFilterRowMatcher<T>(
+				clauses.toArray(new FilterRowClause[clauses.size()]),
+				columnFilters);
+	}
+
+	/**
+	 * Collects the statistics of the clauses of the given matcher, so they can be used for
+	 * ordering the clauses of the next compiled matchers.
+	 * @param matcher The previously used matcher whose statistics should be collected.
+	 */
+	public void collectStatistics(CompiledFilterRowMatcher<T> matcher) {
+		for (FilterRowClause<T> clause : matcher.getClauses()) {
+			long evaluations = clause.getEvaluations();
+			if (evaluations >= MIN_EVALUATIONS) {
+				this.observedRejectionRates.put(clause.getKey(), ((double) clause.getRejections()) / evaluations);
+			}
+		}
+	}
+
+	/**
+	 * @param clause The clause whose rejection rate is requested.
+	 * @return The observed rejection rate of a clause with the same key or the default
+	 * 			rejection rate if there is no observation.
+	 */
+	protected double getRejectionRate(FilterRowClause<T> clause) {
+		Double observed = this.observedRejectionRates.get(clause.getKey());
+		return (observed != null) ? observed : DEFAULT_REJECTION_RATE;
+	}
+
+	/**
+	 * Sorts the given clauses ascending by cost / rejection rate.
+	 * @param clauses The clauses to sort.
+	 */
+	protected void sortClauses(List<FilterRowClause<T>> clauses) {
+		Collections.sort(clauses, new Comparator<FilterRowClause<T>>() {
+			@Override
+			public int compare(FilterRowClause<T> c1, FilterRowClause<T> c2) {
+				return Double.compare(rank(c1), rank(c2));
+			}
+		});
+	}
+
+	private double rank(FilterRowClause<T> clause) {
+		return clause.getCost() / Math.max(getRejectionRate(clause), MIN_REJECTION_RATE);
+	}
+
+	/**
+	 * Creates the clause for matching a text against the display value of a column.
+	 */
+	protected FilterRowClause<T> createTextClause(Integer columnIndex,
+			TextMatchingMode textMatchingMode, IDisplayConverter displayConverter, String text) {
+		int cost;
+		switch (textMatchingMode) {
+			case EXACT:
+				cost = COST_EXACT;
+				break;
+			case STARTS_WITH:
+				cost = COST_STARTS_WITH;
+				break;
+			case REGULAR_EXPRESSION:
+				cost = COST_REGULAR_EXPRESSION;
+				break;
+			default:
+				cost = COST_CONTAINS;
+		}
+		cost += COST_DISPLAY_CONVERSION;
+
+		return new TextClause<T>(
+				"text:" + columnIndex + ":" + textMatchingMode + ":" + text,  //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+				cost, this.columnAccessor, columnIndex, displayConverter, textMatchingMode, text);
+	}
+
+	/**
+	 * Creates the clause for threshold comparisons like '&gt;20', '&lt;=10' etc.
+	 */
+	protected FilterRowClause<T> createThresholdClause(Integer columnIndex,
+			Object threshold, Comparator<Object> comparator, MatchType matchOperation) {
+		boolean defaultComparator = comparator == null || comparator instanceof DefaultComparator;
+		boolean primitive = defaultComparator && ThresholdClause.isPrimitiveNumber(threshold);
+		return new ThresholdClause<T>(
+				"threshold:" + columnIndex + ":" + matchOperation + ":" + threshold,  //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+				primitive ? COST_PRIMITIVE_THRESHOLD : COST_THRESHOLD,
+				this.columnAccessor, columnIndex, threshold,
+				(comparator != null) ? comparator : DefaultComparator.getInstance(),
+				defaultComparator, matchOperation);
+	}
+}
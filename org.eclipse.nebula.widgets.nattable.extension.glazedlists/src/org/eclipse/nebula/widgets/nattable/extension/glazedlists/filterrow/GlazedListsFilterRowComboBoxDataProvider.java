@@ -11,17 +11,18 @@
 package org.eclipse.nebula.widgets.nattable.extension.glazedlists.filterrow;
 
 import java.util.Collection;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
+import java.util.LinkedHashSet;
+import java.util.Set;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.eclipse.nebula.widgets.nattable.data.IColumnAccessor;
 import org.eclipse.nebula.widgets.nattable.filterrow.combobox.FilterRowComboBoxDataProvider;
+import org.eclipse.nebula.widgets.nattable.filterrow.combobox.FilterRowComboUpdateEvent;
 import org.eclipse.nebula.widgets.nattable.layer.ILayer;
 import org.eclipse.nebula.widgets.nattable.layer.event.CellVisualChangeEvent;
 import org.eclipse.nebula.widgets.nattable.layer.event.ILayerEvent;
+import org.eclipse.nebula.widgets.nattable.layer.event.MultiCellVisualChangeEvent;
 
 import ca.odell.glazedlists.EventList;
 import ca.odell.glazedlists.event.ListEvent;
@@ -39,6 +40,10 @@ import ca.odell.glazedlists.event.ListEventListener;
  * <p>
  * This implementation solves this issue by listening to the wrapped source EventList of the FilterList
  * instead of the NatTable IStructuralChangeEvent.
+ * <p>
+ * The values are served from a {@link FilterRowDistinctValueIndex} that is updated incrementally
+ * out of the ListEvents, so only the changed rows are inspected and update events are only fired
+ * for values that actually appeared or disappeared.
  * 
  * @author Dirk Fauth
  *
@@ -48,6 +53,13 @@ public class GlazedListsFilterRowComboBoxDataProvider<T>
 		implements ListEventListener<T> {
 
 	private static final Log log = LogFactory.getLog(GlazedListsFilterRowComboBoxDataProvider.class);
+
+	/**
+	 * The index of distinct values per column that is updated incrementally on list changes.
+	 * Not initialized inline because it is created while the super constructor builds the 
+	 * value cache.
+	 */
+	private FilterRowDistinctValueIndex<T> valueIndex;
 	
 	/**
 	 * @param bodyLayer A layer in the body region. Usually the DataLayer or a layer that is responsible for list event handling.
@@ -69,24 +81,33 @@ public class GlazedListsFilterRowComboBoxDataProvider<T>
 		}
 	}
 
+	/**
+	 * Builds the local value cache for all columns out of the distinct value index.
+	 * <p>
+	 * Note that this method is called by the super constructor, so the index needs
+	 * to be created lazily here.
+	 */
+	@Override
+	protected void buildValueCache() {
+		if (this.valueIndex == null) {
+			this.valueIndex = new FilterRowDistinctValueIndex<T>(getColumnAccessor());
+		}
+		this.valueIndex.build(getBaseCollection());
+
+		for (int i = 0; i < this.valueIndex.getColumnCount(); i++) {
+			getValueCache().put(i, this.valueIndex.getValues(i));
+		}
+	}
+
 	/* (non-Javadoc)
 	 * @see ca.odell.glazedlists.event.ListEventListener#listChanged(ca.odell.glazedlists.event.ListEvent)
 	 */
 	@Override
 	public void listChanged(ListEvent<T> listChanges) {
-		//a new row was added or a row was deleted
-		
-		//remember the cache before updating
-		Map<Integer, List<?>> cacheBefore = new HashMap<Integer, List<?>>(getValueCache());
-		
-		//perform a refresh of the whole cache
-		getValueCache().clear();
-		buildValueCache();
-		
-		//fire events for every column
-		for (Map.Entry<Integer, List<?>> entry : cacheBefore.entrySet()) {
-			fireCacheUpdateEvent(buildUpdateEvent(entry.getKey(), entry.getValue(), getValueCache().get(entry.getKey())));
-		}
+		//a new row was added, a row was deleted or updated
+		//only the changed rows are taken into account to update the distinct values
+		this.valueIndex.listChanged(listChanges);
+		fireIndexUpdateEvents();
 	}
 
 	@Override
@@ -96,12 +117,41 @@ public class GlazedListsFilterRowComboBoxDataProvider<T>
 			//so we need to update the value cache for the updated column
 			int column = ((CellVisualChangeEvent)event).getColumnPosition();
 			
-			List<?> cacheBefore = getValueCache().get(column);
-			
-			getValueCache().put(column, collectValues(column));
-			
-			//get the diff and fire the event
-			fireCacheUpdateEvent(buildUpdateEvent(column, cacheBefore, getValueCache().get(column)));
+			this.valueIndex.refreshColumn(getBaseCollection(), column);
+			fireIndexUpdateEvents();
+		}
+		else if (event instanceof MultiCellVisualChangeEvent) {
+			//fired for multi cell data updates, every updated column is only refreshed once
+			MultiCellVisualChangeEvent changeEvent = (MultiCellVisualChangeEvent) event;
+			Set<Integer> columns = new LinkedHashSet<Integer>();
+			for (int i = 0; i < changeEvent.getCellCount(); i++) {
+				columns.add(changeEvent.getColumnPosition(i));
+			}
+			for (Integer column : columns) {
+				this.valueIndex.refreshColumn(getBaseCollection(), column);
+			}
+			fireIndexUpdateEvents();
+		}
+	}
+
+	/**
+	 * Updates the value cache for the columns whose distinct values changed and fires
+	 * the corresponding FilterRowComboUpdateEvents. Columns whose values did not appear
+	 * or disappear are not touched.
+	 */
+	protected void fireIndexUpdateEvents() {
+		for (FilterRowComboUpdateEvent updateEvent : this.valueIndex.collectUpdateEvents()) {
+			getValueCache().put(updateEvent.getColumnIndex(), 
+					this.valueIndex.getValues(updateEvent.getColumnIndex()));
+			fireCacheUpdateEvent(updateEvent);
 		}
 	}
+
+	/**
+	 * @return The index of distinct values per column that is used to serve the 
+	 * 			filter row combo boxes.
+	 */
+	public FilterRowDistinctValueIndex<T> getValueIndex() {
+		return this.valueIndex;
+	}
 }
@@ -0,0 +1,376 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Original authors and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Original authors and others - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.extension.glazedlists.filterrow;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.eclipse.nebula.widgets.nattable.config.IConfigRegistry;
+import org.eclipse.nebula.widgets.nattable.data.IColumnAccessor;
+import org.eclipse.nebula.widgets.nattable.util.ParallelExecutor;
+import org.eclipse.swt.widgets.Display;
+
+import ca.odell.glazedlists.EventList;
+import ca.odell.glazedlists.FilterList;
+import ca.odell.glazedlists.event.ListEvent;
+import ca.odell.glazedlists.event.ListEventListener;
+
+/**
+ * Filter strategy for large FilterLists that evaluates the compiled filter row matcher on
+ * several cores.
+ * <p>
+ * On applying a filter, the filter row state is compiled into a {@link CompiledFilterRowMatcher}.
+ * The row objects that need to be tested are copied into a snapshot, which is split into chunks
+ * that are evaluated by the worker threads of a {@link ParallelExecutor}. The results are
+ * collected in a shared bitset. As the chunk boundaries are aligned to 64 elements, the worker
+ * threads never write to the same word of the bitset. When all chunks are evaluated, the result
+ * is published as one change of the FilterList via a {@link PrecomputedFilterRowMatcher}. In
+ * asynchronous mode the result is published on the SWT Display thread that applied the filter.
+ * <p>
+ * If a filter is narrowed, only the current matches are evaluated. Applying a new filter cancels
+ * the evaluation of the previous one, so typing into the filter row doesn't queue up evaluations.
+ * If the source list is modified while the results are computed, the precomputed results are
+ * discarded and the FilterList evaluates the compiled matcher itself.
+ * <p>
+ * For lists smaller than the parallel threshold the filter is applied the same way as with
+ * compiled filtering enabled on the DefaultGlazedListsFilterStrategy. If compiled filtering
+ * is disabled via {@link #setCompiledFiltering(boolean)}, the filter is applied sequentially
+ * via the GlazedLists MatcherEditors like in the DefaultGlazedListsFilterStrategy.
+ * <p>
+ * The strategy listens to the source list. Call {@link #dispose()} if the strategy is not
+ * used anymore, so it can be garbage collected independently of the source list.
+ *
+ * @param <T> The type of the objects shown within the NatTable.
+ */
+public class ParallelGlazedListsFilterStrategy<T> extends DefaultGlazedListsStaticFilterStrategy<T> {
+
+	private static final Log log = LogFactory.getLog(ParallelGlazedListsFilterStrategy.class);
+
+	/**
+	 * The number of rows that are evaluated between checks for cancellation.
+	 */
+	private static final int CANCEL_CHECK_INTERVAL = 4096;
+	/**
+	 * The minimum number of rows per chunk.
+	 */
+	private static final int MIN_CHUNK_SIZE = 16384;
+
+	private final EventList<T> sourceList;
+	private final ParallelExecutor executor;
+
+	/**
+	 * Listener on the source list that counts the modifications.
+	 */
+	private final ListEventListener<T> sourceListener = new ListEventListener<T>() {
+		@Override
+		public void listChanged(ListEvent<T> listChanges) {
+			sourceModifications.incrementAndGet();
+		}
+	};
+
+	/**
+	 * Incremented on every filter application, used to cancel outdated evaluations.
+	 */
+	private final AtomicInteger generation = new AtomicInteger();
+	/**
+	 * Incremented on every change of the source list, used to detect stale results.
+	 */
+	private final AtomicInteger sourceModifications = new AtomicInteger();
+	/**
+	 * The futures of the currently running chunk evaluations.
+	 */
+	private final List<Future<?>> runningChunks = new ArrayList<Future<?>>();
+
+	private int parallelThreshold = 100000;
+	private boolean asynchronous = true;
+
+	/**
+	 * Create a new ParallelGlazedListsFilterStrategy on top of the given FilterList, using the
+	 * default ParallelExecutor.
+	 * @param filterList The FilterList that is used within the GlazedLists based NatTable for filtering.
+	 * @param sourceList The source EventList of the FilterList.
+	 * @param columnAccessor The IColumnAccessor necessary to access the column data of the row objects in the FilterList.
+	 * @param configRegistry The IConfigRegistry necessary to retrieve filter specific configurations.
+	 */
+	public ParallelGlazedListsFilterStrategy(FilterList<T> filterList, EventList<T> sourceList,
+			IColumnAccessor<T> columnAccessor, IConfigRegistry configRegistry) {
+		this(filterList, sourceList, columnAccessor, configRegistry, ParallelExecutor.getDefault());
+	}
+
+	/**
+	 * Create a new ParallelGlazedListsFilterStrategy on top of the given FilterList.
+	 * @param filterList The FilterList that is used within the GlazedLists based NatTable for filtering.
+	 * @param sourceList The source EventList of the FilterList.
+	 * @param columnAccessor The IColumnAccessor necessary to access the column data of the row objects in the FilterList.
+	 * @param configRegistry The IConfigRegistry necessary to retrieve filter specific configurations.
+	 * @param executor The ParallelExecutor whose worker threads should evaluate the filter.
+	 */
+	public ParallelGlazedListsFilterStrategy(FilterList<T> filterList, EventList<T> sourceList,
+			IColumnAccessor<T> columnAccessor, IConfigRegistry configRegistry, ParallelExecutor executor) {
+		super(filterList, columnAccessor, configRegistry);
+		this.sourceList = sourceList;
+		this.executor = executor;
+
+		setCompiledFiltering(true);
+
+		this.sourceList.addListEventListener(this.sourceListener);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * Disabling compiled filtering also disables parallel evaluation. Evaluations that are
+	 * currently running are cancelled.
+	 */
+	@Override
+	public void setCompiledFiltering(boolean compiledFiltering) {
+		if (!compiledFiltering) {
+			this.generation.incrementAndGet();
+			cancelRunningChunks();
+		}
+		super.setCompiledFiltering(compiledFiltering);
+	}
+
+	/**
+	 * Cancels running evaluations and removes the listener from the source list.
+	 * The strategy should not be used anymore afterwards.
+	 */
+	public void dispose() {
+		this.generation.incrementAndGet();
+		cancelRunningChunks();
+		this.sourceList.removeListEventListener(this.sourceListener);
+	}
+
+	@Override
+	protected void applyCompiledFilter(Map<Integer, Object> filterIndexToObjectMap) {
+		final int currentGeneration = this.generation.incrementAndGet();
+		cancelRunningChunks();
+
+		final CompiledFilterRowMatcher<T> compiledMatcher = compileFilter(filterIndexToObjectMap);
+		CompiledFilterRowMatcher<T> previousMatcher = getCompiledMatcherEditor().getCompiledMatcher();
+		if (compiledMatcher == null
+				|| (previousMatcher != null && compiledMatcher.isEquivalent(previousMatcher))) {
+			applyCompiledMatcher(compiledMatcher, null);
+			return;
+		}
+
+		//if the filter is narrowed only the current matches need to be evaluated
+		boolean narrowing = previousMatcher != null && compiledMatcher.isNarrowingOf(previousMatcher);
+		final Object[] snapshot;
+		final int modifications;
+		try {
+			this.filterLock.readLock().lock();
+			snapshot = narrowing ? this.filterList.toArray() : this.sourceList.toArray();
+			modifications = this.sourceModifications.get();
+		}
+		finally {
+			this.filterLock.readLock().unlock();
+		}
+
+		if (snapshot.length < this.parallelThreshold) {
+			applyCompiledMatcher(compiledMatcher, null);
+			return;
+		}
+
+		final long[] matches = new long[(snapshot.length + 63) >> 6];
+		List<Callable<Boolean>> chunks = createChunks(compiledMatcher, snapshot, matches, currentGeneration);
+
+		final Runnable publisher = new Runnable() {
+			@Override
+			public void run() {
+				publish(currentGeneration, modifications, compiledMatcher, snapshot, matches);
+			}
+		};
+
+		if (!this.asynchronous) {
+			try {
+				for (Boolean completed : this.executor.invokeAll(chunks)) {
+					if (!completed) {
+						return;
+					}
+				}
+				publisher.run();
+			} catch (Exception e) {
+				log.error("Error on applying a filter", e); //$NON-NLS-1$
+				applyCompiledMatcher(compiledMatcher, null);
+			}
+			return;
+		}
+
+		final Display display = Display.getCurrent();
+		final AtomicInteger remaining = new AtomicInteger(chunks.size());
+		final AtomicBoolean failed = new AtomicBoolean(false);
+		synchronized (this.runningChunks) {
+			for (final Callable<Boolean> chunk : chunks) {
+				this.runningChunks.add(this.executor.submit(new Runnable() {
+					@Override
+					public void run() {
+						try {
+							if (!chunk.call()) {
+								failed.set(true);
+							}
+						} catch (Exception e) {
+							log.error("Error on applying a filter", e); //$NON-NLS-1$
+							failed.set(true);
+						}
+						finally {
+							if (remaining.decrementAndGet() == 0) {
+								if (failed.get()) {
+									//evaluation was cancelled or failed, only publish on failure if not outdated
+									if (generation.get() == currentGeneration) {
+										publishOnDisplay(display, new Runnable() {
+											@Override
+											public void run() {
+												if (generation.get() == currentGeneration) {
+													applyCompiledMatcher(compiledMatcher, null);
+												}
+											}
+										});
+									}
+								}
+								else {
+									publishOnDisplay(display, publisher);
+								}
+							}
+						}
+					}
+				}));
+			}
+		}
+	}
+
+	/**
+	 * Splits the evaluation of the given snapshot into chunks. The chunk boundaries are aligned
+	 * to 64 elements, so every chunk writes its own words of the bitset.
+	 */
+	private List<Callable<Boolean>> createChunks(final CompiledFilterRowMatcher<T> compiledMatcher,
+			final Object[] snapshot, final long[] matches, final int currentGeneration) {
+		int chunkCount = this.executor.getChunkCount(snapshot.length, MIN_CHUNK_SIZE);
+		int chunkSize = (snapshot.length + chunkCount - 1) / chunkCount;
+		chunkSize = ((chunkSize + 63) >> 6) << 6;
+
+		List<Callable<Boolean>> chunks = new ArrayList<Callable<Boolean>>(chunkCount);
+		for (int start = 0; start < snapshot.length; start += chunkSize) {
+			final int chunkStart = start;
+			final int chunkEnd = Math.min(snapshot.length, start + chunkSize);
+			chunks.add(new Callable<Boolean>() {
+				@Override
+				@SuppressWarnings("unchecked")
+				public Boolean call() {
+					//count the clause statistics per chunk to avoid contention on the shared counters
+					long[] statistics = compiledMatcher.createStatistics();
+					try {
+						for (int i = chunkStart; i < chunkEnd; i++) {
+							if ((i - chunkStart) % CANCEL_CHECK_INTERVAL == 0
+									&& generation.get() != currentGeneration) {
+								return Boolean.FALSE;
+							}
+							if (compiledMatcher.matches((T) snapshot[i], statistics)) {
+								matches[i >> 6] |= (1L << i);
+							}
+						}
+						return Boolean.TRUE;
+					}
+					finally {
+						compiledMatcher.addStatistics(statistics);
+					}
+				}
+			});
+		}
+		return chunks;
+	}
+
+	/**
+	 * Applies the precomputed results if they are still up to date.
+	 */
+	private void publish(int currentGeneration, int modifications,
+			CompiledFilterRowMatcher<T> compiledMatcher, Object[] snapshot, long[] matches) {
+		if (this.generation.get() != currentGeneration) {
+			//a newer filter was applied in the meantime
+			return;
+		}
+		synchronized (this.runningChunks) {
+			this.runningChunks.clear();
+		}
+
+		if (this.sourceModifications.get() != modifications) {
+			//the source list was modified, so the precomputed results might be stale
+			applyCompiledMatcher(compiledMatcher, null);
+			return;
+		}
+
+		PrecomputedFilterRowMatcher<T> precomputed =
+				new PrecomputedFilterRowMatcher<T>(compiledMatcher, snapshot, matches);
+		applyCompiledMatcher(compiledMatcher, precomputed);
+		precomputed.release();
+	}
+
+	/**
+	 * Executes the given runnable on the given Display thread or directly if there is no Display.
+	 */
+	private void publishOnDisplay(Display display, Runnable runnable) {
+		if (display != null && !display.isDisposed()) {
+			display.asyncExec(runnable);
+		}
+		else {
+			runnable.run();
+		}
+	}
+
+	private void cancelRunningChunks() {
+		synchronized (this.runningChunks) {
+			for (Future<?> future : this.runningChunks) {
+				future.cancel(false);
+			}
+			this.runningChunks.clear();
+		}
+	}
+
+	/**
+	 * @return The minimum number of row objects to evaluate for which the evaluation is split over
+	 * 			several threads.
+	 */
+	public int getParallelThreshold() {
+		return this.parallelThreshold;
+	}
+
+	/**
+	 * @param parallelThreshold The minimum number of row objects to evaluate for which the evaluation
+	 * 			is split over several threads. For smaller lists the FilterList evaluates the compiled
+	 * 			matcher itself.
+	 */
+	public void setParallelThreshold(int parallelThreshold) {
+		this.parallelThreshold = parallelThreshold;
+	}
+
+	/**
+	 * @return <code>true</code> if applying a filter returns immediately and the result is published
+	 * 			later on the Display thread.
+	 */
+	public boolean isAsynchronous() {
+		return this.asynchronous;
+	}
+
+	/**
+	 * @param asynchronous <code>true</code> if applying a filter should return immediately and publish
+	 * 			the result later on the Display thread, <code>false</code> if applying a filter should
+	 * 			wait for the parallel evaluation to finish.
+	 */
+	public void setAsynchronous(boolean asynchronous) {
+		this.asynchronous = asynchronous;
+	}
+}
@@ -0,0 +1,82 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Original authors and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Original authors and others - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.extension.glazedlists.filterrow;
+
+import ca.odell.glazedlists.matchers.Matcher;
+
+/**
+ * Matcher that serves results of a {@link CompiledFilterRowMatcher} that were computed
+ * in advance for a snapshot of row objects, e.g. in parallel by the
+ * {@link ParallelGlazedListsFilterStrategy}.
+ * <p>
+ * The FilterList tests the row objects in ascending list order when a matcher changes.
+ * This matcher therefore keeps a cursor into the snapshot and serves the precomputed
+ * result if the tested row object is identical to the snapshot element at or after the
+ * cursor. In any other case, e.g. for row objects that were inserted later, the compiled
+ * matcher is evaluated directly, so the results are always the same as the results of
+ * the compiled matcher.
+ * <p>
+ * This matcher is not thread safe. It is intended to be used by the FilterList while
+ * holding its write lock. After the precomputed results have been consumed, they should
+ * be released via {@link #release()}.
+ *
+ * @param <T> The type of the row objects that are filtered.
+ */
+public class PrecomputedFilterRowMatcher<T> implements Matcher<T> {
+
+	private final CompiledFilterRowMatcher<T> compiledMatcher;
+	private Object[] snapshot;
+	private long[] matches;
+	private int cursor = 0;
+
+	/**
+	 * @param compiledMatcher The compiled matcher the results were computed with.
+	 * @param snapshot The row objects the results were computed for.
+	 * @param matches The results as bitset, one bit per snapshot element.
+	 */
+	public PrecomputedFilterRowMatcher(CompiledFilterRowMatcher<T> compiledMatcher, Object[] snapshot, long[] matches) {
+		this.compiledMatcher = compiledMatcher;
+		this.snapshot = snapshot;
+		this.matches = matches;
+	}
+
+	@Override
+	public boolean matches(T item) {
+		if (this.snapshot != null) {
+			for (int i = this.cursor; i < this.snapshot.length; i++) {
+				if (this.snapshot[i] == item) {
+					this.cursor = i + 1;
+					return (this.matches[i >> 6] & (1L << i)) != 0;
+				}
+			}
+			//the element is not part of the remaining snapshot, so the access is not
+			//in snapshot order and searching again would be too expensive
+			release();
+		}
+		return this.compiledMatcher.matches(item);
+	}
+
+	/**
+	 * Releases the precomputed results. Afterwards the compiled matcher is evaluated
+	 * for every request.
+	 */
+	public void release() {
+		this.snapshot = null;
+		this.matches = null;
+	}
+
+	/**
+	 * @return The compiled matcher the results were computed with.
+	 */
+	public CompiledFilterRowMatcher<T> getCompiledMatcher() {
+		return this.compiledMatcher;
+	}
+}
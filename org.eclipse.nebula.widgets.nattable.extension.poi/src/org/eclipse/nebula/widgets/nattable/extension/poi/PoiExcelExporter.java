@@ -12,11 +12,16 @@ package org.eclipse.nebula.widgets.nattable.extension.poi;
 
 import java.io.IOException;
 import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Calendar;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
 import org.apache.poi.ss.usermodel.Cell;
 import org.apache.poi.ss.usermodel.CellStyle;
 import org.apache.poi.ss.usermodel.CreationHelper;
@@ -47,9 +52,20 @@ import org.eclipse.swt.widgets.Shell;
 
 public abstract class PoiExcelExporter implements ILayerExporter {
 
+	private static final Log log = LogFactory.getLog(PoiExcelExporter.class);
+
 	private final IOutputStreamProvider outputStreamProvider;
 	
 	private Map<ExcelCellStyleAttributes, CellStyle> xlCellStyles;
+	private Map<List<Object>, Font> xlFonts;
+
+	/**
+	 * The styles resolved via the ConfigRegistry per label stack and display mode,
+	 * so the style resolution is only done once per distinct label combination.
+	 */
+	private Map<StyleCacheKey, ExportStyle> exportStyles;
+	private long styleCacheHitCount;
+	private long styleCacheMissCount;
 	
 	protected Workbook xlWorkbook;
 	protected int sheetNumber;
@@ -71,6 +87,10 @@ public abstract class PoiExcelExporter implements ILayerExporter {
 	@Override
 	public void exportBegin(OutputStream outputStream) throws IOException {
 		xlCellStyles = new HashMap<ExcelCellStyleAttributes, CellStyle>();
+		xlFonts = new HashMap<List<Object>, Font>();
+		exportStyles = new HashMap<StyleCacheKey, ExportStyle>();
+		styleCacheHitCount = 0;
+		styleCacheMissCount = 0;
 		xlWorkbook = createWorkbook();
 	}
 	
@@ -78,7 +98,15 @@ public abstract class PoiExcelExporter implements ILayerExporter {
 	public void exportEnd(OutputStream outputStream) throws IOException {
 		xlWorkbook.write(outputStream);
 		
+		if (log.isDebugEnabled()) {
+			log.debug("Excel export created " + xlCellStyles.size() + " cell styles and " //$NON-NLS-1$ //$NON-NLS-2$
+					+ xlFonts.size() + " fonts, style cache hits = " + styleCacheHitCount //$NON-NLS-1$
+					+ ", misses = " + styleCacheMissCount); //$NON-NLS-1$
+		}
+		
 		xlCellStyles = null;
+		xlFonts = null;
+		exportStyles = null;
 		xlWorkbook = null;
 		sheetNumber = 0;
 		xlSheet = null;
@@ -126,21 +154,9 @@ public abstract class PoiExcelExporter implements ILayerExporter {
 			xlSheet.addMergedRegion(new CellRangeAddress(rowPosition, lastRow, columnPosition, lastColumn));
 		}
 		
-		CellStyleProxy cellStyle = new CellStyleProxy(configRegistry, DisplayMode.NORMAL, cell.getConfigLabels().getLabels());
-		Color fg = cellStyle.getAttributeValue(CellStyleAttributes.FOREGROUND_COLOR);
-		Color bg = cellStyle.getAttributeValue(CellStyleAttributes.BACKGROUND_COLOR);
-		org.eclipse.swt.graphics.Font font = cellStyle.getAttributeValue(CellStyleAttributes.FONT);
-		FontData fontData = font.getFontData()[0];
+		ExportStyle exportStyle = getExportStyle(cell.getConfigLabels().getLabels(), configRegistry);
 		String dataFormat = null;
 		
-		int hAlign = HorizontalAlignmentEnum.getSWTStyle(cellStyle);
-		int vAlign = VerticalAlignmentEnum.getSWTStyle(cellStyle);
-		
-		boolean vertical = this.applyVerticalTextConfiguration ? 
-				isVertical(configRegistry.getConfigAttribute(
-						CellConfigAttributes.CELL_PAINTER, DisplayMode.NORMAL, cell.getConfigLabels().getLabels()))
-				: false;
-		
 		if (exportDisplayValue == null) exportDisplayValue = ""; //$NON-NLS-1$
 		
 		if (exportDisplayValue instanceof Boolean) {
@@ -157,10 +173,56 @@ public abstract class PoiExcelExporter implements ILayerExporter {
 			xlCell.setCellValue(exportDisplayValue.toString());
 		}
 
-		CellStyle xlCellStyle = getExcelCellStyle(fg, bg, fontData, dataFormat, hAlign, vAlign, vertical);
+		CellStyle xlCellStyle;
+		if (dataFormat == null) {
+			if (exportStyle.xlCellStyle == null) {
+				exportStyle.xlCellStyle = getExcelCellStyle(exportStyle.fg, exportStyle.bg, exportStyle.fontData,
+						null, exportStyle.hAlign, exportStyle.vAlign, exportStyle.vertical);
+			}
+			xlCellStyle = exportStyle.xlCellStyle;
+		} else {
+			xlCellStyle = getExcelCellStyle(exportStyle.fg, exportStyle.bg, exportStyle.fontData,
+					dataFormat, exportStyle.hAlign, exportStyle.vAlign, exportStyle.vertical);
+		}
 		xlCell.setCellStyle(xlCellStyle);
 	}
 
+	/**
+	 * Returns the style for the given labels, resolving it via the ConfigRegistry only
+	 * for the first cell with that label combination.
+	 * @param labels The config labels of the cell to export.
+	 * @param configRegistry The ConfigRegistry needed to resolve the style.
+	 * @return The resolved style for the given labels.
+	 */
+	private ExportStyle getExportStyle(List<String> labels, IConfigRegistry configRegistry) {
+		StyleCacheKey key = new StyleCacheKey(DisplayMode.NORMAL, labels);
+		ExportStyle exportStyle = exportStyles.get(key);
+		if (exportStyle != null) {
+			styleCacheHitCount++;
+			return exportStyle;
+		}
+		styleCacheMissCount++;
+
+		CellStyleProxy cellStyle = new CellStyleProxy(configRegistry, DisplayMode.NORMAL, labels);
+		exportStyle = new ExportStyle();
+		exportStyle.fg = cellStyle.getAttributeValue(CellStyleAttributes.FOREGROUND_COLOR);
+		exportStyle.bg = cellStyle.getAttributeValue(CellStyleAttributes.BACKGROUND_COLOR);
+		org.eclipse.swt.graphics.Font font = cellStyle.getAttributeValue(CellStyleAttributes.FONT);
+		exportStyle.fontData = font.getFontData()[0];
+		
+		exportStyle.hAlign = HorizontalAlignmentEnum.getSWTStyle(cellStyle);
+		exportStyle.vAlign = VerticalAlignmentEnum.getSWTStyle(cellStyle);
+		
+		exportStyle.vertical = this.applyVerticalTextConfiguration ? 
+				isVertical(configRegistry.getConfigAttribute(
+						CellConfigAttributes.CELL_PAINTER, DisplayMode.NORMAL, labels))
+				: false;
+
+		// copy the labels as the key must not change while it is cached
+		exportStyles.put(new StyleCacheKey(DisplayMode.NORMAL, new ArrayList<String>(labels)), exportStyle);
+		return exportStyle;
+	}
+
 	private boolean isVertical(ICellPainter cellPainter) {
 		if (cellPainter instanceof VerticalTextPainter) {
 			return true;
@@ -190,11 +252,7 @@ public abstract class PoiExcelExporter implements ILayerExporter {
 				xlCellStyle.setFillPattern(CellStyle.SOLID_FOREGROUND);
 			}
 			
-			Font xlFont = xlWorkbook.createFont();
-			setFontColor(xlFont, fg);
-			xlFont.setFontName(fontData.getName());
-			xlFont.setFontHeightInPoints((short) fontData.getHeight());
-			xlCellStyle.setFont(xlFont);
+			xlCellStyle.setFont(getExcelFont(fg, fontData));
 
 			if (vertical)
 				xlCellStyle.setRotation((short)90);
@@ -228,6 +286,19 @@ public abstract class PoiExcelExporter implements ILayerExporter {
 		return xlCellStyle;
 	}
 
+	private Font getExcelFont(Color fg, FontData fontData) {
+		List<Object> key = Arrays.<Object>asList(fg, fontData);
+		Font xlFont = xlFonts.get(key);
+		if (xlFont == null) {
+			xlFont = xlWorkbook.createFont();
+			setFontColor(xlFont, fg);
+			xlFont.setFontName(fontData.getName());
+			xlFont.setFontHeightInPoints((short) fontData.getHeight());
+			xlFonts.put(key, xlFont);
+		}
+		return xlFont;
+	}
+
 	/**
 	 * 
 	 * @param cell The cell for which the date format needs to be determined.
@@ -282,5 +353,71 @@ public abstract class PoiExcelExporter implements ILayerExporter {
 	public Object getResult() {
 		return outputStreamProvider.getResult();
 	}
+
+	/**
+	 * @return The number of exported cells whose style was taken from the style cache
+	 * 			during the last export.
+	 */
+	public long getStyleCacheHitCount() {
+		return styleCacheHitCount;
+	}
+
+	/**
+	 * @return The number of exported cells whose style needed to be resolved via the
+	 * 			ConfigRegistry during the last export, which is the number of distinct
+	 * 			label combinations.
+	 */
+	public long getStyleCacheMissCount() {
+		return styleCacheMissCount;
+	}
+
+	/**
+	 * Key of the style cache, made of the display mode and the config labels of a cell.
+	 */
+	private static final class StyleCacheKey {
+
+		private final String displayMode;
+		private final List<String> labels;
+		private final int hashCode;
+
+		StyleCacheKey(String displayMode, List<String> labels) {
+			this.displayMode = displayMode;
+			this.labels = labels;
+			this.hashCode = 31 * displayMode.hashCode() + labels.hashCode();
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (obj == this) {
+				return true;
+			}
+			if (!(obj instanceof StyleCacheKey)) {
+				return false;
+			}
+			StyleCacheKey that = (StyleCacheKey) obj;
+			return this.hashCode == that.hashCode
+					&& this.displayMode.equals(that.displayMode)
+					&& this.labels.equals(that.labels);
+		}
+
+		@Override
+		public int hashCode() {
+			return this.hashCode;
+		}
+	}
+
+	/**
+	 * The style attributes resolved for one label combination, together with the
+	 * Excel cell style for cells without data format.
+	 */
+	private static final class ExportStyle {
+		Color fg;
+		Color bg;
+		FontData fontData;
+		int hAlign;
+		int vAlign;
+		boolean vertical;
+		CellStyle xlCellStyle;
+	}
 	
 }
@@ -0,0 +1,119 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Original authors and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Original authors and others - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.test.performance;
+
+import java.beans.PropertyChangeEvent;
+
+import org.eclipse.nebula.widgets.nattable.command.DisposeResourcesCommand;
+import org.eclipse.nebula.widgets.nattable.data.ReflectiveColumnPropertyAccessor;
+import org.eclipse.nebula.widgets.nattable.extension.glazedlists.GlazedListsDataProvider;
+import org.eclipse.nebula.widgets.nattable.extension.glazedlists.GlazedListsEventLayer;
+import org.eclipse.nebula.widgets.nattable.grid.GridRegion;
+import org.eclipse.nebula.widgets.nattable.hideshow.ColumnHideShowLayer;
+import org.eclipse.nebula.widgets.nattable.layer.CompositeLayer;
+import org.eclipse.nebula.widgets.nattable.layer.DataLayer;
+import org.eclipse.nebula.widgets.nattable.reorder.ColumnReorderLayer;
+import org.eclipse.nebula.widgets.nattable.selection.SelectionLayer;
+import org.eclipse.nebula.widgets.nattable.test.fixture.data.RowDataFixture;
+import org.eclipse.nebula.widgets.nattable.test.fixture.data.RowDataListFixture;
+import org.eclipse.nebula.widgets.nattable.util.IClientAreaProvider;
+import org.eclipse.nebula.widgets.nattable.viewport.ViewportLayer;
+import org.eclipse.swt.graphics.Rectangle;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import ca.odell.glazedlists.EventList;
+import ca.odell.glazedlists.GlazedLists;
+
+/**
+ * Measures the propagation of bursts of update events fired by the GlazedListsEventLayer
+ * through a body layer stack that is wrapped in a composite layer.
+ */
+public class GlazedListsEventLayerPerformanceTest {
+
+	private static final int ROW_COUNT = 1000;
+	private static final int EVENT_COUNT = 10000;
+
+	private EventList<RowDataFixture> eventList;
+	private GlazedListsEventLayer<RowDataFixture> eventLayer;
+	private CompositeLayer compositeLayer;
+
+	@Before
+	public void setup() {
+		String[] propertyNames = RowDataListFixture.getPropertyNames();
+		eventList = GlazedLists.eventList(RowDataListFixture.getList(ROW_COUNT));
+
+		DataLayer dataLayer = new DataLayer(new GlazedListsDataProvider<RowDataFixture>(
+				eventList, new ReflectiveColumnPropertyAccessor<RowDataFixture>(propertyNames)));
+		eventLayer = new GlazedListsEventLayer<RowDataFixture>(dataLayer, eventList);
+		eventLayer.setTestMode(true);
+		eventLayer.setExactRowEvents(true);
+
+		ViewportLayer viewportLayer = new ViewportLayer(
+				new SelectionLayer(new ColumnHideShowLayer(new ColumnReorderLayer(eventLayer))));
+
+		compositeLayer = new CompositeLayer(1, 1);
+		compositeLayer.setChildLayer(GridRegion.BODY, viewportLayer, 0, 0);
+		compositeLayer.setClientAreaProvider(new IClientAreaProvider() {
+			public Rectangle getClientArea() {
+				return new Rectangle(0, 0, 1000, 500);
+			}
+		});
+	}
+
+	@After
+	public void tearDown() {
+		eventLayer.doCommand(new DisposeResourcesCommand());
+	}
+
+	@Test
+	public void rowUpdateBurst() {
+		// warm up
+		fireRowUpdates(EVENT_COUNT / 10);
+
+		long startTimeInMillis = System.currentTimeMillis();
+		fireRowUpdates(EVENT_COUNT);
+		long actualTimeInMillis = System.currentTimeMillis() - startTimeInMillis;
+
+		System.out.println("row update burst of " + EVENT_COUNT + " events: duration = " + actualTimeInMillis + " milliseconds");
+		Assert.assertTrue("Expected to take less than 1000 milliseconds but took " + actualTimeInMillis + " milliseconds", actualTimeInMillis < 1000);
+	}
+
+	@Test
+	public void propertyUpdateBurst() {
+		// warm up
+		firePropertyUpdates(EVENT_COUNT / 10);
+
+		long startTimeInMillis = System.currentTimeMillis();
+		firePropertyUpdates(EVENT_COUNT);
+		long actualTimeInMillis = System.currentTimeMillis() - startTimeInMillis;
+
+		System.out.println("property update burst of " + EVENT_COUNT + " events: duration = " + actualTimeInMillis + " milliseconds");
+		Assert.assertTrue("Expected to take less than 1000 milliseconds but took " + actualTimeInMillis + " milliseconds", actualTimeInMillis < 1000);
+	}
+
+	private void fireRowUpdates(int count) {
+		for (int i = 0; i < count; i++) {
+			int rowIndex = i % eventList.size();
+			eventList.set(rowIndex, eventList.get(rowIndex));
+		}
+	}
+
+	private void firePropertyUpdates(int count) {
+		for (int i = 0; i < count; i++) {
+			RowDataFixture rowObject = eventList.get(i % eventList.size());
+			eventLayer.propertyChange(new PropertyChangeEvent(
+					rowObject, RowDataListFixture.BID_PRICE_PROP_NAME, null, Double.valueOf(i)));
+		}
+	}
+}
@@ -0,0 +1,202 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Original authors and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Original authors and others - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.test.performance;
+
+import java.util.List;
+
+import org.eclipse.nebula.widgets.nattable.blink.BlinkLayer;
+import org.eclipse.nebula.widgets.nattable.config.IConfigRegistry;
+import org.eclipse.nebula.widgets.nattable.data.IColumnPropertyAccessor;
+import org.eclipse.nebula.widgets.nattable.data.IDataProvider;
+import org.eclipse.nebula.widgets.nattable.data.IRowIdAccessor;
+import org.eclipse.nebula.widgets.nattable.data.ReflectiveColumnPropertyAccessor;
+import org.eclipse.nebula.widgets.nattable.dataset.pricing.ColumnHeaders;
+import org.eclipse.nebula.widgets.nattable.dataset.pricing.PricingDataBean;
+import org.eclipse.nebula.widgets.nattable.extension.glazedlists.GlazedListsDataProvider;
+import org.eclipse.nebula.widgets.nattable.extension.glazedlists.GlazedListsEventLayer;
+import org.eclipse.nebula.widgets.nattable.extension.glazedlists.GlazedListsSortModel;
+import org.eclipse.nebula.widgets.nattable.extension.glazedlists.filterrow.DefaultGlazedListsFilterStrategy;
+import org.eclipse.nebula.widgets.nattable.extension.glazedlists.groupBy.GroupByDataLayer;
+import org.eclipse.nebula.widgets.nattable.extension.glazedlists.groupBy.GroupByModel;
+import org.eclipse.nebula.widgets.nattable.filterrow.FilterRowHeaderComposite;
+import org.eclipse.nebula.widgets.nattable.grid.data.DefaultColumnHeaderDataProvider;
+import org.eclipse.nebula.widgets.nattable.grid.data.DefaultCornerDataProvider;
+import org.eclipse.nebula.widgets.nattable.grid.data.DefaultRowHeaderDataProvider;
+import org.eclipse.nebula.widgets.nattable.grid.layer.ColumnHeaderLayer;
+import org.eclipse.nebula.widgets.nattable.grid.layer.CornerLayer;
+import org.eclipse.nebula.widgets.nattable.grid.layer.DefaultColumnHeaderDataLayer;
+import org.eclipse.nebula.widgets.nattable.grid.layer.DefaultRowHeaderDataLayer;
+import org.eclipse.nebula.widgets.nattable.grid.layer.GridLayer;
+import org.eclipse.nebula.widgets.nattable.grid.layer.RowHeaderLayer;
+import org.eclipse.nebula.widgets.nattable.hideshow.ColumnHideShowLayer;
+import org.eclipse.nebula.widgets.nattable.layer.DataLayer;
+import org.eclipse.nebula.widgets.nattable.layer.IUniqueIndexLayer;
+import org.eclipse.nebula.widgets.nattable.reorder.ColumnReorderLayer;
+import org.eclipse.nebula.widgets.nattable.selection.SelectionLayer;
+import org.eclipse.nebula.widgets.nattable.sort.SortHeaderLayer;
+import org.eclipse.nebula.widgets.nattable.summaryrow.SummaryRowLayer;
+import org.eclipse.nebula.widgets.nattable.tree.TreeLayer;
+import org.eclipse.nebula.widgets.nattable.viewport.ViewportLayer;
+
+import ca.odell.glazedlists.EventList;
+import ca.odell.glazedlists.FilterList;
+import ca.odell.glazedlists.GlazedLists;
+import ca.odell.glazedlists.SortedList;
+
+/**
+ * Full featured grid of {@link PricingDataBean}s that is used by the {@link ScenarioHarness}
+ * to measure realistic layer stacks instead of single layers.
+ * <p>
+ * The rows are sorted and filtered via GlazedLists. The column header contains the sort
+ * header and the filter row. The body contains column reordering, column hiding, selection
+ * and the viewport. A flat body additionally contains blinking on property updates and a
+ * summary row, a grouped body contains group by and the tree instead, as blinking and
+ * summaries need the row objects while the grouped body also contains group rows.
+ */
+public class ScenarioGridLayer extends GridLayer {
+
+	private final EventList<PricingDataBean> eventList;
+	private final SortedList<PricingDataBean> sortedList;
+	private final FilterList<PricingDataBean> filterList;
+	private final GlazedListsEventLayer<PricingDataBean> glazedListsEventLayer;
+	private final SelectionLayer selectionLayer;
+	private final ViewportLayer viewportLayer;
+	private final FilterRowHeaderComposite<PricingDataBean> filterRowHeaderLayer;
+	private final GroupByModel groupByModel;
+
+	/**
+	 * @param rows The row objects to show.
+	 * @param configRegistry The ConfigRegistry of the NatTable the grid is shown in.
+	 * @param groupBy <code>true</code> to build a grouped body with a tree, <code>false</code>
+	 * 			to build a flat body with blinking and a summary row.
+	 */
+	public ScenarioGridLayer(List<PricingDataBean> rows, IConfigRegistry configRegistry, boolean groupBy) {
+		super(true);
+
+		String[] propertyNames = ColumnHeaders.getProperties();
+		IColumnPropertyAccessor<PricingDataBean> columnPropertyAccessor =
+				new ReflectiveColumnPropertyAccessor<PricingDataBean>(propertyNames);
+
+		this.eventList = GlazedLists.eventList(rows);
+		// the comparator is set by the GlazedListsSortModel
+		this.sortedList = new SortedList<PricingDataBean>(this.eventList, null);
+		this.filterList = new FilterList<PricingDataBean>(this.sortedList);
+
+		// Body layer
+		IDataProvider bodyDataProvider;
+		DataLayer bodyDataLayer;
+		IUniqueIndexLayer bodyBaseLayer;
+		if (groupBy) {
+			this.groupByModel = new GroupByModel();
+			GroupByDataLayer<PricingDataBean> groupByDataLayer = new GroupByDataLayer<PricingDataBean>(
+					this.groupByModel, this.filterList, columnPropertyAccessor, configRegistry);
+			bodyDataProvider = groupByDataLayer.getDataProvider();
+			bodyDataLayer = groupByDataLayer;
+			this.glazedListsEventLayer = new GlazedListsEventLayer<PricingDataBean>(bodyDataLayer, this.filterList);
+			bodyBaseLayer = this.glazedListsEventLayer;
+		} else {
+			this.groupByModel = null;
+			GlazedListsDataProvider<PricingDataBean> rowDataProvider =
+					new GlazedListsDataProvider<PricingDataBean>(this.filterList, columnPropertyAccessor);
+			bodyDataProvider = rowDataProvider;
+			bodyDataLayer = new DataLayer(bodyDataProvider);
+			this.glazedListsEventLayer = new GlazedListsEventLayer<PricingDataBean>(bodyDataLayer, this.filterList);
+			BlinkLayer<PricingDataBean> blinkLayer = new BlinkLayer<PricingDataBean>(this.glazedListsEventLayer,
+					rowDataProvider, new IsinRowIdAccessor(), columnPropertyAccessor, configRegistry);
+			bodyBaseLayer = new SummaryRowLayer(blinkLayer, configRegistry);
+		}
+		// fire exact row events instead of conflated refresh events, so filtering is measured
+		// together with the event handling it causes
+		this.glazedListsEventLayer.setExactRowEvents(true);
+
+		ColumnReorderLayer columnReorderLayer = new ColumnReorderLayer(bodyBaseLayer);
+		ColumnHideShowLayer columnHideShowLayer = new ColumnHideShowLayer(columnReorderLayer);
+		this.selectionLayer = new SelectionLayer(columnHideShowLayer);
+		if (groupBy) {
+			TreeLayer treeLayer = new TreeLayer(this.selectionLayer,
+					((GroupByDataLayer<?>) bodyDataLayer).getTreeRowModel());
+			this.viewportLayer = new ViewportLayer(treeLayer);
+		} else {
+			this.viewportLayer = new ViewportLayer(this.selectionLayer);
+		}
+
+		// Column header layer
+		IDataProvider columnHeaderDataProvider =
+				new DefaultColumnHeaderDataProvider(ColumnHeaders.getLabels());
+		DataLayer columnHeaderDataLayer = new DefaultColumnHeaderDataLayer(columnHeaderDataProvider);
+		ColumnHeaderLayer columnHeaderLayer =
+				new ColumnHeaderLayer(columnHeaderDataLayer, this.viewportLayer, this.selectionLayer);
+		SortHeaderLayer<PricingDataBean> sortHeaderLayer = new SortHeaderLayer<PricingDataBean>(columnHeaderLayer,
+				new GlazedListsSortModel<PricingDataBean>(this.sortedList, columnPropertyAccessor, configRegistry, columnHeaderDataLayer));
+		this.filterRowHeaderLayer = new FilterRowHeaderComposite<PricingDataBean>(
+				new DefaultGlazedListsFilterStrategy<PricingDataBean>(this.filterList, columnPropertyAccessor, configRegistry),
+				sortHeaderLayer, columnHeaderDataProvider, configRegistry);
+
+		// Row header layer
+		IDataProvider rowHeaderDataProvider = new DefaultRowHeaderDataProvider(bodyDataProvider);
+		DataLayer rowHeaderDataLayer = new DefaultRowHeaderDataLayer(rowHeaderDataProvider);
+		RowHeaderLayer rowHeaderLayer = new RowHeaderLayer(rowHeaderDataLayer, this.viewportLayer, this.selectionLayer);
+
+		// Corner layer
+		DataLayer cornerDataLayer = new DataLayer(new DefaultCornerDataProvider(columnHeaderDataProvider, rowHeaderDataProvider));
+		CornerLayer cornerLayer = new CornerLayer(cornerDataLayer, rowHeaderLayer, this.filterRowHeaderLayer);
+
+		setBodyLayer(this.viewportLayer);
+		setColumnHeaderLayer(this.filterRowHeaderLayer);
+		setRowHeaderLayer(rowHeaderLayer);
+		setCornerLayer(cornerLayer);
+	}
+
+	public EventList<PricingDataBean> getEventList() {
+		return this.eventList;
+	}
+
+	public SortedList<PricingDataBean> getSortedList() {
+		return this.sortedList;
+	}
+
+	public FilterList<PricingDataBean> getFilterList() {
+		return this.filterList;
+	}
+
+	public GlazedListsEventLayer<PricingDataBean> getGlazedListsEventLayer() {
+		return this.glazedListsEventLayer;
+	}
+
+	public SelectionLayer getSelectionLayer() {
+		return this.selectionLayer;
+	}
+
+	public ViewportLayer getViewportLayer() {
+		return this.viewportLayer;
+	}
+
+	public FilterRowHeaderComposite<PricingDataBean> getFilterRowHeaderLayer() {
+		return this.filterRowHeaderLayer;
+	}
+
+	/**
+	 * @return The GroupByModel of a grouped body, <code>null</code> for a flat body.
+	 */
+	public GroupByModel getGroupByModel() {
+		return this.groupByModel;
+	}
+
+	/**
+	 * The ISIN is unique per generated row, so it is used to identify the blinking cells.
+	 */
+	private static class IsinRowIdAccessor implements IRowIdAccessor<PricingDataBean> {
+		@Override
+		public String getRowId(PricingDataBean rowObject) {
+			return rowObject.getIsin();
+		}
+	}
+}
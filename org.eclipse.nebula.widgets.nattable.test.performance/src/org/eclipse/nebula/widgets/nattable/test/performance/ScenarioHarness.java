@@ -0,0 +1,496 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Original authors and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Original authors and others - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.test.performance;
+
+import java.beans.PropertyChangeEvent;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.eclipse.nebula.widgets.nattable.NatTable;
+import org.eclipse.nebula.widgets.nattable.command.DisposeResourcesCommand;
+import org.eclipse.nebula.widgets.nattable.config.ConfigRegistry;
+import org.eclipse.nebula.widgets.nattable.config.DefaultNatTableStyleConfiguration;
+import org.eclipse.nebula.widgets.nattable.copy.command.CopyDataToClipboardCommand;
+import org.eclipse.nebula.widgets.nattable.dataset.pricing.ColumnHeaders;
+import org.eclipse.nebula.widgets.nattable.dataset.pricing.PricingDataBean;
+import org.eclipse.nebula.widgets.nattable.dataset.pricing.PricingDataBeanGenerator;
+import org.eclipse.nebula.widgets.nattable.edit.command.UpdateDataCommand;
+import org.eclipse.nebula.widgets.nattable.export.ExportConfigAttributes;
+import org.eclipse.nebula.widgets.nattable.export.IOutputStreamProvider;
+import org.eclipse.nebula.widgets.nattable.export.command.ExportCommand;
+import org.eclipse.nebula.widgets.nattable.export.excel.ExcelExporter;
+import org.eclipse.nebula.widgets.nattable.filterrow.FilterRowDataLayer;
+import org.eclipse.nebula.widgets.nattable.layer.ILayerListener;
+import org.eclipse.nebula.widgets.nattable.layer.event.ILayerEvent;
+import org.eclipse.nebula.widgets.nattable.selection.command.ClearAllSelectionsCommand;
+import org.eclipse.nebula.widgets.nattable.selection.command.SelectAllCommand;
+import org.eclipse.nebula.widgets.nattable.sort.command.SortColumnCommand;
+import org.eclipse.nebula.widgets.nattable.viewport.ViewportLayer;
+import org.eclipse.swt.graphics.GC;
+import org.eclipse.swt.graphics.Image;
+import org.eclipse.swt.graphics.Rectangle;
+import org.eclipse.swt.layout.FillLayout;
+import org.eclipse.swt.widgets.Display;
+import org.eclipse.swt.widgets.Shell;
+
+/**
+ * Drives scripted workloads against a {@link ScenarioGridLayer} with a large number of
+ * generated rows and measures every frame, to find regressions that only show up with
+ * realistic layer stacks and data sizes.
+ * <p>
+ * A frame consists of the workload action, e.g. scrolling a page or applying a burst of
+ * ticks, the dispatching of the pending UI events and the painting of the entire NatTable
+ * into an offscreen image. Workloads that trigger conflated refreshes, like sorting, wait
+ * for the refresh before the dispatching; the waiting time is not part of the frame time.
+ * <p>
+ * The rows are generated from a fixed seed, so runs are comparable. The harness needs a
+ * Display, which can be a virtual one like Xvfb on build servers. It can be started via
+ * {@link #main(String[])} with the row counts and the report file as arguments.
+ */
+public class ScenarioHarness {
+
+	public static final long DEFAULT_SEED = 4711;
+
+	public static final int FRAMES_PER_SECOND = 60;
+
+	/**
+	 * Time to wait for the conflated refresh events of the GlazedListsEventLayer.
+	 */
+	private static final long CONFLATION_SETTLE_MILLIS = 150;
+
+	private static Method allocatedBytesMethod;
+	private static boolean allocatedBytesMethodResolved;
+
+	private final Display display;
+	private final int rowCount;
+	private final boolean groupBy;
+	private final Random random;
+
+	private final Shell shell;
+	private final ConfigRegistry configRegistry;
+	private final ScenarioGridLayer gridLayer;
+	private final NatTable natTable;
+	private final Image frameImage;
+	private final GC frameGC;
+
+	private ScenarioMetrics currentMetrics;
+
+	/**
+	 * Generates the rows and opens a Shell with a NatTable showing a {@link ScenarioGridLayer}.
+	 * Needs to be called from the UI thread.
+	 * @param display The Display to open the Shell on.
+	 * @param rowCount The number of rows to generate.
+	 * @param groupBy <code>true</code> to measure the grouped layer stack, <code>false</code>
+	 * 			for the flat one.
+	 * @param seed The seed for the generated rows and the random workload actions.
+	 */
+	public ScenarioHarness(Display display, int rowCount, boolean groupBy, long seed) {
+		this.display = display;
+		this.rowCount = rowCount;
+		this.groupBy = groupBy;
+		this.random = new Random(seed);
+
+		List<PricingDataBean> rows = PricingDataBeanGenerator.getData(rowCount, seed);
+
+		this.shell = new Shell(display);
+		this.shell.setText("NatTable Scenario Harness"); //$NON-NLS-1$
+		this.shell.setLayout(new FillLayout());
+		this.shell.setSize(1600, 1000);
+
+		this.configRegistry = new ConfigRegistry();
+		this.gridLayer = new ScenarioGridLayer(rows, this.configRegistry, groupBy);
+		this.natTable = new NatTable(this.shell, this.gridLayer, false);
+		this.natTable.setConfigRegistry(this.configRegistry);
+		this.natTable.addConfiguration(new DefaultNatTableStyleConfiguration());
+		this.natTable.configure();
+		this.natTable.addLayerListener(new ILayerListener() {
+			@Override
+			public void handleLayerEvent(ILayerEvent event) {
+				if (ScenarioHarness.this.currentMetrics != null) {
+					ScenarioHarness.this.currentMetrics.countEvent(event.getClass().getSimpleName());
+				}
+			}
+		});
+		this.configRegistry.registerConfigAttribute(ExportConfigAttributes.EXPORTER,
+				new ExcelExporter(new DiscardingOutputStreamProvider()));
+
+		this.shell.open();
+		dispatchPendingEvents();
+
+		Rectangle clientArea = this.natTable.getClientArea();
+		this.frameImage = new Image(display, Math.max(1, clientArea.width), Math.max(1, clientArea.height));
+		this.frameGC = new GC(this.frameImage);
+	}
+
+	public int getRowCount() {
+		return this.rowCount;
+	}
+
+	public NatTable getNatTable() {
+		return this.natTable;
+	}
+
+	public ScenarioGridLayer getGridLayer() {
+		return this.gridLayer;
+	}
+
+	/**
+	 * @return The name of the scenario, i.e. the kind of layer stack.
+	 */
+	public String getScenarioName() {
+		return this.groupBy ? "groupBy" : "flat"; //$NON-NLS-1$ //$NON-NLS-2$
+	}
+
+	/**
+	 * Runs all workloads with their default parameters.
+	 * @return The measurements of the workloads.
+	 */
+	public List<ScenarioMetrics> runAll() {
+		List<ScenarioMetrics> metrics = new ArrayList<ScenarioMetrics>();
+		if (this.groupBy) {
+			metrics.add(groupByToggles(ColumnHeaders.EIGHT.ordinal(), 10));
+			// keep a grouping for the remaining workloads
+			this.gridLayer.getGroupByModel().addGroupByColumnIndex(ColumnHeaders.EIGHT.ordinal());
+			dispatchPendingEvents();
+		}
+		metrics.add(scrollSweep(200));
+		metrics.add(tickUpdates(10000, 3));
+		metrics.add(filterTyping(ColumnHeaders.ONE.ordinal(), "DE00000001")); //$NON-NLS-1$
+		metrics.add(sortToggles(ColumnHeaders.TWO.ordinal(), 6));
+		metrics.add(selectAll(10));
+		metrics.add(copy(1000, 5));
+		metrics.add(export());
+		return metrics;
+	}
+
+	/**
+	 * Scrolls from the top to the bottom of the table in equal steps.
+	 * @param frames The number of scroll steps.
+	 * @return The measurements.
+	 */
+	public ScenarioMetrics scrollSweep(final int frames) {
+		final ViewportLayer viewportLayer = this.gridLayer.getViewportLayer();
+		return measure("scrollSweep", frames, 0, new IFrameAction() { //$NON-NLS-1$
+			@Override
+			public void run(int frame) {
+				long scrollableHeight = Math.max(0, viewportLayer.getVirtualHeight() - viewportLayer.getHeight());
+				viewportLayer.setVirtualOriginY(frames > 1 ? scrollableHeight * frame / (frames - 1) : 0);
+			}
+		});
+	}
+
+	/**
+	 * Updates the bid of random rows, like a market data feed. Every frame applies the
+	 * ticks of 1/{@value #FRAMES_PER_SECOND} of a second, the frames are not throttled.
+	 * @param ticksPerSecond The number of updated rows per second.
+	 * @param seconds The number of simulated seconds.
+	 * @return The measurements.
+	 */
+	public ScenarioMetrics tickUpdates(int ticksPerSecond, int seconds) {
+		final int ticksPerFrame = Math.max(1, ticksPerSecond / FRAMES_PER_SECOND);
+		final List<PricingDataBean> rows = this.gridLayer.getEventList();
+		return measure("tickUpdates", seconds * FRAMES_PER_SECOND, 0, new IFrameAction() { //$NON-NLS-1$
+			@Override
+			public void run(int frame) {
+				for (int i = 0; i < ticksPerFrame && !rows.isEmpty(); i++) {
+					PricingDataBean row = rows.get(ScenarioHarness.this.random.nextInt(rows.size()));
+					Double oldValue = Double.valueOf(row.getBid());
+					row.setBid(row.getBid() + ScenarioHarness.this.random.nextDouble() - 0.5);
+					ScenarioHarness.this.gridLayer.getGlazedListsEventLayer().propertyChange(
+							new PropertyChangeEvent(row, "bid", oldValue, Double.valueOf(row.getBid()))); //$NON-NLS-1$
+				}
+			}
+		});
+	}
+
+	/**
+	 * Types the given text into the filter row one character per frame and deletes it
+	 * again one character per frame.
+	 * @param columnIndex The index of the filtered column.
+	 * @param text The filter text to type.
+	 * @return The measurements.
+	 */
+	public ScenarioMetrics filterTyping(final int columnIndex, final String text) {
+		final FilterRowDataLayer<PricingDataBean> filterRowDataLayer =
+				this.gridLayer.getFilterRowHeaderLayer().getFilterRowDataLayer();
+		return measure("filterTyping", text.length() * 2, 0, new IFrameAction() { //$NON-NLS-1$
+			@Override
+			public void run(int frame) {
+				int length = frame < text.length() ? frame + 1 : 2 * text.length() - frame - 1;
+				filterRowDataLayer.doCommand(new UpdateDataCommand(filterRowDataLayer, columnIndex, 0,
+						length > 0 ? text.substring(0, length) : null));
+			}
+		});
+	}
+
+	/**
+	 * Clicks the sort header of a column repeatedly, which cycles through ascending,
+	 * descending and unsorted.
+	 * @param columnIndex The index of the sorted column.
+	 * @param toggles The number of clicks.
+	 * @return The measurements.
+	 */
+	public ScenarioMetrics sortToggles(final int columnIndex, int toggles) {
+		return measure("sortToggles", toggles, CONFLATION_SETTLE_MILLIS, new IFrameAction() { //$NON-NLS-1$
+			@Override
+			public void run(int frame) {
+				// the column position in the NatTable is behind the row header column
+				ScenarioHarness.this.natTable.doCommand(new SortColumnCommand(
+						ScenarioHarness.this.natTable, columnIndex + 1, false));
+			}
+		});
+	}
+
+	/**
+	 * Selects all cells and clears the selection again in alternating frames.
+	 * @param frames The number of frames.
+	 * @return The measurements.
+	 */
+	public ScenarioMetrics selectAll(int frames) {
+		return measure("selectAll", frames, 0, new IFrameAction() { //$NON-NLS-1$
+			@Override
+			public void run(int frame) {
+				if (frame % 2 == 0) {
+					ScenarioHarness.this.natTable.doCommand(new SelectAllCommand());
+				} else {
+					ScenarioHarness.this.natTable.doCommand(new ClearAllSelectionsCommand());
+				}
+			}
+		});
+	}
+
+	/**
+	 * Selects the first rows and copies them to the clipboard.
+	 * @param copiedRows The number of rows to copy.
+	 * @param frames The number of copy operations.
+	 * @return The measurements.
+	 */
+	public ScenarioMetrics copy(final int copiedRows, int frames) {
+		this.gridLayer.getSelectionLayer().clear();
+		this.gridLayer.getSelectionLayer().selectRegion(0, 0,
+				this.gridLayer.getSelectionLayer().getColumnCount(),
+				Math.min(copiedRows, this.gridLayer.getSelectionLayer().getRowCount()));
+		ScenarioMetrics metrics = measure("copy", frames, 0, new IFrameAction() { //$NON-NLS-1$
+			@Override
+			public void run(int frame) {
+				ScenarioHarness.this.natTable.doCommand(new CopyDataToClipboardCommand(
+						"\t", System.getProperty("line.separator"), ScenarioHarness.this.configRegistry)); //$NON-NLS-1$ //$NON-NLS-2$
+			}
+		});
+		this.gridLayer.getSelectionLayer().clear();
+		return metrics;
+	}
+
+	/**
+	 * Exports the entire table via the {@link ExcelExporter}. The exported data is discarded.
+	 * @return The measurements.
+	 */
+	public ScenarioMetrics export() {
+		return measure("export", 1, 0, new IFrameAction() { //$NON-NLS-1$
+			@Override
+			public void run(int frame) {
+				// without a Shell the export is executed synchronously
+				ScenarioHarness.this.natTable.doCommand(new ExportCommand(ScenarioHarness.this.configRegistry, null));
+			}
+		});
+	}
+
+	/**
+	 * Groups by a column and removes the grouping again in alternating frames.
+	 * Only available for the grouped layer stack.
+	 * @param columnIndex The index of the column to group by.
+	 * @param frames The number of frames.
+	 * @return The measurements.
+	 */
+	public ScenarioMetrics groupByToggles(final int columnIndex, int frames) {
+		if (!this.groupBy) {
+			throw new IllegalStateException("Group by is only available for the grouped layer stack"); //$NON-NLS-1$
+		}
+		return measure("groupByToggles", frames, CONFLATION_SETTLE_MILLIS, new IFrameAction() { //$NON-NLS-1$
+			@Override
+			public void run(int frame) {
+				if (frame % 2 == 0) {
+					ScenarioHarness.this.gridLayer.getGroupByModel().addGroupByColumnIndex(columnIndex);
+				} else {
+					ScenarioHarness.this.gridLayer.getGroupByModel().removeGroupByColumnIndex(columnIndex);
+				}
+			}
+		});
+	}
+
+	/**
+	 * Closes the Shell and releases the resources of the layer stack.
+	 */
+	public void dispose() {
+		this.frameGC.dispose();
+		this.frameImage.dispose();
+		this.natTable.doCommand(new DisposeResourcesCommand());
+		this.shell.dispose();
+	}
+
+	private ScenarioMetrics measure(String workload, int frames, long settleMillis, IFrameAction action) {
+		ScenarioMetrics metrics = new ScenarioMetrics(workload);
+		dispatchPendingEvents();
+
+		this.currentMetrics = metrics;
+		long allocatedBytesBefore = getAllocatedBytes();
+		long start = System.nanoTime();
+		try {
+			for (int frame = 0; frame < frames; frame++) {
+				long actionStart = System.nanoTime();
+				action.run(frame);
+				long actionNanos = System.nanoTime() - actionStart;
+
+				settle(settleMillis);
+
+				long paintStart = System.nanoTime();
+				dispatchPendingEvents();
+				paintFrame();
+				metrics.addFrame(actionNanos + System.nanoTime() - paintStart);
+			}
+		} finally {
+			metrics.setDurationNanos(System.nanoTime() - start);
+			long allocatedBytesAfter = getAllocatedBytes();
+			if (allocatedBytesBefore >= 0 && allocatedBytesAfter >= 0) {
+				metrics.setAllocatedBytes(allocatedBytesAfter - allocatedBytesBefore);
+			}
+			this.currentMetrics = null;
+		}
+		return metrics;
+	}
+
+	private void paintFrame() {
+		Rectangle bounds = this.frameImage.getBounds();
+		this.natTable.getLayerPainter().paintLayer(this.natTable, this.frameGC, 0, 0, bounds, this.configRegistry);
+	}
+
+	private void dispatchPendingEvents() {
+		while (this.display.readAndDispatch()) {
+			// process all pending events
+		}
+	}
+
+	/**
+	 * Waits for events that are posted to the UI thread by other threads, e.g. the
+	 * conflated refresh events of the GlazedListsEventLayer, without dispatching them.
+	 */
+	private void settle(long millis) {
+		if (millis <= 0) {
+			return;
+		}
+		try {
+			Thread.sleep(millis);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * @return The bytes allocated by the current thread, or -1 if the JVM doesn't
+	 * 			support measuring allocations.
+	 */
+	private static synchronized long getAllocatedBytes() {
+		ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+		if (!allocatedBytesMethodResolved) {
+			allocatedBytesMethodResolved = true;
+			try {
+				// only available in HotSpot based JVMs, so it is accessed via reflection
+				Class<?> hotSpotThreadMXBean = Class.forName("com.sun.management.ThreadMXBean"); //$NON-NLS-1$
+				if (hotSpotThreadMXBean.isInstance(threadMXBean)) {
+					allocatedBytesMethod = hotSpotThreadMXBean.getMethod("getThreadAllocatedBytes", long.class); //$NON-NLS-1$
+				}
+			} catch (Exception e) {
+				allocatedBytesMethod = null;
+			}
+		}
+		if (allocatedBytesMethod == null) {
+			return -1;
+		}
+		try {
+			return ((Long) allocatedBytesMethod.invoke(threadMXBean, Long.valueOf(Thread.currentThread().getId()))).longValue();
+		} catch (Exception e) {
+			return -1;
+		}
+	}
+
+	/**
+	 * Runs the flat and the grouped scenario for the given row counts and writes the report.
+	 * @param args The comma separated row counts, default 100000,1000000, and the report file,
+	 * 			default scenario-report.json.
+	 */
+	public static void main(String[] args) throws IOException {
+		String rowCounts = args.length > 0 ? args[0] : "100000,1000000"; //$NON-NLS-1$
+		File reportFile = new File(args.length > 1 ? args[1] : "scenario-report.json"); //$NON-NLS-1$
+
+		Display display = Display.getDefault();
+		ScenarioReport report = new ScenarioReport();
+		for (String rowCount : rowCounts.split(",")) { //$NON-NLS-1$
+			for (boolean groupBy : new boolean[] { false, true }) {
+				ScenarioHarness harness = new ScenarioHarness(display, Integer.parseInt(rowCount.trim()), groupBy, DEFAULT_SEED);
+				try {
+					List<ScenarioMetrics> metrics = harness.runAll();
+					report.addScenario(harness.getScenarioName(), harness.getRowCount(), metrics);
+					for (ScenarioMetrics workload : metrics) {
+						System.out.println(harness.getScenarioName() + " " + harness.getRowCount() + " rows, " //$NON-NLS-1$ //$NON-NLS-2$
+								+ workload.getWorkload() + ": p50 = " + workload.getPercentileMillis(50) //$NON-NLS-1$
+								+ " milliseconds, p99 = " + workload.getPercentileMillis(99) + " milliseconds"); //$NON-NLS-1$ //$NON-NLS-2$
+					}
+				} finally {
+					harness.dispose();
+				}
+			}
+		}
+		report.write(reportFile);
+		System.out.println("Report written to " + reportFile.getAbsolutePath()); //$NON-NLS-1$
+		display.dispose();
+	}
+
+	/**
+	 * The action of a workload that is executed for every frame.
+	 */
+	private interface IFrameAction {
+		void run(int frame);
+	}
+
+	/**
+	 * Provides an OutputStream that discards the exported bytes, so exporting doesn't
+	 * measure the disk and doesn't open the result.
+	 */
+	private static class DiscardingOutputStreamProvider implements IOutputStreamProvider {
+
+		@Override
+		public OutputStream getOutputStream(Shell shell) {
+			return new OutputStream() {
+				@Override
+				public void write(int b) {
+					// discard
+				}
+
+				@Override
+				public void write(byte[] b, int off, int len) {
+					// discard
+				}
+			};
+		}
+
+		@Override
+		public Object getResult() {
+			return null;
+		}
+	}
+}
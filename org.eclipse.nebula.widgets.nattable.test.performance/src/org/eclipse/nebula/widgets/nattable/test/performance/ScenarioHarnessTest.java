@@ -0,0 +1,101 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Original authors and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Original authors and others - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.test.performance;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.Collections;
+import java.util.List;
+
+import org.eclipse.swt.widgets.Display;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Runs the scenario workloads on the flat and the grouped layer stack. The number of rows
+ * can be set via the system property <i>nattable.scenario.rows</i>, the report is written
+ * to the file set via <i>nattable.scenario.report</i>.
+ */
+public class ScenarioHarnessTest {
+
+	private static final int ROW_COUNT = Integer.getInteger("nattable.scenario.rows", 100000).intValue(); //$NON-NLS-1$
+
+	@Test
+	public void runScenarios() throws IOException {
+		ScenarioReport report = new ScenarioReport();
+		for (boolean groupBy : new boolean[] { false, true }) {
+			ScenarioHarness harness = new ScenarioHarness(Display.getDefault(), ROW_COUNT, groupBy, ScenarioHarness.DEFAULT_SEED);
+			try {
+				List<ScenarioMetrics> metrics = harness.runAll();
+				report.addScenario(harness.getScenarioName(), ROW_COUNT, metrics);
+
+				for (ScenarioMetrics workload : metrics) {
+					System.out.println(harness.getScenarioName() + " " + ROW_COUNT + " rows, " + workload.getWorkload()
+							+ ": p50 = " + workload.getPercentileMillis(50) + " milliseconds, p99 = "
+							+ workload.getPercentileMillis(99) + " milliseconds, events = " + workload.getEventCount());
+					Assert.assertTrue(workload.getFrameCount() > 0);
+					Assert.assertTrue(workload.getPercentileMillis(99) >= workload.getPercentileMillis(50));
+				}
+			} finally {
+				harness.dispose();
+			}
+		}
+
+		StringWriter json = new StringWriter();
+		report.write(json);
+		for (String workload : new String[] { "scrollSweep", "tickUpdates", "filterTyping", "sortToggles", "selectAll", "copy", "export", "groupByToggles" }) {
+			Assert.assertTrue("Missing workload " + workload, json.toString().contains("\"" + workload + "\""));
+		}
+
+		String reportFile = System.getProperty("nattable.scenario.report"); //$NON-NLS-1$
+		if (reportFile != null) {
+			report.write(new File(reportFile));
+		}
+	}
+
+	@Test
+	public void percentiles() {
+		ScenarioMetrics metrics = new ScenarioMetrics("test");
+		for (int i = 100; i > 0; i--) {
+			metrics.addFrame(i * 1000000L);
+		}
+
+		Assert.assertEquals(100, metrics.getFrameCount());
+		Assert.assertEquals(50.0, metrics.getPercentileMillis(50), 0);
+		Assert.assertEquals(99.0, metrics.getPercentileMillis(99), 0);
+		Assert.assertEquals(100.0, metrics.getMaxMillis(), 0);
+		Assert.assertEquals(50.5, metrics.getMeanMillis(), 0.0001);
+		Assert.assertEquals(-1, metrics.getAllocationRateMBPerSecond(), 0);
+	}
+
+	@Test
+	public void reportIsValidJson() throws IOException {
+		ScenarioMetrics metrics = new ScenarioMetrics("scroll \"sweep\"");
+		metrics.addFrame(2000000L);
+		metrics.countEvent("ScrollEvent");
+		metrics.countEvent("ScrollEvent");
+		metrics.setDurationNanos(1000000000L);
+		metrics.setAllocatedBytes(1024 * 1024);
+
+		ScenarioReport report = new ScenarioReport();
+		report.addScenario("flat", 10, Collections.singletonList(metrics));
+		StringWriter json = new StringWriter();
+		report.write(json);
+
+		String result = json.toString();
+		Assert.assertTrue(result, result.contains("\"name\": \"scroll \\\"sweep\\\"\""));
+		Assert.assertTrue(result, result.contains("\"p50Millis\": 2.000"));
+		Assert.assertTrue(result, result.contains("\"allocationRateMBPerSecond\": 1.000"));
+		Assert.assertTrue(result, result.contains("\"ScrollEvent\": 2"));
+		Assert.assertTrue(result, result.contains("\"rows\": 10"));
+	}
+}
@@ -0,0 +1,150 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Original authors and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Original authors and others - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.test.performance;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * The measurements of one workload of the {@link ScenarioHarness}: the time of every frame,
+ * the bytes allocated by the UI thread and the number of layer events per event type.
+ */
+public class ScenarioMetrics {
+
+	private final String workload;
+
+	private long[] frameNanos = new long[64];
+	private int frameCount;
+	private long durationNanos;
+	private long allocatedBytes = -1;
+	private final Map<String, Integer> eventCounts = new TreeMap<String, Integer>();
+
+	/**
+	 * @param workload The name of the measured workload.
+	 */
+	public ScenarioMetrics(String workload) {
+		this.workload = workload;
+	}
+
+	public String getWorkload() {
+		return this.workload;
+	}
+
+	/**
+	 * @param nanos The time needed to process and paint one frame.
+	 */
+	public void addFrame(long nanos) {
+		if (this.frameCount == this.frameNanos.length) {
+			this.frameNanos = Arrays.copyOf(this.frameNanos, this.frameCount * 2);
+		}
+		this.frameNanos[this.frameCount++] = nanos;
+	}
+
+	public int getFrameCount() {
+		return this.frameCount;
+	}
+
+	/**
+	 * @param eventType The type of a fired layer event, usually the simple class name.
+	 */
+	public void countEvent(String eventType) {
+		Integer count = this.eventCounts.get(eventType);
+		this.eventCounts.put(eventType, Integer.valueOf(count == null ? 1 : count.intValue() + 1));
+	}
+
+	/**
+	 * @return The number of fired layer events per event type, sorted by event type.
+	 */
+	public Map<String, Integer> getEventCounts() {
+		return this.eventCounts;
+	}
+
+	/**
+	 * @return The total number of fired layer events.
+	 */
+	public int getEventCount() {
+		int eventCount = 0;
+		for (Integer count : this.eventCounts.values()) {
+			eventCount += count.intValue();
+		}
+		return eventCount;
+	}
+
+	/**
+	 * @param durationNanos The wall clock time of the workload, including the time between frames.
+	 */
+	public void setDurationNanos(long durationNanos) {
+		this.durationNanos = durationNanos;
+	}
+
+	public long getDurationNanos() {
+		return this.durationNanos;
+	}
+
+	/**
+	 * @param allocatedBytes The bytes allocated by the UI thread during the workload, or -1
+	 * 			if the JVM doesn't support measuring allocations.
+	 */
+	public void setAllocatedBytes(long allocatedBytes) {
+		this.allocatedBytes = allocatedBytes;
+	}
+
+	public long getAllocatedBytes() {
+		return this.allocatedBytes;
+	}
+
+	/**
+	 * @return The allocated megabytes per second of the workload, or -1 if unknown.
+	 */
+	public double getAllocationRateMBPerSecond() {
+		if (this.allocatedBytes < 0 || this.durationNanos <= 0) {
+			return -1;
+		}
+		return (this.allocatedBytes / (1024.0 * 1024.0)) / (this.durationNanos / 1000000000.0);
+	}
+
+	/**
+	 * Calculates a percentile of the frame times via the nearest rank method.
+	 * @param percentile The percentile, e.g. 50 for the median or 99.
+	 * @return The frame time in milliseconds, or 0 if there are no frames.
+	 */
+	public double getPercentileMillis(double percentile) {
+		if (this.frameCount == 0) {
+			return 0;
+		}
+		long[] sorted = Arrays.copyOf(this.frameNanos, this.frameCount);
+		Arrays.sort(sorted);
+		int rank = (int) Math.ceil(percentile / 100 * sorted.length);
+		return sorted[Math.max(0, Math.min(sorted.length, rank) - 1)] / 1000000.0;
+	}
+
+	/**
+	 * @return The mean frame time in milliseconds, or 0 if there are no frames.
+	 */
+	public double getMeanMillis() {
+		if (this.frameCount == 0) {
+			return 0;
+		}
+		long sum = 0;
+		for (int i = 0; i < this.frameCount; i++) {
+			sum += this.frameNanos[i];
+		}
+		return sum / (double) this.frameCount / 1000000.0;
+	}
+
+	/**
+	 * @return The maximum frame time in milliseconds, or 0 if there are no frames.
+	 */
+	public double getMaxMillis() {
+		return getPercentileMillis(100);
+	}
+}
@@ -0,0 +1,175 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Original authors and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Original authors and others - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.test.performance;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Collects the {@link ScenarioMetrics} of several scenarios and writes them as JSON, so
+ * the results of nightly runs can be compared by trend tracking tools.
+ * <p>
+ * Every scenario is identified by its name and row count. Every workload of a scenario
+ * contains the frame count, the p50, p99, mean and maximum frame time in milliseconds,
+ * the allocated bytes and allocation rate, and the layer event counts per event type.
+ */
+public class ScenarioReport {
+
+	private final List<Scenario> scenarios = new ArrayList<Scenario>();
+
+	/**
+	 * @param name The name of the scenario, e.g. the kind of layer stack.
+	 * @param rowCount The number of rows of the scenario.
+	 * @param metrics The measurements of the workloads of the scenario.
+	 */
+	public void addScenario(String name, int rowCount, List<ScenarioMetrics> metrics) {
+		this.scenarios.add(new Scenario(name, rowCount, metrics));
+	}
+
+	/**
+	 * Writes the report as UTF-8 encoded JSON to the given file.
+	 * @param file The file to write to.
+	 * @throws IOException If writing fails.
+	 */
+	public void write(File file) throws IOException {
+		File parent = file.getAbsoluteFile().getParentFile();
+		if (parent != null && !parent.isDirectory() && !parent.mkdirs()) {
+			throw new IOException("Failed to create directory " + parent); //$NON-NLS-1$
+		}
+		Writer writer = new OutputStreamWriter(new FileOutputStream(file), "UTF-8"); //$NON-NLS-1$
+		try {
+			write(writer);
+		} finally {
+			writer.close();
+		}
+	}
+
+	/**
+	 * Writes the report as JSON.
+	 * @param writer The writer to write to. Is not closed.
+	 * @throws IOException If writing fails.
+	 */
+	public void write(Writer writer) throws IOException {
+		StringBuilder json = new StringBuilder();
+		json.append("{\n"); //$NON-NLS-1$
+		appendProperty(json, 1, "timestamp", Long.valueOf(System.currentTimeMillis())).append(",\n"); //$NON-NLS-1$ //$NON-NLS-2$
+		appendProperty(json, 1, "javaVersion", System.getProperty("java.version")).append(",\n"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		appendProperty(json, 1, "os", System.getProperty("os.name") + " " + System.getProperty("os.arch")).append(",\n"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$
+		appendProperty(json, 1, "processors", Integer.valueOf(Runtime.getRuntime().availableProcessors())).append(",\n"); //$NON-NLS-1$ //$NON-NLS-2$
+		appendProperty(json, 1, "maxMemory", Long.valueOf(Runtime.getRuntime().maxMemory())).append(",\n"); //$NON-NLS-1$ //$NON-NLS-2$
+		indent(json, 1).append("\"scenarios\": [\n"); //$NON-NLS-1$
+		for (int i = 0; i < this.scenarios.size(); i++) {
+			appendScenario(json, this.scenarios.get(i));
+			json.append(i < this.scenarios.size() - 1 ? ",\n" : "\n"); //$NON-NLS-1$ //$NON-NLS-2$
+		}
+		indent(json, 1).append("]\n"); //$NON-NLS-1$
+		json.append("}\n"); //$NON-NLS-1$
+		writer.write(json.toString());
+		writer.flush();
+	}
+
+	private void appendScenario(StringBuilder json, Scenario scenario) {
+		indent(json, 2).append("{\n"); //$NON-NLS-1$
+		appendProperty(json, 3, "name", scenario.name).append(",\n"); //$NON-NLS-1$ //$NON-NLS-2$
+		appendProperty(json, 3, "rows", Integer.valueOf(scenario.rowCount)).append(",\n"); //$NON-NLS-1$ //$NON-NLS-2$
+		indent(json, 3).append("\"workloads\": [\n"); //$NON-NLS-1$
+		for (int i = 0; i < scenario.metrics.size(); i++) {
+			ScenarioMetrics metrics = scenario.metrics.get(i);
+			indent(json, 4).append("{\n"); //$NON-NLS-1$
+			appendProperty(json, 5, "name", metrics.getWorkload()).append(",\n"); //$NON-NLS-1$ //$NON-NLS-2$
+			appendProperty(json, 5, "frames", Integer.valueOf(metrics.getFrameCount())).append(",\n"); //$NON-NLS-1$ //$NON-NLS-2$
+			appendProperty(json, 5, "p50Millis", Double.valueOf(metrics.getPercentileMillis(50))).append(",\n"); //$NON-NLS-1$ //$NON-NLS-2$
+			appendProperty(json, 5, "p99Millis", Double.valueOf(metrics.getPercentileMillis(99))).append(",\n"); //$NON-NLS-1$ //$NON-NLS-2$
+			appendProperty(json, 5, "meanMillis", Double.valueOf(metrics.getMeanMillis())).append(",\n"); //$NON-NLS-1$ //$NON-NLS-2$
+			appendProperty(json, 5, "maxMillis", Double.valueOf(metrics.getMaxMillis())).append(",\n"); //$NON-NLS-1$ //$NON-NLS-2$
+			appendProperty(json, 5, "durationMillis", Double.valueOf(metrics.getDurationNanos() / 1000000.0)).append(",\n"); //$NON-NLS-1$ //$NON-NLS-2$
+			appendProperty(json, 5, "allocatedBytes", Long.valueOf(metrics.getAllocatedBytes())).append(",\n"); //$NON-NLS-1$ //$NON-NLS-2$
+			appendProperty(json, 5, "allocationRateMBPerSecond", Double.valueOf(metrics.getAllocationRateMBPerSecond())).append(",\n"); //$NON-NLS-1$ //$NON-NLS-2$
+			appendProperty(json, 5, "eventCount", Integer.valueOf(metrics.getEventCount())).append(",\n"); //$NON-NLS-1$ //$NON-NLS-2$
+			indent(json, 5).append("\"events\": {"); //$NON-NLS-1$
+			boolean first = true;
+			for (Map.Entry<String, Integer> entry : metrics.getEventCounts().entrySet()) {
+				json.append(first ? "\n" : ",\n"); //$NON-NLS-1$ //$NON-NLS-2$
+				appendProperty(json, 6, entry.getKey(), entry.getValue());
+				first = false;
+			}
+			if (!first) {
+				json.append('\n');
+				indent(json, 5);
+			}
+			json.append("}\n"); //$NON-NLS-1$
+			indent(json, 4).append(i < scenario.metrics.size() - 1 ? "},\n" : "}\n"); //$NON-NLS-1$ //$NON-NLS-2$
+		}
+		indent(json, 3).append("]\n"); //$NON-NLS-1$
+		indent(json, 2).append('}');
+	}
+
+	private StringBuilder appendProperty(StringBuilder json, int level, String name, Object value) {
+		indent(json, level);
+		appendString(json, name);
+		json.append(": "); //$NON-NLS-1$
+		if (value instanceof Double) {
+			double doubleValue = ((Double) value).doubleValue();
+			if (Double.isNaN(doubleValue) || Double.isInfinite(doubleValue)) {
+				json.append("null"); //$NON-NLS-1$
+			} else {
+				json.append(String.format(Locale.ENGLISH, "%.3f", value)); //$NON-NLS-1$
+			}
+		} else if (value instanceof Number) {
+			json.append(value);
+		} else {
+			appendString(json, String.valueOf(value));
+		}
+		return json;
+	}
+
+	private void appendString(StringBuilder json, String value) {
+		json.append('"');
+		for (int i = 0; i < value.length(); i++) {
+			char c = value.charAt(i);
+			if (c == '"' || c == '\\') {
+				json.append('\\').append(c);
+			} else if (c < 0x20) {
+				json.append(String.format("\\u%04x", Integer.valueOf(c))); //$NON-NLS-1$
+			} else {
+				json.append(c);
+			}
+		}
+		json.append('"');
+	}
+
+	private StringBuilder indent(StringBuilder json, int level) {
+		for (int i = 0; i < level; i++) {
+			json.append('\t');
+		}
+		return json;
+	}
+
+	private static class Scenario {
+
+		private final String name;
+		private final int rowCount;
+		private final List<ScenarioMetrics> metrics;
+
+		Scenario(String name, int rowCount, List<ScenarioMetrics> metrics) {
+			this.name = name;
+			this.rowCount = rowCount;
+			this.metrics = new ArrayList<ScenarioMetrics>(metrics);
+		}
+	}
+}
@@ -0,0 +1,78 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Original authors and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Original authors and others - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.test.performance;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Properties;
+
+import org.eclipse.nebula.widgets.nattable.layer.SizeConfig;
+import org.eclipse.nebula.widgets.nattable.persistence.BinaryStateProperties;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Compares saving and loading a large state via plain Properties and via
+ * BinaryStateProperties.
+ */
+public class StatePersistencePerformanceTest {
+
+	private static final int ROW_COUNT = 500000;
+
+	@Test
+	public void saveAndLoadLargeSizeConfig() throws IOException {
+		SizeConfig sizeConfig = new SizeConfig(20);
+		for (int i = 0; i < ROW_COUNT; i++) {
+			sizeConfig.setSize(i, 20 + (i % 7));
+		}
+
+		// plain Properties
+		long startTimeInMillis = System.currentTimeMillis();
+		Properties properties = new Properties();
+		sizeConfig.saveState("body", properties);
+		ByteArrayOutputStream propertiesOut = new ByteArrayOutputStream();
+		properties.store(propertiesOut, null);
+		long propertiesSaveTime = System.currentTimeMillis() - startTimeInMillis;
+
+		startTimeInMillis = System.currentTimeMillis();
+		Properties loadedProperties = new Properties();
+		loadedProperties.load(new ByteArrayInputStream(propertiesOut.toByteArray()));
+		new SizeConfig(20).loadState("body", loadedProperties);
+		long propertiesLoadTime = System.currentTimeMillis() - startTimeInMillis;
+
+		// binary
+		startTimeInMillis = System.currentTimeMillis();
+		BinaryStateProperties binaryProperties = new BinaryStateProperties();
+		sizeConfig.saveState("body", binaryProperties);
+		ByteArrayOutputStream binaryOut = new ByteArrayOutputStream();
+		binaryProperties.writeBinary(binaryOut);
+		long binarySaveTime = System.currentTimeMillis() - startTimeInMillis;
+
+		startTimeInMillis = System.currentTimeMillis();
+		BinaryStateProperties loadedBinaryProperties = new BinaryStateProperties();
+		loadedBinaryProperties.readBinary(new ByteArrayInputStream(binaryOut.toByteArray()));
+		SizeConfig loadedSizeConfig = new SizeConfig(20);
+		loadedSizeConfig.loadState("body", loadedBinaryProperties);
+		long binaryLoadTime = System.currentTimeMillis() - startTimeInMillis;
+
+		System.out.println("Properties state of " + ROW_COUNT + " row heights: "
+				+ propertiesOut.size() + " bytes, save = " + propertiesSaveTime
+				+ " milliseconds, load = " + propertiesLoadTime + " milliseconds");
+		System.out.println("Binary state of " + ROW_COUNT + " row heights: "
+				+ binaryOut.size() + " bytes, save = " + binarySaveTime
+				+ " milliseconds, load = " + binaryLoadTime + " milliseconds");
+
+		Assert.assertEquals(20 + ((ROW_COUNT - 1) % 7), loadedSizeConfig.getSize(ROW_COUNT - 1));
+		Assert.assertTrue("Expected binary state to be smaller than " + propertiesOut.size()
+				+ " bytes but was " + binaryOut.size() + " bytes", binaryOut.size() < propertiesOut.size());
+	}
+}